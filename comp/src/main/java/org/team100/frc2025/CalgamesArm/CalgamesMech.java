@@ -136,7 +136,7 @@ public class CalgamesMech extends SubsystemBase implements Music, PositionSubsys
 
         m_home = m_kinematics.forward(HOME);
 
-        m_transit = new MechTrajectories(parent, this, m_kinematics, m_jacobian);
+        m_transit = new MechTrajectories(parent, this, m_kinematics, m_jacobian, m_dynamics);
 
         LoggerFactory jointLog = parent.name("joints");
         m_log_config = jointLog.logConfig(Level.DEBUG, "config");
@@ -1,6 +1,7 @@
 package org.team100.frc2025.CalgamesArm;
 
 import org.team100.lib.dynamics.prr.PRRAcceleration;
+import org.team100.lib.dynamics.prr.PRRBatch;
 import org.team100.lib.dynamics.prr.PRRConfig;
 import org.team100.lib.dynamics.prr.PRRDynamics;
 import org.team100.lib.dynamics.prr.PRRTorque;
@@ -51,4 +52,12 @@ public class Dynamics {
         return new JointForce(t.f1(), t.t2(), t.t3());
     }
 
+    /**
+     * Fill in the forces for every sample in the batch, which uses PRR joint
+     * order, i.e. (shoulderHeight, shoulderAngle, wristAngle).
+     */
+    public void forward(PRRBatch batch) {
+        m_dynamics.torque(batch);
+    }
+
 }
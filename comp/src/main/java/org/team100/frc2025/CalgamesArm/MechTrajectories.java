@@ -20,19 +20,25 @@ import org.team100.lib.trajectory.timing.YawRateConstraint;
 
 import edu.wpi.first.wpilibj2.command.Command;
 
-/** Make a trajectory from the start to the end and follow it. */
+/**
+ * Make a trajectory from the start to the end and follow it.
+ * 
+ * The trajectories are precomputed in the background; see MechTransitTable.
+ */
 public class MechTrajectories extends Command {
     private static final boolean USE_JOINT_CONSTRAINT = false;
 
     private final LoggerFactory m_log;
     private final CalgamesMech m_subsystem;
     private final TrajectoryPlanner m_planner;
+    private final MechTransitTable m_table;
 
     public MechTrajectories(
             LoggerFactory parent,
             CalgamesMech mech,
             ElevatorArmWristKinematics k,
-            AnalyticalJacobian j) {
+            AnalyticalJacobian j,
+            Dynamics dynamics) {
         m_log = parent.type(this);
         m_subsystem = mech;
         List<TimingConstraint> c = new ArrayList<>();
@@ -59,14 +65,14 @@ public class MechTrajectories extends Command {
         // numbers bigger!
         m_planner = new TrajectoryPlanner(0.01, 0.1, 0.05, c);
         // m_planner = new TrajectoryPlanner(0.02, 0.2, 0.1, c);
+        m_table = new MechTransitTable(k, j, dynamics, m_planner);
     }
 
     /** A command that goes from the start to the end and then finishes. */
     public Command terminal(String name, HolonomicPose2d start, HolonomicPose2d end) {
 
-        /** Use the start course and ignore the start pose for now */
-        MoveAndHold f = new GoToPosePosition(
-                m_log, m_subsystem, start.course(), end, m_planner);
+        /** Use the start course; the start pose is used only for the precomputed trajectory */
+        MoveAndHold f = goToPose(name, start, end);
         return f
                 .until(f::isDone)
                 .withName(name);
@@ -75,12 +81,22 @@ public class MechTrajectories extends Command {
     /** A command that goes from the start to the end and then waits forever. */
     public MoveAndHold endless(String name, HolonomicPose2d start, HolonomicPose2d end) {
 
-        /** Use the start course and ignore the start pose for now */
-        GoToPosePosition c = new GoToPosePosition(
-                m_log, m_subsystem, start.course(), end, m_planner);
+        /** Use the start course; the start pose is used only for the precomputed trajectory */
+        GoToPosePosition c = goToPose(name, start, end);
         c.setName(name);
         return c;
 
     }
 
+    /** ETA and peak joint force for each transit computed so far. */
+    public String report() {
+        return m_table.report();
+    }
+
+    private GoToPosePosition goToPose(String name, HolonomicPose2d start, HolonomicPose2d end) {
+        m_table.add(name, start, end);
+        return new GoToPosePosition(
+                m_log, m_subsystem, start.course(), end, m_planner,
+                p -> m_table.get(start, end, p));
+    }
 }
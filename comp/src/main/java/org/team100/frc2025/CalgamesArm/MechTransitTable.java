@@ -0,0 +1,256 @@
+package org.team100.frc2025.CalgamesArm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.team100.lib.dynamics.prr.PRRBatch;
+import org.team100.lib.dynamics.prr.PRRTorque;
+import org.team100.lib.framework.BackgroundExecutor;
+import org.team100.lib.geometry.HolonomicPose2d;
+import org.team100.lib.state.ControlR3;
+import org.team100.lib.subsystems.prr.AnalyticalJacobian;
+import org.team100.lib.subsystems.prr.EAWConfig;
+import org.team100.lib.subsystems.prr.ElevatorArmWristKinematics;
+import org.team100.lib.subsystems.prr.JointAccelerations;
+import org.team100.lib.subsystems.prr.JointForce;
+import org.team100.lib.subsystems.prr.JointVelocities;
+import org.team100.lib.trajectory.Trajectory100;
+import org.team100.lib.trajectory.TrajectoryPlanner;
+import org.team100.lib.tuning.Mutable;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Precomputed trajectories for the named transits, so that a transit starting
+ * from its canonical pose doesn't need to wait for the planner.
+ *
+ * Planning is done on the background executor, when the transit command is
+ * created, i.e. at startup. Each entry also records the ETA (trajectory
+ * duration), and the peak joint forces along the way, using the joint-space
+ * trajectory from the kinematics and Jacobian, and the mechanism dynamics.
+ *
+ * If the mechanism isn't near the start of the transit, e.g. if a previous
+ * command was interrupted, or if the entry isn't ready yet, the command plans
+ * from the actual pose as before.
+ *
+ * The background planner uses a snapshot of the constraints, taken on the main
+ * thread, since the constraints are tunable. If any Mutable changes, the
+ * entries are stale, and they're replanned, with a new snapshot, the next time
+ * they're asked for.
+ *
+ * Entries whose peak joint force exceeds MAX_FORCE aren't used, and there's a
+ * warning, so the constraints can be fixed. When all the requested transits
+ * are done, the report is printed.
+ */
+public class MechTransitTable {
+    private static final boolean DEBUG = false;
+    /** Use the precomputed trajectory only if this close to its start. */
+    private static final double START_TOLERANCE_M = 0.02;
+    private static final double START_TOLERANCE_RAD = 0.05;
+    /** Time step for the joint-space check. */
+    private static final double DT = 0.02;
+    /**
+     * What the motors can do, from the stator current limits in CalgamesMech,
+     * with Kraken kT = 0.019 Nm/A:
+     * 
+     * elevator: two motors, 100 A, 2.182:1, 0.01922 m pulley radius => 431 N
+     * 
+     * shoulder: 100 A, 78:1 => 148 Nm
+     * 
+     * wrist: 60 A, 55.71:1 => 63 Nm
+     */
+    public static final JointForce MAX_FORCE = new JointForce(431, 148, 63);
+
+    /** Key for the table. */
+    public record Transit(HolonomicPose2d start, HolonomicPose2d end) {
+    }
+
+    /**
+     * @param name       of the first command using this transit
+     * @param trajectory from start to end
+     * @param etaS       duration of the trajectory
+     * @param peak       maximum absolute joint force for each joint
+     * @param generation of the Mutables used for planning
+     */
+    public record Entry(
+            String name,
+            Trajectory100 trajectory,
+            double etaS,
+            JointForce peak,
+            int generation) {
+        /** Peak forces are within MAX_FORCE. */
+        public boolean feasible() {
+            return Math.abs(peak.elevator()) <= MAX_FORCE.elevator()
+                    && Math.abs(peak.shoulder()) <= MAX_FORCE.shoulder()
+                    && Math.abs(peak.wrist()) <= MAX_FORCE.wrist();
+        }
+    }
+
+    private final ElevatorArmWristKinematics m_kinematics;
+    private final AnalyticalJacobian m_jacobian;
+    private final Dynamics m_dynamics;
+    private final TrajectoryPlanner m_planner;
+    /** Written by the background thread, read by the main thread. */
+    private final Map<Transit, Entry> m_table;
+    /** Name for each transit. Main thread only. */
+    private final Map<Transit, String> m_names;
+    /** Mutable generation of the last request for each transit. Main thread only. */
+    private final Map<Transit, Integer> m_requested;
+    /** Submitted but not finished. */
+    private final AtomicInteger m_outstanding;
+
+    public MechTransitTable(
+            ElevatorArmWristKinematics k,
+            AnalyticalJacobian j,
+            Dynamics dynamics,
+            TrajectoryPlanner planner) {
+        m_kinematics = k;
+        m_jacobian = j;
+        m_dynamics = dynamics;
+        m_planner = planner;
+        m_table = new ConcurrentHashMap<>();
+        m_names = new HashMap<>();
+        m_requested = new HashMap<>();
+        m_outstanding = new AtomicInteger();
+    }
+
+    /**
+     * Precompute the transit in the background, if it's not already done.
+     * Main thread only.
+     */
+    public void add(String name, HolonomicPose2d start, HolonomicPose2d end) {
+        Transit transit = new Transit(start, end);
+        m_names.putIfAbsent(transit, name);
+        request(transit);
+    }
+
+    /**
+     * The precomputed trajectory, if it's ready and the current pose is close to
+     * its start, otherwise null.
+     */
+    public Trajectory100 get(HolonomicPose2d start, HolonomicPose2d end, Pose2d current) {
+        Entry entry = current(new Transit(start, end));
+        if (entry == null) {
+            if (DEBUG)
+                System.out.println("transit not ready");
+            return null;
+        }
+        if (!entry.feasible()) {
+            if (DEBUG)
+                System.out.println("transit exceeds the force limit");
+            return null;
+        }
+        Pose2d p = start.pose();
+        if (p.getTranslation().getDistance(current.getTranslation()) > START_TOLERANCE_M
+                || Math.abs(p.getRotation().minus(current.getRotation()).getRadians()) > START_TOLERANCE_RAD) {
+            if (DEBUG)
+                System.out.println("too far from the start of the transit");
+            return null;
+        }
+        return entry.trajectory();
+    }
+
+    /** ETA in seconds, or NaN if it's not ready. */
+    public double eta(HolonomicPose2d start, HolonomicPose2d end) {
+        Entry entry = current(new Transit(start, end));
+        if (entry == null)
+            return Double.NaN;
+        return entry.etaS();
+    }
+
+    /** One line per transit with its ETA and peak joint forces. */
+    public String report() {
+        List<Entry> entries = new ArrayList<>(m_table.values());
+        entries.sort(Comparator.comparing(Entry::name));
+        StringBuilder b = new StringBuilder();
+        b.append(String.format("%-16s %8s %10s %10s %10s %s\n",
+                "transit", "ETA (s)", "elev (N)", "shldr (Nm)", "wrist (Nm)", "ok"));
+        for (Entry e : entries) {
+            b.append(String.format("%-16s %8.3f %10.3f %10.3f %10.3f %s\n",
+                    e.name(), e.etaS(),
+                    e.peak().elevator(), e.peak().shoulder(), e.peak().wrist(),
+                    e.feasible() ? "yes" : "NO"));
+        }
+        return b.toString();
+    }
+
+    /** Plan now, on this thread, with the current constraints. For testing. */
+    Entry precompute(String name, Transit transit) {
+        return precompute(name, transit, m_planner.snapshot(), Mutable.generation());
+    }
+
+    //////////////////////////////////////////////////
+
+    /**
+     * The entry for the transit, if it's ready and it was planned with the
+     * current Mutable values. Otherwise null, and if the transit is known, ask
+     * for it again. Main thread only.
+     */
+    private Entry current(Transit transit) {
+        Entry entry = m_table.get(transit);
+        if (entry != null && entry.generation() == Mutable.generation())
+            return entry;
+        if (m_names.containsKey(transit))
+            request(transit);
+        return null;
+    }
+
+    /**
+     * Submit the transit, using a snapshot of the planner, unless it's already
+     * been submitted for the current generation. Main thread only.
+     */
+    private void request(Transit transit) {
+        int generation = Mutable.generation();
+        Integer requested = m_requested.get(transit);
+        if (requested != null && requested == generation)
+            return;
+        m_requested.put(transit, generation);
+        String name = m_names.get(transit);
+        TrajectoryPlanner planner = m_planner.snapshot();
+        m_outstanding.incrementAndGet();
+        BackgroundExecutor.instance.submit(name, () -> {
+            try {
+                precompute(name, transit, planner, generation);
+            } finally {
+                if (m_outstanding.decrementAndGet() == 0)
+                    System.out.print(report());
+            }
+        });
+    }
+
+    /**
+     * Plan the transit and walk through it in joint space. The planner must not
+     * be shared with another thread.
+     */
+    private Entry precompute(String name, Transit transit, TrajectoryPlanner planner, int generation) {
+        Trajectory100 t = planner.restToRest(List.of(transit.start(), transit.end()));
+        PRRBatch batch = new PRRBatch((int) (t.duration() / DT) + 1);
+        for (double tt = 0; tt < t.duration(); tt += DT) {
+            ControlR3 m = ControlR3.fromTimedPose(t.sample(tt));
+            EAWConfig q = m_kinematics.inverse(m.pose());
+            if (q.isNaN())
+                continue;
+            JointVelocities jv = m_jacobian.inverse(m.model());
+            JointAccelerations ja = m_jacobian.inverseA(m);
+            batch.add(
+                    q.shoulderHeight(), q.shoulderAngle(), q.wristAngle(),
+                    jv.elevator(), jv.shoulder(), jv.wrist(),
+                    ja.elevator(), ja.shoulder(), ja.wrist());
+        }
+        m_dynamics.forward(batch);
+        PRRTorque peak = batch.peak();
+        Entry entry = new Entry(
+                name, t, t.duration(), new JointForce(peak.f1(), peak.t2(), peak.t3()), generation);
+        m_table.put(transit, entry);
+        if (!entry.feasible())
+            System.out.printf("WARNING: transit %s exceeds the joint force limit: %s\n", name, entry.peak());
+        if (DEBUG)
+            System.out.printf("transit %s ETA %.3f\n", name, entry.etaS());
+        return entry;
+    }
+}
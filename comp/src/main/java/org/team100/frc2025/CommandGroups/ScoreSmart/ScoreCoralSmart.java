@@ -13,7 +13,7 @@ import org.team100.frc2025.CalgamesArm.CalgamesMech;
 import org.team100.frc2025.grip.Manipulator;
 import org.team100.lib.config.ElevatorUtil.ScoringLevel;
 import org.team100.lib.controller.r3.ControllerR3;
-import org.team100.lib.field.FieldConstants;
+import org.team100.lib.field.FieldGeometry;
 import org.team100.lib.field.FieldConstants.ReefPoint;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.profile.HolonomicProfile;
@@ -36,7 +36,7 @@ public class ScoreCoralSmart {
             DoubleConsumer heedRadiusM,
             Supplier<ScoringLevel> level,
             Supplier<ReefPoint> point) {
-        Supplier<Pose2d> goal = () -> FieldConstants.makeGoal(level.get(), point.get());
+        Supplier<Pose2d> goal = () -> FieldGeometry.goal(level.get(), point.get());
         return parallel(
                 runOnce(() -> heedRadiusM.accept(HEED_RADIUS_M)),
                 select(Map.ofEntries(
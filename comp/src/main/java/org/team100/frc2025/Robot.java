@@ -11,10 +11,12 @@ import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.logging.RobotLog;
+import org.team100.lib.tuning.Mutable;
 import org.team100.lib.util.Banner;
 
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.WPILibVersion;
@@ -44,6 +46,9 @@ public class Robot extends TimedRobot100 {
         DriverStation.silenceJoystickConnectionWarning(true);
         Experiments.instance.show();
 
+        // Tuned values survive restarts, but not a new RoboRIO image.
+        Mutable.persistTo(Filesystem.getOperatingDirectory().toPath().resolve("mutables.properties"));
+
         // Log what the scheduler is doing. Use "withName()".
         SmartDashboard.putData(CommandScheduler.getInstance());
 
@@ -61,11 +66,16 @@ public class Robot extends TimedRobot100 {
     public void robotPeriodic() {
         // Advance the drumbeat.
         Takt.update();
-        // Take all the measurements we can, as soon and quickly as possible.
+        // Apply any tuning changes, and then take all the measurements we can,
+        // as soon and quickly as possible.
         Cache.refresh();
+        m_robotLog.mark("refresh");
         // Run one iteration of the command scheduler.
         CommandScheduler.getInstance().run();
+        m_robotLog.mark("scheduler");
         m_machinery.periodic();
+        m_allAutons.periodic();
+        m_robotLog.mark("machinery");
         m_robotLog.periodic();
         if (Experiments.instance.enabled(Experiment.FlushOften)) {
             // StrUtil.warn("FLUSHING EVERY LOOP, DO NOT USE IN COMP");
@@ -96,6 +106,7 @@ public class Robot extends TimedRobot100 {
         super.close();
         m_machinery.close();
         m_allAutons.close();
+        m_robotLog.close();
     }
 
     ///////////////////////////////////////////////////////////////////////
@@ -37,12 +37,18 @@ public class ManualWithBargeAssist implements FieldRelativeDriver {
     private static final double PROFILE_SPEED = 0.5;
     // accelerate gently to avoid upset
     private static final double PROFILE_ACCEL = 0.1;
+    /** Profiles are cached in steps of this fraction of the maximum. */
+    private static final double PROFILE_STEP = 0.1;
+    /** x coordinate of the barge scoring location */
+    private static final double BARGE_X = 7.4;
     private final SwerveKinodynamics m_swerveKinodynamics;
     /** Absolute input supplier, null if free */
     private final Supplier<Rotation2d> m_desiredRotation;
     private final HeadingLatch m_latch;
     private final Feedback100 m_thetaFeedback;
     private final Supplier<Pose2d> m_pose;
+    /** Indexed by quantized rotation speed, see makeProfile(). */
+    private final TrapezoidIncrementalProfile[] m_profiles;
     // LOGGERS
     private final StringLogger m_log_mode;
     private final DoubleLogger m_log_max_speed;
@@ -79,6 +85,7 @@ public class ManualWithBargeAssist implements FieldRelativeDriver {
         m_thetaFeedback = thetaController;
         m_latch = new HeadingLatch();
         m_pose = pose;
+        m_profiles = new TrapezoidIncrementalProfile[(int) Math.round(1 / PROFILE_STEP) + 1];
         m_log_mode = m_log.stringLogger(Level.TRACE, "mode");
         m_log_max_speed = m_log.doubleLogger(Level.TRACE, "maxSpeedRad_S");
         m_log_max_accel = m_log.doubleLogger(Level.TRACE, "maxAccelRad_S2");
@@ -172,11 +179,11 @@ public class ManualWithBargeAssist implements FieldRelativeDriver {
         GlobalVelocityR3 twistWithSnapM_S = new GlobalVelocityR3(control.x(), control.y(), omega);
 
         m_log_mode.log(() -> "snap");
-        m_log_goal_theta.log(m_goal::getRadians);
-        m_log_setpoint_theta.log(() -> m_thetaSetpoint);
-        m_log_theta_FF.log(() -> thetaFF);
-        m_log_theta_FB.log(() -> thetaFB);
-        m_log_output_omega.log(() -> omega);
+        m_log_goal_theta.log(m_goal.getRadians());
+        m_log_setpoint_theta.log(m_thetaSetpoint);
+        m_log_theta_FF.log(thetaFF);
+        m_log_theta_FB.log(thetaFB);
+        m_log_output_omega.log(omega);
 
         return twistWithSnapM_S;
     }
@@ -192,8 +199,6 @@ public class ManualWithBargeAssist implements FieldRelativeDriver {
         double scale = 1;
 
         if (clipped.x() > 0) {
-            // x coordinate of the barge scoring location
-            double BARGE_X = 7.4;
             double distance = BARGE_X - m_pose.get().getX();
             scale = distance * scale;
 
@@ -230,6 +235,9 @@ public class ManualWithBargeAssist implements FieldRelativeDriver {
      * Note that the max speed and accel are inversely proportional to the current
      * velocity.
      * 
+     * The rotation speed is quantized, and the profile for each step is made once
+     * and reused, since each profile owns Mutables.
+     * 
      * TODO: get rid of this
      */
     public TrapezoidIncrementalProfile makeProfile(double currentVelocity) {
@@ -238,19 +246,23 @@ public class ManualWithBargeAssist implements FieldRelativeDriver {
         // fraction left for rotation
         final double oRatio = 1 - xyRatio;
         // add a little bit of default speed
-        final double ROTATION_SPEED = Math.max(0.1, oRatio);
+        final int index = (int) Math.round(Math.max(0.1, oRatio) / PROFILE_STEP);
+        final double ROTATION_SPEED = index * PROFILE_STEP;
 
         final double maxSpeedRad_S = m_swerveKinodynamics.getMaxAngleSpeedRad_S() * ROTATION_SPEED * PROFILE_SPEED;
 
         final double maxAccelRad_S2 = m_swerveKinodynamics.getMaxAngleAccelRad_S2() * ROTATION_SPEED * PROFILE_ACCEL;
 
-        m_log_max_speed.log(() -> maxSpeedRad_S);
-        m_log_max_accel.log(() -> maxAccelRad_S2);
+        m_log_max_speed.log(maxSpeedRad_S);
+        m_log_max_accel.log(maxAccelRad_S2);
 
-        return new TrapezoidIncrementalProfile(
-                m_log,
-                maxSpeedRad_S,
-                maxAccelRad_S2,
-                0.01);
+        if (m_profiles[index] == null) {
+            m_profiles[index] = new TrapezoidIncrementalProfile(
+                    m_log.name("profile" + index),
+                    maxSpeedRad_S,
+                    maxAccelRad_S2,
+                    0.01);
+        }
+        return m_profiles[index];
     }
 }
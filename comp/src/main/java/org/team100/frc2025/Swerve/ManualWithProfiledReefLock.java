@@ -3,7 +3,7 @@ package org.team100.frc2025.Swerve;
 import java.util.function.Supplier;
 
 import org.team100.lib.controller.r1.Feedback100;
-import org.team100.lib.field.FieldConstants;
+import org.team100.lib.field.FieldGeometry;
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.geometry.GlobalVelocityR3;
 import org.team100.lib.hid.Velocity;
@@ -21,7 +21,6 @@ import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.util.Math100;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 
 /**
@@ -37,6 +36,8 @@ public class ManualWithProfiledReefLock implements FieldRelativeDriver {
     private static final double PROFILE_SPEED = 0.6;
     // accelerate gently to avoid upset
     private static final double PROFILE_ACCEL = 0.5;
+    /** Profiles are cached in steps of this fraction of the maximum. */
+    private static final double PROFILE_STEP = 0.1;
     private final SwerveKinodynamics m_swerveKinodynamics;
     private final Supplier<Translation2d> m_robotLocation;
 
@@ -44,6 +45,8 @@ public class ManualWithProfiledReefLock implements FieldRelativeDriver {
     private final Supplier<Boolean> m_lockToReef;
 
     private final Feedback100 m_thetaFeedback;
+    /** Indexed by quantized rotation speed, see makeProfile(). */
+    private final TrapezoidIncrementalProfile[] m_profiles;
 
     // LOGGERS
     private final BooleanLogger m_log_snap_mode;
@@ -71,6 +74,7 @@ public class ManualWithProfiledReefLock implements FieldRelativeDriver {
         m_lockToReef = lockToReef;
         m_robotLocation = robotLocation;
         m_thetaFeedback = thetaController;
+        m_profiles = new TrapezoidIncrementalProfile[(int) Math.round(1 / PROFILE_STEP) + 1];
         m_log_snap_mode = m_log.booleanLogger(Level.TRACE, "snap mode");
         m_log_max_speed = m_log.doubleLogger(Level.TRACE, "maxSpeedRad_S");
         m_log_max_accel = m_log.doubleLogger(Level.TRACE, "maxAccelRad_S2");
@@ -124,10 +128,11 @@ public class ManualWithProfiledReefLock implements FieldRelativeDriver {
         final double thetaFB = m_thetaFeedback.calculate(state.theta(), m_thetaSetpoint.model());
 
         final double yawMeasurement = state.theta().x();
+        final Translation2d location = m_robotLocation.get();
         // take the short path
-        Rotation2d m_goal = Math100.getMinDistance(
+        final double goal = Math100.getMinDistance(
                 yawMeasurement,
-                FieldConstants.angleToReefCenter(m_robotLocation.get()));
+                FieldGeometry.angleToReefCenter(location.getX(), location.getY()));
 
         // use the modulus closest to the measurement
         m_thetaSetpoint = new Control100(
@@ -136,7 +141,7 @@ public class ManualWithProfiledReefLock implements FieldRelativeDriver {
 
         final TrapezoidIncrementalProfile profile = makeProfile(state.velocity().norm());
         m_thetaSetpoint = profile.calculate(
-                TimedRobot100.LOOP_PERIOD_S, m_thetaSetpoint, new Model100(m_goal.getRadians(), 0));
+                TimedRobot100.LOOP_PERIOD_S, m_thetaSetpoint, new Model100(goal, 0));
 
         final double thetaFF = m_thetaSetpoint.v();
 
@@ -148,11 +153,11 @@ public class ManualWithProfiledReefLock implements FieldRelativeDriver {
         GlobalVelocityR3 twistWithSnapM_S = new GlobalVelocityR3(control.x(), control.y(), omega);
 
         m_log_snap_mode.log(() -> true);
-        m_log_goal_theta.log(m_goal::getRadians);
-        m_log_setpoint_theta.log(() -> m_thetaSetpoint);
-        m_log_theta_FF.log(() -> thetaFF);
-        m_log_theta_FB.log(() -> thetaFB);
-        m_log_output_omega.log(() -> omega);
+        m_log_goal_theta.log(goal);
+        m_log_setpoint_theta.log(m_thetaSetpoint);
+        m_log_theta_FF.log(thetaFF);
+        m_log_theta_FB.log(thetaFB);
+        m_log_output_omega.log(omega);
 
         return twistWithSnapM_S;
     }
@@ -172,6 +177,9 @@ public class ManualWithProfiledReefLock implements FieldRelativeDriver {
      * Note that the max speed and accel are inversely proportional to the current
      * velocity.
      * 
+     * The rotation speed is quantized, and the profile for each step is made once
+     * and reused, since each profile owns Mutables.
+     * 
      * TODO: get rid of this
      */
     public TrapezoidIncrementalProfile makeProfile(double currentVelocity) {
@@ -180,19 +188,23 @@ public class ManualWithProfiledReefLock implements FieldRelativeDriver {
         // fraction left for rotation
         final double oRatio = 1 - xyRatio;
         // add a little bit of default speed
-        final double rotationSpeed = Math.max(0.1, oRatio);
+        final int index = (int) Math.round(Math.max(0.1, oRatio) / PROFILE_STEP);
+        final double rotationSpeed = index * PROFILE_STEP;
 
         final double maxSpeedRad_S = m_swerveKinodynamics.getMaxAngleSpeedRad_S() * rotationSpeed * PROFILE_SPEED;
 
         final double maxAccelRad_S2 = m_swerveKinodynamics.getMaxAngleAccelRad_S2() * rotationSpeed * PROFILE_ACCEL;
 
-        m_log_max_speed.log(() -> maxSpeedRad_S);
-        m_log_max_accel.log(() -> maxAccelRad_S2);
+        m_log_max_speed.log(maxSpeedRad_S);
+        m_log_max_accel.log(maxAccelRad_S2);
 
-        return new TrapezoidIncrementalProfile(
-                m_log,
-                maxSpeedRad_S,
-                maxAccelRad_S2,
-                0.01);
+        if (m_profiles[index] == null) {
+            m_profiles[index] = new TrapezoidIncrementalProfile(
+                    m_log.name("profile" + index),
+                    maxSpeedRad_S,
+                    maxAccelRad_S2,
+                    0.01);
+        }
+        return m_profiles[index];
     }
 }
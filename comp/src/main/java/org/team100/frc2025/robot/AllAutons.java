@@ -6,12 +6,19 @@ import org.team100.lib.config.ElevatorUtil.ScoringLevel;
 import org.team100.lib.controller.r3.ControllerFactoryR3;
 import org.team100.lib.controller.r3.FullStateControllerR3;
 import org.team100.lib.field.FieldConstants.ReefPoint;
+import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.LoggerFactory.BooleanLogger;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.LoggerFactory.IntLogger;
 import org.team100.lib.logging.Logging;
 import org.team100.lib.profile.HolonomicProfile;
+import org.team100.lib.trajectory.TrajectoryCache;
 import org.team100.lib.trajectory.TrajectoryPlanner;
 import org.team100.lib.trajectory.timing.TimingConstraintFactory;
 
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
 
 /**
@@ -19,13 +26,31 @@ import edu.wpi.first.wpilibj2.command.Command;
  * 
  * It's a good idea to instantiate them all here, even if you're not using them
  * all, even if they're just in development, so they don't rot.
+ * 
+ * Trajectories that start from an auton's declared start pose are planned here,
+ * all at once, so the auton doesn't wait for the planner when it starts.
+ * 
+ * While disabled, the selected auton's declared start is compared with the
+ * robot pose, so a robot placed somewhere else shows up before the match,
+ * rather than as a cache miss when the auton starts.
  */
 public class AllAutons {
     private final AutonChooser m_autonChooser;
+    private final Machinery m_machinery;
+    private final TrajectoryCache m_trajectories;
+    private final BooleanLogger m_log_at_start;
+    private final DoubleLogger m_log_start_error;
+    private final IntLogger m_log_hits;
+    private final IntLogger m_log_misses;
 
     public AllAutons(Machinery machinery) {
         m_autonChooser = new AutonChooser();
+        m_machinery = machinery;
         LoggerFactory autoLog = Logging.instance().rootLogger.name("Auton");
+        m_log_at_start = autoLog.booleanLogger(Level.COMP, "at start");
+        m_log_start_error = autoLog.doubleLogger(Level.COMP, "start error (m)");
+        m_log_hits = autoLog.intLogger(Level.TRACE, "trajectory cache hits");
+        m_log_misses = autoLog.intLogger(Level.COMP, "trajectory cache misses");
 
         final HolonomicProfile profile = HolonomicProfile.currentLimitedExponential(1, 2, 4,
                 machinery.m_swerveKinodynamics.getMaxAngleSpeedRad_S(),
@@ -35,12 +60,15 @@ public class AllAutons {
                 .auto2025LooseTolerance(autoLog);
         final TrajectoryPlanner planner = new TrajectoryPlanner(
                 new TimingConstraintFactory(machinery.m_swerveKinodynamics).medium(autoLog));
+        final TrajectoryCache trajectories = new TrajectoryCache();
+        m_trajectories = trajectories;
 
         // WARNING! The glass widget will override the default, so check it!
         // Run the auto in pre-match testing!
         m_autonChooser.addAsDefault("Lollipop",
                 new AnnotatedCommand(
-                        new LolipopAuto(autoLog, machinery, profile, controller, planner).get(), null, null));
+                        new LolipopAuto(autoLog, machinery, profile, controller, planner, trajectories).get(),
+                        null, LolipopAuto.START));
 
         DriveAndScore driveAndScore = new DriveAndScore(autoLog, machinery, profile, controller);
         m_autonChooser.add("Coral 1 left",
@@ -61,6 +89,25 @@ public class AllAutons {
                 auton.left(), null, null));
         m_autonChooser.add("Right Three Coral", new AnnotatedCommand(
                 auton.right(), null, null));
+
+        trajectories.precompute();
+    }
+
+    public void periodic() {
+        m_log_hits.log(m_trajectories::hits);
+        m_log_misses.log(m_trajectories::misses);
+        if (!DriverStation.isDisabled())
+            return;
+        Pose2d start = m_autonChooser.get().start();
+        if (start == null) {
+            // works from anywhere
+            m_log_at_start.log(() -> true);
+            m_log_start_error.log(0);
+            return;
+        }
+        Pose2d pose = m_machinery.m_drive.getPose();
+        m_log_at_start.log(() -> TrajectoryCache.nearStart(start, pose));
+        m_log_start_error.log(start.getTranslation().getDistance(pose.getTranslation()));
     }
 
     public Command get() {
@@ -18,7 +18,7 @@ import org.team100.frc2025.Swerve.Auto.GoToCoralStation;
 import org.team100.lib.commands.MoveAndHold;
 import org.team100.lib.config.ElevatorUtil.ScoringLevel;
 import org.team100.lib.controller.r3.FullStateControllerR3;
-import org.team100.lib.field.FieldConstants;
+import org.team100.lib.field.FieldGeometry;
 import org.team100.lib.field.FieldConstants.CoralStation;
 import org.team100.lib.field.FieldConstants.ReefPoint;
 import org.team100.lib.logging.LoggerFactory;
@@ -102,7 +102,7 @@ public class Auton {
         DriveToPoseWithProfile toReef = new DriveToPoseWithProfile(
                 m_log, m_machinery.m_drive, m_autoController,
                 m_autoProfile,
-                () -> FieldConstants.makeGoal(position, point));
+                () -> FieldGeometry.goal(position, point));
         MoveAndHold toL4 = m_machinery.m_mech.homeToL4();
         return parallel(
                 runOnce(() -> m_machinery.m_localizer.setHeedRadiusM(HEED_RADIUS_M)),
@@ -3,8 +3,6 @@ package org.team100.frc2025.robot;
 import static edu.wpi.first.wpilibj2.command.Commands.parallel;
 import static edu.wpi.first.wpilibj2.command.Commands.sequence;
 
-import java.util.function.BooleanSupplier;
-
 import org.team100.frc2025.Climber.ClimberCommands;
 import org.team100.frc2025.CommandGroups.MoveToAlgaePosition;
 import org.team100.frc2025.CommandGroups.ScoreSmart.ScoreCoralSmartLuke;
@@ -16,6 +14,7 @@ import org.team100.lib.controller.r3.ControllerFactoryR3;
 import org.team100.lib.controller.r3.ControllerR3;
 import org.team100.lib.hid.Buttons2025;
 import org.team100.lib.hid.DriverXboxControl;
+import org.team100.lib.hid.HidSnapshot;
 import org.team100.lib.hid.OperatorXboxControl;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.Logging;
@@ -31,10 +30,14 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 
 /**
  * Binds buttons to commands. Also creates default commands.
+ * 
+ * The button triggers come from the controls, so they're only polled when
+ * the controller changes, see HidSnapshot.
  */
 public class Binder {
     private static final LoggerFactory rootLogger = Logging.instance().rootLogger;
@@ -55,6 +58,8 @@ public class Binder {
         final DriverXboxControl driver = new DriverXboxControl(0);
         final OperatorXboxControl operator = new OperatorXboxControl(1);
         final Buttons2025 buttons = new Buttons2025(2);
+        // Once, for all the controls.
+        CommandScheduler.getInstance().getDefaultButtonLoop().bind(HidSnapshot::pollAll);
 
         /////////////////////////////////////////////////
         //
@@ -98,11 +103,11 @@ public class Binder {
         // DRIVETRAIN
         //
         // Reset pose estimator so the current gyro rotation corresponds to zero.
-        onTrue(driver::back,
+        onTrue(driver.trigger(driver::back),
                 new SetRotation(m_machinery.m_drive, Rotation2d.kZero));
 
         // Reset pose estimator so the current gyro rotation corresponds to 180.
-        onTrue(driver::start,
+        onTrue(driver.trigger(driver::start),
                 new SetRotation(m_machinery.m_drive, Rotation2d.kPi));
 
         ////////////////////////////////////////////////////////////
@@ -110,7 +115,7 @@ public class Binder {
         // MECHANISM
         //
         // "fly" the joints manually
-        whileTrue(operator::leftBumper,
+        whileTrue(operator.trigger(operator::leftBumper),
                 new ManualPosition(operator::velocity, m_machinery.m_mech));
         // new ManualConfig(operatorControl::velocity, mech));
 
@@ -121,14 +126,14 @@ public class Binder {
 
         // At the same time, move the arm to the floor and spin the intake,
         // and go back home when the button is released, ending when complete.
-        whileTrue(driver::rightTrigger,
+        whileTrue(driver.trigger(driver::rightTrigger),
                 parallel(
                         m_machinery.m_mech.pickWithProfile(),
                         m_machinery.m_manipulator.centerIntake()))
                 .onFalse(m_machinery.m_mech.profileHomeTerminal());
 
         // Move to coral ground pick location.
-        whileTrue(driver::rightBumper,
+        whileTrue(driver.trigger(driver::rightBumper),
                 parallel(
                         m_machinery.m_mech.pickWithProfile(),
                         m_machinery.m_manipulator.centerIntake()))
@@ -140,7 +145,7 @@ public class Binder {
                 5);
 
         // Pick a game piece from the floor, based on camera input.
-        whileTrue(driver::x,
+        whileTrue(driver.trigger(driver::x),
                 parallel(
                         m_machinery.m_mech.pickWithProfile(),
                         m_machinery.m_manipulator.centerIntake(),
@@ -151,7 +156,7 @@ public class Binder {
                         .until(m_machinery.m_manipulator::hasCoral));
 
         // Sideways intake for L1
-        whileTrue(buttons::red2,
+        whileTrue(buttons.trigger(buttons::red2),
                 sequence(
                         m_machinery.m_manipulator.sidewaysIntake()
                                 .until(m_machinery.m_manipulator::hasCoralSideways),
@@ -162,10 +167,10 @@ public class Binder {
         // CORAL SCORING
         //
         // Manual movement of arm, for testing.
-        whileTrue(buttons::l1, m_machinery.m_mech.profileHomeToL1());
-        // whileTrue(buttons::l2, mech.homeToL2()).onFalse(mech.l2ToHome());
-        // whileTrue(buttons::l3, mech.homeToL3()).onFalse(mech.l3ToHome());
-        // whileTrue(buttons::l4, mech.homeToL4()).onFalse(mech.l4ToHome());
+        whileTrue(buttons.trigger(buttons::l1), m_machinery.m_mech.profileHomeToL1());
+        // whileTrue(buttons.trigger(buttons::l2), mech.homeToL2()).onFalse(mech.l2ToHome());
+        // whileTrue(buttons.trigger(buttons::l3), mech.homeToL3()).onFalse(mech.l3ToHome());
+        // whileTrue(buttons.trigger(buttons::l4), mech.homeToL4()).onFalse(mech.l4ToHome());
         // whileTrue(driverControl::test, m_mech.homeToL4()).onFalse(m_mech.l4ToHome());
 
         final LoggerFactory coralSequence = rootLogger.name("Coral Sequence");
@@ -174,8 +179,8 @@ public class Binder {
         final ControllerR3 holonomicController = ControllerFactoryR3.byIdentity(coralSequence);
 
         // Drive to a scoring location at the reef and score.
-        whileTrue(driver::b, m_machinery.m_manipulator.centerEject());
-        whileTrue(driver::a,
+        whileTrue(driver.trigger(driver::b), m_machinery.m_manipulator.centerEject());
+        whileTrue(driver.trigger(driver::a),
                 // TODO make this seperate/combined with scoring in general
                 ScoreCoralSmartLuke.get(
                         coralSequence, m_machinery.m_mech, m_machinery.m_manipulator,
@@ -194,15 +199,15 @@ public class Binder {
         // one button for arm mechanism.
 
         // grab and hold algae, and then eject it when you let go of the button
-        onTrue(buttons::algae,
+        onTrue(buttons.trigger(buttons::algae),
                 MoveToAlgaePosition.get(
                         m_machinery.m_mech, buttons::algaeLevel, buttons::algae));
 
         FollowJointProfiles homeGentle = m_machinery.m_mech.homeAlgae();
-        whileTrue(driver::b, m_machinery.m_mech.algaePickGround()).onFalse(homeGentle.until(homeGentle::isDone));
+        whileTrue(driver.trigger(driver::b), m_machinery.m_mech.algaePickGround()).onFalse(homeGentle.until(homeGentle::isDone));
 
         // Intake algae and puke it when you let go.
-        whileTrue(buttons::barge,
+        whileTrue(buttons.trigger(buttons::barge),
                 sequence(
                         m_machinery.m_manipulator.algaeIntake()
                                 .until(m_machinery.m_manipulator::hasAlgae),
@@ -212,11 +217,11 @@ public class Binder {
                         .withTimeout(0.5));
 
         // Move mech to processor
-        whileTrue(buttons::red4,
+        whileTrue(buttons.trigger(buttons::red4),
                 m_machinery.m_mech.processorWithProfile());
 
         // Move mech to barge
-        whileTrue(buttons::red3,
+        whileTrue(buttons.trigger(buttons::red3),
                 m_machinery.m_mech.homeToBarge()).onFalse(m_machinery.m_mech.bargeToHome());
 
         // whileTrue(driverControl::a, m_manipulator.run(m_manipulator::intakeCenter));
@@ -228,15 +233,15 @@ public class Binder {
         // CLIMB
         //
         // Extend, spin, wait for intake, and pull climber in and drive forward.
-        whileTrue(buttons::red1,
+        whileTrue(buttons.trigger(buttons::red1),
                 ClimberCommands.climbIntake(m_machinery.m_climber, m_machinery.m_climberIntake, m_machinery.m_mech));
 
         // Step 2, driver: Pull climber in and drive forward.
-        onTrue(driver::y,
+        onTrue(driver.trigger(driver::y),
                 ClimberCommands.climb(m_machinery.m_climber, m_machinery.m_drive, m_machinery.m_mech));
 
         // Between matches, operator: Reset the climber position.
-        whileTrue(operator::rightBumper,
+        whileTrue(operator.trigger(operator::rightBumper),
                 m_machinery.m_climber.manual(operator::leftY));
 
         ////////////////////////////////////////////////////////////
@@ -244,16 +249,17 @@ public class Binder {
         // TEST
         //
         Tester tester = new Tester(m_machinery);
-        whileTrue(() -> (RobotState.isTest() && driver.a() && driver.b()),
-                tester.prematch());
+        // this depends on more than the controller, so it's polled every cycle.
+        new Trigger(() -> (RobotState.isTest() && driver.a() && driver.b()))
+                .whileTrue(tester.prematch());
     }
 
-    private static Trigger whileTrue(BooleanSupplier condition, Command command) {
-        return new Trigger(condition).whileTrue(command);
+    private static Trigger whileTrue(Trigger trigger, Command command) {
+        return trigger.whileTrue(command);
     }
 
-    private static Trigger onTrue(BooleanSupplier condition, Command command) {
-        return new Trigger(condition).onTrue(command);
+    private static Trigger onTrue(Trigger trigger, Command command) {
+        return trigger.onTrue(command);
     }
 
 }
@@ -8,7 +8,7 @@ import static edu.wpi.first.wpilibj2.command.Commands.waitUntil;
 import org.team100.lib.commands.MoveAndHold;
 import org.team100.lib.config.ElevatorUtil.ScoringLevel;
 import org.team100.lib.controller.r3.FullStateControllerR3;
-import org.team100.lib.field.FieldConstants;
+import org.team100.lib.field.FieldGeometry;
 import org.team100.lib.field.FieldConstants.ReefPoint;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.profile.HolonomicProfile;
@@ -44,7 +44,7 @@ public class DriveAndScore {
         MoveAndHold toReef = new DriveToPoseWithProfile(
                 m_logger, m_machinery.m_drive,
                 m_autoController, m_autoProfile,
-                () -> FieldConstants.makeGoal(level, point));
+                () -> FieldGeometry.goal(level, point));
         MoveAndHold toL4 = m_machinery.m_mech.homeToL4();
         Command eject = m_machinery.m_manipulator.centerEject().withTimeout(0.5);
         return sequence(
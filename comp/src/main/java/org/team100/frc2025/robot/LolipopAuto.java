@@ -11,6 +11,7 @@ import org.team100.lib.commands.MoveAndHold;
 import org.team100.lib.config.ElevatorUtil.ScoringLevel;
 import org.team100.lib.controller.r3.FullStateControllerR3;
 import org.team100.lib.field.FieldConstants;
+import org.team100.lib.field.FieldGeometry;
 import org.team100.lib.field.FieldConstants.ReefPoint;
 import org.team100.lib.geometry.HolonomicPose2d;
 import org.team100.lib.logging.LoggerFactory;
@@ -18,45 +19,58 @@ import org.team100.lib.profile.HolonomicProfile;
 import org.team100.lib.subsystems.r3.commands.DriveToPoseWithProfile;
 import org.team100.lib.subsystems.r3.commands.DriveToTranslationFacingWithProfile;
 import org.team100.lib.subsystems.r3.commands.DriveWithTrajectoryFunction;
+import org.team100.lib.trajectory.TrajectoryCache;
 import org.team100.lib.trajectory.TrajectoryPlanner;
 
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
 
 public class LolipopAuto {
+    /**
+     * Where the drive team places the robot for this auton, and where its first
+     * trajectory is planned from. Nothing on the field fixes this pose, so it's
+     * a convention, checked against the localizer while disabled (see
+     * AllAutons); if the robot isn't here, the first leg plans from where it is.
+     */
+    public static final Pose2d START = new Pose2d(7.1, 5.0, Rotation2d.kZero);
     private static final double HEED_RADIUS_M = 3;
     private final LoggerFactory m_log;
     private final Machinery m_machinery;
     private final HolonomicProfile m_autoProfile;
     private final FullStateControllerR3 m_autoController;
     private final TrajectoryPlanner m_planner;
+    private final TrajectoryCache m_trajectories;
 
     public LolipopAuto(
             LoggerFactory parent,
             Machinery machinery,
             HolonomicProfile autoProfile,
             FullStateControllerR3 autoController,
-            TrajectoryPlanner planner) {
+            TrajectoryPlanner planner,
+            TrajectoryCache trajectories) {
         m_log = parent.type(this);
         m_machinery = machinery;
         m_autoProfile = autoProfile;
         m_autoController = autoController;
         m_planner = planner;
+        m_trajectories = trajectories;
     }
 
     public Command get() {
-        // this one uses some curvature
+        // this one uses some curvature; planned ahead from the start.
         DriveWithTrajectoryFunction toReefTrajectory = new DriveWithTrajectoryFunction(
                 m_log, m_machinery.m_drive, m_autoController, m_machinery.m_trajectoryViz,
-                (p) -> m_planner.restToRest(List.of(
-                        HolonomicPose2d.make(m_machinery.m_drive.getPose(), Math.PI),
-                        HolonomicPose2d.make(3, 5, 0, -2))));
+                m_trajectories.add("Lolipop", START,
+                        (p) -> m_planner.restToRest(List.of(
+                                HolonomicPose2d.make(p, Math.PI),
+                                HolonomicPose2d.make(3, 5, 0, -2)))));
 
         DriveToPoseWithProfile toReefA = new DriveToPoseWithProfile(
                 m_log, m_machinery.m_drive, m_autoController, m_autoProfile,
-                () -> FieldConstants.makeGoal(ScoringLevel.L4, ReefPoint.A));
+                () -> FieldGeometry.goal(ScoringLevel.L4, ReefPoint.A));
 
         DriveToTranslationFacingWithProfile toCenterCoral = new DriveToTranslationFacingWithProfile(
                 m_log, m_machinery.m_drive, m_autoController, m_autoProfile,
@@ -66,7 +80,7 @@ public class LolipopAuto {
 
         DriveToPoseWithProfile toReefB = new DriveToPoseWithProfile(
                 m_log, m_machinery.m_drive, m_autoController, m_autoProfile,
-                () -> FieldConstants.makeGoal(ScoringLevel.L4, ReefPoint.B));
+                () -> FieldGeometry.goal(ScoringLevel.L4, ReefPoint.B));
 
         DriveToTranslationFacingWithProfile toCoralRight = new DriveToTranslationFacingWithProfile(
                 m_log, m_machinery.m_drive, m_autoController, m_autoProfile,
@@ -76,7 +90,7 @@ public class LolipopAuto {
 
         DriveToPoseWithProfile toReefC = new DriveToPoseWithProfile(
                 m_log, m_machinery.m_drive, m_autoController, m_autoProfile,
-                () -> FieldConstants.makeGoal(ScoringLevel.L4, ReefPoint.C));
+                () -> FieldGeometry.goal(ScoringLevel.L4, ReefPoint.C));
 
         MoveAndHold toL4 = m_machinery.m_mech.homeToL4();
         MoveAndHold toL4second = m_machinery.m_mech.homeToL4();
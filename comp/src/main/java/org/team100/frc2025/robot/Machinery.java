@@ -10,10 +10,15 @@ import org.team100.frc2025.Climber.ClimberVisualization;
 import org.team100.frc2025.grip.Manipulator;
 import org.team100.frc2025.indicator.LEDIndicator;
 import org.team100.lib.coherence.Takt;
+import org.team100.lib.experiments.Experiment;
+import org.team100.lib.experiments.Experiments;
 import org.team100.lib.indicator.Beeper;
 import org.team100.lib.localization.AprilTagFieldLayoutWithCorrectOrientation;
 import org.team100.lib.localization.AprilTagRobotLocalizer;
+import org.team100.lib.localization.LocalizationRecorder;
 import org.team100.lib.localization.NudgingVisionUpdater;
+import org.team100.lib.localization.OdometrySampler;
+import org.team100.lib.localization.OdometryThread;
 import org.team100.lib.localization.OdometryUpdater;
 import org.team100.lib.localization.SimulatedTagDetector;
 import org.team100.lib.localization.SwerveHistory;
@@ -33,6 +38,7 @@ import org.team100.lib.visualization.TrajectoryVisualization;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Filesystem;
 
 /**
  * This should contain all the hardware of the robot: all the subsystems etc
@@ -49,6 +55,7 @@ public class Machinery {
     // acceleration) to keep from browning out.
     private static final double DRIVE_SUPPLY_LIMIT = 90;
     private static final double DRIVE_STATOR_LIMIT = 110;
+    private static final double ODOMETRY_HZ = 250;
     private static final LoggerFactory logger = Logging.instance().rootLogger;
     private static final LoggerFactory fieldLogger = Logging.instance().fieldLogger;
 
@@ -58,6 +65,8 @@ public class Machinery {
     private final Runnable m_simulatedTagDetector;
     private final Runnable m_targetSimulator;
     private final LEDIndicator m_leds;
+    /** Nullable. */
+    private final LocalizationRecorder m_recorder;
 
     final CalgamesMech m_mech;
     final Manipulator m_manipulator;
@@ -89,7 +98,8 @@ public class Machinery {
         //
         // VISUALIZATIONS
         //
-        m_trajectoryViz = new TrajectoryVisualization(fieldLogger);
+        // 2 cm is finer than the field widget can show.
+        m_trajectoryViz = new TrajectoryVisualization(fieldLogger, 0.02);
         m_combinedViz = new CalgamesViz(m_mech);
         m_climberViz = new ClimberVisualization(m_climber, m_climberIntake);
 
@@ -112,9 +122,20 @@ public class Machinery {
                 m_modules.positions(),
                 Pose2d.kZero,
                 Takt.get());
+        // On real hardware, odometry is sampled on its own thread, much faster
+        // than the main loop. In simulation there's no sampler, so the updater
+        // samples once per cycle.
+        final OdometrySampler sampler = m_modules.odometrySampler(gyro, ODOMETRY_HZ);
+        final OdometryThread odometryThread = sampler == null
+                ? null
+                : new OdometryThread(driveLog, sampler, 1.0 / ODOMETRY_HZ);
         final OdometryUpdater odometryUpdater = new OdometryUpdater(
-                m_swerveKinodynamics, gyro, history, m_modules::positions);
+                m_swerveKinodynamics, gyro, history, m_modules::positions, odometryThread);
+        m_recorder = getRecorder();
+        odometryUpdater.setRecorder(m_recorder);
         odometryUpdater.reset(Pose2d.kZero);
+        if (odometryThread != null)
+            odometryThread.start();
         final NudgingVisionUpdater visionUpdater = new NudgingVisionUpdater(
                 history, odometryUpdater);
 
@@ -129,6 +150,7 @@ public class Machinery {
                 layout,
                 history,
                 visionUpdater);
+        m_localizer.setRecorder(m_recorder);
         m_targets = new Targets(driveLog, fieldLogger, history);
 
         ////////////////////////////////////////////////////////////
@@ -179,6 +201,26 @@ public class Machinery {
         // this keeps the tests from conflicting via the use of simulated HAL ports.
         m_modules.close();
         m_leds.close();
+        if (m_recorder != null) {
+            try {
+                m_recorder.close();
+            } catch (IOException e) {
+                System.out.printf("WARNING: could not close localization log: %s\n", e);
+            }
+        }
+    }
+
+    /** Null unless the experiment is enabled, or if the file can't be created. */
+    private static LocalizationRecorder getRecorder() {
+        if (!Experiments.instance.enabled(Experiment.RecordLocalization))
+            return null;
+        try {
+            return new LocalizationRecorder(Filesystem.getOperatingDirectory().toPath()
+                    .resolve(String.format("localization-%d.bin", System.currentTimeMillis())));
+        } catch (IOException e) {
+            System.out.printf("WARNING: could not create localization log: %s\n", e);
+            return null;
+        }
     }
 
     /** Trap the IO exception. */
@@ -0,0 +1,111 @@
+package org.team100.frc2025.CalgamesArm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.team100.frc2025.CalgamesArm.MechTransitTable.Entry;
+import org.team100.frc2025.CalgamesArm.MechTransitTable.Transit;
+import org.team100.lib.geometry.HolonomicPose2d;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.subsystems.prr.AnalyticalJacobian;
+import org.team100.lib.subsystems.prr.EAWConfig;
+import org.team100.lib.subsystems.prr.ElevatorArmWristKinematics;
+import org.team100.lib.trajectory.TrajectoryPlanner;
+import org.team100.lib.trajectory.timing.ConstantConstraint;
+import org.team100.lib.trajectory.timing.TorqueConstraint;
+import org.team100.lib.trajectory.timing.YawRateConstraint;
+import org.team100.lib.tuning.Mutable;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+class MechTransitTableTest {
+    private static final boolean DEBUG = false;
+    private static final LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    private final ElevatorArmWristKinematics k = new ElevatorArmWristKinematics(0.5, 0.343);
+    private final AnalyticalJacobian j = new AnalyticalJacobian(k);
+    private final TrajectoryPlanner planner = new TrajectoryPlanner(0.01, 0.1, 0.05, List.of(
+            new ConstantConstraint(log, 10, 5),
+            new YawRateConstraint(log, 10, 5),
+            new TorqueConstraint(20)));
+    private final Pose2d home = k.forward(new EAWConfig(0, 0, 0));
+    private final HolonomicPose2d start = HolonomicPose2d.make(home, 1.5);
+    private final HolonomicPose2d end = HolonomicPose2d.make(
+            new Pose2d(0.56, 0.54, Rotation2d.fromRadians(2.0)), 1.5);
+
+    @AfterEach
+    void cleanup() {
+        Mutable.unpublishAll();
+    }
+
+    @Test
+    void testPrecompute() {
+        MechTransitTable table = new MechTransitTable(k, j, new Dynamics(), planner);
+        assertTrue(Double.isNaN(table.eta(start, end)));
+        assertNull(table.get(start, end, home));
+        Entry entry = table.precompute("homeToL2", new Transit(start, end));
+        assertTrue(entry.etaS() > 0);
+        assertEquals(entry.trajectory().duration(), table.eta(start, end), 1e-9);
+        // gravity alone makes some shoulder torque
+        assertTrue(entry.peak().shoulder() > 0);
+        // the motors can do it
+        assertTrue(entry.feasible());
+        assertTrue(Math.abs(entry.peak().elevator()) <= MechTransitTable.MAX_FORCE.elevator());
+        assertTrue(Math.abs(entry.peak().shoulder()) <= MechTransitTable.MAX_FORCE.shoulder());
+        assertTrue(Math.abs(entry.peak().wrist()) <= MechTransitTable.MAX_FORCE.wrist());
+        assertTrue(table.report().contains("homeToL2"));
+        if (DEBUG)
+            System.out.print(table.report());
+    }
+
+    @Test
+    void testStart() {
+        MechTransitTable table = new MechTransitTable(k, j, new Dynamics(), planner);
+        Entry entry = table.precompute("homeToL2", new Transit(start, end));
+        // at the start
+        assertSame(entry.trajectory(), table.get(start, end, home));
+        // a little bit away is fine
+        assertSame(entry.trajectory(), table.get(start, end,
+                new Pose2d(home.getX() + 0.01, home.getY(), home.getRotation())));
+        // too far away
+        assertNull(table.get(start, end,
+                new Pose2d(home.getX() + 0.1, home.getY(), home.getRotation())));
+        // wrong rotation
+        assertNull(table.get(start, end,
+                new Pose2d(home.getTranslation(), home.getRotation().plus(Rotation2d.fromRadians(0.2)))));
+        // some other transit
+        assertNull(table.get(end, start, home));
+    }
+
+    /** Changing any Mutable makes the entry stale. */
+    @Test
+    void testStale() {
+        MechTransitTable table = new MechTransitTable(k, j, new Dynamics(), planner);
+        Mutable m = new Mutable(log, "stale", 1);
+        Entry entry = table.precompute("homeToL2", new Transit(start, end));
+        assertSame(entry.trajectory(), table.get(start, end, home));
+        DoublePublisher pub = NetworkTableInstance.getDefault()
+                .getDoubleTopic(log.root("stale")).publish();
+        pub.set(2);
+        Mutable.updateAll();
+        assertEquals(2, m.getAsDouble(), 1e-9);
+        assertNull(table.get(start, end, home));
+        assertTrue(Double.isNaN(table.eta(start, end)));
+        // replanning makes it current again
+        table.precompute("homeToL2", new Transit(start, end));
+        assertNotNull(table.get(start, end, home));
+        pub.close();
+    }
+}
@@ -1,13 +1,17 @@
 package org.team100.lib.coherence;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 
 import org.team100.lib.logging.Level;
+import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.LoggerFactory.IntLogger;
 import org.team100.lib.logging.Logging;
+import org.team100.lib.tuning.Mutable;
 
 import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusCode;
@@ -25,16 +29,37 @@ import com.ctre.phoenix6.StatusCode;
  * observations we actually cache seem to be from motors. On the other hand,
  * it doesn't hurt anything to cache at multiple levels -- the updater makes
  * everything consistent.
+ * 
+ * Observations that don't need to be fresh every cycle, e.g. temperature, can
+ * declare a longer period. They're refreshed only when they're older than
+ * that, and for CTRE signals, the device update frequency is reduced to match,
+ * which saves bus traffic.
  */
 public class Cache {
     private static final boolean DEBUG = false;
+    /** CTRE minimum update frequency. */
+    private static final double MIN_FREQUENCY_HZ = 4;
+    private static final LoggerFactory m_log = Logging.instance().rootLogger.name("Cache");
     /** How long it takes to update the cache. */
-    private static final DoubleLogger m_log_update = Logging.instance().rootLogger.name("Cache")
-            .doubleLogger(Level.COMP, "update time (s)");
+    private static final DoubleLogger m_log_update = m_log.doubleLogger(Level.COMP, "update time (s)");
+    /** How long it takes to refresh the CTRE signals. */
+    private static final DoubleLogger m_log_signal_time = m_log.doubleLogger(Level.TRACE,
+            "signal refresh time (s)");
+    private static final IntLogger m_log_signals_refreshed = m_log.intLogger(Level.TRACE,
+            "signals refreshed");
+    private static final IntLogger m_log_signals_skipped = m_log.intLogger(Level.TRACE,
+            "signals skipped");
+    private static final IntLogger m_log_doubles_skipped = m_log.intLogger(Level.TRACE,
+            "doubles skipped");
+    private static final DoubleLogger m_log_frames_saved = m_log.doubleLogger(Level.TRACE,
+            "status frames saved (per s)");
     private static final List<ObjectCache<?>> caches = new ArrayList<>();
     private static final List<DoubleCache> doubles = new ArrayList<>();
     private static final List<SideEffect> sideEffects = new ArrayList<>();
-    private static final List<BaseStatusSignal> signals = new ArrayList<>();
+    /** One group per distinct period; the first is every cycle. */
+    private static final List<SignalGroup> signals = new ArrayList<>(List.of(new SignalGroup(0)));
+    /** Estimated reduction in status frame rate from slower signals. */
+    private static double framesSaved = 0;
 
     /**
      * Adds the delegate to the set that is reset and updated synchronously by
@@ -58,30 +83,78 @@ public class Cache {
         return cache;
     }
 
+    /**
+     * Like ofDouble(), but the delegate is asked only if the value is older than
+     * the period, e.g. for REV signals that don't change quickly. In between, the
+     * stale value is returned.
+     * 
+     * @param periodS required freshness, seconds
+     */
+    public static DoubleCache ofDouble(DoubleSupplier delegate, double periodS) {
+        DoubleCache cache = new DoubleCache(delegate, periodS);
+        doubles.add(cache);
+        return cache;
+    }
+
     public static SideEffect ofSideEffect(Runnable delegate) {
         SideEffect sideEffect = new SideEffect(delegate);
         sideEffects.add(sideEffect);
         return sideEffect;
     }
 
+    public static void removeSideEffect(SideEffect sideEffect) {
+        sideEffects.remove(sideEffect);
+    }
+
     /**
      * There's a "resetter" that calls CTRE's refreshAll; add the supplied signal to
      * the list in the refresh.
      */
     public static void registerSignal(BaseStatusSignal signal) {
-        signals.add(signal);
+        signals.get(0).add(signal);
+    }
+
+    /**
+     * Add the signal to the refresh, but only refresh it if it's older than the
+     * period, and set the device update frequency to match, so the signal isn't
+     * sent more often than we use it.
+     * 
+     * @param periodS required freshness, seconds
+     */
+    public static void registerSignal(BaseStatusSignal signal, double periodS) {
+        if (periodS <= 0) {
+            registerSignal(signal);
+            return;
+        }
+        double before = signal.getAppliedUpdateFrequency();
+        double after = Math.max(MIN_FREQUENCY_HZ, 1 / periodS);
+        if (after < before) {
+            signal.setUpdateFrequency(after);
+            framesSaved += before - after;
+        }
+        for (SignalGroup group : signals) {
+            if (group.m_periodS == periodS) {
+                group.add(signal);
+                return;
+            }
+        }
+        SignalGroup group = new SignalGroup(periodS);
+        group.add(signal);
+        signals.add(group);
     }
 
     /**
      * Reset all caches and update them with fresh values. All the resets are done
      * before any of the updates to ensure that the updates don't include any stale
-     * data.
+     * data. Mutable (tuning) changes are applied before any of that.
      * 
      * Should be run in Robot.robotPeriodic().
      */
     public static void refresh() {
         if (DEBUG)
             System.out.println("Cache refresh");
+        // Apply any tuning changes first, so the refreshed values see them.
+        Mutable.updateAll();
         double startUpdateS = Takt.actual();
         reset();
         update();
@@ -104,9 +177,13 @@ public class Cache {
         for (ObjectCache<?> r : caches) {
             r.reset();
         }
+        int skipped = 0;
         for (DoubleCache r : doubles) {
-            r.reset();
+            if (!r.expire())
+                skipped++;
         }
+        final int doublesSkipped = skipped;
+        m_log_doubles_skipped.log(() -> doublesSkipped);
         for (SideEffect r : sideEffects) {
             r.reset();
         }
@@ -117,13 +194,7 @@ public class Cache {
         if (DEBUG) {
             System.out.printf("Cache update %d\n", caches.size());
         }
-        if (!signals.isEmpty()) {
-            StatusCode result = BaseStatusSignal.refreshAll(signals.toArray(new BaseStatusSignal[0]));
-            if (result != StatusCode.OK) {
-                System.out.printf("WARNING: RefreshAll failed: %s: %s\n",
-                        result.toString(), result.getDescription());
-            }
-        }
+        refreshSignals();
         for (ObjectCache<?> r : caches) {
             if (DEBUG) {
                 System.out.printf("update %s\n", r.get().getClass().getSimpleName());
@@ -140,6 +211,60 @@ public class Cache {
         }
     }
 
+    /** Refresh the signal groups that are due. */
+    private static void refreshSignals() {
+        double start = Takt.actual();
+        double now = Takt.get();
+        int refreshed = 0;
+        int skipped = 0;
+        for (SignalGroup group : signals) {
+            if (group.m_signals.length == 0)
+                continue;
+            if (!group.due(now)) {
+                skipped += group.m_signals.length;
+                continue;
+            }
+            StatusCode result = BaseStatusSignal.refreshAll(group.m_signals);
+            if (result != StatusCode.OK) {
+                System.out.printf("WARNING: RefreshAll failed: %s: %s\n",
+                        result.toString(), result.getDescription());
+            }
+            group.m_time = now;
+            refreshed += group.m_signals.length;
+        }
+        final int signalsRefreshed = refreshed;
+        final int signalsSkipped = skipped;
+        m_log_signal_time.log(() -> Takt.actual() - start);
+        m_log_signals_refreshed.log(() -> signalsRefreshed);
+        m_log_signals_skipped.log(() -> signalsSkipped);
+        m_log_frames_saved.log(framesSaved);
+    }
+
+    /** Signals with the same required freshness, refreshed together. */
+    private static class SignalGroup {
+        /** Allow for roundoff in Takt differences. */
+        private static final double SLACK = 0.001;
+        private final double m_periodS;
+        /** Array, not list, to avoid toArray() every cycle. */
+        private BaseStatusSignal[] m_signals;
+        private double m_time;
+
+        SignalGroup(double periodS) {
+            m_periodS = periodS;
+            m_signals = new BaseStatusSignal[0];
+            m_time = Double.NEGATIVE_INFINITY;
+        }
+
+        void add(BaseStatusSignal signal) {
+            m_signals = Arrays.copyOf(m_signals, m_signals.length + 1);
+            m_signals[m_signals.length - 1] = signal;
+        }
+
+        boolean due(double now) {
+            return now - m_time >= m_periodS - SLACK;
+        }
+    }
+
     private Cache() {
         //
     }
@@ -3,13 +3,25 @@ package org.team100.lib.coherence;
 import java.util.function.DoubleSupplier;
 
 public class DoubleCache implements DoubleSupplier {
+    /** Allow for roundoff in Takt differences. */
+    private static final double SLACK = 0.001;
     private final DoubleSupplier m_delegate;
+    /** Required freshness, seconds; zero means every cycle. */
+    private final double m_periodS;
     private double m_value;
     private boolean m_valid;
+    /** Takt time of the value. */
+    private double m_time;
 
     /** Do not call this directly, use Cache.ofDouble() */
     DoubleCache(DoubleSupplier delegate) {
+        this(delegate, 0);
+    }
+
+    /** Do not call this directly, use Cache.ofDouble() */
+    DoubleCache(DoubleSupplier delegate, double periodS) {
         m_delegate = delegate;
+        m_periodS = periodS;
         m_valid = false;
     }
 
@@ -23,6 +35,7 @@ public class DoubleCache implements DoubleSupplier {
         if (m_valid)
             return m_value;
         m_value = m_delegate.getAsDouble();
+        m_time = Takt.get();
         m_valid = true;
         return m_value;
     }
@@ -31,4 +44,17 @@ public class DoubleCache implements DoubleSupplier {
     public synchronized void reset() {
         m_valid = false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Erase the cache if the value is older than the period. Used by the Cache
+     * refresher.
+     * 
+     * @return true if the value was erased
+     */
+    synchronized boolean expire() {
+        if (m_valid && Takt.get() - m_time < m_periodS - SLACK)
+            return false;
+        m_valid = false;
+        return true;
+    }
+}
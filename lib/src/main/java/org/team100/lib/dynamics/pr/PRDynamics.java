@@ -36,4 +36,38 @@ public class PRDynamics {
         return new PRTorque(f1, t2);
     }
 
+    /**
+     * Same as torque() above, for every sample in the batch, with the results
+     * written into the batch. See PRRDynamics.torque(PRRBatch).
+     */
+    public void torque(PRBatch b) {
+        final int n = b.size();
+        final double[] q2 = b.m_q2;
+        final double[] s2 = b.m_s2;
+        final double[] c2 = b.m_c2;
+        for (int i = 0; i < n; ++i) {
+            s2[i] = Math.sin(q2[i]);
+            c2[i] = Math.cos(q2[i]);
+        }
+
+        // constant coefficients
+        final double m = m1 + m2;
+        final double k = m2 * d;
+        final double i2 = izz + m2 * d * d;
+
+        final double[] v2 = b.m_q2dot;
+        final double[] a1 = b.m_q1ddot;
+        final double[] a2 = b.m_q2ddot;
+        final double[] f1 = b.m_f1;
+        final double[] t2 = b.m_t2;
+        for (int i = 0; i < n; ++i) {
+            f1[i] = m * a1[i]
+                    - k * s2[i] * a2[i]
+                    - k * c2[i] * v2[i] * v2[i]
+                    + m * g;
+            t2[i] = -k * s2[i] * a1[i]
+                    + i2 * a2[i]
+                    - k * g * s2[i];
+        }
+    }
 }
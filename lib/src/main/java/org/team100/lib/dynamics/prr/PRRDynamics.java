@@ -77,4 +77,79 @@ public class PRRDynamics {
         return new PRRTorque(f1, t2, t3);
     }
 
+    /**
+     * Same as torque() above, for every sample in the batch, with the results
+     * written into the batch.
+     * 
+     * The trig is done in a separate loop, so the other loops are just
+     * arithmetic on arrays, which the JIT can vectorize. The terms are collected
+     * differently from torque(), and the sum-angle trig uses identities, so the
+     * results differ by roundoff.
+     */
+    public void torque(PRRBatch b) {
+        final int n = b.size();
+        final double[] q2 = b.m_q2;
+        final double[] q3 = b.m_q3;
+        final double[] s2 = b.m_s2;
+        final double[] c2 = b.m_c2;
+        final double[] s3 = b.m_s3;
+        final double[] c3 = b.m_c3;
+        final double[] s23 = b.m_s23;
+        final double[] c23 = b.m_c23;
+        for (int i = 0; i < n; ++i) {
+            s2[i] = Math.sin(q2[i]);
+            c2[i] = Math.cos(q2[i]);
+            s3[i] = Math.sin(q3[i]);
+            c3[i] = Math.cos(q3[i]);
+        }
+        // angle sum identities are cheaper than more trig
+        for (int i = 0; i < n; ++i) {
+            s23[i] = s2[i] * c3[i] + c2[i] * s3[i];
+            c23[i] = c2[i] * c3[i] - s2[i] * s3[i];
+        }
+
+        // constant coefficients
+        final double m = m1 + m2 + m3;
+        final double k2 = m2 * lc2 + m3 * l2;
+        final double k3 = m3 * lc3;
+        final double h = m3 * l2 * lc3;
+        final double i3 = m3 * lc3 * lc3 + izz3;
+        final double i2 = m2 * lc2 * lc2 + izz2 + m3 * l2 * l2 + i3;
+        final double g2 = (lc2 * m2 + l2 * m3) * g;
+        final double g23 = lc2 * m3 * g;
+        final double g3 = lc3 * m3 * g;
+
+        final double[] v2 = b.m_q2dot;
+        final double[] v3 = b.m_q3dot;
+        final double[] a1 = b.m_q1ddot;
+        final double[] a2 = b.m_q2ddot;
+        final double[] a3 = b.m_q3ddot;
+        final double[] f1 = b.m_f1;
+        final double[] t2 = b.m_t2;
+        final double[] t3 = b.m_t3;
+        for (int i = 0; i < n; ++i) {
+            double m12 = -(k2 * s2[i] + k3 * s23[i]);
+            double m13 = -k3 * s23[i];
+            double m23 = i3 + h * c3[i];
+            double v23 = v2[i] + v3[i];
+            f1[i] = m * a1[i]
+                    + m12 * a2[i]
+                    + m13 * a3[i]
+                    - k2 * c2[i] * v2[i] * v2[i]
+                    - k3 * c23[i] * v23 * v23
+                    + m * g;
+            t2[i] = m12 * a1[i]
+                    + (i2 + 2 * h * c3[i]) * a2[i]
+                    + m23 * a3[i]
+                    - h * s3[i] * v3[i] * (2 * v2[i] + v3[i])
+                    - g2 * s2[i]
+                    - g23 * s23[i];
+            t3[i] = m13 * a1[i]
+                    + m23 * a2[i]
+                    + i3 * a3[i]
+                    + h * s3[i] * v2[i] * v2[i]
+                    - g3 * s23[i];
+        }
+    }
+
 }
@@ -0,0 +1,93 @@
+package org.team100.lib.dynamics.r;
+
+import java.util.Arrays;
+
+/**
+ * Many joint states, e.g. the samples of a whole trajectory, and the
+ * corresponding torques, for RDynamics.torque(RBatch).
+ *
+ * See PRRBatch.
+ */
+public class RBatch {
+    private int m_size;
+
+    // inputs
+    double[] m_q1;
+    double[] m_q1dot;
+    double[] m_q1ddot;
+
+    // trig scratch, written by RDynamics
+    double[] m_s1;
+
+    // outputs, written by RDynamics
+    double[] m_t1;
+
+    public RBatch(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    public int size() {
+        return m_size;
+    }
+
+    /** Remove all the samples, keeping the storage. */
+    public void clear() {
+        m_size = 0;
+    }
+
+    public void add(RConfig q, RVelocity v, RAcceleration a) {
+        add(q.q1(), v.q1dot(), a.q1ddot());
+    }
+
+    public void add(double q1, double q1dot, double q1ddot) {
+        if (m_size == m_q1.length)
+            allocate(2 * m_size);
+        int i = m_size++;
+        m_q1[i] = q1;
+        m_q1dot[i] = q1dot;
+        m_q1ddot[i] = q1ddot;
+    }
+
+    /** The result for one sample, after RDynamics.torque(RBatch). */
+    public RTorque torque(int i) {
+        if (i >= m_size)
+            throw new IndexOutOfBoundsException(i);
+        return new RTorque(m_t1[i]);
+    }
+
+    /** Maximum absolute value of the torque. */
+    public RTorque peak() {
+        double t1 = 0;
+        for (int i = 0; i < m_size; ++i) {
+            t1 = Math.max(t1, Math.abs(m_t1[i]));
+        }
+        return new RTorque(t1);
+    }
+
+    /**
+     * The smallest difference between the limit and the absolute value of the
+     * torque, over all the samples. Negative means some sample exceeds the
+     * limit. Positive infinity if empty.
+     */
+    public double margin(double t1Max) {
+        double margin = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < m_size; ++i) {
+            margin = Math.min(margin, t1Max - Math.abs(m_t1[i]));
+        }
+        return margin;
+    }
+
+    private void allocate(int capacity) {
+        m_q1 = grow(m_q1, capacity);
+        m_q1dot = grow(m_q1dot, capacity);
+        m_q1ddot = grow(m_q1ddot, capacity);
+        m_s1 = new double[capacity];
+        m_t1 = new double[capacity];
+    }
+
+    private static double[] grow(double[] a, int capacity) {
+        if (a == null)
+            return new double[capacity];
+        return Arrays.copyOf(a, capacity);
+    }
+}
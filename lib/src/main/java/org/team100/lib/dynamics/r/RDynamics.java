@@ -33,4 +33,23 @@ public class RDynamics {
         return new RTorque(t1);
     }
 
+    /**
+     * Same as torque() above, for every sample in the batch, with the results
+     * written into the batch. See PRRDynamics.torque(PRRBatch).
+     */
+    public void torque(RBatch b) {
+        final int n = b.size();
+        final double[] q1 = b.m_q1;
+        final double[] s1 = b.m_s1;
+        for (int i = 0; i < n; ++i) {
+            s1[i] = Math.sin(q1[i]);
+        }
+        final double m11 = m1 * lc1 * lc1 + izz1;
+        final double g1 = m1 * g * lc1;
+        final double[] a1 = b.m_q1ddot;
+        final double[] t1 = b.m_t1;
+        for (int i = 0; i < n; ++i) {
+            t1[i] = m11 * a1[i] - g1 * s1[i];
+        }
+    }
 }
@@ -0,0 +1,116 @@
+package org.team100.lib.dynamics.rr;
+
+import java.util.Arrays;
+
+/**
+ * Many joint states, e.g. the samples of a whole trajectory, and the
+ * corresponding generalized forces, for RRDynamics.torque(RRBatch).
+ *
+ * See PRRBatch.
+ */
+public class RRBatch {
+    private int m_size;
+
+    // inputs
+    double[] m_q1;
+    double[] m_q2;
+    double[] m_q1dot;
+    double[] m_q2dot;
+    double[] m_q1ddot;
+    double[] m_q2ddot;
+
+    // trig scratch, written by RRDynamics
+    double[] m_s1;
+    double[] m_s2;
+    double[] m_c2;
+    double[] m_s12;
+
+    // outputs, written by RRDynamics
+    double[] m_f1;
+    double[] m_t2;
+
+    public RRBatch(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    public int size() {
+        return m_size;
+    }
+
+    /** Remove all the samples, keeping the storage. */
+    public void clear() {
+        m_size = 0;
+    }
+
+    public void add(RRConfig q, RRVelocity v, RRAcceleration a) {
+        add(q.q1(), q.q2(), v.q1dot(), v.q2dot(), a.q1ddot(), a.q2ddot());
+    }
+
+    public void add(
+            double q1, double q2,
+            double q1dot, double q2dot,
+            double q1ddot, double q2ddot) {
+        if (m_size == m_q1.length)
+            allocate(2 * m_size);
+        int i = m_size++;
+        m_q1[i] = q1;
+        m_q2[i] = q2;
+        m_q1dot[i] = q1dot;
+        m_q2dot[i] = q2dot;
+        m_q1ddot[i] = q1ddot;
+        m_q2ddot[i] = q2ddot;
+    }
+
+    /** The result for one sample, after RRDynamics.torque(RRBatch). */
+    public RRTorque torque(int i) {
+        if (i >= m_size)
+            throw new IndexOutOfBoundsException(i);
+        return new RRTorque(m_f1[i], m_t2[i]);
+    }
+
+    /** Maximum absolute value of each joint's force or torque. */
+    public RRTorque peak() {
+        double f1 = 0;
+        double t2 = 0;
+        for (int i = 0; i < m_size; ++i) {
+            f1 = Math.max(f1, Math.abs(m_f1[i]));
+            t2 = Math.max(t2, Math.abs(m_t2[i]));
+        }
+        return new RRTorque(f1, t2);
+    }
+
+    /**
+     * The smallest difference between each joint's limit and the absolute value
+     * of its force or torque, over all the samples. Negative means some sample
+     * exceeds some limit. Positive infinity if empty.
+     */
+    public double margin(double f1Max, double t2Max) {
+        double margin = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < m_size; ++i) {
+            double m = Math.min(f1Max - Math.abs(m_f1[i]), t2Max - Math.abs(m_t2[i]));
+            margin = Math.min(margin, m);
+        }
+        return margin;
+    }
+
+    private void allocate(int capacity) {
+        m_q1 = grow(m_q1, capacity);
+        m_q2 = grow(m_q2, capacity);
+        m_q1dot = grow(m_q1dot, capacity);
+        m_q2dot = grow(m_q2dot, capacity);
+        m_q1ddot = grow(m_q1ddot, capacity);
+        m_q2ddot = grow(m_q2ddot, capacity);
+        m_s1 = new double[capacity];
+        m_s2 = new double[capacity];
+        m_c2 = new double[capacity];
+        m_s12 = new double[capacity];
+        m_f1 = new double[capacity];
+        m_t2 = new double[capacity];
+    }
+
+    private static double[] grow(double[] a, int capacity) {
+        if (a == null)
+            return new double[capacity];
+        return Arrays.copyOf(a, capacity);
+    }
+}
@@ -75,4 +75,49 @@ public class RRDynamics {
         return new RRTorque(t1, t2);
     }
 
+    /**
+     * Same as torque() above, for every sample in the batch, with the results
+     * written into the batch. See PRRDynamics.torque(PRRBatch).
+     */
+    public void torque(RRBatch b) {
+        final int n = b.size();
+        final double[] q1 = b.m_q1;
+        final double[] q2 = b.m_q2;
+        final double[] s1 = b.m_s1;
+        final double[] s2 = b.m_s2;
+        final double[] c2 = b.m_c2;
+        final double[] s12 = b.m_s12;
+        for (int i = 0; i < n; ++i) {
+            s1[i] = Math.sin(q1[i]);
+            s2[i] = Math.sin(q2[i]);
+            c2[i] = Math.cos(q2[i]);
+            s12[i] = Math.sin(q1[i] + q2[i]);
+        }
+
+        // constant coefficients
+        final double h = m2 * l1 * lc2;
+        final double d = m2 * lc2 * lc2 + izz2;
+        final double a = m1 * lc1 * lc1 + m2 * l1 * l1 + d + izz1;
+        final double g1 = (m1 * lc1 + m2 * l1) * g;
+        final double g12 = m2 * lc2 * g;
+
+        final double[] v1 = b.m_q1dot;
+        final double[] v2 = b.m_q2dot;
+        final double[] a1 = b.m_q1ddot;
+        final double[] a2 = b.m_q2ddot;
+        final double[] t1 = b.m_f1;
+        final double[] t2 = b.m_t2;
+        for (int i = 0; i < n; ++i) {
+            double m12 = h * c2[i] + d;
+            t1[i] = (a + 2 * h * c2[i]) * a1[i]
+                    + m12 * a2[i]
+                    - h * s2[i] * v2[i] * (2 * v1[i] + v2[i])
+                    - g1 * s1[i]
+                    - g12 * s12[i];
+            t2[i] = m12 * a1[i]
+                    + d * a2[i]
+                    + h * s2[i] * v1[i] * v1[i]
+                    - g12 * s12[i];
+        }
+    }
 }
@@ -71,4 +71,14 @@ public enum Experiment {
      * TODO: make this the default?
      */
     UnprofiledSteering,
+    /**
+     * Skip motor setpoint writes that repeat the previous one, to save CAN
+     * bandwidth. Off by default. See SetpointFilter.
+     */
+    DedupCanWrites,
+    /**
+     * Record the pose estimator inputs, for offline replay. See
+     * LocalizationRecorder.
+     */
+    RecordLocalization,
 }
@@ -23,7 +23,7 @@ public class FieldConstants {
         }
     }
 
-    private static final Translation2d REEF_CENTER = new Translation2d(4.489, 4.026);
+    static final Translation2d REEF_CENTER = new Translation2d(4.489, 4.026);
 
     /**
      * Scoring locations. Single letters are poles for coral, double letters are
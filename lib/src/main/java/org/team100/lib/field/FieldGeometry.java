@@ -0,0 +1,53 @@
+package org.team100.lib.field;
+
+import org.team100.lib.config.ElevatorUtil.ScoringLevel;
+import org.team100.lib.field.FieldConstants.ReefPoint;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Precomputed field geometry, for callers that ask the same questions every
+ * cycle, e.g. the driver-assist modes.
+ *
+ * The scoring goals for every ReefPoint and ScoringLevel are computed once,
+ * with FieldConstants.makeGoal(), so looking one up is an array index.
+ *
+ * Field coordinates are blue-origin for both alliances, as in FieldConstants,
+ * so there's just one table.
+ */
+public class FieldGeometry {
+    private static final double REEF_X = FieldConstants.REEF_CENTER.getX();
+    private static final double REEF_Y = FieldConstants.REEF_CENTER.getY();
+
+    /** Indexed by level ordinal, then point ordinal. */
+    private static final Pose2d[][] GOALS = goals();
+
+    /** Same as FieldConstants.makeGoal(). */
+    public static Pose2d goal(ScoringLevel level, ReefPoint point) {
+        return GOALS[level.ordinal()][point.ordinal()];
+    }
+
+    /** Same as FieldConstants.angleToReefCenter(), in radians, without allocating. */
+    public static double angleToReefCenter(double x, double y) {
+        return Math.atan2(REEF_Y - y, REEF_X - x);
+    }
+
+    /** Same as FieldConstants.getDistanceToReefCenter(), without allocating. */
+    public static double distanceToReefCenter(double x, double y) {
+        return Math.hypot(REEF_X - x, REEF_Y - y);
+    }
+
+    ////////////////////////////////////////////////
+
+    private static Pose2d[][] goals() {
+        ScoringLevel[] levels = ScoringLevel.values();
+        ReefPoint[] points = ReefPoint.values();
+        Pose2d[][] goals = new Pose2d[levels.length][points.length];
+        for (ScoringLevel level : levels) {
+            for (ReefPoint point : points) {
+                goals[level.ordinal()][point.ordinal()] = FieldConstants.makeGoal(level, point);
+            }
+        }
+        return goals;
+    }
+}
@@ -0,0 +1,190 @@
+package org.team100.lib.framework;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs deferred work (initialization, warming, one-shot delayed tasks) on a
+ * small shared pool at low priority, instead of each class making its own
+ * thread.
+ *
+ * The RoboRIO has two cores, and the main loop needs one of them, so the pool
+ * has one thread for deferrable work, plus one, mostly idle, for critical
+ * tasks. Its priority is the minimum, though note the JVM ignores
+ * Java thread priority on Linux unless it's configured to use it; Java has no
+ * way to set CPU affinity at all.
+ *
+ * The main loop reports its slack time (see TimedRobot100), and when the slack
+ * is low, deferrable tasks wait until it recovers, so background work doesn't
+ * make the main loop late. Critical tasks run regardless, on their own thread,
+ * so they're never stuck behind a long deferrable task; keep them short.
+ *
+ * RobotLog logs the metrics and resets them at the end of each cycle.
+ */
+public class BackgroundExecutor {
+    private static final boolean DEBUG = false;
+    private static final int THREADS = 1;
+    /** When the main loop slack is below this, deferrable tasks wait. */
+    private static final double MIN_SLACK_S = 0.002;
+    /** How long a waiting task waits before checking again: one cycle. */
+    private static final long RETRY_NS = (long) (TimedRobot100.LOOP_PERIOD_S * 1e9);
+
+    public enum Urgency {
+        /** Run on time, even if the main loop is struggling. */
+        CRITICAL,
+        /** Wait for the main loop to have some slack. */
+        DEFERRABLE
+    }
+
+    public static final BackgroundExecutor instance = new BackgroundExecutor(THREADS);
+
+    private final ScheduledThreadPoolExecutor m_executor;
+    /** Critical tasks only. */
+    private final ScheduledThreadPoolExecutor m_critical;
+    /** Latest main loop slack, written by the main loop. */
+    private volatile double m_slackS;
+
+    // metrics since the last reset, written by the pool threads
+    private final AtomicInteger m_completed;
+    private final AtomicInteger m_deferred;
+    private final AtomicLong m_totalLatencyNs;
+    private final AtomicLong m_maxLatencyNs;
+
+    BackgroundExecutor(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        m_executor = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread t = new Thread(r, "Background-" + n.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        m_critical = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "Background-Critical");
+            t.setDaemon(true);
+            return t;
+        });
+        m_slackS = Double.POSITIVE_INFINITY;
+        m_completed = new AtomicInteger();
+        m_deferred = new AtomicInteger();
+        m_totalLatencyNs = new AtomicLong();
+        m_maxLatencyNs = new AtomicLong();
+    }
+
+    /** Run the task soon, when the main loop has some slack. */
+    public void submit(String name, Runnable task) {
+        schedule(name, task, 0, Urgency.DEFERRABLE);
+    }
+
+    /**
+     * Run the task once, after the delay.
+     *
+     * @param name    for debugging
+     * @param task    runs on the pool thread, so it should be thread-safe
+     * @param delayS  delay in seconds
+     * @param urgency deferrable tasks may be delayed further; critical tasks
+     *                run on a separate thread.
+     */
+    public void schedule(String name, Runnable task, double delayS, Urgency urgency) {
+        long delayNs = (long) (delayS * 1e9);
+        Task t = new Task(name, task, System.nanoTime() + delayNs, urgency);
+        if (urgency == Urgency.CRITICAL) {
+            m_critical.schedule(t, delayNs, TimeUnit.NANOSECONDS);
+        } else {
+            m_executor.schedule(t, delayNs, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Called by the main loop every cycle. */
+    public void setSlack(double slackS) {
+        m_slackS = slackS;
+    }
+
+    /** True if deferrable tasks are waiting for the main loop. */
+    public boolean isPaused() {
+        return m_slackS < MIN_SLACK_S;
+    }
+
+    /** Tasks waiting to run, including the deferred ones. */
+    public int queueDepth() {
+        return m_executor.getQueue().size() + m_critical.getQueue().size();
+    }
+
+    /** Tasks completed since the last reset. */
+    public int completed() {
+        return m_completed.get();
+    }
+
+    /** Times a task was deferred since the last reset. */
+    public int deferred() {
+        return m_deferred.get();
+    }
+
+    /**
+     * Mean time between when tasks were scheduled to run and when they actually
+     * ran, since the last reset, in seconds.
+     */
+    public double meanLatencyS() {
+        int n = m_completed.get();
+        if (n == 0)
+            return 0;
+        return m_totalLatencyNs.get() / (1e9 * n);
+    }
+
+    /** Maximum latency since the last reset, in seconds. */
+    public double maxLatencyS() {
+        return m_maxLatencyNs.get() / 1e9;
+    }
+
+    public void reset() {
+        m_completed.set(0);
+        m_deferred.set(0);
+        m_totalLatencyNs.set(0);
+        m_maxLatencyNs.set(0);
+    }
+
+    /** For tests. Discards anything queued. */
+    void close() {
+        m_executor.shutdownNow();
+        m_critical.shutdownNow();
+    }
+
+    private class Task implements Runnable {
+        private final String m_name;
+        private final Runnable m_task;
+        /** When the task was supposed to run, System.nanoTime() */
+        private final long m_dueNs;
+        private final Urgency m_urgency;
+
+        Task(String name, Runnable task, long dueNs, Urgency urgency) {
+            m_name = name;
+            m_task = task;
+            m_dueNs = dueNs;
+            m_urgency = urgency;
+        }
+
+        @Override
+        public void run() {
+            if (m_urgency == Urgency.DEFERRABLE && isPaused()) {
+                m_deferred.incrementAndGet();
+                if (DEBUG)
+                    System.out.printf("deferring %s\n", m_name);
+                m_executor.schedule(this, RETRY_NS, TimeUnit.NANOSECONDS);
+                return;
+            }
+            long latencyNs = System.nanoTime() - m_dueNs;
+            try {
+                m_task.run();
+            } catch (RuntimeException e) {
+                // Don't let one task kill the pool thread.
+                System.out.printf("WARNING: background task %s failed: %s\n", m_name, e);
+            }
+            m_totalLatencyNs.addAndGet(latencyNs);
+            m_maxLatencyNs.accumulateAndGet(latencyNs, Math::max);
+            m_completed.incrementAndGet();
+            if (DEBUG)
+                System.out.printf("ran %s latency %.6f\n", m_name, latencyNs / 1e9);
+        }
+    }
+}
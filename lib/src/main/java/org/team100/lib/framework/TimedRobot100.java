@@ -151,6 +151,7 @@ public class TimedRobot100 extends IterativeRobotBase {
                 System.out.printf("WARNING: Slack time %f is too low!\n", slackS);
             }
             m_log_slack.log(() -> slackS);
+            BackgroundExecutor.instance.setSlack(slackS);
 
             callback.run();
 
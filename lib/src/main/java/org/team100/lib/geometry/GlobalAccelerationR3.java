@@ -18,6 +18,9 @@ import edu.wpi.first.math.numbers.N3;
  * This implements acceleration in R3, not SE(2); see README.md for details.
  */
 public record GlobalAccelerationR3(double x, double y, double theta) {
+
+    public static final GlobalAccelerationR3 ZERO = new GlobalAccelerationR3(0, 0, 0);
+
     public GlobalVelocityR3 integrate(double dtSec) {
         return new GlobalVelocityR3(x * dtSec, y * dtSec, theta * dtSec);
     }
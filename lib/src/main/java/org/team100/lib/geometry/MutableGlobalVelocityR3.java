@@ -0,0 +1,62 @@
+package org.team100.lib.geometry;
+
+/**
+ * Mutable version of GlobalVelocityR3, for inner loops that want to avoid
+ * allocating a new record for every step, e.g. the swerve limiter chain.
+ *
+ * Don't pass these around; keep them private to the owner, and hand out
+ * immutable GlobalVelocityR3 at the boundary.
+ *
+ * Units are meters, radians, and seconds.
+ */
+public class MutableGlobalVelocityR3 {
+    private double m_x;
+    private double m_y;
+    private double m_theta;
+
+    /** Zero. */
+    public MutableGlobalVelocityR3() {
+        //
+    }
+
+    public void set(double x, double y, double theta) {
+        m_x = x;
+        m_y = y;
+        m_theta = theta;
+    }
+
+    public void set(GlobalVelocityR3 other) {
+        set(other.x(), other.y(), other.theta());
+    }
+
+    public void set(MutableGlobalVelocityR3 other) {
+        set(other.m_x, other.m_y, other.m_theta);
+    }
+
+    public double x() {
+        return m_x;
+    }
+
+    public double y() {
+        return m_y;
+    }
+
+    public double theta() {
+        return m_theta;
+    }
+
+    /** The cartesian part only */
+    public double norm() {
+        return Math.hypot(m_x, m_y);
+    }
+
+    /** Immutable copy. */
+    public GlobalVelocityR3 get() {
+        return new GlobalVelocityR3(m_x, m_y, m_theta);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%5.2f, %5.2f, %5.2f)", m_x, m_y, m_theta);
+    }
+}
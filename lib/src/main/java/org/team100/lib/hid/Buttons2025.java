@@ -1,15 +1,30 @@
 package org.team100.lib.hid;
 
+import java.util.function.BooleanSupplier;
+
 import org.team100.lib.config.ElevatorUtil.ScoringLevel;
 import org.team100.lib.field.FieldConstants.ReefPoint;
 
-import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 
+/**
+ * The many-button controller used in 2025.
+ * 
+ * Inputs are read from a once-per-cycle snapshot, see HidSnapshot.
+ */
 public class Buttons2025 {
-    private final GenericHID m_controller;
+    private final HidSnapshot m_controller;
 
     public Buttons2025(int port) {
-        m_controller = new GenericHID(port);
+        m_controller = new HidSnapshot(port);
+    }
+
+    /**
+     * A trigger that runs its bindings only when the condition changes.
+     * The condition should read only this control, e.g. buttons::red1.
+     */
+    public Trigger trigger(BooleanSupplier condition) {
+        return m_controller.trigger(condition);
     }
 
     /** Coral Scoring Levels */
@@ -81,111 +96,111 @@ public class Buttons2025 {
     }
 
     public boolean red1() {
-        return m_controller.getRawButton(20);
+        return m_controller.button(20);
     }
 
     public boolean red2() {
-        return m_controller.getRawButton(19);
+        return m_controller.button(19);
     }
 
     public boolean red3() {
-        return m_controller.getRawButton(18);
+        return m_controller.button(18);
     }
 
     public boolean red4() {
-        return m_controller.getRawButton(17);
+        return m_controller.button(17);
     }
 
     public boolean barge() {
-        return m_controller.getRawButton(22);
+        return m_controller.button(22);
     }
 
     public boolean l1() {
-        return m_controller.getRawButton(5);
+        return m_controller.button(5);
     }
 
     public boolean l2() {
-        return m_controller.getRawButton(6);
+        return m_controller.button(6);
     }
 
     public boolean l3() {
-        return m_controller.getRawButton(7);
+        return m_controller.button(7);
     }
 
     public boolean l4() {
-        return m_controller.getRawButton(4);
+        return m_controller.button(4);
     }
 
     public boolean a() {
-        return m_controller.getRawButton(15);
+        return m_controller.button(15);
     }
 
     public boolean b() {
-        return m_controller.getRawButton(21);
+        return m_controller.button(21);
     }
 
     public boolean c() {
-        return m_controller.getRawButton(31);
+        return m_controller.button(31);
     }
 
     public boolean d() {
-        return m_controller.getRawButton(30);
+        return m_controller.button(30);
     }
 
     public boolean e() {
-        return m_controller.getRawButton(28);
+        return m_controller.button(28);
     }
 
     public boolean f() {
-        return m_controller.getRawButton(27);
+        return m_controller.button(27);
     }
 
     public boolean g() {
-        return m_controller.getRawButton(25);
+        return m_controller.button(25);
     }
 
     public boolean h() {
-        return m_controller.getRawButton(23);
+        return m_controller.button(23);
     }
 
     public boolean i() {
-        return m_controller.getRawButton(9);
+        return m_controller.button(9);
     }
 
     public boolean j() {
-        return m_controller.getRawButton(10);
+        return m_controller.button(10);
     }
 
     public boolean k() {
-        return m_controller.getRawButton(12);
+        return m_controller.button(12);
     }
 
     public boolean l() {
-        return m_controller.getRawButton(13);
+        return m_controller.button(13);
     }
 
     public boolean ab() {
-        return m_controller.getRawButton(1);
+        return m_controller.button(1);
     }
 
     public boolean cd() {
-        return m_controller.getRawButton(2);
+        return m_controller.button(2);
     }
 
     public boolean ef() {
-        return m_controller.getRawButton(29);
+        return m_controller.button(29);
     }
 
     public boolean gh() {
-        return m_controller.getRawButton(26);
+        return m_controller.button(26);
     }
 
     public boolean ij() {
-        return m_controller.getRawButton(11);
+        return m_controller.button(11);
     }
 
     public boolean kl() {
-        return m_controller.getRawButton(14);
+        return m_controller.button(14);
     }
 
 }
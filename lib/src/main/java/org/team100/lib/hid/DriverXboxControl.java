@@ -1,7 +1,13 @@
 package org.team100.lib.hid;
 
+import java.util.function.BooleanSupplier;
+
+import org.team100.lib.coherence.Takt;
+
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.wpilibj.XboxController;
+import edu.wpi.first.wpilibj.XboxController.Axis;
+import edu.wpi.first.wpilibj.XboxController.Button;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 
 /**
  * This is a Microsoft Xbox controller, Logitech F310, or similar.
@@ -10,12 +16,26 @@ import edu.wpi.first.wpilibj.XboxController;
  * names.
  * 
  * Do not use stick buttons, they are prone to stray clicks
+ * 
+ * Inputs are read from a once-per-cycle snapshot, see HidSnapshot.
  */
 public class DriverXboxControl {
-    private final XboxController m_controller;
+    private final HidSnapshot m_controller;
+    /** The shaped velocity is computed once per cycle. */
+    private Velocity m_velocity;
+    private double m_velocityTimeS;
 
     public DriverXboxControl(int port) {
-        m_controller = new XboxController(port);
+        m_controller = new HidSnapshot(port);
+        m_velocityTimeS = Double.NaN;
+    }
+
+    /**
+     * A trigger that runs its bindings only when the condition changes.
+     * The condition should read only this control, e.g. driver::a.
+     */
+    public Trigger trigger(BooleanSupplier condition) {
+        return m_controller.trigger(condition);
     }
 
     /**
@@ -25,82 +45,87 @@ public class DriverXboxControl {
      * * left X (axis 0) is rotation, counterclockwise
      */
     public Velocity velocity() {
-        return ControlUtil.velocity(
-                m_controller::getRightY,
-                m_controller::getRightX,
-                m_controller::getLeftX,
-                0.1,
-                0.65);
+        double now = Takt.get();
+        if (now != m_velocityTimeS) {
+            m_velocity = ControlUtil.velocity(
+                    this::rightY,
+                    this::rightX,
+                    this::leftX,
+                    0.1,
+                    0.65);
+            m_velocityTimeS = now;
+        }
+        return m_velocity;
     }
 
     /** Axis 5 */
     public double rightY() {
-        return m_controller.getRightY();
+        return m_controller.axis(Axis.kRightY.value);
     }
 
     /** Axis 4 */
     public double rightX() {
-        return m_controller.getRightX();
+        return m_controller.axis(Axis.kRightX.value);
     }
 
     /** Axis 0 */
     public double leftX() {
-        return m_controller.getLeftX();
+        return m_controller.axis(Axis.kLeftX.value);
     }
 
     public Rotation2d pov() {
-        return ControlUtil.pov(m_controller::getPOV);
+        return ControlUtil.pov(m_controller::pov);
     }
 
     public boolean back() {
-        return m_controller.getBackButton();
+        return m_controller.button(Button.kBack.value);
     }
 
     public boolean start() {
-        return m_controller.getStartButton();
+        return m_controller.button(Button.kStart.value);
     }
 
     /** Left trigger is all the way in */
     public boolean leftTrigger() {
-        return m_controller.getLeftTriggerAxis() > 0.9;
+        return m_controller.axis(Axis.kLeftTrigger.value) > 0.9;
     }
 
     /** Right trigger is all the way in */
     public boolean rightTrigger() {
-        return m_controller.getRightTriggerAxis() > 0.9;
+        return m_controller.axis(Axis.kRightTrigger.value) > 0.9;
     }
 
     public boolean leftBumper() {
-        return m_controller.getLeftBumperButton();
+        return m_controller.button(Button.kLeftBumper.value);
     }
 
     public boolean rightBumper() {
-        return m_controller.getRightBumperButton();
+        return m_controller.button(Button.kRightBumper.value);
     }
 
     /** Button 1 */
     public boolean a() {
-        return m_controller.getAButton();
+        return m_controller.button(Button.kA.value);
     }
 
     /** Button 2 */
     public boolean b() {
-        return m_controller.getBButton();
+        return m_controller.button(Button.kB.value);
     }
 
     /** Button 3 */
     public boolean x() {
-        return m_controller.getXButton();
+        return m_controller.button(Button.kX.value);
     }
 
     /** Button 4 */
     public boolean y() {
-        return m_controller.getYButton();
+        return m_controller.button(Button.kY.value);
     }
 
     /** Axis 1 */
     public double leftY() {
-        return m_controller.getLeftY();
+        return m_controller.axis(Axis.kLeftY.value);
     }
 
 }
@@ -0,0 +1,162 @@
+package org.team100.lib.hid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.team100.lib.coherence.Cache;
+import org.team100.lib.coherence.SideEffect;
+import org.team100.lib.coherence.Takt;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.event.EventLoop;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+
+/**
+ * Captures all the inputs of one controller once per cycle, so that reading a
+ * button or an axis is an array lookup, rather than a trip into DriverStation.
+ *
+ * The snapshot is refreshed by Cache.refresh(), or by the first read in a
+ * cycle, if Cache isn't in use.
+ *
+ * Triggers made here (see trigger()) are bound to a separate EventLoop, which
+ * is polled only in cycles where one of its conditions changed, so the cost of
+ * binding commands to this controller is one comparison per cycle, no matter
+ * how many bindings there are. The conditions are evaluated once per cycle,
+ * when the snapshot is refreshed, and their edges are found all at once, as
+ * bits.
+ *
+ * The loops of all the open snapshots are run by pollAll(), which the owner of
+ * the controls binds to the scheduler's button loop once, e.g.
+ *
+ * CommandScheduler.getInstance().getDefaultButtonLoop().bind(HidSnapshot::pollAll);
+ *
+ * The default button loop has no way to remove a binding, so the snapshots
+ * don't bind themselves. close() stops the refresh, drops the snapshot from
+ * pollAll(), and clears its bindings.
+ */
+public class HidSnapshot {
+    private static final int MAX_AXES = DriverStation.kMaxJoystickAxes;
+    /** Buttons occupy the low 32 bits, trigger conditions the high 32. */
+    private static final int MAX_CONDITIONS = 32;
+    /** Snapshots that haven't been closed, see pollAll(). */
+    private static final List<HidSnapshot> OPEN = new ArrayList<>();
+
+    private final int m_port;
+    private final double[] m_axes;
+    private int m_buttons;
+    private int m_pov;
+    /** Takt time of the snapshot. */
+    private double m_timeS;
+
+    private final BooleanSupplier[] m_conditions;
+    private int m_conditionCount;
+    /** Buttons and conditions */
+    private long m_state;
+    /** Bits that changed in the latest refresh. */
+    private long m_edges;
+    private final EventLoop m_loop;
+    private final SideEffect m_update;
+
+    public HidSnapshot(int port) {
+        m_port = port;
+        m_axes = new double[MAX_AXES];
+        m_pov = -1;
+        m_timeS = Double.NaN;
+        m_conditions = new BooleanSupplier[MAX_CONDITIONS];
+        m_loop = new EventLoop();
+        m_update = Cache.ofSideEffect(this::update);
+        OPEN.add(this);
+    }
+
+    /**
+     * Run the bindings of each open snapshot whose buttons or conditions
+     * changed. Bind this to the scheduler's button loop once.
+     */
+    public static void pollAll() {
+        // by index, in case a binding makes a new snapshot.
+        for (int i = 0; i < OPEN.size(); ++i) {
+            OPEN.get(i).poll();
+        }
+    }
+
+    /** Stop refreshing, and drop the bindings. */
+    public void close() {
+        Cache.removeSideEffect(m_update);
+        OPEN.remove(this);
+        m_loop.clear();
+    }
+
+    /** Raw axis value, or zero if absent. */
+    public double axis(int axis) {
+        refresh();
+        return m_axes[axis];
+    }
+
+    /** Button numbers start at 1, like GenericHID.getRawButton(). */
+    public boolean button(int button) {
+        refresh();
+        return (m_buttons & (1 << (button - 1))) != 0;
+    }
+
+    /** POV angle in degrees, or -1 if not pressed. */
+    public int pov() {
+        refresh();
+        return m_pov;
+    }
+
+    /**
+     * A trigger for the condition, bound to this controller's event loop.
+     *
+     * The condition should depend only on this controller, since it's only
+     * checked when the snapshot is refreshed.
+     */
+    public Trigger trigger(BooleanSupplier condition) {
+        if (m_conditionCount == MAX_CONDITIONS)
+            throw new IllegalStateException("too many triggers on port " + m_port);
+        int bit = 32 + m_conditionCount;
+        m_conditions[m_conditionCount++] = condition;
+        return new Trigger(m_loop, () -> (m_state & (1L << bit)) != 0);
+    }
+
+    /** The conditions and buttons that changed in this cycle, as bits. */
+    long edges() {
+        refresh();
+        return m_edges;
+    }
+
+    /** Capture everything. */
+    void update() {
+        // set the time first, so the conditions can read the snapshot.
+        m_timeS = Takt.get();
+        int axisCount = Math.min(MAX_AXES, DriverStation.getStickAxisCount(m_port));
+        for (int i = 0; i < axisCount; ++i) {
+            m_axes[i] = DriverStation.getStickAxis(m_port, i);
+        }
+        for (int i = axisCount; i < MAX_AXES; ++i) {
+            m_axes[i] = 0;
+        }
+        m_buttons = DriverStation.getStickButtons(m_port);
+        m_pov = DriverStation.getStickPOVCount(m_port) > 0
+                ? DriverStation.getStickPOV(m_port, 0)
+                : -1;
+        long state = m_buttons & 0xffffffffL;
+        for (int i = 0; i < m_conditionCount; ++i) {
+            if (m_conditions[i].getAsBoolean())
+                state |= 1L << (32 + i);
+        }
+        m_edges = state ^ m_state;
+        m_state = state;
+    }
+
+    private void refresh() {
+        if (Takt.get() != m_timeS)
+            update();
+    }
+
+    /** Run the bindings only if something changed. */
+    private void poll() {
+        if (edges() != 0)
+            m_loop.poll();
+    }
+}
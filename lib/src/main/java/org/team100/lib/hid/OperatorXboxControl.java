@@ -1,6 +1,10 @@
 package org.team100.lib.hid;
 
-import edu.wpi.first.wpilibj.XboxController;
+import java.util.function.BooleanSupplier;
+
+import edu.wpi.first.wpilibj.XboxController.Axis;
+import edu.wpi.first.wpilibj.XboxController.Button;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 
 /**
  * This is a Microsoft Xbox controller, Logitech F310, or similar.
@@ -9,40 +13,50 @@ import edu.wpi.first.wpilibj.XboxController;
  * names.
  * 
  * Do not use stick buttons, they are prone to stray clicks
+ * 
+ * Inputs are read from a once-per-cycle snapshot, see HidSnapshot.
  */
 public class OperatorXboxControl {
-    private final XboxController m_controller;
+    private final HidSnapshot m_controller;
 
     public OperatorXboxControl(int port) {
-        m_controller = new XboxController(port);
+        m_controller = new HidSnapshot(port);
+    }
+
+    /**
+     * A trigger that runs its bindings only when the condition changes.
+     * The condition should read only this control, e.g. operator::leftBumper.
+     */
+    public Trigger trigger(BooleanSupplier condition) {
+        return m_controller.trigger(condition);
     }
 
     public Velocity velocity() {
         return ControlUtil.velocity(
-                m_controller::getRightY,
-                m_controller::getRightX,
-                m_controller::getLeftX,
+                () -> m_controller.axis(Axis.kRightY.value),
+                () -> m_controller.axis(Axis.kRightX.value),
+                () -> m_controller.axis(Axis.kLeftX.value),
                 0.1,
                 0.65);
     }
 
     public double leftY() {
-        return m_controller.getLeftY();
+        return m_controller.axis(Axis.kLeftY.value);
     }
 
     public boolean leftBumper() {
-        return m_controller.getLeftBumperButton();
+        return m_controller.button(Button.kLeftBumper.value);
     }
 
     public boolean rightBumper() {
-        return m_controller.getRightBumperButton();
+        return m_controller.button(Button.kRightBumper.value);
     }
 
     /** Right trigger is all the way in */
     public boolean rightTrigger() {
-        return m_controller.getRightTriggerAxis() > 0.9;
+        return m_controller.axis(Axis.kRightTrigger.value) > 0.9;
     }
     public boolean leftTrigger() {
-        return m_controller.getLeftTriggerAxis() > 0.9;
+        return m_controller.axis(Axis.kLeftTrigger.value) > 0.9;
     }
 }
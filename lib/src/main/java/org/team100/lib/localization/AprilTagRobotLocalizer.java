@@ -1,5 +1,6 @@
 package org.team100.lib.localization;
 
+import java.nio.ByteBuffer;
 import java.util.Optional;
 import java.util.function.DoubleFunction;
 
@@ -24,10 +25,6 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation3d;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.networktables.StructArrayPublisher;
-import edu.wpi.first.networktables.StructPublisher;
-import edu.wpi.first.util.struct.StructBuffer;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 
@@ -42,6 +39,8 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
     private static final boolean DEBUG = false;
     /** Maximum age of the sights we publish for diagnosis. */
     private static final double HISTORY_DURATION = 1.0;
+    /** How often to publish the sights, and the pose, for diagnosis. */
+    private static final double DIAGNOSTIC_PERIOD_S = 0.1;
 
     /**
      * If the tag is closer than this threshold, then the camera's estimate of tag
@@ -59,6 +58,8 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
     /** Discard results further than this from the previous one. */
     private static final double VISION_CHANGE_TOLERANCE_M = 0.1;
     // private static final double VISION_CHANGE_TOLERANCE_M = 1;
+    /** Standard deviation of the vision estimate, as a fraction of tag range. */
+    private static final double RANGE_SIGMA_K = 0.03;
 
     /** this is the default value which, in hindsight, seems ridiculously high. */
     private static final double[] defaultStateStdDevs = new double[] {
@@ -79,22 +80,27 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
     private final AprilTagFieldLayoutWithCorrectOrientation m_layout;
 
     /**
-     * The apparent position of tags we see: this can be shown in AdvantageScope
-     * using the Vision Target feature. The apparent position should match the
-     * actual position, if the cameras are calibrated correctly. Note this involves
-     * matching the frame timestamp with the pose history timestamp, so if the blip
-     * source timestamp is wrong (as it is at the moment in the simulated tag
-     * detector) then these positions will be a little bit wrong.
-     */
-    private final StructArrayPublisher<Pose3d> m_pub_tags;
-    /** Just tags we use for pose estimation. */
-    private final StructArrayPublisher<Pose3d> m_pub_used_tags;
-
-    /**
-     * The pose we derive from each sighting, so we can see it in AdvantageScope's
-     * map, which can't understand our usual Pose2dLogger's output.
+     * Publishes, in the background, every DIAGNOSTIC_PERIOD_S:
+     * 
+     * "tags": The apparent position of tags we see: this can be shown in
+     * AdvantageScope using the Vision Target feature. The apparent position should
+     * match the actual position, if the cameras are calibrated correctly. Note this
+     * involves matching the frame timestamp with the pose history timestamp, so if
+     * the blip source timestamp is wrong (as it is at the moment in the simulated
+     * tag detector) then these positions will be a little bit wrong.
+     * 
+     * "used tags": Just the sightings that were passed to the vision updater, i.e.
+     * not the ones skipped by HeedVision, the heed radius, the first-update rule,
+     * or the change tolerance. This used to include every sighting, the same as
+     * "tags", so older logs aren't comparable.
+     * 
+     * "pose": The latest pose we derive from a sighting, so we can see it in
+     * AdvantageScope's map, which can't understand our usual Pose2dLogger's
+     * output. This is one value per publish, not one per sighting as it used to
+     * be; the intermediate ones are dropped. Every sighting's pose is still in
+     * the "pose" Pose2dLogger (m_log_pose).
      */
-    private final StructPublisher<Pose2d> m_pub_pose;
+    private final TagPublisher m_publisher;
 
     // LOGGERS
     private final EnumLogger m_log_alliance;
@@ -120,6 +126,11 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
 
     /** use tags closer than this; ignore tags further than this. */
     private double m_heedRadiusM = 3.5;
+    private double m_visionChangeToleranceM = VISION_CHANGE_TOLERANCE_M;
+    private double m_rangeSigmaK = RANGE_SIGMA_K;
+
+    /** Nullable. */
+    private LocalizationRecorder m_recorder;
 
     /**
      * Accumulates all tags we receive in each cycle, whether we use them or not.
@@ -142,18 +153,14 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
             AprilTagFieldLayoutWithCorrectOrientation layout,
             DoubleFunction<ModelR3> history,
             VisionUpdater visionUpdater) {
-        super("vision", "blips", StructBuffer.create(Blip24.struct));
+        super("vision", "blips", Blip24.struct);
         LoggerFactory log = parent.type(this);
         m_layout = layout;
         m_history = history;
         m_visionUpdater = visionUpdater;
         m_allTags = new TrailingHistory<>(HISTORY_DURATION);
         m_usedTags = new TrailingHistory<>(HISTORY_DURATION);
-
-        NetworkTableInstance inst = NetworkTableInstance.getDefault();
-        m_pub_tags = inst.getStructArrayTopic("tags", Pose3d.struct).publish();
-        m_pub_used_tags = inst.getStructArrayTopic("used tags", Pose3d.struct).publish();
-        m_pub_pose = inst.getStructTopic("pose", Pose2d.struct).publish();
+        m_publisher = new TagPublisher(DIAGNOSTIC_PERIOD_S);
 
         m_log_alliance = log.enumLogger(Level.TRACE, "alliance");
         m_log_heedRadius = log.doubleLogger(Level.TRACE, "heed radius");
@@ -178,17 +185,37 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
             Transform3d cameraOffset,
             double valueTimestamp,
             Blip24[] blips) {
+        Optional<Alliance> alliance = DriverStation.getAlliance();
+        if (m_recorder != null)
+            m_recorder.vision(cameraOffset, valueTimestamp, blips, alliance);
         estimateRobotPose(
                 cameraOffset,
                 blips,
                 valueTimestamp,
-                DriverStation.getAlliance());
+                alliance);
+    }
+
+    /** Reuse the blips from the previous frame. */
+    @Override
+    protected Blip24 unpack(ByteBuffer bb, Blip24 previous) {
+        if (previous == null)
+            return Blip24.struct.unpack(bb);
+        Blip24.struct.unpackInto(previous, bb);
+        return previous;
     }
 
     @Override
     protected void finishUpdate() {
-        m_pub_tags.set(m_allTags.getAll().toArray(new Pose3d[0]));
-        m_pub_used_tags.set(m_usedTags.getAll().toArray(new Pose3d[0]));
+        // with no sightings, nothing is added, so evict explicitly.
+        double now = Takt.get();
+        m_allTags.evict(now);
+        m_usedTags.evict(now);
+        m_publisher.update(m_allTags, m_usedTags);
+    }
+
+    /** How often to publish diagnostics. */
+    public void setDiagnosticPeriodS(double periodS) {
+        m_publisher.setPeriodS(periodS);
     }
 
     /**
@@ -198,6 +225,27 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
         m_heedRadiusM = heedRadiusM;
     }
 
+    /**
+     * Estimates further than this from the previous one are discarded. For
+     * tuning with LocalizationReplay.
+     */
+    public void setVisionChangeToleranceM(double visionChangeToleranceM) {
+        m_visionChangeToleranceM = visionChangeToleranceM;
+    }
+
+    /**
+     * Standard deviation of the vision estimate, as a fraction of tag range.
+     * For tuning with LocalizationReplay.
+     */
+    public void setRangeSigmaK(double rangeSigmaK) {
+        m_rangeSigmaK = rangeSigmaK;
+    }
+
+    /** Record the camera input, for replay. */
+    public void setRecorder(LocalizationRecorder recorder) {
+        m_recorder = recorder;
+    }
+
     /**
      * Compute the robot pose and put it in the pose estimator.
      * 
@@ -294,7 +342,7 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
                 m_log_using_gyro.log(() -> false);
             }
 
-            extralog(
+            Pose3d estimatedTagInField = extralog(
                     correctedTimestamp,
                     historicalPose,
                     cameraOffset,
@@ -313,7 +361,7 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
                     gyroRotation);
 
             m_log_pose.log(() -> pose);
-            m_pub_pose.set(pose);
+            m_publisher.setPose(pose);
 
             if (!Experiments.instance.enabled(Experiment.HeedVision)) {
                 // If we've turned vision off altogether, then don't apply this update to the
@@ -340,7 +388,7 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
             }
 
             final double distanceM = distance(m_prevPose, pose);
-            if (distanceM > VISION_CHANGE_TOLERANCE_M) {
+            if (distanceM > m_visionChangeToleranceM) {
                 // The new estimate is too far from the previous one: it's probably garbage.
                 m_prevPose = pose;
                 if (DEBUG)
@@ -352,15 +400,20 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
                     correctedTimestamp,
                     pose,
                     stateStdDevs(),
-                    visionMeasurementStdDevs(distanceM));
+                    visionMeasurementStdDevs(distanceM, m_rangeSigmaK));
 
+            m_usedTags.add(correctedTimestamp, estimatedTagInField);
             m_latestTime = Takt.get();
             m_prevPose = pose;
         }
     }
 
-    /** visualization stuff, not used in computation */
-    private void extralog(
+    /**
+     * visualization stuff, not used in computation
+     * 
+     * @return where we think the tag is
+     */
+    private Pose3d extralog(
             double correctedTimestamp,
             Pose2d historicalPose,
             Transform3d cameraOffset,
@@ -376,7 +429,7 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
         // log the norm of the translational error of the tag.
         Transform3d tagError = tagInField.minus(estimatedTagInField);
         m_log_tag_error.log(() -> tagError.getTranslation().getNorm());
-        m_usedTags.add(correctedTimestamp, estimatedTagInField);
+        return estimatedTagInField;
     }
 
     static double[] stateStdDevs() {
@@ -386,18 +439,25 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
         return defaultStateStdDevs;
     }
 
-    /** This is an educated guess. */
     static double[] visionMeasurementStdDevs(double distanceM) {
+        return visionMeasurementStdDevs(distanceM, RANGE_SIGMA_K);
+    }
+
+    /**
+     * This is an educated guess.
+     * 
+     * @param k standard deviation as a fraction of target range
+     */
+    static double[] visionMeasurementStdDevs(double distanceM, double k) {
         if (Experiments.instance.enabled(Experiment.AvoidVisionJitter)) {
             /*
              * NEW (3/12/25), 2 cm std dev seems kinda realistic for 1 m.
              * 
              * If it still jitters, try 0.03 or 0.05, but watch out for slow convergence.
              */
-            final double K = 0.03;
             return new double[] {
-                    (K * distanceM) + 0.01,
-                    (K * distanceM) + 0.01,
+                    (k * distanceM) + 0.01,
+                    (k * distanceM) + 0.01,
                     Double.MAX_VALUE };
         }
         /*
@@ -405,10 +465,9 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
          * This is a guess based on figure 5 in the Apriltag2 paper:
          * https://april.eecs.umich.edu/media/media/pdfs/wang2016iros.pdf
          */
-        final double K = 0.03;
         return new double[] {
-                K * distanceM,
-                K * distanceM,
+                k * distanceM,
+                k * distanceM,
                 Double.MAX_VALUE };
     }
 
@@ -1,17 +1,35 @@
 package org.team100.lib.localization;
 
+import java.nio.ByteBuffer;
+
 import org.team100.lib.geometry.GeometryUtil;
 
+import edu.wpi.first.math.geometry.Quaternion;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation3d;
 
 /**
  * Mirrors tag_finder24.py Blip24.
+ * 
+ * The fields are stored as primitives, so that decoding doesn't allocate the
+ * WPI geometry objects unless someone asks for them. Instances decoded by
+ * CameraReader are reused (see Blip24Struct.unpackInto()), so don't keep a
+ * reference to a blip beyond the perValue() call that delivered it.
  */
 public class Blip24 {
-    private final int id;
-    private final Transform3d pose;
+    private int id;
+    // translation, z-forward camera coordinates
+    private double x;
+    private double y;
+    private double z;
+    // rotation quaternion, z-forward camera coordinates
+    private double qw;
+    private double qx;
+    private double qy;
+    private double qz;
+    /** Memoized raw pose, null until requested. */
+    private Transform3d pose;
 
     /**
      * @param id   AprilTag id
@@ -20,15 +38,59 @@ public class Blip24 {
      */
     public Blip24(int id, Transform3d pose) {
         this.id = id;
+        Translation3d t = pose.getTranslation();
+        Quaternion q = pose.getRotation().getQuaternion();
+        this.x = t.getX();
+        this.y = t.getY();
+        this.z = t.getZ();
+        this.qw = q.getW();
+        this.qx = q.getX();
+        this.qy = q.getY();
+        this.qz = q.getZ();
         this.pose = pose;
     }
 
+    /** Empty, for decoding. */
+    Blip24() {
+        qw = 1;
+    }
+
     public static Blip24 fromXForward(int id, Transform3d pose) {
         return new Blip24(id, new Transform3d(
                 GeometryUtil.xForwardToZForward(pose.getTranslation()),
                 GeometryUtil.xForwardToZForward(pose.getRotation())));
     }
 
+    /**
+     * Overwrite this blip with the next one in the buffer, in the layout
+     * described by Blip24Struct, without allocating anything.
+     */
+    void read(ByteBuffer bb) {
+        id = bb.getInt();
+        // Translation3d
+        x = bb.getDouble();
+        y = bb.getDouble();
+        z = bb.getDouble();
+        // Rotation3d is Quaternion
+        qw = bb.getDouble();
+        qx = bb.getDouble();
+        qy = bb.getDouble();
+        qz = bb.getDouble();
+        pose = null;
+    }
+
+    /** The inverse of read(), for LocalizationRecorder. */
+    void write(ByteBuffer bb) {
+        bb.putInt(id);
+        bb.putDouble(x);
+        bb.putDouble(y);
+        bb.putDouble(z);
+        bb.putDouble(qw);
+        bb.putDouble(qx);
+        bb.putDouble(qy);
+        bb.putDouble(qz);
+    }
+
     /**
      * ID of the AprilTag.
      */
@@ -42,6 +104,11 @@ public class Blip24 {
      * directly.
      */
     public Transform3d getRawPose() {
+        if (pose == null) {
+            pose = new Transform3d(
+                    new Translation3d(x, y, z),
+                    new Rotation3d(new Quaternion(qw, qx, qy, qz)));
+        }
         return pose;
     }
 
@@ -56,7 +123,7 @@ public class Blip24 {
 
     @Override
     public String toString() {
-        return "Blip24 [id=" + id + ", pose=" + pose + "]";
+        return "Blip24 [id=" + id + ", pose=" + getRawPose() + "]";
     }
 
     public static final Blip24Struct struct = new Blip24Struct();
@@ -67,17 +134,22 @@ public class Blip24 {
      * It would be possible to also consume the blip rotation matrix, if it were
      * renormalized, but it's not very accurate, so we don't consume it.
      * Package-private for testing.
+     * 
+     * Same as GeometryUtil.zForwardToXForward(), using the fields directly.
      */
     private Translation3d blipToTranslation() {
-        return GeometryUtil.zForwardToXForward(pose.getTranslation());
+        return new Translation3d(z, -x, -y);
     }
 
     /**
      * Extract the rotation from the "z forward" blip and return the same rotation
      * expressed in our usual "x forward" NWU coordinates. Package-private for
      * testing.
+     * 
+     * Same as GeometryUtil.zForwardToXForward(), using the fields directly.
+     * Rotation3d normalizes the quaternion.
      */
     private Rotation3d blipToRotation() {
-        return GeometryUtil.zForwardToXForward(pose.getRotation());
+        return new Rotation3d(new Quaternion(qw, qz, -qx, -qy));
     }
 }
@@ -34,9 +34,17 @@ public class Blip24Struct implements Struct<Blip24> {
 
     @Override
     public Blip24 unpack(ByteBuffer bb) {
-        int id = bb.getInt();
-        Transform3d pose = Transform3d.struct.unpack(bb);
-        return new Blip24(id, pose);
+        Blip24 value = new Blip24();
+        value.read(bb);
+        return value;
+    }
+
+    /**
+     * Decode into an existing blip, to avoid allocation. The layout is the same
+     * as the nested Transform3d struct: translation xyz, then quaternion wxyz.
+     */
+    public void unpackInto(Blip24 out, ByteBuffer bb) {
+        out.read(bb);
     }
 
     @Override
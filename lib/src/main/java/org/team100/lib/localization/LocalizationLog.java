@@ -0,0 +1,110 @@
+package org.team100.lib.localization;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePosition100;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePositions;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * Reads the log written by LocalizationRecorder, in order, passing each record
+ * to a Visitor.
+ */
+public class LocalizationLog {
+
+    public interface Visitor {
+        void reset(double timestampS, Rotation2d gyroAngle, Pose2d pose, SwerveModulePositions positions);
+
+        void odometry(OdometrySample sample);
+
+        void vision(Transform3d cameraOffset, double valueTimestamp, Blip24[] blips, Optional<Alliance> alliance);
+    }
+
+    private LocalizationLog() {
+        //
+    }
+
+    /**
+     * Read the whole file.
+     *
+     * @return the number of records
+     * @throws IllegalArgumentException if the file isn't a localization log
+     */
+    public static int read(Path path, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.remaining() < 8 || buf.getLong() != LocalizationRecorder.MAGIC)
+                throw new IllegalArgumentException("not a localization log: " + path);
+            int count = 0;
+            while (buf.hasRemaining()) {
+                byte tag = buf.get();
+                switch (tag) {
+                    case LocalizationRecorder.END -> {
+                        return count;
+                    }
+                    case LocalizationRecorder.RESET -> visitor.reset(
+                            buf.getDouble(),
+                            new Rotation2d(buf.getDouble()),
+                            new Pose2d(buf.getDouble(), buf.getDouble(), new Rotation2d(buf.getDouble())),
+                            positions(buf));
+                    case LocalizationRecorder.ODOMETRY -> {
+                        double t = buf.getDouble();
+                        Rotation2d yaw = new Rotation2d(buf.getDouble());
+                        double yawRate = buf.getDouble();
+                        visitor.odometry(new OdometrySample(t, positions(buf), yaw, yawRate));
+                    }
+                    case LocalizationRecorder.VISION -> {
+                        Transform3d offset = Transform3d.struct.unpack(buf);
+                        double t = buf.getDouble();
+                        Optional<Alliance> alliance = alliance(buf.get());
+                        Blip24[] blips = new Blip24[buf.getInt()];
+                        for (int i = 0; i < blips.length; ++i) {
+                            blips[i] = Blip24.struct.unpack(buf);
+                        }
+                        visitor.vision(offset, t, blips, alliance);
+                    }
+                    default -> throw new IllegalArgumentException(
+                            String.format("bad tag %d at %d in %s", tag, buf.position() - 1, path));
+                }
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static Optional<Alliance> alliance(byte b) {
+        return switch (b) {
+            case 1 -> Optional.of(Alliance.Red);
+            case 2 -> Optional.of(Alliance.Blue);
+            default -> Optional.empty();
+        };
+    }
+
+    private static SwerveModulePositions positions(MappedByteBuffer buf) {
+        return new SwerveModulePositions(
+                position(buf),
+                position(buf),
+                position(buf),
+                position(buf));
+    }
+
+    private static SwerveModulePosition100 position(MappedByteBuffer buf) {
+        double distance = buf.getDouble();
+        boolean hasAngle = buf.get() != 0;
+        double angle = buf.getDouble();
+        return new SwerveModulePosition100(
+                distance,
+                hasAngle ? Optional.of(new Rotation2d(angle)) : Optional.empty());
+    }
+}
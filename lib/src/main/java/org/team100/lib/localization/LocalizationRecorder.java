@@ -0,0 +1,167 @@
+package org.team100.lib.localization;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePosition100;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePositions;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * Records the inputs to the pose estimator (resets, odometry samples, and
+ * camera frames) in a compact binary log, so that LocalizationReplay can
+ * reproduce the pose track offline.
+ *
+ * The file is memory-mapped, so each record is just a few stores into the
+ * page cache, on the main thread, with no allocation and no system calls; the
+ * kernel writes the pages out, even if the robot code dies. The file has a
+ * fixed capacity; if it fills, later records are dropped, and counted.
+ *
+ * The format is little-endian: an 8-byte magic number, then records, each
+ * starting with a one-byte tag. A zero tag, or the end of the file, ends the
+ * log. See LocalizationLog for the reader.
+ */
+public class LocalizationRecorder implements AutoCloseable {
+    static final long MAGIC = 0x3143_4f4c_3030_3154L; // "T100LOC1"
+    static final byte END = 0;
+    static final byte RESET = 1;
+    static final byte ODOMETRY = 2;
+    static final byte VISION = 3;
+    /** 8 bytes distance, 1 byte has-angle, 8 bytes angle. */
+    static final int MODULE_BYTES = 17;
+    static final int POSITIONS_BYTES = 4 * MODULE_BYTES;
+    static final int BLIP_BYTES = 60;
+    static final int TRANSFORM_BYTES = 56;
+    /** About 18 minutes of 250 Hz odometry, plus tags. */
+    private static final int DEFAULT_CAPACITY = 64 << 20;
+
+    private final FileChannel m_channel;
+    private final MappedByteBuffer m_buf;
+    private long m_dropped;
+    private boolean m_closed;
+
+    public LocalizationRecorder(Path path) throws IOException {
+        this(path, DEFAULT_CAPACITY);
+    }
+
+    LocalizationRecorder(Path path, int capacity) throws IOException {
+        m_channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        m_buf = m_channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        m_buf.order(ByteOrder.LITTLE_ENDIAN);
+        m_buf.putLong(MAGIC);
+    }
+
+    /** See OdometryUpdater.reset(). */
+    public void reset(
+            double timestampS,
+            Rotation2d gyroAngle,
+            Pose2d pose,
+            SwerveModulePositions positions) {
+        if (!room(1 + 8 + 8 + 24 + POSITIONS_BYTES))
+            return;
+        m_buf.put(RESET);
+        m_buf.putDouble(timestampS);
+        m_buf.putDouble(gyroAngle.getRadians());
+        m_buf.putDouble(pose.getX());
+        m_buf.putDouble(pose.getY());
+        m_buf.putDouble(pose.getRotation().getRadians());
+        put(positions);
+    }
+
+    /** See OdometryUpdater.update(). */
+    public void odometry(
+            double timestampS,
+            Rotation2d yawNWU,
+            double yawRateRad_S,
+            SwerveModulePositions positions) {
+        if (!room(1 + 8 + 8 + 8 + POSITIONS_BYTES))
+            return;
+        m_buf.put(ODOMETRY);
+        m_buf.putDouble(timestampS);
+        m_buf.putDouble(yawNWU.getRadians());
+        m_buf.putDouble(yawRateRad_S);
+        put(positions);
+    }
+
+    /** See AprilTagRobotLocalizer.perValue(). */
+    public void vision(
+            Transform3d cameraOffset,
+            double valueTimestamp,
+            Blip24[] blips,
+            Optional<Alliance> alliance) {
+        if (!room(1 + TRANSFORM_BYTES + 8 + 1 + 4 + blips.length * BLIP_BYTES))
+            return;
+        m_buf.put(VISION);
+        Transform3d.struct.pack(m_buf, cameraOffset);
+        m_buf.putDouble(valueTimestamp);
+        m_buf.put(alliance(alliance));
+        m_buf.putInt(blips.length);
+        for (Blip24 blip : blips) {
+            blip.write(m_buf);
+        }
+    }
+
+    /** Records that didn't fit. */
+    public long dropped() {
+        return m_dropped;
+    }
+
+    /** Flush, and trim the file to the records actually written. */
+    @Override
+    public void close() throws IOException {
+        if (m_closed)
+            return;
+        m_closed = true;
+        m_buf.force();
+        m_channel.truncate(m_buf.position());
+        m_channel.close();
+    }
+
+    private boolean room(int bytes) {
+        if (m_closed)
+            return false;
+        if (m_buf.remaining() < bytes) {
+            m_dropped++;
+            return false;
+        }
+        return true;
+    }
+
+    /** 0 for none, 1 for red, 2 for blue. */
+    private static byte alliance(Optional<Alliance> alliance) {
+        if (alliance.isEmpty())
+            return 0;
+        return alliance.get() == Alliance.Red ? (byte) 1 : (byte) 2;
+    }
+
+    private void put(SwerveModulePositions positions) {
+        put(positions.frontLeft());
+        put(positions.frontRight());
+        put(positions.rearLeft());
+        put(positions.rearRight());
+    }
+
+    private void put(SwerveModulePosition100 p) {
+        m_buf.putDouble(p.distanceMeters);
+        if (p.unwrappedAngle.isPresent()) {
+            m_buf.put((byte) 1);
+            m_buf.putDouble(p.unwrappedAngle.get().getRadians());
+        } else {
+            m_buf.put((byte) 0);
+            m_buf.putDouble(0);
+        }
+    }
+}
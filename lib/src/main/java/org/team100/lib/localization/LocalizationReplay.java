@@ -0,0 +1,99 @@
+package org.team100.lib.localization;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePositions;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * Runs the pose estimator offline, as fast as possible, using the inputs
+ * recorded by LocalizationRecorder, and returns the pose track, i.e. the
+ * newest estimate after each odometry sample, as the robot saw it at the time.
+ *
+ * Each instance has its own history and updaters, so you can sweep the
+ * estimator parameters by making one instance per run. Adjust the parameters
+ * using localizer(), e.g. setHeedRadiusM(), before calling run().
+ *
+ * Runs happen one at a time, even if run() is called from several threads,
+ * because the localizer shares global state with every other instance: the
+ * Network Tables diagnostic topics, loggers with the same names, Takt.get(),
+ * the background executor, and the Experiments (e.g. HeedVision), which apply
+ * to all the runs.
+ */
+public class LocalizationReplay implements LocalizationLog.Visitor {
+    public record Point(double timeS, Pose2d pose) {
+    }
+
+    /** See above: the localizers share global state. */
+    private static final Object RUN_LOCK = new Object();
+
+    private final SwerveHistory m_history;
+    private final OdometryUpdater m_odometryUpdater;
+    private final AprilTagRobotLocalizer m_localizer;
+    private final List<Point> m_track;
+    /** Module positions for the current reset. */
+    private SwerveModulePositions m_positions;
+
+    public LocalizationReplay(
+            LoggerFactory log,
+            SwerveKinodynamics kinodynamics,
+            AprilTagFieldLayoutWithCorrectOrientation layout) {
+        m_positions = SwerveModulePositions.kZero();
+        m_history = new SwerveHistory(
+                kinodynamics,
+                Rotation2d.kZero,
+                m_positions,
+                Pose2d.kZero,
+                0);
+        // The gyro measurements come from the log.
+        m_odometryUpdater = new OdometryUpdater(
+                kinodynamics, null, m_history, () -> m_positions);
+        NudgingVisionUpdater visionUpdater = new NudgingVisionUpdater(
+                m_history, m_odometryUpdater);
+        m_localizer = new AprilTagRobotLocalizer(
+                log, layout, m_history, visionUpdater);
+        m_track = new ArrayList<>();
+    }
+
+    /** For adjusting the estimator parameters. */
+    public AprilTagRobotLocalizer localizer() {
+        return m_localizer;
+    }
+
+    /** Replay the whole log, and return the pose track. */
+    public List<Point> run(Path path) throws IOException {
+        synchronized (RUN_LOCK) {
+            m_track.clear();
+            LocalizationLog.read(path, this);
+            return new ArrayList<>(m_track);
+        }
+    }
+
+    @Override
+    public void reset(double timestampS, Rotation2d gyroAngle, Pose2d pose, SwerveModulePositions positions) {
+        m_positions = positions;
+        m_odometryUpdater.reset(gyroAngle, pose, timestampS);
+        m_track.add(new Point(timestampS, pose));
+    }
+
+    @Override
+    public void odometry(OdometrySample sample) {
+        m_odometryUpdater.update(sample);
+        m_track.add(new Point(sample.timestampS(), m_history.apply(sample.timestampS()).pose()));
+    }
+
+    @Override
+    public void vision(Transform3d cameraOffset, double valueTimestamp, Blip24[] blips, Optional<Alliance> alliance) {
+        m_localizer.estimateRobotPose(cameraOffset, blips, valueTimestamp, alliance);
+    }
+}
@@ -0,0 +1,22 @@
+package org.team100.lib.localization;
+
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePositions;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Wheel positions and gyro yaw, measured at the same instant.
+ * 
+ * @param timestampS    FPGA time of the measurement, seconds, not the time it
+ *                      was read.
+ * @param positions     wheel positions
+ * @param yawNWU        gyro yaw, not latency-compensated, since the timestamp
+ *                      is the measurement time.
+ * @param yawRateRad_S  gyro yaw rate
+ */
+public record OdometrySample(
+        double timestampS,
+        SwerveModulePositions positions,
+        Rotation2d yawNWU,
+        double yawRateRad_S) {
+}
@@ -0,0 +1,19 @@
+package org.team100.lib.localization;
+
+/**
+ * Source of odometry samples for OdometryThread.
+ * 
+ * This runs on the odometry thread, so it must not use Cache or Takt, which
+ * belong to the main loop: read the status signals directly.
+ */
+@FunctionalInterface
+public interface OdometrySampler {
+    /**
+     * Wait for the next sample, e.g. using BaseStatusSignal.waitForAll() on the
+     * drive, steer, and gyro signals, and return it. Implementations that don't
+     * block are paced by the thread instead.
+     * 
+     * @return the sample, or null if there's nothing new, e.g. on timeout.
+     */
+    OdometrySample sample() throws InterruptedException;
+}
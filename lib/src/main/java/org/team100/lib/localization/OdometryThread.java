@@ -0,0 +1,180 @@
+package org.team100.lib.localization;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.team100.lib.logging.Level;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.LoggerFactory.IntLogger;
+import org.team100.lib.logging.LoggerFactory.LongLogger;
+
+/**
+ * Samples odometry on a dedicated thread, much faster than the main loop, and
+ * queues the timestamped samples for the main loop to consume, in order.
+ *
+ * The queue is a single-producer, single-consumer ring, so there are no locks
+ * and no allocation beyond the samples themselves. If the main loop falls
+ * behind and the ring fills, new samples are dropped (and counted).
+ *
+ * The sampler is responsible for the timestamps; see OdometrySampler.
+ *
+ * Instrumentation (rate, jitter, drops) is computed and logged by the consumer,
+ * in drain(), so the logging stays on the main thread.
+ */
+public class OdometryThread implements AutoCloseable {
+    private static final boolean DEBUG = false;
+    /** Must be a power of two. 64 samples is 256 ms at 250 Hz. */
+    private static final int CAPACITY = 64;
+
+    private final OdometrySampler m_sampler;
+    private final long m_periodNs;
+    private final OdometrySample[] m_ring;
+    /** Next slot to read. Written only by the consumer. */
+    private final AtomicLong m_head;
+    /** Next slot to write. Written only by the producer. */
+    private final AtomicLong m_tail;
+    private final AtomicLong m_dropped;
+    private final Thread m_thread;
+
+    // consumer state
+    private double m_prevTimestampS;
+
+    // LOGGERS
+    private final IntLogger m_log_count;
+    private final DoubleLogger m_log_rate;
+    private final DoubleLogger m_log_jitter;
+    private final LongLogger m_log_dropped;
+
+    /**
+     * Call start() to start the thread.
+     *
+     * @param parent  log
+     * @param sampler provides samples
+     * @param periodS minimum time between samples, for samplers that don't
+     *                block, e.g. 0.004 for 250 Hz.
+     */
+    public OdometryThread(LoggerFactory parent, OdometrySampler sampler, double periodS) {
+        LoggerFactory log = parent.type(this);
+        m_sampler = sampler;
+        m_periodNs = (long) (periodS * 1e9);
+        m_ring = new OdometrySample[CAPACITY];
+        m_head = new AtomicLong();
+        m_tail = new AtomicLong();
+        m_dropped = new AtomicLong();
+        m_thread = new Thread(this::run, "Odometry");
+        m_thread.setDaemon(true);
+        m_prevTimestampS = Double.NEGATIVE_INFINITY;
+        m_log_count = log.intLogger(Level.TRACE, "samples per cycle");
+        m_log_rate = log.doubleLogger(Level.TRACE, "sample rate (Hz)");
+        m_log_jitter = log.doubleLogger(Level.TRACE, "jitter (s)");
+        m_log_dropped = log.longLogger(Level.TRACE, "dropped");
+    }
+
+    public void start() {
+        m_thread.start();
+    }
+
+    /** Stop the thread and wait for it. */
+    @Override
+    public void close() {
+        m_thread.interrupt();
+        try {
+            m_thread.join(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pass the queued samples to the consumer, oldest first. Run this from the
+     * main loop.
+     *
+     * Samples with timestamps that aren't after the previous sample are
+     * discarded, so the consumer sees a strictly increasing sequence.
+     *
+     * @return the number of samples consumed
+     */
+    public int drain(Consumer<OdometrySample> consumer) {
+        long head = m_head.get();
+        long tail = m_tail.get();
+        int count = 0;
+        double sum = 0;
+        double sumSq = 0;
+        for (long i = head; i < tail; ++i) {
+            int slot = (int) (i & (CAPACITY - 1));
+            OdometrySample sample = m_ring[slot];
+            m_ring[slot] = null;
+            double dt = sample.timestampS() - m_prevTimestampS;
+            if (dt <= 0)
+                continue;
+            if (Double.isFinite(dt)) {
+                sum += dt;
+                sumSq += dt * dt;
+                count++;
+            }
+            m_prevTimestampS = sample.timestampS();
+            consumer.accept(sample);
+        }
+        // release the slots to the producer.
+        m_head.lazySet(tail);
+        final int n = count;
+        m_log_count.log(() -> n);
+        if (n > 0) {
+            double mean = sum / n;
+            double jitter = Math.sqrt(Math.max(0, sumSq / n - mean * mean));
+            m_log_rate.log(1 / mean);
+            m_log_jitter.log(jitter);
+            if (DEBUG)
+                System.out.printf("odometry samples %d rate %.1f jitter %.6f\n", n, 1 / mean, jitter);
+        }
+        m_log_dropped.log(m_dropped::get);
+        return (int) (tail - head);
+    }
+
+    /** Total number of samples dropped because the queue was full. */
+    public long dropped() {
+        return m_dropped.get();
+    }
+
+    /**
+     * Add a sample to the queue, if there's room. Called only by the producer,
+     * i.e. the thread, or tests.
+     */
+    void offer(OdometrySample sample) {
+        long tail = m_tail.get();
+        if (tail - m_head.get() >= CAPACITY) {
+            m_dropped.incrementAndGet();
+            return;
+        }
+        m_ring[(int) (tail & (CAPACITY - 1))] = sample;
+        // publish the slot to the consumer.
+        m_tail.lazySet(tail + 1);
+    }
+
+    private void run() {
+        long deadline = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                OdometrySample sample = m_sampler.sample();
+                if (sample != null)
+                    offer(sample);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Keep sampling; the main loop will see the gap.
+                if (DEBUG)
+                    e.printStackTrace();
+            }
+            deadline += m_periodNs;
+            long now = System.nanoTime();
+            if (deadline > now) {
+                LockSupport.parkNanos(deadline - now);
+            } else {
+                // Blocking sampler, or running behind: don't try to catch up.
+                deadline = now;
+            }
+        }
+    }
+}
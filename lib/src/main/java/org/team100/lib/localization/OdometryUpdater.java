@@ -27,6 +27,9 @@ import edu.wpi.first.math.geometry.Twist2d;
  * 
  * Manages the gyro offset.
  * 
+ * If an OdometryThread is supplied, update() consumes its queued samples, each
+ * at its own measurement time, instead of sampling once per cycle.
+ * 
  * Note we use methods on the specific history implementation; the interface
  * won't work here.
  */
@@ -37,18 +40,40 @@ public class OdometryUpdater {
     private final Gyro m_gyro;
     private final SwerveHistory m_history;
     private final Supplier<SwerveModulePositions> m_positions;
+    /** Nullable */
+    private final OdometryThread m_samples;
 
     private Rotation2d m_gyroOffset;
+    /** Nullable. */
+    private LocalizationRecorder m_recorder;
 
     public OdometryUpdater(
             SwerveKinodynamics kinodynamics,
             Gyro gyro,
             SwerveHistory estimator,
             Supplier<SwerveModulePositions> positions) {
+        this(kinodynamics, gyro, estimator, positions, null);
+    }
+
+    /**
+     * @param samples high-rate odometry, or null to sample once per cycle.
+     */
+    public OdometryUpdater(
+            SwerveKinodynamics kinodynamics,
+            Gyro gyro,
+            SwerveHistory estimator,
+            Supplier<SwerveModulePositions> positions,
+            OdometryThread samples) {
         m_kinodynamics = kinodynamics;
         m_gyro = gyro;
         m_history = estimator;
         m_positions = positions;
+        m_samples = samples;
+    }
+
+    /** Record the inputs, for replay. */
+    public void setRecorder(LocalizationRecorder recorder) {
+        m_recorder = recorder;
     }
 
     Rotation2d getGyroOffset() {
@@ -67,14 +92,31 @@ public class OdometryUpdater {
      * The gyro angle overrides the odometry-derived gyro measurement, and
      * the gyro rate overrides the rate derived from the difference to the previous
      * state.
+     * 
+     * With an OdometryThread, this puts all the samples received since the last
+     * call, instead.
      */
     public void update() {
+        if (m_samples != null) {
+            m_samples.drain(this::update);
+            return;
+        }
         update(Takt.get());
     }
 
+    /**
+     * Put a timestamped sample. Samples older than the most recent reset are
+     * ignored.
+     */
+    void update(OdometrySample sample) {
+        if (m_recorder != null)
+            m_recorder.odometry(sample.timestampS(), sample.yawNWU(), sample.yawRateRad_S(), sample.positions());
+        put(sample.timestampS(), sample.yawNWU(), sample.yawRateRad_S(), sample.positions());
+    }
+
     /** For testing. */
     void update(double timestamp) {
-        put(timestamp, m_gyro.getYawNWU(), m_gyro.getYawRateNWU(), m_positions.get());
+        update(new OdometrySample(timestamp, m_positions.get(), m_gyro.getYawNWU(), m_gyro.getYawRateNWU()));
     }
 
     /**
@@ -87,8 +129,7 @@ public class OdometryUpdater {
 
     /** For testing. */
     public void reset(Pose2d pose, double timestampSeconds) {
-        m_gyroOffset = pose.getRotation().minus(m_gyro.getYawNWU());
-        m_history.reset(m_positions.get(), pose, timestampSeconds);
+        reset(m_gyro.getYawNWU(), pose, timestampSeconds);
     }
 
     /**
@@ -98,8 +139,11 @@ public class OdometryUpdater {
             Rotation2d gyroAngle,
             Pose2d pose,
             double timestampSeconds) {
+        SwerveModulePositions positions = m_positions.get();
+        if (m_recorder != null)
+            m_recorder.reset(timestampSeconds, gyroAngle, pose, positions);
         m_gyroOffset = pose.getRotation().minus(gyroAngle);
-        m_history.reset(m_positions.get(), pose, timestampSeconds);
+        m_history.reset(positions, pose, timestampSeconds);
     }
 
     ////////////////////////////////////////////////////
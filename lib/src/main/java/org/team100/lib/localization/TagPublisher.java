@@ -0,0 +1,130 @@
+package org.team100.lib.localization;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.team100.lib.coherence.Takt;
+import org.team100.lib.framework.BackgroundExecutor;
+import org.team100.lib.util.TrailingHistory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StructArrayPublisher;
+import edu.wpi.first.networktables.StructPublisher;
+
+/**
+ * Publishes the localizer's diagnostics (tag sightings and the latest pose
+ * estimate) to Network Tables, for AdvantageScope, without doing the work on
+ * the main thread.
+ *
+ * The main thread copies references into a snapshot buffer, which doesn't
+ * allocate, and at most once per period, swaps it with the other buffer and
+ * hands that one to the background executor, which makes the arrays and does
+ * the struct serialization. If the previous snapshot hasn't been published
+ * yet, the main thread just keeps collecting, so it never waits.
+ */
+class TagPublisher {
+    private static final boolean DEBUG = false;
+
+    private static class Snapshot {
+        Pose3d[] allTags = new Pose3d[0];
+        int allCount;
+        Pose3d[] usedTags = new Pose3d[0];
+        int usedCount;
+        /** Latest estimate, or null if there's nothing new. */
+        Pose2d pose;
+    }
+
+    /** See AprilTagRobotLocalizer for what these mean. */
+    private final StructArrayPublisher<Pose3d> m_pub_tags;
+    private final StructArrayPublisher<Pose3d> m_pub_used_tags;
+    private final StructPublisher<Pose2d> m_pub_pose;
+    /** Runs publish(), normally on the background executor. */
+    private final Executor m_executor;
+
+    /** Owned by the main thread. */
+    private Snapshot m_back;
+    /** Owned by the background thread while m_pending is true. */
+    private Snapshot m_front;
+    private final AtomicBoolean m_pending;
+    private final AtomicInteger m_published;
+
+    private double m_periodS;
+    private double m_lastS;
+
+    TagPublisher(double periodS) {
+        this(periodS, r -> BackgroundExecutor.instance.submit("tag publisher", r));
+    }
+
+    /** Tests can supply their own executor. */
+    TagPublisher(double periodS, Executor executor) {
+        m_executor = executor;
+        NetworkTableInstance inst = NetworkTableInstance.getDefault();
+        m_pub_tags = inst.getStructArrayTopic("tags", Pose3d.struct).publish();
+        m_pub_used_tags = inst.getStructArrayTopic("used tags", Pose3d.struct).publish();
+        m_pub_pose = inst.getStructTopic("pose", Pose2d.struct).publish();
+        m_back = new Snapshot();
+        m_front = new Snapshot();
+        m_pending = new AtomicBoolean();
+        m_published = new AtomicInteger();
+        m_periodS = periodS;
+        m_lastS = Double.NEGATIVE_INFINITY;
+    }
+
+    /** Publish at most this often. */
+    void setPeriodS(double periodS) {
+        m_periodS = periodS;
+    }
+
+    /** Remember the latest estimate. Main thread only. */
+    void setPose(Pose2d pose) {
+        m_back.pose = pose;
+    }
+
+    /**
+     * Capture the histories, and publish them if it's time. Main thread only.
+     */
+    void update(TrailingHistory<Pose3d> allTags, TrailingHistory<Pose3d> usedTags) {
+        double now = Takt.get();
+        if (now - m_lastS < m_periodS)
+            return;
+        if (m_pending.get()) {
+            if (DEBUG)
+                System.out.println("tag publisher is behind");
+            return;
+        }
+        m_back.allTags = allTags.values(m_back.allTags);
+        m_back.allCount = allTags.size();
+        m_back.usedTags = usedTags.values(m_back.usedTags);
+        m_back.usedCount = usedTags.size();
+        Snapshot s = m_front;
+        m_front = m_back;
+        m_back = s;
+        m_back.pose = null;
+        m_lastS = now;
+        m_pending.set(true);
+        m_executor.execute(this::publish);
+    }
+
+    /** Number of snapshots published, for testing. */
+    int published() {
+        return m_published.get();
+    }
+
+    /** Background thread. */
+    private void publish() {
+        try {
+            Snapshot s = m_front;
+            m_pub_tags.set(Arrays.copyOf(s.allTags, s.allCount));
+            m_pub_used_tags.set(Arrays.copyOf(s.usedTags, s.usedCount));
+            if (s.pose != null)
+                m_pub_pose.set(s.pose);
+            m_published.incrementAndGet();
+        } finally {
+            m_pending.set(false);
+        }
+    }
+}
@@ -3,16 +3,75 @@ package org.team100.lib.logging;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.RuntimeMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.team100.lib.coherence.Takt;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.LoggerFactory.IntLogger;
 import org.team100.lib.logging.LoggerFactory.LongLogger;
+import org.team100.lib.logging.LoggerFactory.StringLogger;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
 
 /**
  * Logs stuff about the JVM. Inspired by Advantage Kit's
  * LoggedRobot.GcStatsCollector().
+ *
+ * Also profiles allocation and GC, cheaply enough for COMP level:
+ *
+ * Allocation is measured using the main thread's allocation counter, which is
+ * just a field read. Call mark() at the end of each phase of the main loop, on
+ * the main thread, to attribute the allocation to that phase, and
+ * logAllocation() once at the end of the cycle.
+ *
+ * Collections are reported by the JVM's notifications, on its own thread, so
+ * there's no polling; each one is timestamped in the FPGA (Takt) timebase, so
+ * it can be lined up with loop overruns. The reported time is the duration of
+ * the collection, which is not the same as the pause: for a concurrent
+ * collector, most of it runs alongside the application. The listeners are
+ * registered per instance, so call close() when you're done with it.
+ *
+ * The worst cycles (by allocation) in the last WINDOW_S are kept, with the
+ * phase that allocated the most, see worst().
  */
-public class JvmLogger  {
+public class JvmLogger {
+    private static final boolean DEBUG = false;
+    /** Number of worst cycles to keep. */
+    private static final int WORST_N = 10;
+    /** Forget worst cycles older than this. */
+    private static final double WINDOW_S = 30;
+
+    /**
+     * @param timeS      Takt time of the cycle
+     * @param bytes      allocated by the main thread in the whole cycle
+     * @param phase      the phase that allocated the most
+     * @param phaseBytes allocated by that phase
+     * @param gcMs       total duration of the collections reported during the
+     *                   cycle
+     */
+    public record Cycle(double timeS, long bytes, String phase, long phaseBytes, double gcMs) {
+        @Override
+        public String toString() {
+            return String.format("%.3f %d bytes, %s %d bytes, gc %.1f ms",
+                    timeS, bytes, phase, phaseBytes, gcMs);
+        }
+    }
+
     private final LoggerFactory m_log;
     private final LongLogger m_log_heap;
     private final LongLogger m_log_nonheap;
@@ -20,10 +79,72 @@ public class JvmLogger  {
     private final Map<String, LongLogger> m_log_gc_counts = new HashMap<>();
     private final Map<String, LongLogger> m_log_memory = new HashMap<>();
 
+    private final LongLogger m_log_alloc;
+    private final StringLogger m_log_alloc_phase;
+    private final StringLogger m_log_worst;
+    private final IntLogger m_log_gc_count;
+    private final DoubleLogger m_log_gc_ms;
+    private final DoubleLogger m_log_gc_last;
+
+    /** Null if the JVM can't count allocation per thread. */
+    private final com.sun.management.ThreadMXBean m_threads;
+    private final RuntimeMXBean m_runtime;
+    private final NotificationListener m_listener;
+    /** The collectors we're listening to, so close() can stop. */
+    private final List<NotificationEmitter> m_emitters;
+
+    // main thread state
+    /** Main thread allocation counter at the previous mark. */
+    private long m_markBytes;
+    private long m_cycleBytes;
+    private String m_maxPhase;
+    private long m_maxPhaseBytes;
+    private final Cycle[] m_worst;
+
+    // written by the GC notification thread
+    private final AtomicInteger m_gcCount;
+    private final AtomicLong m_gcMs;
+    private volatile double m_lastGcTimeS;
+
     public JvmLogger(LoggerFactory parent) {
         m_log = parent.type(this);
         m_log_heap = m_log.longLogger(Level.DEBUG, "MemoryUsage/heap");
         m_log_nonheap = m_log.longLogger(Level.TRACE, "MemoryUsage/non-heap");
+        m_log_alloc = m_log.longLogger(Level.COMP, "Allocation/bytes per cycle");
+        m_log_alloc_phase = m_log.stringLogger(Level.COMP, "Allocation/top phase");
+        m_log_worst = m_log.stringLogger(Level.COMP, "Allocation/worst cycles");
+        m_log_gc_count = m_log.intLogger(Level.COMP, "GC/count per cycle");
+        m_log_gc_ms = m_log.doubleLogger(Level.COMP, "GC/duration ms per cycle");
+        m_log_gc_last = m_log.doubleLogger(Level.COMP, "GC/latest start (s)");
+
+        m_threads = allocationCounter();
+        m_runtime = ManagementFactory.getRuntimeMXBean();
+        m_markBytes = currentThreadAllocatedBytes();
+        m_maxPhase = "";
+        m_worst = new Cycle[WORST_N];
+        m_gcCount = new AtomicInteger();
+        m_gcMs = new AtomicLong();
+        m_lastGcTimeS = Double.NaN;
+        m_listener = this::onGc;
+        m_emitters = new ArrayList<>();
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (bean instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(m_listener, null, null);
+                m_emitters.add(emitter);
+            }
+        }
+    }
+
+    /** Stop listening to the collectors. */
+    public void close() {
+        for (NotificationEmitter emitter : m_emitters) {
+            try {
+                emitter.removeNotificationListener(m_listener);
+            } catch (ListenerNotFoundException e) {
+                // already gone
+            }
+        }
+        m_emitters.clear();
     }
 
     public void logGarbageCollectors() {
@@ -61,4 +182,125 @@ public class JvmLogger  {
         m_log_nonheap.log(() -> ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage().getUsed());
     }
 
+    /**
+     * Attribute the allocation since the previous mark to the phase. Call this
+     * on the main thread only.
+     */
+    public void mark(String phase) {
+        long now = currentThreadAllocatedBytes();
+        long bytes = now - m_markBytes;
+        m_markBytes = now;
+        m_cycleBytes += bytes;
+        if (bytes > m_maxPhaseBytes) {
+            m_maxPhaseBytes = bytes;
+            m_maxPhase = phase;
+        }
+    }
+
+    /**
+     * Log this cycle's allocation and GC, update the worst cycles, and
+     * start the next cycle. Allocation since the last mark is attributed to
+     * "log". Call this once per cycle, at the end, on the main thread.
+     */
+    public void logAllocation() {
+        mark("log");
+        final long bytes = m_cycleBytes;
+        final String phase = m_maxPhase;
+        final int gcCount = m_gcCount.getAndSet(0);
+        final double gcMs = m_gcMs.getAndSet(0);
+        m_log_alloc.log(() -> bytes);
+        m_log_alloc_phase.log(() -> phase);
+        m_log_gc_count.log(() -> gcCount);
+        m_log_gc_ms.log(() -> gcMs);
+        m_log_gc_last.log(() -> m_lastGcTimeS);
+        if (updateWorst(Takt.get(), bytes, phase, m_maxPhaseBytes, gcMs))
+            m_log_worst.log(this::report);
+        m_cycleBytes = 0;
+        m_maxPhase = "";
+        m_maxPhaseBytes = 0;
+    }
+
+    /** The worst cycles in the window, most allocation first. */
+    public List<Cycle> worst() {
+        List<Cycle> result = new ArrayList<>();
+        for (Cycle c : m_worst) {
+            if (c != null)
+                result.add(c);
+        }
+        result.sort(Comparator.comparingLong(Cycle::bytes).reversed());
+        return result;
+    }
+
+    /** The worst cycles, one per line. */
+    public String report() {
+        StringBuilder b = new StringBuilder();
+        for (Cycle c : worst()) {
+            b.append(c).append("\n");
+        }
+        return b.toString();
+    }
+
+    /**
+     * Evict stale cycles, and replace the smallest with this one if it's bigger.
+     * Allocates only if the cycle makes the list. Package-private for testing.
+     *
+     * @return true if the list changed
+     */
+    boolean updateWorst(double timeS, long bytes, String phase, long phaseBytes, double gcMs) {
+        boolean changed = false;
+        for (int i = 0; i < WORST_N; ++i) {
+            if (m_worst[i] != null && timeS - m_worst[i].timeS() > WINDOW_S) {
+                m_worst[i] = null;
+                changed = true;
+            }
+        }
+        // an empty slot, or the smallest.
+        int min = 0;
+        for (int i = 0; i < WORST_N; ++i) {
+            if (m_worst[i] == null) {
+                min = i;
+                break;
+            }
+            if (m_worst[i].bytes() < m_worst[min].bytes())
+                min = i;
+        }
+        if (m_worst[min] == null || bytes > m_worst[min].bytes()) {
+            m_worst[min] = new Cycle(timeS, bytes, phase, phaseBytes, gcMs);
+            changed = true;
+        }
+        return changed;
+    }
+
+    ////////////////////////////////////////////////////
+
+    /** Runs on the JVM's notification thread. */
+    private void onGc(Notification n, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(n.getType()))
+            return;
+        GcInfo gc = GarbageCollectionNotificationInfo.from((CompositeData) n.getUserData()).getGcInfo();
+        m_gcCount.incrementAndGet();
+        m_gcMs.addAndGet(gc.getDuration());
+        // GC times are in JVM uptime, so convert to the FPGA timebase.
+        double agoS = (m_runtime.getUptime() - gc.getStartTime()) / 1000.0;
+        m_lastGcTimeS = Takt.actual() - agoS;
+        if (DEBUG)
+            System.out.printf("GC %d ms at %.3f\n", gc.getDuration(), m_lastGcTimeS);
+    }
+
+    private long currentThreadAllocatedBytes() {
+        if (m_threads == null)
+            return 0;
+        return m_threads.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean b && b.isThreadAllocatedMemorySupported()) {
+            b.setThreadAllocatedMemoryEnabled(true);
+            return b;
+        }
+        System.out.println("WARNING: no allocation counter");
+        return null;
+    }
+
 }
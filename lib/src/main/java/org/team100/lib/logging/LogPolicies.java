@@ -0,0 +1,163 @@
+package org.team100.lib.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.team100.lib.coherence.Takt;
+
+/**
+ * Rate-limiting policies for the logger tree, keyed by LoggerFactory root,
+ * e.g. "log/SwerveDriveSubsystem". A policy applies to its subtree, unless a
+ * deeper policy overrides it. Policies can be changed at any time, and take
+ * effect in the next cycle.
+ *
+ * Also counts emitted and skipped values for each subtree, so you can see
+ * where the logging bandwidth goes.
+ *
+ * There's one of these per logger tree, shared by all the factories in it.
+ * Use it on the main thread only.
+ */
+public class LogPolicies {
+    private final Map<String, Node> m_nodes = new HashMap<>();
+    /** Incremented by every change, so nodes can cache their resolution. */
+    private int m_version;
+
+    /** Apply the policy to the subtree at root. */
+    public void set(String root, LogPolicy policy) {
+        node(root).m_policy = policy;
+        m_version++;
+    }
+
+    /** Remove the policy at root, so the subtree inherits its parent's. */
+    public void clear(String root) {
+        node(root).m_policy = null;
+        m_version++;
+    }
+
+    /** The policy in effect at root. */
+    public LogPolicy get(String root) {
+        return node(root).policy();
+    }
+
+    /** Values emitted in the subtree at root, since the last resetCounts(). */
+    public long emitted(String root) {
+        long total = 0;
+        for (Node n : m_nodes.values()) {
+            if (n.in(root))
+                total += n.m_emitted;
+        }
+        return total;
+    }
+
+    /** Values skipped by policy in the subtree at root. */
+    public long skipped(String root) {
+        long total = 0;
+        for (Node n : m_nodes.values()) {
+            if (n.in(root))
+                total += n.m_skipped;
+        }
+        return total;
+    }
+
+    public void resetCounts() {
+        for (Node n : m_nodes.values()) {
+            n.m_emitted = 0;
+            n.m_skipped = 0;
+        }
+    }
+
+    /** The node for root, creating it and its ancestors if necessary. */
+    Node node(String root) {
+        Node n = m_nodes.get(root);
+        if (n != null)
+            return n;
+        int slash = root.lastIndexOf('/');
+        Node parent = slash < 0 ? null : node(root.substring(0, slash));
+        n = new Node(root, parent);
+        m_nodes.put(root, n);
+        return n;
+    }
+
+    /** One LoggerFactory root. */
+    class Node {
+        private final String m_root;
+        private final Node m_parent;
+        /** Set explicitly here, or null to inherit. */
+        private LogPolicy m_policy;
+        // cached resolution
+        private int m_resolvedVersion = -1;
+        private LogPolicy m_resolved;
+        // per-cycle decision
+        private double m_cycleTimeS = Double.NaN;
+        private boolean m_open;
+        private long m_cycles;
+        private double m_lastOpenS = Double.NEGATIVE_INFINITY;
+        // counters
+        private long m_emitted;
+        private long m_skipped;
+
+        private Node(String root, Node parent) {
+            m_root = root;
+            m_parent = parent;
+        }
+
+        /** The policy here, or the nearest ancestor's. */
+        LogPolicy policy() {
+            if (m_resolvedVersion != m_version) {
+                m_resolved = resolve();
+                m_resolvedVersion = m_version;
+            }
+            return m_resolved;
+        }
+
+        /**
+         * True if loggers here may log in this cycle. The first call in each
+         * cycle decides.
+         */
+        boolean open() {
+            LogPolicy p = policy();
+            if (p.divider() == 1 && p.minIntervalS() == 0)
+                return true;
+            double now = Takt.get();
+            if (now != m_cycleTimeS) {
+                m_cycleTimeS = now;
+                m_open = m_cycles++ % p.divider() == 0
+                        && now - m_lastOpenS >= p.minIntervalS();
+                if (m_open)
+                    m_lastOpenS = now;
+            }
+            return m_open;
+        }
+
+        /** True if the change from previous to current exceeds the deadband. */
+        boolean changed(double previous, double current) {
+            double deadband = policy().deadband();
+            if (deadband == 0)
+                return true;
+            // NaN previous means nothing was logged yet.
+            return !(Math.abs(current - previous) <= deadband);
+        }
+
+        void emit() {
+            m_emitted++;
+        }
+
+        void skip() {
+            m_skipped++;
+        }
+
+        private LogPolicy resolve() {
+            for (Node n = this; n != null; n = n.m_parent) {
+                if (n.m_policy != null)
+                    return n.m_policy;
+            }
+            return LogPolicy.NONE;
+        }
+
+        /** At root or below it, without allocating. */
+        private boolean in(String root) {
+            return m_root.startsWith(root)
+                    && (m_root.length() == root.length() || m_root.charAt(root.length()) == '/');
+        }
+    }
+}
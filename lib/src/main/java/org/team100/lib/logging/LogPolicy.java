@@ -0,0 +1,42 @@
+package org.team100.lib.logging;
+
+/**
+ * Limits the rate of logging in a subtree of the logger tree, in addition to
+ * the Level filter. See LogPolicies.
+ *
+ * The divider and the minimum interval are decided once per cycle for the
+ * whole LoggerFactory, so all its loggers are open, or closed, together, and
+ * closed loggers don't evaluate their suppliers.
+ *
+ * The deadband applies to each DoubleLogger separately, and it needs the
+ * value, so it saves the transport, not the supplier.
+ *
+ * @param divider      log one cycle in this many, e.g. 10 for 5 Hz.
+ * @param minIntervalS log no more often than this, seconds.
+ * @param deadband     log a double only if it has changed by more than this.
+ */
+public record LogPolicy(int divider, double minIntervalS, double deadband) {
+    /** Log everything the Level admits. */
+    public static final LogPolicy NONE = new LogPolicy(1, 0, 0);
+
+    public LogPolicy {
+        if (divider < 1)
+            throw new IllegalArgumentException("divider must be at least 1");
+        if (minIntervalS < 0)
+            throw new IllegalArgumentException("interval must be non-negative");
+        if (deadband < 0)
+            throw new IllegalArgumentException("deadband must be non-negative");
+    }
+
+    public static LogPolicy divider(int divider) {
+        return new LogPolicy(divider, 0, 0);
+    }
+
+    public static LogPolicy minInterval(double minIntervalS) {
+        return new LogPolicy(1, minIntervalS, 0);
+    }
+
+    public static LogPolicy deadband(double deadband) {
+        return new LogPolicy(1, 0, deadband);
+    }
+}
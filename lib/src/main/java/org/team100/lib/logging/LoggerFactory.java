@@ -52,21 +52,36 @@ import edu.wpi.first.math.trajectory.Trajectory.State;
  * container keep the root reference.
  * 
  * Don't use slashes in names, it confuses Glass.
+ * 
+ * In addition to the Level, each subtree can be rate-limited, see
+ * setPolicy() and LogPolicies.
  */
 public class LoggerFactory {
     private final Supplier<Level> m_level;
     private final String m_root;
     private final PrimitiveLogger m_pLogger;
+    private final LogPolicies m_policies;
+    private final LogPolicies.Node m_node;
 
     public LoggerFactory(
             Supplier<Level> level,
             String root,
             PrimitiveLogger primitiveLogger) {
+        this(level, root, primitiveLogger, new LogPolicies());
+    }
+
+    private LoggerFactory(
+            Supplier<Level> level,
+            String root,
+            PrimitiveLogger primitiveLogger,
+            LogPolicies policies) {
         if (root.startsWith("/"))
             throw new IllegalArgumentException("don't lead with a slash");
         m_level = level;
         m_root = root;
         m_pLogger = primitiveLogger;
+        m_policies = policies;
+        m_node = policies.node(root);
     }
 
     /**
@@ -76,7 +91,7 @@ public class LoggerFactory {
      * Each child level is separated by slashes, to make a tree in glass.
      */
     public LoggerFactory name(String stem) {
-        return new LoggerFactory(m_level, root(stem), m_pLogger);
+        return new LoggerFactory(m_level, root(stem), m_pLogger, m_policies);
     }
 
     /**
@@ -102,9 +117,30 @@ public class LoggerFactory {
         return a + "/" + b;
     }
 
+    /** The policies for the whole tree. */
+    public LogPolicies policies() {
+        return m_policies;
+    }
+
+    /** Rate-limit this subtree. Takes effect in the next cycle. */
+    public void setPolicy(LogPolicy policy) {
+        m_policies.set(m_root, policy);
+    }
+
     //////////////////////////////////////////////////////
 
+    /** Checks the level, and then the policy for this subtree. */
     private boolean allow(Level level) {
+        if (!admit(level))
+            return false;
+        if (!m_node.open()) {
+            m_node.skip();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean admit(Level level) {
         Level allowed = m_level.get();
         if (allowed == Level.COMP && level == Level.COMP) {
             // comp mode allows COMP level regardless of enablement.
@@ -131,6 +167,7 @@ public class LoggerFactory {
             if (!allow(m_level))
                 return;
             boolean val = vals.getAsBoolean();
+            m_node.emit();
             m_primitiveLogger.log(val);
         }
     }
@@ -142,17 +179,20 @@ public class LoggerFactory {
     public class DoubleLogger {
         private final Level m_level;
         private final PrimitiveLogger.PrimitiveDoubleLogger m_primitiveLogger;
+        /** For the deadband. */
+        private double m_last;
 
         DoubleLogger(Level level, String leaf) {
             m_level = level;
             m_primitiveLogger = m_pLogger.doubleLogger(root(leaf));
+            m_last = Double.NaN;
         }
 
         public void log(DoubleSupplier vals) {
             if (!allow(m_level))
                 return;
             double val = vals.getAsDouble();
-            m_primitiveLogger.log(val);
+            publish(val);
         }
 
         public void log(Supplier<Double> vals) {
@@ -160,7 +200,28 @@ public class LoggerFactory {
                 return;
             Double val = vals.get();
             if (val != null)
-                m_primitiveLogger.log(val.doubleValue());
+                publish(val.doubleValue());
+        }
+
+        /**
+         * For values already computed, to avoid the capturing lambda. The
+         * argument is evaluated even if this level is disabled, so if it costs
+         * anything to compute, use the supplier version instead.
+         */
+        public void log(double val) {
+            if (!allow(m_level))
+                return;
+            publish(val);
+        }
+
+        private void publish(double val) {
+            if (!m_node.changed(m_last, val)) {
+                m_node.skip();
+                return;
+            }
+            m_last = val;
+            m_node.emit();
+            m_primitiveLogger.log(val);
         }
     }
 
@@ -181,6 +242,7 @@ public class LoggerFactory {
             if (!allow(m_level))
                 return;
             int val = vals.getAsInt();
+            m_node.emit();
             m_primitiveLogger.log(val);
         }
     }
@@ -202,6 +264,7 @@ public class LoggerFactory {
             if (!allow(m_level))
                 return;
             double[] val = vals.get();
+            m_node.emit();
             m_primitiveLogger.log(val);
         }
     }
@@ -223,6 +286,7 @@ public class LoggerFactory {
             if (!allow(m_level))
                 return;
             long val = vals.getAsLong();
+            m_node.emit();
             m_primitiveLogger.log(val);
         }
     }
@@ -249,6 +313,7 @@ public class LoggerFactory {
             if (!allow(m_level))
                 return;
             String val = vals.get();
+            m_node.emit();
             m_primitiveLogger.log(val);
         }
     }
@@ -271,6 +336,7 @@ public class LoggerFactory {
                 return;
             OptionalDouble val = vals.get();
             if (val.isPresent()) {
+                m_node.emit();
                 m_primitiveLogger.log(val.getAsDouble());
             }
         }
@@ -293,6 +359,7 @@ public class LoggerFactory {
             if (!allow(m_level))
                 return;
             String val = vals.get().name();
+            m_node.emit();
             m_primitiveLogger.log(val);
         }
     }
@@ -626,6 +693,15 @@ public class LoggerFactory {
             m_yLogger.log(val::y);
             m_thetaLogger.log(val::theta);
         }
+
+        /** For values already computed, to avoid the capturing lambda. */
+        public void log(double x, double y, double theta) {
+            if (!allow(m_level))
+                return;
+            m_xLogger.log(x);
+            m_yLogger.log(y);
+            m_thetaLogger.log(theta);
+        }
     }
 
     public GlobalVelocityR3Logger globalVelocityR3Logger(Level level, String leaf) {
@@ -653,6 +729,15 @@ public class LoggerFactory {
             m_yLogger.log(val::y);
             m_thetaLogger.log(val::theta);
         }
+
+        /** For values already computed, to avoid the capturing lambda. */
+        public void log(double x, double y, double theta) {
+            if (!allow(m_level))
+                return;
+            m_xLogger.log(x);
+            m_yLogger.log(y);
+            m_thetaLogger.log(theta);
+        }
     }
 
     public GlobalAccelerationR3Logger globalAccelerationR3Logger(Level level, String leaf) {
@@ -700,6 +785,15 @@ public class LoggerFactory {
             m_vLogger.log(val::v);
             m_aLogger.log(val::a);
         }
+
+        /** For values already computed, to avoid the capturing lambda. */
+        public void log(Control100 val) {
+            if (!allow(m_level))
+                return;
+            m_xLogger.log(val.x());
+            m_vLogger.log(val.v());
+            m_aLogger.log(val.a());
+        }
     }
 
     public Control100Logger control100Logger(Level level, String leaf) {
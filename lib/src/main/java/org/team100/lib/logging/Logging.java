@@ -13,6 +13,9 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
  * Logging singleton.
  * 
  * If you use this logger you'll want to set the log level.
+ * 
+ * The "Log Policy" chooser rate-limits the whole "log" tree, see LogPolicy;
+ * subtrees with their own policy keep it.
  */
 public class Logging {
     private static final Level DEFAULT_LEVEL = Level.TRACE;
@@ -29,6 +32,17 @@ public class Logging {
         SmartDashboard.putData(m_LevelChooser);
     }
 
+    private static final SendableChooser<LogPolicy> m_PolicyChooser = new NamedChooser<>("Log Policy");
+
+    static {
+        m_PolicyChooser.setDefaultOption("all", LogPolicy.NONE);
+        m_PolicyChooser.addOption("10 Hz", LogPolicy.divider(5));
+        m_PolicyChooser.addOption("5 Hz", LogPolicy.divider(10));
+        m_PolicyChooser.addOption("1 Hz", LogPolicy.divider(50));
+        m_PolicyChooser.addOption("deadband 0.001", LogPolicy.deadband(0.001));
+        SmartDashboard.putData(m_PolicyChooser);
+    }
+
     private static final Logging instance = new Logging();
 
     /**
@@ -38,6 +52,9 @@ public class Logging {
     /** root is "log". */
     public final LoggerFactory rootLogger;
 
+    /** The policy applied to the root logger. */
+    private LogPolicy m_policy;
+
     /**
      * Clients should use the static instance, not the constructor.
      */
@@ -45,6 +62,7 @@ public class Logging {
         ntLogger = new NTPrimitiveLogger();
         fieldLogger = new LoggerFactory(this::getLevel, "field", ntLogger);
         rootLogger = new LoggerFactory(this::getLevel, "log", ntLogger);
+        m_policy = LogPolicy.NONE;
         fieldLogger.stringLogger(Level.COMP, ".type").log(() -> "Field2d");
 
         // turn off the CTRE log we never use
@@ -61,6 +79,18 @@ public class Logging {
         return m_LevelChooser.getSelected();
     }
 
+    /**
+     * Apply the selected policy to the root logger, if it has changed. Call this
+     * once per cycle, on the main thread.
+     */
+    public void updatePolicy() {
+        LogPolicy policy = m_PolicyChooser.getSelected();
+        if (policy == null || policy.equals(m_policy))
+            return;
+        m_policy = policy;
+        rootLogger.setPolicy(policy);
+    }
+
     /** The logging singleton. */
     public static Logging instance() {
         return instance;
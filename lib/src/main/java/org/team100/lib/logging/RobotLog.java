@@ -1,7 +1,10 @@
 package org.team100.lib.logging;
 
+import org.team100.lib.framework.BackgroundExecutor;
 import org.team100.lib.logging.LoggerFactory.BooleanLogger;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.LoggerFactory.IntLogger;
+import org.team100.lib.motor.CanBusLoad;
 
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotController;
@@ -14,6 +17,18 @@ public class RobotLog {
     private final BooleanLogger m_log_ds_TeleopEnabled;
     private final BooleanLogger m_log_ds_FMSAttached;
     private final DoubleLogger m_log_voltage;
+    private final IntLogger m_log_can_writes;
+    private final IntLogger m_log_can_skipped;
+    private final DoubleLogger m_log_can_utilization;
+    private final IntLogger m_log_bg_queue;
+    private final IntLogger m_log_bg_completed;
+    private final IntLogger m_log_bg_deferred;
+    private final DoubleLogger m_log_bg_mean_latency;
+    private final DoubleLogger m_log_bg_max_latency;
+    private final LogPolicies m_policies;
+    private final String m_root;
+    private final IntLogger m_log_emitted;
+    private final IntLogger m_log_skipped;
 
     public RobotLog() {
         LoggerFactory logger = Logging.instance().rootLogger;
@@ -25,6 +40,29 @@ public class RobotLog {
         m_log_ds_TeleopEnabled = dsLog.booleanLogger(Level.TRACE, "TeleopEnabled");
         m_log_ds_FMSAttached = dsLog.booleanLogger(Level.TRACE, "FMSAttached");
         m_log_voltage = robotLogger.doubleLogger(Level.COMP, "voltage");
+        LoggerFactory canLog = robotLogger.name("CAN");
+        m_log_can_writes = canLog.intLogger(Level.TRACE, "setpoint writes per cycle");
+        m_log_can_skipped = canLog.intLogger(Level.TRACE, "setpoint writes skipped per cycle");
+        m_log_can_utilization = canLog.doubleLogger(Level.TRACE, "setpoint write utilization");
+        LoggerFactory bgLog = robotLogger.name("Background");
+        m_log_bg_queue = bgLog.intLogger(Level.TRACE, "queue depth");
+        m_log_bg_completed = bgLog.intLogger(Level.TRACE, "completed per cycle");
+        m_log_bg_deferred = bgLog.intLogger(Level.TRACE, "deferred per cycle");
+        m_log_bg_mean_latency = bgLog.doubleLogger(Level.TRACE, "mean latency (s)");
+        m_log_bg_max_latency = bgLog.doubleLogger(Level.TRACE, "max latency (s)");
+        m_policies = logger.policies();
+        m_root = logger.getRoot();
+        LoggerFactory logLog = robotLogger.name("Logging");
+        m_log_emitted = logLog.intLogger(Level.TRACE, "emitted per cycle");
+        m_log_skipped = logLog.intLogger(Level.TRACE, "skipped per cycle");
+    }
+
+    /**
+     * Attribute the main thread's allocation since the previous mark to the
+     * phase. See JvmLogger.
+     */
+    public void mark(String phase) {
+        m_jvmLogger.mark(phase);
     }
 
     /** Log some robot-wide stuff */
@@ -37,5 +75,25 @@ public class RobotLog {
         m_log_ds_TeleopEnabled.log(DriverStation::isTeleopEnabled);
         m_log_ds_FMSAttached.log(DriverStation::isFMSAttached);
         m_log_voltage.log(RobotController::getBatteryVoltage);
+        m_log_can_writes.log(CanBusLoad.RIO::writes);
+        m_log_can_skipped.log(CanBusLoad.RIO::skipped);
+        m_log_can_utilization.log(CanBusLoad.RIO::utilization);
+        CanBusLoad.RIO.reset();
+        m_log_bg_queue.log(BackgroundExecutor.instance::queueDepth);
+        m_log_bg_completed.log(BackgroundExecutor.instance::completed);
+        m_log_bg_deferred.log(BackgroundExecutor.instance::deferred);
+        m_log_bg_mean_latency.log(BackgroundExecutor.instance::meanLatencyS);
+        m_log_bg_max_latency.log(BackgroundExecutor.instance::maxLatencyS);
+        BackgroundExecutor.instance.reset();
+        m_log_emitted.log(() -> (int) m_policies.emitted(m_root));
+        m_log_skipped.log(() -> (int) m_policies.skipped(m_root));
+        m_policies.resetCounts();
+        Logging.instance().updatePolicy();
+        // last, so the cost of logging is included.
+        m_jvmLogger.logAllocation();
+    }
+
+    public void close() {
+        m_jvmLogger.close();
     }
 }
@@ -0,0 +1,69 @@
+package org.team100.lib.motor;
+
+import org.team100.lib.coherence.Takt;
+
+/**
+ * Counts motor setpoint writes per cycle, and estimates the fraction of the
+ * bus they use.
+ * 
+ * This only counts the writes that go through SetpointFilter, i.e. setpoints,
+ * not status frames or configuration.
+ * 
+ * RobotLog logs the counts and resets them at the end of each cycle.
+ */
+public class CanBusLoad {
+    /**
+     * An extended frame with 8 data bytes is 128 bits, plus some stuffing.
+     */
+    private static final double BITS_PER_FRAME = 135;
+
+    /** The RoboRIO bus, which is the only one we use. */
+    public static final CanBusLoad RIO = new CanBusLoad(1e6);
+
+    private final double m_bitRate;
+
+    private int m_writes;
+    private int m_skipped;
+    private double m_resetTime;
+
+    /**
+     * @param bitRate bits per second, 1e6 for the RoboRIO bus.
+     */
+    CanBusLoad(double bitRate) {
+        m_bitRate = bitRate;
+        m_resetTime = Takt.get();
+    }
+
+    /** Count a write, or a skipped write. */
+    public void count(boolean sent) {
+        if (sent)
+            m_writes++;
+        else
+            m_skipped++;
+    }
+
+    /** Writes since the last reset. */
+    public int writes() {
+        return m_writes;
+    }
+
+    /** Skipped writes since the last reset. */
+    public int skipped() {
+        return m_skipped;
+    }
+
+    /** Fraction of the bus used by the writes since the last reset. */
+    public double utilization() {
+        double dt = Takt.get() - m_resetTime;
+        if (dt <= 0)
+            return 0;
+        return m_writes * BITS_PER_FRAME / (m_bitRate * dt);
+    }
+
+    /** Start a new cycle. */
+    public void reset() {
+        m_writes = 0;
+        m_skipped = 0;
+        m_resetTime = Takt.get();
+    }
+}
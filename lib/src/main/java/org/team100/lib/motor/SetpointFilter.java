@@ -0,0 +1,122 @@
+package org.team100.lib.motor;
+
+import org.team100.lib.coherence.Takt;
+import org.team100.lib.experiments.Experiment;
+import org.team100.lib.experiments.Experiments;
+
+/**
+ * Decides whether a motor setpoint needs to be sent, by comparing it to the
+ * previous one.
+ * 
+ * Sending the same setpoint every cycle is a waste of CAN bandwidth: with
+ * about 20 motors the bus is mostly setpoints. So we skip a write if the
+ * control mode is unchanged, and the setpoint and feedforward are within
+ * epsilon of what was last sent, unless the last write is older than the
+ * keep-alive period. The keep-alive means a motor that lost its setpoint,
+ * e.g. from a brownout or a device reset, gets it again soon, even if it
+ * never changes.
+ * 
+ * Skipping is the DedupCanWrites experiment, off by default; see send().
+ * 
+ * Each motor owns one of these; it's not thread-safe.
+ */
+public class SetpointFilter {
+    /** Native units, e.g. rev or rev/s, so 1e-4 is pretty tight. */
+    private static final double DEFAULT_EPSILON = 1e-4;
+    /** Volts */
+    private static final double DEFAULT_FF_EPSILON = 0.01;
+    /** Seconds */
+    private static final double DEFAULT_KEEP_ALIVE = 0.1;
+
+    public enum Mode {
+        DUTY_CYCLE,
+        VELOCITY,
+        POSITION
+    }
+
+    private final double m_epsilon;
+    private final double m_ffEpsilon;
+    private final double m_keepAliveS;
+    private final CanBusLoad m_bus;
+
+    /** Null if the next write should be sent regardless. */
+    private Mode m_mode;
+    private double m_setpoint;
+    private double m_ff;
+    private double m_time;
+
+    /** Tight tolerances, 0.1s keep-alive. */
+    public SetpointFilter() {
+        this(DEFAULT_EPSILON, DEFAULT_FF_EPSILON, DEFAULT_KEEP_ALIVE);
+    }
+
+    /**
+     * @param epsilon    setpoint tolerance, in whatever units the motor uses
+     * @param ffEpsilon  feedforward tolerance, volts
+     * @param keepAliveS send at least this often, even if nothing changes
+     */
+    public SetpointFilter(double epsilon, double ffEpsilon, double keepAliveS) {
+        this(epsilon, ffEpsilon, keepAliveS, CanBusLoad.RIO);
+    }
+
+    /** @param bus counts the writes, for testing. */
+    SetpointFilter(double epsilon, double ffEpsilon, double keepAliveS, CanBusLoad bus) {
+        m_epsilon = epsilon;
+        m_ffEpsilon = ffEpsilon;
+        m_keepAliveS = keepAliveS;
+        m_bus = bus;
+    }
+
+    /**
+     * True if writes are being filtered, i.e. the DedupCanWrites experiment is
+     * enabled. Motors can use this to skip work that only matters to the
+     * filter.
+     */
+    public boolean enabled() {
+        return Experiments.instance.enabled(Experiment.DedupCanWrites);
+    }
+
+    /**
+     * Motors call this before every setpoint write. If the DedupCanWrites
+     * experiment is enabled, it's the same as shouldSend(), otherwise
+     * everything is sent. Either way, the outcome is counted on the bus.
+     */
+    public boolean send(Mode mode, double setpoint, double ff) {
+        boolean send = true;
+        if (enabled()) {
+            send = shouldSend(mode, setpoint, ff);
+        } else {
+            reset();
+        }
+        m_bus.count(send);
+        return send;
+    }
+
+    /**
+     * True if the setpoint should be sent. If so, it is remembered as the most
+     * recent one.
+     */
+    public boolean shouldSend(Mode mode, double setpoint, double ff) {
+        double now = Takt.get();
+        if (mode == m_mode
+                && Math.abs(setpoint - m_setpoint) <= m_epsilon
+                && Math.abs(ff - m_ff) <= m_ffEpsilon
+                && now - m_time < m_keepAliveS) {
+            return false;
+        }
+        m_mode = mode;
+        m_setpoint = setpoint;
+        m_ff = ff;
+        m_time = now;
+        return true;
+    }
+
+    /**
+     * Forget the previous setpoint, so the next one is sent. Use this when
+     * something other than the filtered path changes the motor state, e.g.
+     * stopMotor().
+     */
+    public void reset() {
+        m_mode = null;
+    }
+}
@@ -13,6 +13,8 @@ import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.motor.BareMotor;
 import org.team100.lib.motor.MotorPhase;
 import org.team100.lib.motor.NeutralMode;
+import org.team100.lib.motor.SetpointFilter;
+import org.team100.lib.motor.SetpointFilter.Mode;
 import org.team100.lib.sensor.position.incremental.ctre.Talon6Encoder;
 import org.team100.lib.util.CanId;
 
@@ -38,6 +40,12 @@ import edu.wpi.first.units.measure.Voltage;
  * Robot.robotPeriodic().
  */
 public abstract class Talon6Motor implements BareMotor {
+    // Required freshness of the slow signals, seconds.
+    private static final double ERROR_PERIOD_S = 0.1;
+    private static final double CURRENT_PERIOD_S = 0.1;
+    private static final double VOLTAGE_PERIOD_S = 0.25;
+    private static final double TEMPERATURE_PERIOD_S = 1.0;
+
     private final LoggerFactory m_log;
 
     private final TalonFX m_motor;
@@ -68,6 +76,8 @@ public abstract class Talon6Motor implements BareMotor {
     private final DutyCycleOut m_dutyCycleOut;
     private final PositionVoltage m_positionVoltage;
     private final MusicTone m_music;
+    /** Skips repeated setpoints. */
+    private SetpointFilter m_filter;
 
     // LOGGERS
     private final DoubleLogger m_log_desired_duty;
@@ -107,6 +117,7 @@ public abstract class Talon6Motor implements BareMotor {
         m_dutyCycleOut = new DutyCycleOut(0);
         m_positionVoltage = new PositionVoltage(0);
         m_music = new MusicTone(0);
+        m_filter = new SetpointFilter();
 
         //////////////////////////////////////
         // Update frequencies.
@@ -147,16 +158,20 @@ public abstract class Talon6Motor implements BareMotor {
         final StatusSignal<Temperature> motorDeviceTemp = m_motor.getDeviceTemp();
         // final StatusSignal<Current> motorTorqueCurrent = m_motor.getTorqueCurrent();
 
-        // The memoizer refreshes all the signals at once.
+        // The cache refreshes the signals in groups, by required freshness.
+        // Control-relevant signals are refreshed every cycle.
         Cache.registerSignal(motorPosition);
         Cache.registerSignal(motorVelocity);
         // Memo.registerSignal(motorAcceleration);
         Cache.registerSignal(motorDutyCycle);
-        Cache.registerSignal(motorClosedLoopError);
-        Cache.registerSignal(motorSupplyCurrent);
-        Cache.registerSignal(motorSupplyVoltage);
+        // Stator current is used for control, e.g. to detect game pieces, see
+        // getCurrent().
         Cache.registerSignal(motorStatorCurrent);
-        Cache.registerSignal(motorDeviceTemp);
+        // These are only logged, so they can be slower.
+        Cache.registerSignal(motorClosedLoopError, ERROR_PERIOD_S);
+        Cache.registerSignal(motorSupplyCurrent, CURRENT_PERIOD_S);
+        Cache.registerSignal(motorSupplyVoltage, VOLTAGE_PERIOD_S);
+        Cache.registerSignal(motorDeviceTemp, TEMPERATURE_PERIOD_S);
         // Memo.registerSignal(motorTorqueCurrent);
 
         // None of these need to refresh.
@@ -207,12 +222,19 @@ public abstract class Talon6Motor implements BareMotor {
     /** Set duty cycle immediately. */
     @Override
     public void setDutyCycle(double output) {
-        warn(() -> m_motor.setControl(m_dutyCycleOut
-                .withOutput(output)));
-        m_log_desired_duty.log(() -> output);
+        if (send(Mode.DUTY_CYCLE, output, 0)) {
+            warn(() -> m_motor.setControl(m_dutyCycleOut
+                    .withOutput(output)));
+            m_log_desired_duty.log(() -> output);
+        }
         log();
     }
 
+    /** Replace the default setpoint filter, e.g. to change the tolerances. */
+    public void setSetpointFilter(SetpointFilter filter) {
+        m_filter = filter;
+    }
+
     @Override
     public void setTorqueLimit(double torqueNm) {
         int currentA = (int) (torqueNm / kTNm_amp());
@@ -221,7 +243,7 @@ public abstract class Talon6Motor implements BareMotor {
 
     @Override
     public double getCurrent() {
-        return m_motor.getStatorCurrent().getValueAsDouble();
+        return m_stator.getAsDouble();
     }
 
     /**
@@ -243,6 +265,12 @@ public abstract class Talon6Motor implements BareMotor {
         final double FFVolts = frictionFFVolts + velocityFFVolts + accelFFVolts + torqueFFVolts;
         // final double FFVolts = torqueFFVolts;
 
+        if (!send(Mode.VELOCITY, motorRev_S, FFVolts)) {
+            // Same as last time, so the logs are unchanged too.
+            log();
+            return;
+        }
+
         // VelocityVoltage has an acceleration field for kA feedforward but we use
         // arbitrary feedforward for that.
         warn(() -> m_motor.setControl(
@@ -270,6 +298,7 @@ public abstract class Talon6Motor implements BareMotor {
     @Override
     public void play(double freq) {
         m_motor.setControl(m_music.withAudioFrequency(freq));
+        m_filter.reset();
     }
 
     /**
@@ -297,6 +326,12 @@ public abstract class Talon6Motor implements BareMotor {
 
         final double FFVolts = frictionFFVolts + velocityFFVolts + accelFFVolts + torqueFFVolts;
 
+        if (!send(Mode.POSITION, motorRev, FFVolts)) {
+            // Same as last time, so the logs are unchanged too.
+            log();
+            return;
+        }
+
         // PositionVoltage has a velocity field for kV feedforward but we use arbitrary
         // feedforward for that.
         warn(() -> m_motor.setControl(
@@ -323,6 +358,15 @@ public abstract class Talon6Motor implements BareMotor {
         return getVelocityRev_S() * 2 * Math.PI;
     }
 
+    /**
+     * A separate copy of the rotor position signal, in revolutions, for another
+     * thread, e.g. the odometry thread, which can't use Cache. The owner
+     * refreshes it, e.g. with BaseStatusSignal.waitForAll().
+     */
+    public StatusSignal<Angle> positionSignal() {
+        return m_motor.getPosition().clone();
+    }
+
     @Override
     public Talon6Encoder encoder() {
         return new Talon6Encoder(m_log, this);
@@ -331,6 +375,7 @@ public abstract class Talon6Motor implements BareMotor {
     @Override
     public void stop() {
         m_motor.stopMotor();
+        m_filter.reset();
     }
 
     @Override
@@ -450,6 +495,17 @@ public abstract class Talon6Motor implements BareMotor {
 
     /////////////////////////////////////////////
 
+    /** True if the setpoint should be written; counts the outcome either way. */
+    private boolean send(Mode mode, double setpoint, double ff) {
+        // After a brownout or a reset, the device has forgotten its setpoint,
+        // so send it right away, rather than waiting for the keep-alive.
+        // Without dedup, everything is sent anyway, so don't spend the JNI
+        // call asking.
+        if (m_filter.enabled() && m_motor.hasResetOccurred())
+            m_filter.reset();
+        return m_filter.send(mode, setpoint, ff);
+    }
+
     private static void warn(Supplier<StatusCode> s) {
         StatusCode statusCode = s.get();
         if (statusCode.isError()) {
@@ -12,6 +12,8 @@ import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.motor.BareMotor;
 import org.team100.lib.motor.MotorPhase;
 import org.team100.lib.motor.NeutralMode;
+import org.team100.lib.motor.SetpointFilter;
+import org.team100.lib.motor.SetpointFilter.Mode;
 import org.team100.lib.sensor.position.incremental.rev.CANSparkEncoder;
 
 import com.revrobotics.REVLibError;
@@ -39,6 +41,9 @@ import com.revrobotics.spark.SparkLimitSwitch;
  * https://www.chiefdelphi.com/t/rev-robotics-2024-2025/471083/26
  */
 public abstract class CANSparkMotor implements BareMotor {
+    /** Required freshness of the supply voltage, seconds. */
+    private static final double VOLTAGE_PERIOD_S = 0.25;
+
     private final LoggerFactory m_log;
     protected final Feedforward100 m_ff;
     protected final SparkBase m_motor;
@@ -47,6 +52,8 @@ public abstract class CANSparkMotor implements BareMotor {
     protected final SparkLimitSwitch m_revLimitSwitch;
     protected final RelativeEncoder m_encoder;
     protected final SparkClosedLoopController m_pidController;
+    /** Skips repeated setpoints. */
+    private SetpointFilter m_filter;
     // CACHES
     private final DoubleCache m_encoder_position;
     private final DoubleCache m_encoder_velocity;
@@ -99,6 +106,7 @@ public abstract class CANSparkMotor implements BareMotor {
 
         m_encoder = m_motor.getEncoder();
         m_pidController = m_motor.getClosedLoopController();
+        m_filter = new SetpointFilter();
 
         // LIMIT SWITCHES
         m_forLimitSwitch = m_motor.getForwardLimitSwitch();
@@ -107,8 +115,10 @@ public abstract class CANSparkMotor implements BareMotor {
         // CACHES
         m_encoder_position = Cache.ofDouble(m_encoder::getPosition);
         m_encoder_velocity = Cache.ofDouble(m_encoder::getVelocity);
+        // Current is used for detection (e.g. game piece intake), so it's fresh.
         m_current = Cache.ofDouble(m_motor::getOutputCurrent);
-        m_supplyVoltage = Cache.ofDouble(m_motor::getBusVoltage);
+        // Voltage is only logged.
+        m_supplyVoltage = Cache.ofDouble(m_motor::getBusVoltage, VOLTAGE_PERIOD_S);
         m_output = Cache.ofDouble(m_motor::getAppliedOutput);
         // m_temp = Memo.ofDouble(m_motor::getMotorTemperature);
         // LOGGERS
@@ -132,11 +142,18 @@ public abstract class CANSparkMotor implements BareMotor {
 
     @Override
     public void setDutyCycle(double output) {
-        m_motor.set(output);
-        m_log_duty.log(() -> output);
+        if (send(Mode.DUTY_CYCLE, output, 0)) {
+            m_motor.set(output);
+            m_log_duty.log(() -> output);
+        }
         log();
     }
 
+    /** Replace the default setpoint filter, e.g. to change the tolerances. */
+    public void setSetpointFilter(SetpointFilter filter) {
+        m_filter = filter;
+    }
+
     public boolean getForwardLimitSwitch() {
         return m_forLimitSwitch.isPressed();
     }
@@ -167,6 +184,12 @@ public abstract class CANSparkMotor implements BareMotor {
 
         final double FF = frictionFFVolts + velocityFFVolts + accelFFVolts + torqueFFVolts;
 
+        if (!send(Mode.VELOCITY, motorRev_S, FF)) {
+            // Same as last time, so the logs are unchanged too.
+            log();
+            return;
+        }
+
         final double motorRev_M = motorRev_S * 60;
         warn(() -> m_pidController.setReference(
                 motorRev_M, ControlType.kVelocity, ClosedLoopSlot.kSlot1, FF, ArbFFUnits.kVoltage));
@@ -203,6 +226,12 @@ public abstract class CANSparkMotor implements BareMotor {
 
         final double FF = frictionFFVolts + velocityFFVolts + accelFFVolts + torqueFFVolts;
 
+        if (!send(Mode.POSITION, motorRev, FF)) {
+            // Same as last time, so the logs are unchanged too.
+            log();
+            return;
+        }
+
         warn(() -> m_pidController.setReference(
                 motorRev, ControlType.kPosition, ClosedLoopSlot.kSlot0, FF, ArbFFUnits.kVoltage));
 
@@ -240,6 +269,7 @@ public abstract class CANSparkMotor implements BareMotor {
     @Override
     public void stop() {
         m_motor.stopMotor();
+        m_filter.reset();
     }
 
     @Override
@@ -323,6 +353,11 @@ public abstract class CANSparkMotor implements BareMotor {
     public void play(double freq) {
     }
 
+    /** True if the setpoint should be written; counts the outcome either way. */
+    private boolean send(Mode mode, double setpoint, double ff) {
+        return m_filter.send(mode, setpoint, ff);
+    }
+
     private static void warn(Supplier<REVLibError> s) {
         REVLibError errorCode = s.get();
         if (errorCode != REVLibError.kOk) {
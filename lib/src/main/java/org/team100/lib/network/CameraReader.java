@@ -1,6 +1,14 @@
 package org.team100.lib.network;
 
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.team100.lib.config.Camera;
 
@@ -12,11 +20,19 @@ import edu.wpi.first.networktables.NetworkTableListenerPoller;
 import edu.wpi.first.networktables.NetworkTableValue;
 import edu.wpi.first.networktables.PubSubOption;
 import edu.wpi.first.networktables.ValueEventData;
-import edu.wpi.first.util.struct.StructBuffer;
+import edu.wpi.first.util.struct.Struct;
 
 /**
  * Reads camera input from network tables, which is always a StructArray.
  * 
+ * Decoding is done here, rather than with StructBuffer, so that the steady
+ * state doesn't allocate: the topic name is parsed once, the byte buffer is
+ * reused, and the payload arrays are pooled by length. Payload elements are
+ * reused too, for types that support it; see unpack().
+ * 
+ * Because of the pooling, the array passed to perValue() is only valid for the
+ * duration of that call.
+ * 
  * @param T payload type
  */
 public abstract class CameraReader<T> {
@@ -32,12 +48,21 @@ public abstract class CameraReader<T> {
     /** Manages the queue of incoming messages. */
     private final NetworkTableListenerPoller m_poller;
     /** Deserializer used in update(). */
-    private final StructBuffer<T> m_buf;
+    private final Struct<T> m_struct;
+    /**
+     * Topic name => camera offset, so the name is parsed only once. Names that
+     * don't parse are empty.
+     */
+    private final Map<String, Optional<Transform3d>> m_offsets;
+    /** Payload arrays, indexed by length. */
+    private final List<T[]> m_pool;
+    /** Reused for every message; grows as needed. */
+    private ByteBuffer m_bb;
 
     public CameraReader(
             String ntRootName,
             String ntValueName,
-            StructBuffer<T> buf) {
+            Struct<T> struct) {
         m_ntValueName = ntValueName;
         NetworkTableInstance inst = NetworkTableInstance.getDefault();
         m_poller = new NetworkTableListenerPoller(inst);
@@ -48,7 +73,10 @@ public abstract class CameraReader<T> {
                         PubSubOption.keepDuplicates(true),
                         PubSubOption.pollStorage(QUEUE_DEPTH)),
                 EnumSet.of(NetworkTableEvent.Kind.kValueAll));
-        m_buf = buf;
+        m_struct = struct;
+        m_offsets = new HashMap<>();
+        m_pool = new ArrayList<>();
+        m_bb = ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
     }
 
     /**
@@ -66,19 +94,15 @@ public abstract class CameraReader<T> {
             if (DEBUG) {
                 System.out.printf("poll %s\n", name);
             }
-            String[] fields = name.split("/");
-            if (fields.length != 4) {
-                System.out.printf("WARNING: weird event name: %s\n", name);
-                continue;
-            }
-            // key is "rootName/cameraId/cameraNumber/valueName"
-            String cameraId = fields[1];
-            if (!fields[3].equals(m_ntValueName)) {
-                System.out.println("WARNING: weird key: " + name);
+            Optional<Transform3d> offset = m_offsets.computeIfAbsent(name, this::parse);
+            if (offset.isEmpty()) {
                 continue;
             }
+            // Robot-to-camera, offset from Camera.java
+            // in tests this offset is identity.
+            Transform3d cameraOffset = offset.get();
             if (DEBUG) {
-                System.out.print("found value\n");
+                System.out.printf("camera %s offset %s\n", name, cameraOffset);
             }
             // decode the way StructArrayEntryImpl does
             byte[] valueBytes = ntValue.getRaw();
@@ -88,19 +112,12 @@ public abstract class CameraReader<T> {
             }
             T[] valueArray;
             try {
-                valueArray = m_buf.readArray(valueBytes);
+                valueArray = readArray(valueBytes);
             } catch (RuntimeException ex) {
                 System.out.printf("WARNING: decoding failed for name: %s\n", name);
                 continue;
             }
 
-            // Robot-to-camera, offset from Camera.java
-            // in tests this offset is identity.
-            Transform3d cameraOffset = Camera.get(cameraId).getOffset();
-            if (DEBUG) {
-                System.out.printf("camera %s offset %s\n", cameraId, cameraOffset);
-            }
-
             // server time is in microseconds
             // https://docs.wpilib.org/en/stable/docs/software/networktables/networktables-intro.html#timestamps
             //
@@ -121,6 +138,67 @@ public abstract class CameraReader<T> {
         finishUpdate();
     }
 
+    /**
+     * Decode one element. The default allocates a new one; override this to
+     * reuse the previous element instead, for mutable payload types.
+     * 
+     * @param bb       positioned at the element
+     * @param previous the element in this position in the previous message of
+     *                 the same length, or null
+     */
+    protected T unpack(ByteBuffer bb, T previous) {
+        return m_struct.unpack(bb);
+    }
+
+    /**
+     * Parse the topic name, which is "rootName/cameraId/cameraNumber/valueName",
+     * and look up the camera offset.
+     */
+    private Optional<Transform3d> parse(String name) {
+        String[] fields = name.split("/");
+        if (fields.length != 4) {
+            System.out.printf("WARNING: weird event name: %s\n", name);
+            return Optional.empty();
+        }
+        String cameraId = fields[1];
+        if (!fields[3].equals(m_ntValueName)) {
+            System.out.println("WARNING: weird key: " + name);
+            return Optional.empty();
+        }
+        if (DEBUG) {
+            System.out.printf("found camera %s\n", cameraId);
+        }
+        return Optional.of(Camera.get(cameraId).getOffset());
+    }
+
+    /** Decode into a pooled array. */
+    private T[] readArray(byte[] data) {
+        int size = m_struct.getSize();
+        if (data.length % size != 0) {
+            throw new IllegalArgumentException("bad length " + data.length);
+        }
+        int n = data.length / size;
+        if (m_bb.capacity() < data.length) {
+            m_bb = ByteBuffer.allocate(data.length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        m_bb.clear();
+        m_bb.put(data);
+        m_bb.flip();
+        T[] result = pooled(n);
+        for (int i = 0; i < n; ++i) {
+            result[i] = unpack(m_bb, result[i]);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T[] pooled(int n) {
+        while (m_pool.size() <= n) {
+            m_pool.add((T[]) Array.newInstance(m_struct.getTypeClass(), m_pool.size()));
+        }
+        return m_pool.get(n);
+    }
+
     /** Called when update() starts. */
     protected void beginUpdate() {
     };
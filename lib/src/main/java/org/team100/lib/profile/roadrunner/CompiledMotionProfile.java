@@ -0,0 +1,190 @@
+package org.team100.lib.profile.roadrunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A MotionProfile flattened into primitive arrays, one entry per segment, so
+ * that sampling is a binary search rather than a walk through the segment
+ * list, and there's no MotionSegment or MotionState per segment.
+ *
+ * Sampling gives the same result as MotionProfile.get().
+ *
+ * Instances can be reused: compile() and ReusableDynamicProfileGenerator
+ * overwrite the contents, growing the arrays only when necessary.
+ */
+public class CompiledMotionProfile {
+    private int m_size;
+    /** Segment start time, i.e. the end time of the previous segment. */
+    private double[] m_t0;
+    /** Segment end time. */
+    private double[] m_t1;
+    private double[] m_x;
+    private double[] m_v;
+    private double[] m_a;
+    private double[] m_j;
+    /** Segments added, including hidden ones. */
+    private int m_count;
+    // the start state of the profile
+    private double m_startX;
+    private double m_startV;
+    private double m_startA;
+    private double m_startJ;
+    // the end state of the profile
+    private double m_endX;
+    private double m_endV;
+    private double m_endA;
+    private double m_endJ;
+    /** Sum of the segment durations. */
+    private double m_duration;
+
+    public CompiledMotionProfile() {
+        allocate(16);
+    }
+
+    /** Compile the profile. */
+    public static CompiledMotionProfile of(MotionProfile profile) {
+        CompiledMotionProfile result = new CompiledMotionProfile();
+        result.compile(profile);
+        return result;
+    }
+
+    /** Overwrite this with the profile, reusing the storage. */
+    public void compile(MotionProfile profile) {
+        clear();
+        List<MotionSegment> segments = profile.getSegments();
+        for (int i = 0; i < segments.size(); ++i) {
+            MotionSegment s = segments.get(i);
+            MotionState m = s.start();
+            add(m.x(), m.v(), m.a(), m.j(), s.dt());
+        }
+        finish();
+    }
+
+    /**
+     * Returns the [MotionState] at time [t].
+     */
+    public MotionState get(double t) {
+        if (t < 0.0)
+            return new MotionState(m_startX, 0.0, 0.0, 0.0);
+        int i = find(t);
+        if (i < 0)
+            return new MotionState(m_endX, 0.0, 0.0, 0.0);
+        double tau = t - m_t0[i];
+        double x = m_x[i];
+        double v = m_v[i];
+        double a = m_a[i];
+        double j = m_j[i];
+        return new MotionState(
+                x + v * tau + a / 2 * tau * tau + j / 6 * tau * tau * tau,
+                v + a * tau + j / 2 * tau * tau,
+                a + j * tau,
+                j);
+    }
+
+    /**
+     * Returns the duration of the motion profile.
+     */
+    public double duration() {
+        return m_duration;
+    }
+
+    /**
+     * Returns the start [MotionState].
+     */
+    public MotionState start() {
+        return new MotionState(m_startX, m_startV, m_startA, m_startJ);
+    }
+
+    /**
+     * Returns the end [MotionState].
+     */
+    public MotionState end() {
+        return new MotionState(m_endX, m_endV, m_endA, m_endJ);
+    }
+
+    /** Number of segments that can be sampled. */
+    public int size() {
+        return m_size;
+    }
+
+    ////////////////////////////////////////////////////////
+    //
+    // For the generators
+    //
+
+    void clear() {
+        m_size = 0;
+        m_count = 0;
+        m_duration = 0;
+    }
+
+    /**
+     * Append a segment. As in MotionProfile.get(), a segment with a NaN
+     * duration hides itself and all the segments after it, but they still
+     * contribute to the end state and duration.
+     */
+    void add(double x, double v, double a, double j, double dt) {
+        if (m_count++ == 0) {
+            m_startX = x;
+            m_startV = v;
+            m_startA = a;
+            m_startJ = j;
+        }
+        double t0 = m_duration;
+        m_duration += dt;
+        // the end of the last segment.
+        m_endX = x + v * dt + a / 2 * dt * dt + j / 6 * dt * dt * dt;
+        m_endV = v + a * dt + j / 2 * dt * dt;
+        m_endA = a + j * dt;
+        m_endJ = j;
+        if (Double.isNaN(m_duration))
+            return;
+        if (m_size == m_x.length)
+            allocate(2 * m_size);
+        int i = m_size++;
+        m_t0[i] = t0;
+        m_t1[i] = m_duration;
+        m_x[i] = x;
+        m_v[i] = v;
+        m_a[i] = a;
+        m_j[i] = j;
+    }
+
+    /** Check that there's at least one segment, like MotionProfile. */
+    void finish() {
+        if (m_count == 0)
+            throw new IllegalArgumentException();
+    }
+
+    /** The first segment ending at or after t, or -1 if none. */
+    private int find(double t) {
+        int lo = 0;
+        int hi = m_size - 1;
+        if (m_size == 0 || t > m_t1[hi])
+            return -1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (m_t1[mid] >= t)
+                hi = mid;
+            else
+                lo = mid + 1;
+        }
+        return lo;
+    }
+
+    private void allocate(int capacity) {
+        m_t0 = grow(m_t0, capacity);
+        m_t1 = grow(m_t1, capacity);
+        m_x = grow(m_x, capacity);
+        m_v = grow(m_v, capacity);
+        m_a = grow(m_a, capacity);
+        m_j = grow(m_j, capacity);
+    }
+
+    private static double[] grow(double[] a, int capacity) {
+        if (a == null)
+            return new double[capacity];
+        return Arrays.copyOf(a, capacity);
+    }
+}
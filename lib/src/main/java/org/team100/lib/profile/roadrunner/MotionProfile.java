@@ -84,6 +84,13 @@ public class MotionProfile {
         return builder.build();
     }
 
+    /**
+     * Flatten the profile into arrays, for faster sampling.
+     */
+    public CompiledMotionProfile compile() {
+        return CompiledMotionProfile.of(this);
+    }
+
     public List<MotionSegment> getSegments() {
         return segments;
     }
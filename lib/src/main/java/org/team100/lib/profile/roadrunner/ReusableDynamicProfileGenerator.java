@@ -0,0 +1,297 @@
+package org.team100.lib.profile.roadrunner;
+
+import java.util.Arrays;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * The same algorithm as DynamicProfileGenerator, producing the same profile,
+ * but using primitive arrays that are reused across calls, so that
+ * regenerating a profile, e.g. re-targeting mid-motion, doesn't allocate
+ * anything once the buffers are big enough.
+ *
+ * The merge walks the forward and backward spans with cursors, splitting a
+ * span by replacing the cursor state instead of inserting into a list, so it
+ * is linear in the number of spans.
+ *
+ * Not thread-safe; use one instance per profile.
+ */
+public class ReusableDynamicProfileGenerator {
+    // forward spans, in order
+    private int m_fn;
+    private double[] m_fx = new double[16];
+    private double[] m_fv = new double[16];
+    private double[] m_fa = new double[16];
+    private double[] m_fdx = new double[16];
+    // backward spans, in the order they're generated, i.e. from the goal.
+    private int m_bn;
+    private double[] m_bx = new double[16];
+    private double[] m_bv = new double[16];
+    private double[] m_ba = new double[16];
+    private double[] m_bdx = new double[16];
+
+    /** Output, flipped back if necessary. */
+    private CompiledMotionProfile m_out;
+    private double m_sign;
+
+    /**
+     * See DynamicProfileGenerator.generateMotionProfile().
+     *
+     * @param out overwritten with the result
+     */
+    public void generate(
+            MotionState start,
+            MotionState goal,
+            VelocityConstraint velocityConstraint,
+            AccelerationConstraint accelerationConstraint,
+            double resolution,
+            CompiledMotionProfile out) {
+        // Work in flipped coordinates if the goal is behind, as the original does.
+        m_sign = goal.x() < start.x() ? -1 : 1;
+        double startX = m_sign * start.x();
+        double startV = m_sign * start.v();
+        double goalX = m_sign * goal.x();
+        double goalV = m_sign * goal.v();
+
+        double length = goalX - startX;
+        int samples = Math.max(2, (int) Math.ceil(length / resolution));
+        int size = samples - 1;
+        double step = length / size;
+
+        computeForward(startX, startV, velocityConstraint, accelerationConstraint, step, size);
+        computeBackward(goalX, goalV, velocityConstraint, accelerationConstraint, step, size);
+        m_out = out;
+        out.clear();
+        merge();
+        out.finish();
+        m_out = null;
+    }
+
+    private void computeForward(
+            double startX,
+            double startV,
+            VelocityConstraint velocityConstraint,
+            AccelerationConstraint accelerationConstraint,
+            double step,
+            int size) {
+        m_fn = 0;
+        double lastV = startV;
+        for (int i = 0; i < size; ++i) {
+            double displacement = startX + step * i;
+            double maxVel = velocityConstraint.get(m_sign * displacement);
+            double maxAccel = accelerationConstraint.get(m_sign * displacement);
+            if (lastV >= maxVel) {
+                // coast
+                addForward(displacement, maxVel, 0.0, step);
+                lastV = evolve(maxVel, 0.0, step);
+            } else {
+                double finalVel = Math.sqrt(lastV * lastV + 2 * maxAccel * step);
+                if (finalVel <= maxVel) {
+                    addForward(displacement, lastV, maxAccel, step);
+                    lastV = evolve(lastV, maxAccel, step);
+                } else {
+                    // split
+                    double accelDx = (maxVel * maxVel - lastV * lastV) / (2 * maxAccel);
+                    addForward(displacement, lastV, maxAccel, accelDx);
+                    addForward(displacement + accelDx, maxVel, 0.0, step - accelDx);
+                    lastV = evolve(maxVel, 0.0, step - accelDx);
+                }
+            }
+        }
+    }
+
+    private void computeBackward(
+            double goalX,
+            double goalV,
+            VelocityConstraint velocityConstraint,
+            AccelerationConstraint accelerationConstraint,
+            double step,
+            int size) {
+        m_bn = 0;
+        double nextV = goalV;
+        for (int i = 0; i < size; ++i) {
+            double displacement = goalX - step * i;
+            double maxVel = velocityConstraint.get(m_sign * displacement);
+            double maxAccel = accelerationConstraint.get(m_sign * displacement);
+            if (nextV >= maxVel) {
+                // coast
+                nextV = devolve(maxVel, 0.0, step);
+                addBackward(displacement - step, nextV, 0.0, step);
+            } else {
+                double finalVel = Math.sqrt(nextV * nextV + 2 * maxAccel * step);
+                if (finalVel <= maxVel) {
+                    // note negative accel
+                    nextV = devolve(nextV, -maxAccel, step);
+                    addBackward(displacement - step, nextV, -maxAccel, step);
+                } else {
+                    // split
+                    double accelDx = (maxVel * maxVel - nextV * nextV) / (2 * maxAccel);
+                    addBackward(displacement - accelDx, devolve(nextV, -maxAccel, accelDx), -maxAccel, accelDx);
+                    double coastX = displacement - accelDx;
+                    nextV = devolve(maxVel, 0.0, step - accelDx);
+                    addBackward(coastX - (step - accelDx), nextV, 0.0, step - accelDx);
+                }
+            }
+        }
+    }
+
+    /** Merge the forward and backward spans into the output. */
+    private void merge() {
+        int fi = 0;
+        // the backward spans are read in reverse.
+        int bi = m_bn - 1;
+        // current spans
+        double fx = 0;
+        double fv = 0;
+        double fa = 0;
+        double fdx = 0;
+        double bx = 0;
+        double bv = 0;
+        double ba = 0;
+        double bdx = 0;
+        boolean haveF = false;
+        boolean haveB = false;
+        while (true) {
+            if (!haveF) {
+                if (fi >= m_fn)
+                    return;
+                fx = m_fx[fi];
+                fv = m_fv[fi];
+                fa = m_fa[fi];
+                fdx = m_fdx[fi];
+                fi++;
+                haveF = true;
+            }
+            if (!haveB) {
+                if (bi < 0)
+                    return;
+                bx = m_bx[bi];
+                bv = m_bv[bi];
+                ba = m_ba[bi];
+                bdx = m_bdx[bi];
+                bi--;
+                haveB = true;
+            }
+            double forwardDx = fdx;
+            double backwardDx = bdx;
+            // by default both spans are used up.
+            boolean forwardRemains = false;
+            boolean backwardRemains = false;
+            if (!(MathUtil.isNear(forwardDx, backwardDx, 1e-6))) {
+                if (forwardDx > backwardDx) {
+                    forwardRemains = true;
+                    forwardDx = backwardDx;
+                } else {
+                    backwardRemains = true;
+                    backwardDx = forwardDx;
+                }
+            }
+
+            double forwardEndV = evolve(fv, fa, forwardDx);
+            double backwardEndV = evolve(bv, ba, backwardDx);
+
+            if (fv <= bv) {
+                if (forwardEndV <= backwardEndV) {
+                    emit(fx, fv, fa, forwardDx);
+                } else {
+                    double intersection = intersection(fv, fa, bv, ba);
+                    emit(fx, fv, fa, intersection);
+                    emit(bx + intersection, evolve(bv, ba, intersection), ba, backwardDx - intersection);
+                }
+            } else {
+                if (forwardEndV >= backwardEndV) {
+                    emit(bx, bv, ba, backwardDx);
+                } else {
+                    double intersection = intersection(fv, fa, bv, ba);
+                    emit(bx, bv, ba, intersection);
+                    emit(fx + intersection, evolve(fv, fa, intersection), fa, forwardDx - intersection);
+                }
+            }
+
+            // the remainder of a split span is the next span.
+            if (forwardRemains) {
+                fv = evolve(fv, fa, forwardDx);
+                fx = fx + forwardDx;
+                fdx = fdx - forwardDx;
+            } else {
+                haveF = false;
+            }
+            if (backwardRemains) {
+                bv = evolve(bv, ba, backwardDx);
+                bx = bx + backwardDx;
+                bdx = bdx - backwardDx;
+            } else {
+                haveB = false;
+            }
+        }
+    }
+
+    /** Convert the span to a segment, and flip it back if necessary. */
+    private void emit(double x, double v, double a, double dx) {
+        double dt;
+        if (Math.abs(a) < 1e-6) {
+            dt = dx / v;
+        } else {
+            double discriminant = v * v + 2 * a * dx;
+            if (Math.abs(discriminant) < 1e-6) {
+                dt = -v / a;
+            } else {
+                dt = (Math.sqrt(discriminant) - v) / a;
+            }
+        }
+        m_out.add(m_sign * x, m_sign * v, m_sign * a, 0, dt);
+    }
+
+    private void addForward(double x, double v, double a, double dx) {
+        if (m_fn == m_fx.length) {
+            m_fx = Arrays.copyOf(m_fx, 2 * m_fn);
+            m_fv = Arrays.copyOf(m_fv, 2 * m_fn);
+            m_fa = Arrays.copyOf(m_fa, 2 * m_fn);
+            m_fdx = Arrays.copyOf(m_fdx, 2 * m_fn);
+        }
+        m_fx[m_fn] = x;
+        m_fv[m_fn] = v;
+        m_fa[m_fn] = a;
+        m_fdx[m_fn] = dx;
+        m_fn++;
+    }
+
+    private void addBackward(double x, double v, double a, double dx) {
+        if (m_bn == m_bx.length) {
+            m_bx = Arrays.copyOf(m_bx, 2 * m_bn);
+            m_bv = Arrays.copyOf(m_bv, 2 * m_bn);
+            m_ba = Arrays.copyOf(m_ba, 2 * m_bn);
+            m_bdx = Arrays.copyOf(m_bdx, 2 * m_bn);
+        }
+        m_bx[m_bn] = x;
+        m_bv[m_bn] = v;
+        m_ba[m_bn] = a;
+        m_bdx[m_bn] = dx;
+        m_bn++;
+    }
+
+    /** Velocity after distance dx, see DynamicProfileGenerator.evolve(). */
+    private static double evolve(double v, double a, double dx) {
+        double discriminant = v * v + 2 * a * dx;
+        if (discriminant < -1e-6)
+            throw new IllegalArgumentException("state does not extend to " + dx);
+        if (MathUtil.isNear(discriminant, 0.0, 1e-6))
+            return 0.0;
+        return Math.sqrt(discriminant);
+    }
+
+    /** Velocity before distance dx, see DynamicProfileGenerator.devolve(). */
+    private static double devolve(double v, double a, double dx) {
+        double discriminant = v * v - 2 * a * dx;
+        if (discriminant < -1e-6)
+            throw new IllegalArgumentException("state does not extend to " + dx);
+        if (MathUtil.isNear(discriminant, 0.0, 1e-6))
+            return 0.0;
+        return Math.sqrt(discriminant);
+    }
+
+    /** See DynamicProfileGenerator.intersection(). */
+    private static double intersection(double v1, double a1, double v2, double a2) {
+        return (v1 * v1 - v2 * v2) / (2 * a2 - 2 * a1);
+    }
+}
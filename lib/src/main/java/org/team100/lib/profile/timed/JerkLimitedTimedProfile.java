@@ -1,12 +1,18 @@
 package org.team100.lib.profile.timed;
 
+import org.team100.lib.profile.roadrunner.CompiledMotionProfile;
 import org.team100.lib.profile.roadrunner.JerkLimitedProfileGenerator;
 import org.team100.lib.profile.roadrunner.MotionProfile;
 import org.team100.lib.profile.roadrunner.MotionState;
 import org.team100.lib.state.Control100;
 import org.team100.lib.state.Model100;
 
-/** Adapter for Roadrunner jerk-limited profiles. */
+/**
+ * Adapter for Roadrunner jerk-limited profiles.
+ * 
+ * The profile is compiled, into storage reused by each init(), for faster
+ * sampling.
+ */
 public class JerkLimitedTimedProfile implements TimedProfile {
     private static final boolean DEBUG = false;
 
@@ -14,7 +20,7 @@ public class JerkLimitedTimedProfile implements TimedProfile {
     private final double acc;
     private final double jerk;
     private final boolean overshoot;
-    private MotionProfile m_profile;
+    private final CompiledMotionProfile m_profile;
 
     /**
      * You can specify independent limits for velocity, acceleration, and jerk.
@@ -29,6 +35,7 @@ public class JerkLimitedTimedProfile implements TimedProfile {
         this.acc = acc;
         this.jerk = jerk;
         this.overshoot = overshoot;
+        m_profile = new CompiledMotionProfile();
     }
 
     @Override
@@ -36,10 +43,11 @@ public class JerkLimitedTimedProfile implements TimedProfile {
         MotionState start = new MotionState(initial.x(), initial.v(), initial.a(), 0);
         MotionState end = new MotionState(goal.x(), goal.v(), 0, 0);
         // "true" below means "overshoot rather than violating constraints"
-        m_profile = JerkLimitedProfileGenerator.generateMotionProfile(
+        MotionProfile profile = JerkLimitedProfileGenerator.generateMotionProfile(
                 start, end, vel, acc, jerk, overshoot);
+        m_profile.compile(profile);
         if (DEBUG) {
-            System.out.printf("init %s goal %s profile %s\n", initial, goal, m_profile);
+            System.out.printf("init %s goal %s profile %s\n", initial, goal, profile);
         }
     }
 
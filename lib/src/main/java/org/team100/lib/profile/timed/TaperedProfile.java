@@ -1,8 +1,10 @@
 package org.team100.lib.profile.timed;
 
-import org.team100.lib.profile.roadrunner.DynamicProfileGenerator;
-import org.team100.lib.profile.roadrunner.MotionProfile;
+import org.team100.lib.profile.roadrunner.AccelerationConstraint;
+import org.team100.lib.profile.roadrunner.CompiledMotionProfile;
 import org.team100.lib.profile.roadrunner.MotionState;
+import org.team100.lib.profile.roadrunner.ReusableDynamicProfileGenerator;
+import org.team100.lib.profile.roadrunner.VelocityConstraint;
 import org.team100.lib.state.Control100;
 import org.team100.lib.state.Model100;
 
@@ -14,13 +16,21 @@ import org.team100.lib.state.Model100;
  * 
  * If the taper is linear, then the goal is never reached; we use the cube root
  * to obtain roughly linear tapering with time, i.e. constant jerk
+ * 
+ * The generator, the constraints, and the profile are reused by each init(),
+ * so re-targeting doesn't allocate.
  */
 public class TaperedProfile implements TimedProfile {
     private final double vel;
     private final double acc;
     private final double taper;
     private final double resolution;
-    private MotionProfile m_profile;
+    private final ReusableDynamicProfileGenerator m_generator;
+    private final CompiledMotionProfile m_profile;
+    private final VelocityConstraint m_velocity;
+    private final AccelerationConstraint m_acceleration;
+    /** The goal of the current profile, for the acceleration constraint. */
+    private double m_goalX;
 
     /**
      * Taper the acceleration near the goal kinda coarsely, using
@@ -41,18 +51,18 @@ public class TaperedProfile implements TimedProfile {
         // i have no idea if this is right; it does seem to fit the data.
         this.taper = 1.8 * Math.pow(jerk, 2.0 / 3);
         this.resolution = resolution;
+        m_generator = new ReusableDynamicProfileGenerator();
+        m_profile = new CompiledMotionProfile();
+        m_velocity = (s) -> vel;
+        m_acceleration = this::acceleration;
     }
 
     @Override
     public void init(Control100 initial, Model100 goal) {
         MotionState start = new MotionState(initial.x(), initial.v(), initial.a(), 0);
         MotionState end = new MotionState(goal.x(), goal.v(), 0, 0);
-        m_profile = DynamicProfileGenerator.generateMotionProfile(
-                start, end, (s) -> vel, (s) -> {
-                    double togo = goal.x() - s;
-                    double taperedAcc = Math.pow(Math.abs(togo), 1.0 / 3) * taper;
-                    return Math.min(acc, taperedAcc);
-                }, resolution);
+        m_goalX = goal.x();
+        m_generator.generate(start, end, m_velocity, m_acceleration, resolution, m_profile);
     }
 
     @Override
@@ -66,4 +76,10 @@ public class TaperedProfile implements TimedProfile {
         return m_profile.duration();
     }
 
+    private double acceleration(double s) {
+        double togo = m_goalX - s;
+        double taperedAcc = Math.pow(Math.abs(togo), 1.0 / 3) * taper;
+        return Math.min(acc, taperedAcc);
+    }
+
 }
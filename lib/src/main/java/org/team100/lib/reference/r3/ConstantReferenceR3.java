@@ -6,9 +6,11 @@ import org.team100.lib.state.ModelR3;
 /** Always returns the same reference. */
 public class ConstantReferenceR3 implements ReferenceR3 {
     private final ModelR3 m_goal;
+    private final ControlR3 m_next;
 
     public ConstantReferenceR3(ModelR3 goal) {
         m_goal = goal;
+        m_next = goal.control();
     }
 
     @Override
@@ -23,7 +25,7 @@ public class ConstantReferenceR3 implements ReferenceR3 {
 
     @Override
     public ControlR3 next() {
-        return m_goal.control();
+        return m_next;
     }
 
     @Override
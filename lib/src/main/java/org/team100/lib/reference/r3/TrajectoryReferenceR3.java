@@ -11,11 +11,24 @@ import org.team100.lib.logging.LoggerFactory.ModelR3Logger;
 import org.team100.lib.state.ControlR3;
 import org.team100.lib.state.ModelR3;
 import org.team100.lib.trajectory.Trajectory100;
+import org.team100.lib.trajectory.timing.TimedPose;
 
-/** Produces references based on a trajectory. */
+/**
+ * Produces references based on a trajectory.
+ * 
+ * The trajectory is sampled once per Takt tick, into a window starting at the
+ * current time, one loop period apart, so "current" is the first element and
+ * "next" is the second. Any number of calls in the same tick use the same
+ * samples. Each tick's search starts where the previous one left off, so
+ * playing back the whole trajectory visits each point only once.
+ * 
+ * The window can be longer, for feedforward that wants to look further ahead,
+ * see lookahead().
+ */
 public class TrajectoryReferenceR3 implements ReferenceR3 {
     private final LoggerFactory m_log;
     private final Trajectory100 m_trajectory;
+    private final ModelR3 m_goal;
     private final ModelR3Logger m_log_current;
     private final ControlR3Logger m_log_next;
     private final BooleanLogger m_log_done;
@@ -23,11 +36,35 @@ public class TrajectoryReferenceR3 implements ReferenceR3 {
     private final DoubleLogger m_log_progress;
     private double m_startTimeS;
 
+    /** Samples for the current tick, one loop period apart. */
+    private final TimedPose[] m_window;
+    /** Takt time of the window, NaN if it needs to be refreshed. */
+    private double m_windowTimeS;
+    /** Where to start the next search. */
+    private int m_hint;
+    private ModelR3 m_current;
+    private ControlR3 m_next;
+    /** Number of times the trajectory has been sampled, for testing. */
+    private int m_refreshes;
+
     public TrajectoryReferenceR3(
             LoggerFactory parent,
             Trajectory100 trajectory) {
+        this(parent, trajectory, 0);
+    }
+
+    /**
+     * @param lookahead number of samples to keep beyond "next"
+     */
+    public TrajectoryReferenceR3(
+            LoggerFactory parent,
+            Trajectory100 trajectory,
+            int lookahead) {
         m_log = parent.type(this);
         m_trajectory = trajectory;
+        m_goal = trajectory.isEmpty() ? null : ControlR3.fromTimedPose(trajectory.getLastPoint()).model();
+        m_window = new TimedPose[lookahead + 2];
+        m_windowTimeS = Double.NaN;
         m_log_progress = m_log.doubleLogger(Level.TRACE, "progress");
         m_log_current = m_log.modelR3Logger(Level.TRACE, "current");
         m_log_next = m_log.controlR3Logger(Level.TRACE, "next");
@@ -39,22 +76,35 @@ public class TrajectoryReferenceR3 implements ReferenceR3 {
     @Override
     public void initialize(ModelR3 measurement) {
         m_startTimeS = Takt.get();
+        m_windowTimeS = Double.NaN;
+        m_hint = 0;
     }
 
     @Override
     public ModelR3 current() {
-        ModelR3 current = sample(progress()).model();
+        refresh();
+        ModelR3 current = m_current;
         m_log_current.log(() -> current);
         return current;
     }
 
     @Override
     public ControlR3 next() {
-        ControlR3 next = sample(progress() + TimedRobot100.LOOP_PERIOD_S);
+        refresh();
+        ControlR3 next = m_next;
         m_log_next.log(() -> next);
         return next;
     }
 
+    /**
+     * Reference for the given number of loop periods in the future, within the
+     * window: zero is the same as current(), one is the same as next().
+     */
+    public ControlR3 lookahead(int steps) {
+        refresh();
+        return ControlR3.fromTimedPose(m_window[steps]);
+    }
+
     @Override
     public boolean done() {
         boolean done = m_trajectory.isDone(progress());
@@ -64,9 +114,15 @@ public class TrajectoryReferenceR3 implements ReferenceR3 {
 
     @Override
     public ModelR3 goal() {
-        ModelR3 goal = ControlR3.fromTimedPose(m_trajectory.getLastPoint()).model();
-        m_log_goal.log(() -> goal);
-        return goal;
+        if (m_goal == null)
+            throw new IllegalStateException("can't sample an empty trajectory");
+        m_log_goal.log(() -> m_goal);
+        return m_goal;
+    }
+
+    /** How many times the trajectory has been sampled. */
+    int refreshes() {
+        return m_refreshes;
     }
 
     ////////////////////////////////////////////////////
@@ -77,7 +133,15 @@ public class TrajectoryReferenceR3 implements ReferenceR3 {
         return progress;
     }
 
-    private ControlR3 sample(double t) {
-        return ControlR3.fromTimedPose(m_trajectory.sample(t));
+    /** Sample the window, if it's not already done in this tick. */
+    private void refresh() {
+        double now = Takt.get();
+        if (now == m_windowTimeS)
+            return;
+        m_hint = m_trajectory.sample(progress(), TimedRobot100.LOOP_PERIOD_S, m_hint, m_window);
+        m_current = ControlR3.fromTimedPose(m_window[0]).model();
+        m_next = ControlR3.fromTimedPose(m_window[1]);
+        m_windowTimeS = now;
+        m_refreshes++;
     }
 }
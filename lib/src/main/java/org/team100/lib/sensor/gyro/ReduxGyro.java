@@ -21,7 +21,7 @@ import edu.wpi.first.math.util.Units;
  * might be received sometime before the RoboRIO interrupt fires; the logic
  * here corrects for that difference.
  */
-public class ReduxGyro implements Gyro {
+public class ReduxGyro implements Gyro, TimestampedGyro {
 
     private final Canandgyro m_gyro;
 
@@ -62,15 +62,26 @@ public class ReduxGyro implements Gyro {
     /** This is latency-compensated to the current Takt time. */
     @Override
     public Rotation2d getYawNWU() {
+        final double now = Takt.get();
+        final Rotation2d yawNWU = getYawNWU(now);
+        m_log_age.log(() -> now - m_gyro.getAngularPositionFrame().getTimestamp());
+        m_log_yaw.log(() -> yawNWU);
+        return yawNWU;
+    }
+
+    /**
+     * Latency-compensated to the given time. Doesn't log, so it's safe for the
+     * odometry thread.
+     */
+    @Override
+    public Rotation2d getYawNWU(double timestampS) {
         final QuaternionFrame q = m_gyro.getAngularPositionFrame();
         final double t = q.getTimestamp();
         final double yaw = q.getYaw();
         final double rate = m_gyro.getAngularVelocityYaw();
-        double now = Takt.get();
-        double dt = now - t;
-        m_log_age.log(() -> now - t);
-        // It's ok if takt is slightly behind the gyro, in case a CAN packet came in
-        // before we got here.
+        double dt = timestampS - t;
+        // It's ok if the given time is slightly behind the gyro, in case a CAN
+        // packet came in before we got here.
         if (dt < -0.04) {
             dt = 0;
         }
@@ -80,14 +91,17 @@ public class ReduxGyro implements Gyro {
             dt = 0;
         }
         final double correctedYaw = yaw + rate * dt;
-        final Rotation2d yawNWU = Rotation2d.fromRotations(correctedYaw);
-        m_log_yaw.log(() -> yawNWU);
-        return yawNWU;
+        return Rotation2d.fromRotations(correctedYaw);
+    }
+
+    @Override
+    public double yawRateNWU() {
+        return Units.rotationsToRadians(m_gyro.getAngularVelocityYaw());
     }
 
     @Override
     public double getYawRateNWU() {
-        final double yawRateRad_S = Units.rotationsToRadians(m_gyro.getAngularVelocityYaw());
+        final double yawRateRad_S = yawRateNWU();
         m_log_yaw_rate.log(() -> yawRateRad_S);
         return yawRateRad_S;
     }
@@ -0,0 +1,19 @@
+package org.team100.lib.sensor.gyro;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A gyro that can be read from any thread, e.g. the odometry thread, without
+ * using Cache or Takt, and without logging.
+ */
+public interface TimestampedGyro {
+    /**
+     * Yaw NWU, extrapolated to the given time.
+     * 
+     * @param timestampS FPGA time, seconds
+     */
+    Rotation2d getYawNWU(double timestampS);
+
+    /** Yaw rate in rad/s, NWU. */
+    double yawRateNWU();
+}
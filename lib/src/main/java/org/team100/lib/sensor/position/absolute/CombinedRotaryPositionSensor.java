@@ -1,9 +1,7 @@
 package org.team100.lib.sensor.position.absolute;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
+import org.team100.lib.framework.BackgroundExecutor;
+import org.team100.lib.framework.BackgroundExecutor.Urgency;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -13,8 +11,8 @@ import edu.wpi.first.math.MathUtil;
 /**
  * Proxies an absolute sensor and an incremental sensor.
  * 
- * Synchronizes the incremental one to the absolute one, using a separate thread
- * with a delay of a few seconds.
+ * Synchronizes the incremental one to the absolute one, using the background
+ * executor with a delay of a few seconds.
  * 
  * Why delay? Because the RoboRIO duty-cycle input seems to return
  * slightly-wrong values initially.
@@ -36,10 +34,9 @@ public class CombinedRotaryPositionSensor implements RotaryPositionSensor {
     private final DoubleLogger m_log_incremental;
     private final DoubleLogger m_log_incremental_wrapped;
     private final DoubleLogger m_log_combined;
-    // for synchronization one-shot delayed task
-    private final ScheduledExecutorService m_synchronizer;
 
-    private boolean m_synchronized;
+    /** Written by the background thread. */
+    private volatile boolean m_synchronized;
 
     /**
      * "Zeros" the incremental sensor.
@@ -61,14 +58,16 @@ public class CombinedRotaryPositionSensor implements RotaryPositionSensor {
         // the duty cycle encoder seems to produce slightly-wrong values immediately
         // upon startup, so wait a bit before doing the synchronization
         m_synchronized = false;
-        m_synchronizer = Executors.newSingleThreadScheduledExecutor();
-        m_synchronizer.schedule(this::sync, 3, TimeUnit.SECONDS);
+        // Critical: without the sync, the steering angle is wrong, so it can't
+        // wait for the main loop to have slack.
+        BackgroundExecutor.instance.schedule(
+                "encoder sync", this::sync, 3, Urgency.CRITICAL);
     }
 
     /**
      * Sync the absolute and incremental encoders.
      * 
-     * This should only be called by the initializer executor, a few seconds after
+     * This should only be called by the background executor, a few seconds after
      * startup, because the absolute encoder readings are wrong immediately after
      * startup.
      * 
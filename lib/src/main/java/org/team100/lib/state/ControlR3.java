@@ -5,6 +5,7 @@ import org.team100.lib.geometry.GlobalVelocityR3;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.trajectory.timing.TimedPose;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
@@ -21,34 +22,73 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
  * 
  * Do not try to use zero as an initial location; always initialize with the
  * current location.
+ * 
+ * The state is stored as primitives; the object views (pose, velocity, etc)
+ * are created on first use, and kept.
  */
 public class ControlR3 {
-    private final Control100 m_x;
-    private final Control100 m_y;
-    private final Control100 m_theta;
+    private final double m_xx;
+    private final double m_xv;
+    private final double m_xa;
+    private final double m_yx;
+    private final double m_yv;
+    private final double m_ya;
+    private final double m_thetax;
+    private final double m_thetav;
+    private final double m_thetaa;
+
+    // Views, created lazily and then kept: these accessors are called many
+    // times per cycle. Races are benign since the views are immutable.
+    private Control100 m_x;
+    private Control100 m_y;
+    private Control100 m_theta;
+    private Rotation2d m_rotation;
+    private Translation2d m_translation;
+    private Pose2d m_pose;
+    private GlobalVelocityR3 m_velocity;
+    private GlobalAccelerationR3 m_acceleration;
+
+    private ControlR3(
+            double xx, double xv, double xa,
+            double yx, double yv, double ya,
+            double thetax, double thetav, double thetaa) {
+        m_xx = xx;
+        m_xv = xv;
+        m_xa = xa;
+        m_yx = yx;
+        m_yv = yv;
+        m_ya = ya;
+        m_thetax = thetax;
+        m_thetav = thetav;
+        m_thetaa = thetaa;
+    }
 
     public ControlR3(Control100 x, Control100 y, Control100 theta) {
+        this(x.x(), x.v(), x.a(), y.x(), y.v(), y.a(), theta.x(), theta.v(), theta.a());
         m_x = x;
         m_y = y;
         m_theta = theta;
     }
 
     public ControlR3(Pose2d x, GlobalVelocityR3 v) {
-        this(
-                new Control100(x.getX(), v.x(), 0),
-                new Control100(x.getY(), v.y(), 0),
-                new Control100(x.getRotation().getRadians(), v.theta(), 0));
+        this(x, v, GlobalAccelerationR3.ZERO);
     }
 
     public ControlR3(Pose2d x, GlobalVelocityR3 v, GlobalAccelerationR3 a) {
         this(
-                new Control100(x.getX(), v.x(), a.x()),
-                new Control100(x.getY(), v.y(), a.y()),
-                new Control100(x.getRotation().getRadians(), v.theta(), a.theta()));
+                x.getX(), v.x(), a.x(),
+                x.getY(), v.y(), a.y(),
+                x.getRotation().getRadians(), v.theta(), a.theta());
+        // Keep the pose and its parts, so we don't have to compute sin and cos.
+        m_pose = x;
+        m_rotation = x.getRotation();
+        m_translation = x.getTranslation();
+        m_velocity = v;
+        m_acceleration = a;
     }
 
     public ControlR3(Pose2d x) {
-        this(x, new GlobalVelocityR3(0, 0, 0));
+        this(x, GlobalVelocityR3.ZERO);
     }
 
     public ControlR3(Rotation2d x) {
@@ -56,66 +96,93 @@ public class ControlR3 {
     }
 
     public static ControlR3 zero() {
-        return new ControlR3(new Control100(), new Control100(), new Control100());
+        return new ControlR3(0, 0, 0, 0, 0, 0, 0, 0, 0);
     }
 
     public ModelR3 model() {
-        return new ModelR3(m_x.model(), m_y.model(), m_theta.model());
+        return new ModelR3(x().model(), y().model(), theta().model());
     }
 
     public ControlR3 withTheta(double theta) {
-        return new ControlR3(m_x, m_y, new Control100(theta, m_theta.v(), m_theta.a()));
+        return new ControlR3(m_xx, m_xv, m_xa, m_yx, m_yv, m_ya, theta, m_thetav, m_thetaa);
     }
 
     public ControlR3 minus(ControlR3 other) {
-        return new ControlR3(x().minus(other.x()), y().minus(other.y()), theta().minus(other.theta()));
+        return new ControlR3(
+                m_xx - other.m_xx, m_xv - other.m_xv, m_xa - other.m_xa,
+                m_yx - other.m_yx, m_yv - other.m_yv, m_ya - other.m_ya,
+                m_thetax - other.m_thetax, m_thetav - other.m_thetav, m_thetaa - other.m_thetaa);
     }
 
     public ControlR3 plus(ControlR3 other) {
-        return new ControlR3(x().plus(other.x()), y().plus(other.y()), theta().plus(other.theta()));
+        return new ControlR3(
+                m_xx + other.m_xx, m_xv + other.m_xv, m_xa + other.m_xa,
+                m_yx + other.m_yx, m_yv + other.m_yv, m_ya + other.m_ya,
+                m_thetax + other.m_thetax, m_thetav + other.m_thetav, m_thetaa + other.m_thetaa);
     }
 
+    /** Position and velocity (not acceleration) are within (the same) tolerance */
     public boolean near(ControlR3 other, double tolerance) {
-        return x().near(other.x(), tolerance)
-                && y().near(other.y(), tolerance)
-                && theta().near(other.theta(), tolerance);
+        return MathUtil.isNear(m_xx, other.m_xx, tolerance)
+                && MathUtil.isNear(m_xv, other.m_xv, tolerance)
+                && MathUtil.isNear(m_yx, other.m_yx, tolerance)
+                && MathUtil.isNear(m_yv, other.m_yv, tolerance)
+                && MathUtil.isNear(m_thetax, other.m_thetax, tolerance)
+                && MathUtil.isNear(m_thetav, other.m_thetav, tolerance);
     }
 
     public Pose2d pose() {
-        return new Pose2d(m_x.x(), m_y.x(), rotation());
+        if (m_pose == null)
+            m_pose = new Pose2d(translation(), rotation());
+        return m_pose;
     }
 
     /** Translation of the pose */
     public Translation2d translation() {
-        return new Translation2d(m_x.x(), m_y.x());
+        if (m_translation == null)
+            m_translation = new Translation2d(m_xx, m_yx);
+        return m_translation;
     }
 
+    /** Computes sin and cos only once. */
     public Rotation2d rotation() {
-        return new Rotation2d(m_theta.x());
+        if (m_rotation == null)
+            m_rotation = new Rotation2d(m_thetax);
+        return m_rotation;
     }
 
     public GlobalVelocityR3 velocity() {
-        return new GlobalVelocityR3(m_x.v(), m_y.v(), m_theta.v());
+        if (m_velocity == null)
+            m_velocity = new GlobalVelocityR3(m_xv, m_yv, m_thetav);
+        return m_velocity;
     }
 
-    /** Robot-relative speeds */
+    /** Robot-relative speeds. ChassisSpeeds is mutable, so this is a new one. */
     public ChassisSpeeds chassisSpeeds() {
         return SwerveKinodynamics.toInstantaneousChassisSpeeds(velocity(), rotation());
     }
 
     public GlobalAccelerationR3 acceleration() {
-        return new GlobalAccelerationR3(m_x.a(), m_y.a(), m_theta.a());
+        if (m_acceleration == null)
+            m_acceleration = new GlobalAccelerationR3(m_xa, m_ya, m_thetaa);
+        return m_acceleration;
     }
 
     public Control100 x() {
+        if (m_x == null)
+            m_x = new Control100(m_xx, m_xv, m_xa);
         return m_x;
     }
 
     public Control100 y() {
+        if (m_y == null)
+            m_y = new Control100(m_yx, m_yv, m_ya);
         return m_y;
     }
 
     public Control100 theta() {
+        if (m_theta == null)
+            m_theta = new Control100(m_thetax, m_thetav, m_thetaa);
         return m_theta;
     }
 
@@ -147,13 +214,13 @@ public class ControlR3 {
         double yCa = course.getCos() * centripetalAccelM_s_s;
 
         return new ControlR3(
-                new Control100(xx, xv, xa + xCa),
-                new Control100(yx, yv, ya + yCa),
-                new Control100(thetax, thetav, thetaa));
+                xx, xv, xa + xCa,
+                yx, yv, ya + yCa,
+                thetax, thetav, thetaa);
     }
 
     public String toString() {
-        return "SwerveControl(" + m_x + ", " + m_y + ", " + m_theta + ")";
+        return "SwerveControl(" + x() + ", " + y() + ", " + theta() + ")";
     }
 
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import org.team100.lib.geometry.GlobalVelocityR3;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.trajectory.timing.TimedPose;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
@@ -18,28 +19,56 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
  * 
  * This type is used for measurement and estimation, which is why it doesn't
  * include acceleration.
+ * 
+ * The state is stored as primitives; the object views (pose, velocity, etc)
+ * are created on first use, and kept.
  */
 public class ModelR3 {
-    private final Model100 m_x;
-    private final Model100 m_y;
-    private final Model100 m_theta;
+    private final double m_xx;
+    private final double m_xv;
+    private final double m_yx;
+    private final double m_yv;
+    private final double m_thetax;
+    private final double m_thetav;
+
+    // Views, created lazily and then kept: these accessors are called many
+    // times per cycle. Races are benign since the views are immutable.
+    private Model100 m_x;
+    private Model100 m_y;
+    private Model100 m_theta;
+    private Rotation2d m_rotation;
+    private Translation2d m_translation;
+    private Pose2d m_pose;
+    private GlobalVelocityR3 m_velocity;
+
+    private ModelR3(double xx, double xv, double yx, double yv, double thetax, double thetav) {
+        m_xx = xx;
+        m_xv = xv;
+        m_yx = yx;
+        m_yv = yv;
+        m_thetax = thetax;
+        m_thetav = thetav;
+    }
 
     public ModelR3(Model100 x, Model100 y, Model100 theta) {
+        this(x.x(), x.v(), y.x(), y.v(), theta.x(), theta.v());
         m_x = x;
         m_y = y;
         m_theta = theta;
     }
 
     public ModelR3(Pose2d x, GlobalVelocityR3 v) {
-        this(
-                new Model100(x.getX(), v.x()),
-                new Model100(x.getY(), v.y()),
-                new Model100(x.getRotation().getRadians(), v.theta()));
+        this(x.getX(), v.x(), x.getY(), v.y(), x.getRotation().getRadians(), v.theta());
+        // Keep the pose and its parts, so we don't have to compute sin and cos.
+        m_pose = x;
+        m_rotation = x.getRotation();
+        m_translation = x.getTranslation();
+        m_velocity = v;
     }
 
     /** Motionless with the specified pose */
     public ModelR3(Pose2d x) {
-        this(x, new GlobalVelocityR3(0, 0, 0));
+        this(x, GlobalVelocityR3.ZERO);
     }
 
     /** Motionless at the origin with the specified heading */
@@ -49,23 +78,29 @@ public class ModelR3 {
 
     /** Motionless at the origin */
     public ModelR3() {
-        this(new Model100(), new Model100(), new Model100());
+        this(0, 0, 0, 0, 0, 0);
     }
 
     public ControlR3 control() {
-        return new ControlR3(m_x.control(), m_y.control(), m_theta.control());
+        return new ControlR3(x().control(), y().control(), theta().control());
     }
 
     public ModelR3 withTheta(double theta) {
-        return new ModelR3(m_x, m_y, new Model100(theta, m_theta.v()));
+        return new ModelR3(m_xx, m_xv, m_yx, m_yv, theta, m_thetav);
     }
 
     public ModelR3 minus(ModelR3 other) {
-        return new ModelR3(x().minus(other.x()), y().minus(other.y()), theta().minus(other.theta()));
+        return new ModelR3(
+                m_xx - other.m_xx, m_xv - other.m_xv,
+                m_yx - other.m_yx, m_yv - other.m_yv,
+                m_thetax - other.m_thetax, m_thetav - other.m_thetav);
     }
 
     public ModelR3 plus(ModelR3 other) {
-        return new ModelR3(x().plus(other.x()), y().plus(other.y()), theta().plus(other.theta()));
+        return new ModelR3(
+                m_xx + other.m_xx, m_xv + other.m_xv,
+                m_yx + other.m_yx, m_yv + other.m_yv,
+                m_thetax + other.m_thetax, m_thetav + other.m_thetav);
     }
 
     /**
@@ -75,47 +110,69 @@ public class ModelR3 {
      * This is wrong for Pose2d; if you want the correct thing, see Twist2d.
      */
     public ModelR3 evolve(double dt) {
-        return new ModelR3(m_x.evolve(dt), m_y.evolve(dt), m_theta.evolve(dt));
+        return new ModelR3(
+                m_xx + m_xv * dt, m_xv,
+                m_yx + m_yv * dt, m_yv,
+                m_thetax + m_thetav * dt, m_thetav);
     }
 
     /** all dimensions position and velocity are within (the same) tolerance */
     public boolean near(ModelR3 other, double tolerance) {
-        return x().near(other.x(), tolerance)
-                && y().near(other.y(), tolerance)
-                && theta().near(other.theta(), tolerance);
+        return other != null
+                && MathUtil.isNear(m_xx, other.m_xx, tolerance)
+                && MathUtil.isNear(m_xv, other.m_xv, tolerance)
+                && MathUtil.isNear(m_yx, other.m_yx, tolerance)
+                && MathUtil.isNear(m_yv, other.m_yv, tolerance)
+                && MathUtil.isNear(m_thetax, other.m_thetax, tolerance)
+                && MathUtil.isNear(m_thetav, other.m_thetav, tolerance);
     }
 
     public Pose2d pose() {
-        return new Pose2d(m_x.x(), m_y.x(), new Rotation2d(m_theta.x()));
+        if (m_pose == null)
+            m_pose = new Pose2d(translation(), rotation());
+        return m_pose;
     }
 
     /** Translation of the pose */
     public Translation2d translation() {
-        return new Translation2d(m_x.x(), m_y.x());
+        if (m_translation == null)
+            m_translation = new Translation2d(m_xx, m_yx);
+        return m_translation;
     }
 
+    /** Computes sin and cos only once. */
     public Rotation2d rotation() {
-        return new Rotation2d(m_theta.x());
+        if (m_rotation == null)
+            m_rotation = new Rotation2d(m_thetax);
+        return m_rotation;
     }
 
     public GlobalVelocityR3 velocity() {
-        return new GlobalVelocityR3(m_x.v(), m_y.v(), m_theta.v());
+        if (m_velocity == null)
+            m_velocity = new GlobalVelocityR3(m_xv, m_yv, m_thetav);
+        return m_velocity;
     }
 
-    /** Robot-relative speeds */
+    /** Robot-relative speeds. ChassisSpeeds is mutable, so this is a new one. */
     public ChassisSpeeds chassisSpeeds() {
         return SwerveKinodynamics.toInstantaneousChassisSpeeds(velocity(), rotation());
     }
 
     public Model100 x() {
+        if (m_x == null)
+            m_x = new Model100(m_xx, m_xv);
         return m_x;
     }
 
     public Model100 y() {
+        if (m_y == null)
+            m_y = new Model100(m_yx, m_yv);
         return m_y;
     }
 
     public Model100 theta() {
+        if (m_theta == null)
+            m_theta = new Model100(m_thetax, m_thetav);
         return m_theta;
     }
 
@@ -131,14 +188,11 @@ public class ModelR3 {
         double xv = course.getCos() * velocityM_s;
         double yv = course.getSin() * velocityM_s;
         double thetav = timedPose.state().getHeadingRateRad_M() * velocityM_s;
-        return new ModelR3(
-                new Model100(xx, xv),
-                new Model100(yx, yv),
-                new Model100(thetax, thetav));
+        return new ModelR3(xx, xv, yx, yv, thetax, thetav);
     }
 
     public String toString() {
-        return "SwerveModel(" + m_x + ", " + m_y + ", " + m_theta + ")";
+        return "SwerveModel(" + x() + ", " + y() + ", " + theta() + ")";
     }
 
 }
\ No newline at end of file
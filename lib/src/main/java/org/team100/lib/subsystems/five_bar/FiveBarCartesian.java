@@ -13,6 +13,7 @@ import org.team100.lib.sensor.position.absolute.ProxyRotaryPositionSensor;
 import org.team100.lib.sensor.position.incremental.IncrementalBareEncoder;
 import org.team100.lib.subsystems.five_bar.commands.Move;
 import org.team100.lib.subsystems.five_bar.kinematics.ActuatorAngles;
+import org.team100.lib.subsystems.five_bar.kinematics.FiveBarInverseTable;
 import org.team100.lib.subsystems.five_bar.kinematics.FiveBarKinematics;
 import org.team100.lib.subsystems.five_bar.kinematics.JointPositions;
 import org.team100.lib.subsystems.five_bar.kinematics.Scenario;
@@ -24,6 +25,9 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 /**
  * Cartesian control using inverse kinematics, and without profiling.
+ * 
+ * By default the inverse is analytic. The precomputed table is optional; it
+ * only pays for itself if the work envelope around the center is reachable.
  */
 public class FiveBarCartesian extends SubsystemBase {
     /** Low current limits */
@@ -39,9 +43,15 @@ public class FiveBarCartesian extends SubsystemBase {
         SCENARIO.a3 = 0.1;
         SCENARIO.a4 = 0.1;
         SCENARIO.a5 = 0.1;
-        SCENARIO.xcenter = 0.5;
+        // The work center is midway between the motors (P5 is at -a5), within
+        // reach of both arms.
+        SCENARIO.xcenter = -SCENARIO.a5 / 2;
         SCENARIO.ycenter = 0.15;
     }
+    /** Half the size of the work envelope, around the center, meters. */
+    private static final double HALF_WIDTH = 0.02;
+    private static final double HALF_HEIGHT = 0.02;
+    private static final double STEP = 0.002;
 
     /** Left motor, "P1" in the diagram. */
     /**
@@ -55,7 +65,22 @@ public class FiveBarCartesian extends SubsystemBase {
     private final ProxyRotaryPositionSensor m_sensorP5;
     private final RotaryMechanism m_mechP5;
 
+    /** Null means use the analytic inverse. */
+    private final FiveBarInverseTable m_inverse;
+
+    /** Uses the analytic inverse. */
     public FiveBarCartesian(LoggerFactory logger) {
+        this(logger, false);
+    }
+
+    /**
+     * @param logger
+     * @param useInverseTable precompute the inverse over the work envelope, and
+     *                        use it instead of the analytic inverse where it's
+     *                        accurate.
+     */
+    public FiveBarCartesian(LoggerFactory logger, boolean useInverseTable) {
+        m_inverse = useInverseTable ? table() : null;
         // zeros
         PIDConstants pid = PIDConstants.zero(logger);
         Feedforward100 ff = Feedforward100.zero(logger);
@@ -109,10 +134,7 @@ public class FiveBarCartesian extends SubsystemBase {
      * TODO: velocity feedforward
      */
     public void setPosition(Translation2d t) {
-        double x3 = t.getX();
-        double y3 = t.getY();
-        ActuatorAngles p = FiveBarKinematics.inverse(
-                SCENARIO, x3 + SCENARIO.xcenter, y3 + SCENARIO.ycenter);
+        ActuatorAngles p = inverse(m_inverse, t);
         m_mechP1.setUnwrappedPosition(p.q1(), 0, 0, 0);
         m_mechP5.setUnwrappedPosition(p.q5(), 0, 0, 0);
     }
@@ -123,11 +145,12 @@ public class FiveBarCartesian extends SubsystemBase {
         return FiveBarKinematics.forward(SCENARIO, q1, q5);
     }
 
+    /** Position of P3 relative to the work center, same as setPosition(). */
     public Translation2d getPosition() {
         double q1 = m_mechP1.getWrappedPositionRad();
         double q5 = m_mechP5.getWrappedPositionRad();
         JointPositions j = FiveBarKinematics.forward(SCENARIO, q1, q5);
-        return new Translation2d(j.P3().x(), j.P3().y());
+        return new Translation2d(j.P3().x() - SCENARIO.xcenter, j.P3().y() - SCENARIO.ycenter);
     }
 
     public Command move(Translation2d goal) {
@@ -143,6 +166,37 @@ public class FiveBarCartesian extends SubsystemBase {
 
     //////////////////////
 
+    /**
+     * Covers the work envelope, in the P1 frame, with two extra cells on each
+     * side, since the cells at the edge of the grid aren't used.
+     */
+    static FiveBarInverseTable table() {
+        return new FiveBarInverseTable(
+                SCENARIO,
+                SCENARIO.xcenter - HALF_WIDTH - 2 * STEP,
+                SCENARIO.xcenter + HALF_WIDTH + 2 * STEP,
+                SCENARIO.ycenter - HALF_HEIGHT - 2 * STEP,
+                SCENARIO.ycenter + HALF_HEIGHT + 2 * STEP,
+                STEP);
+    }
+
+    /**
+     * Inverse kinematics for a position relative to the work center, using the
+     * table, which is in the P1 frame, if there is one, otherwise analytic.
+     */
+    static ActuatorAngles inverse(FiveBarInverseTable table, Translation2d t) {
+        double x = t.getX() + SCENARIO.xcenter;
+        double y = t.getY() + SCENARIO.ycenter;
+        if (table == null)
+            return FiveBarKinematics.inverse(SCENARIO, x, y);
+        return table.inverse(x, y);
+    }
+
+    /** True if inverse() uses the table at this position, for testing. */
+    static boolean tableCovers(FiveBarInverseTable table, Translation2d t) {
+        return table.covers(t.getX() + SCENARIO.xcenter, t.getY() + SCENARIO.ycenter);
+    }
+
     private void setDutyCycle(double p1, double p5) {
         m_mechP1.setDutyCycle(p1);
         m_mechP5.setDutyCycle(p5);
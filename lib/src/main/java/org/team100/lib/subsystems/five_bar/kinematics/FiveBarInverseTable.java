@@ -0,0 +1,215 @@
+package org.team100.lib.subsystems.five_bar.kinematics;
+
+import static java.lang.Math.cos;
+import static java.lang.Math.floor;
+import static java.lang.Math.sin;
+import static java.lang.Math.sqrt;
+
+/**
+ * Precomputed inverse kinematics for the five-bar, over a rectangular
+ * workspace grid.
+ *
+ * Lookup uses bicubic (Catmull-Rom) interpolation of the actuator angles,
+ * followed by one Newton step using the closed-form forward position and its
+ * Jacobian, which is cheap: the Jacobian comes from differentiating the two
+ * distal-link length constraints, so no trig is needed beyond the two
+ * sin/cos pairs of the forward position.
+ *
+ * Near the edge of the reachable workspace, the angles are not smooth (they
+ * involve the square root of something that goes to zero), so the
+ * interpolation is bad. Also, in some regions the analytic inverse and forward
+ * choose different branches, so the Newton step would go the wrong way. Cells
+ * where the forward doesn't match, or where the interpolation error at the center
+ * exceeds CELL_TOLERANCE are marked invalid at construction; points in those
+ * cells, or near the edge of the grid, fall back to
+ * FiveBarKinematics.inverse().
+ */
+public class FiveBarInverseTable {
+    /** Cells with interpolation error above this are not used, radians. */
+    private static final double CELL_TOLERANCE = 1e-3;
+
+    private final Scenario m_scenario;
+    private final double m_xMin;
+    private final double m_yMin;
+    private final double m_step;
+    private final int m_nx;
+    private final int m_ny;
+    /** Row-major, index = iy * nx + ix */
+    private final double[] m_q1;
+    private final double[] m_q5;
+    /** True if the cell at (ix, iy) can be interpolated; same indexing. */
+    private final boolean[] m_valid;
+
+    /**
+     * @param scenario geometry
+     * @param xMin     left edge of the grid, meters, in the P1 frame
+     * @param xMax     right edge
+     * @param yMin     bottom edge
+     * @param yMax     top edge
+     * @param step     grid spacing, meters
+     */
+    public FiveBarInverseTable(
+            Scenario scenario,
+            double xMin,
+            double xMax,
+            double yMin,
+            double yMax,
+            double step) {
+        if (step <= 0)
+            throw new IllegalArgumentException("step must be positive");
+        m_scenario = scenario;
+        m_xMin = xMin;
+        m_yMin = yMin;
+        m_step = step;
+        m_nx = (int) Math.ceil((xMax - xMin) / step) + 1;
+        m_ny = (int) Math.ceil((yMax - yMin) / step) + 1;
+        m_q1 = new double[m_nx * m_ny];
+        m_q5 = new double[m_nx * m_ny];
+        for (int iy = 0; iy < m_ny; ++iy) {
+            for (int ix = 0; ix < m_nx; ++ix) {
+                ActuatorAngles a = FiveBarKinematics.inverse(
+                        scenario, xMin + ix * step, yMin + iy * step);
+                m_q1[iy * m_nx + ix] = a.q1();
+                m_q5[iy * m_nx + ix] = a.q5();
+            }
+        }
+        m_valid = new boolean[m_nx * m_ny];
+        for (int iy = 1; iy < m_ny - 2; ++iy) {
+            for (int ix = 1; ix < m_nx - 2; ++ix) {
+                double x = xMin + (ix + 0.5) * step;
+                double y = yMin + (iy + 0.5) * step;
+                ActuatorAngles expected = FiveBarKinematics.inverse(scenario, x, y);
+                // The inverse doesn't always choose the same branch as the
+                // forward, and the Newton step uses the forward.
+                Point p3 = FiveBarKinematics.forward(
+                        scenario, expected.q1(), expected.q5()).P3();
+                double q1 = bicubic(m_q1, ix, iy, 0.5, 0.5);
+                double q5 = bicubic(m_q5, ix, iy, 0.5, 0.5);
+                // NaN fails all these comparisons
+                m_valid[iy * m_nx + ix] = Math.abs(q1 - expected.q1()) < CELL_TOLERANCE
+                        && Math.abs(q5 - expected.q5()) < CELL_TOLERANCE
+                        && Math.hypot(p3.x() - x, p3.y() - y) < CELL_TOLERANCE;
+            }
+        }
+    }
+
+    /**
+     * Same as FiveBarKinematics.inverse(), for the scenario given to the
+     * constructor.
+     *
+     * @param x3,y3 position of end effector ("P3" in the diagram), meters
+     * @return the angles of the proximal links.
+     */
+    public ActuatorAngles inverse(double x3, double y3) {
+        double gx = (x3 - m_xMin) / m_step;
+        double gy = (y3 - m_yMin) / m_step;
+        int ix = (int) floor(gx);
+        int iy = (int) floor(gy);
+        if (!valid(ix, iy)) {
+            // off the grid, or near the edge of the workspace
+            return FiveBarKinematics.inverse(m_scenario, x3, y3);
+        }
+        double fx = gx - ix;
+        double fy = gy - iy;
+        double q1 = bicubic(m_q1, ix, iy, fx, fy);
+        double q5 = bicubic(m_q5, ix, iy, fx, fy);
+        ActuatorAngles result = newton(q1, q5, x3, y3);
+        if (Double.isNaN(result.q1()) || Double.isNaN(result.q5())) {
+            // the guess was just outside the workspace
+            return FiveBarKinematics.inverse(m_scenario, x3, y3);
+        }
+        return result;
+    }
+
+    /**
+     * True if inverse() would use the table at this point, rather than falling
+     * back to the analytic solution.
+     */
+    public boolean covers(double x3, double y3) {
+        return valid(
+                (int) floor((x3 - m_xMin) / m_step),
+                (int) floor((y3 - m_yMin) / m_step));
+    }
+
+    /** Bicubic interpolation only, for testing. */
+    ActuatorAngles interpolate(double x3, double y3) {
+        double gx = (x3 - m_xMin) / m_step;
+        double gy = (y3 - m_yMin) / m_step;
+        int ix = (int) floor(gx);
+        int iy = (int) floor(gy);
+        double fx = gx - ix;
+        double fy = gy - iy;
+        return new ActuatorAngles(
+                bicubic(m_q1, ix, iy, fx, fy),
+                bicubic(m_q5, ix, iy, fx, fy));
+    }
+
+    /**
+     * One Newton step toward the target.
+     *
+     * Writing u = P3 - P2 and v = P3 - P4, the link constraints |u| = a2 and
+     * |v| = a3 differentiate to u.dP3 = u.dP2 and v.dP3 = v.dP4. Setting dP3 to
+     * the error e, and with dP2 = P2' dq1 and dP4 = P4' dq5, gives
+     * dq1 = u.e / u.P2' and dq5 = v.e / v.P4'.
+     */
+    private ActuatorAngles newton(double q1, double q5, double x3, double y3) {
+        final Scenario s = m_scenario;
+        double c1 = cos(q1);
+        double s1 = sin(q1);
+        double c5 = cos(q5);
+        double s5 = sin(q5);
+        double x2 = s.a1 * c1;
+        double y2 = s.a1 * s1;
+        double x4 = s.a4 * c5 - s.a5;
+        double y4 = s.a4 * s5;
+        // same as the forward kinematics.
+        double dx = x4 - x2;
+        double dy = y4 - y2;
+        double d = sqrt(dx * dx + dy * dy);
+        double p2ph = (s.a2 * s.a2 - s.a3 * s.a3 + d * d) / (2 * d);
+        double p3ph = sqrt(s.a2 * s.a2 - p2ph * p2ph);
+        double px3 = x2 + dx * (p2ph / d) + (p3ph / d) * dy;
+        double py3 = y2 + dy * (p2ph / d) - (p3ph / d) * dx;
+
+        double ex = x3 - px3;
+        double ey = y3 - py3;
+        double ux = px3 - x2;
+        double uy = py3 - y2;
+        double vx = px3 - x4;
+        double vy = py3 - y4;
+        // dP2/dq1 and dP4/dq5
+        double up2 = ux * (-s.a1 * s1) + uy * (s.a1 * c1);
+        double vp4 = vx * (-s.a4 * s5) + vy * (s.a4 * c5);
+        if (Math.abs(up2) < 1e-12 || Math.abs(vp4) < 1e-12) {
+            // singular configuration; the interpolated value is the best we have.
+            return new ActuatorAngles(q1, q5);
+        }
+        return new ActuatorAngles(
+                q1 + (ux * ex + uy * ey) / up2,
+                q5 + (vx * ex + vy * ey) / vp4);
+    }
+
+    private boolean valid(int ix, int iy) {
+        return ix >= 1 && iy >= 1 && ix <= m_nx - 3 && iy <= m_ny - 3
+                && m_valid[iy * m_nx + ix];
+    }
+
+    /** Catmull-Rom bicubic using the 4x4 samples around (ix, iy). */
+    private double bicubic(double[] table, int ix, int iy, double fx, double fy) {
+        double r0 = cubic(table, (iy - 1) * m_nx + ix, fx);
+        double r1 = cubic(table, iy * m_nx + ix, fx);
+        double r2 = cubic(table, (iy + 1) * m_nx + ix, fx);
+        double r3 = cubic(table, (iy + 2) * m_nx + ix, fx);
+        return catmullRom(r0, r1, r2, r3, fy);
+    }
+
+    private static double cubic(double[] table, int i, double f) {
+        return catmullRom(table[i - 1], table[i], table[i + 1], table[i + 2], f);
+    }
+
+    private static double catmullRom(double p0, double p1, double p2, double p3, double t) {
+        return p1 + 0.5 * t * (p2 - p0
+                + t * (2 * p0 - 5 * p1 + 4 * p2 - p3
+                        + t * (3 * (p1 - p2) + p3 - p0)));
+    }
+}
@@ -1,6 +1,7 @@
 package org.team100.lib.subsystems.r3.commands;
 
 import java.util.List;
+import java.util.function.Function;
 
 import org.team100.lib.commands.MoveAndHold;
 import org.team100.lib.geometry.HolonomicPose2d;
@@ -11,11 +12,15 @@ import org.team100.lib.subsystems.r3.commands.helper.PositionReferenceController
 import org.team100.lib.trajectory.Trajectory100;
 import org.team100.lib.trajectory.TrajectoryPlanner;
 
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 
 /**
  * Using the pose at initialization time, and the specified course, construct a
  * rest-to-rest trajectory to the goal and follow it.
+ * 
+ * If a precomputed trajectory is available for the initial pose, use it
+ * instead, to avoid the planning time.
  */
 public class GoToPosePosition extends MoveAndHold {
     private final LoggerFactory m_log;
@@ -23,6 +28,8 @@ public class GoToPosePosition extends MoveAndHold {
     private final HolonomicPose2d m_goal;
     private final Rotation2d m_course;
     private final TrajectoryPlanner m_trajectoryPlanner;
+    /** Initial pose => precomputed trajectory, or null. */
+    private final Function<Pose2d, Trajectory100> m_precomputed;
 
     private PositionReferenceControllerR3 m_referenceController;
 
@@ -32,20 +39,38 @@ public class GoToPosePosition extends MoveAndHold {
             Rotation2d course,
             HolonomicPose2d goal,
             TrajectoryPlanner trajectoryPlanner) {
+        this(parent, subsystem, course, goal, trajectoryPlanner, p -> null);
+    }
+
+    /**
+     * @param precomputed returns a trajectory starting at the given pose, or null
+     *                    if there isn't one.
+     */
+    public GoToPosePosition(
+            LoggerFactory parent,
+            PositionSubsystemR3 subsystem,
+            Rotation2d course,
+            HolonomicPose2d goal,
+            TrajectoryPlanner trajectoryPlanner,
+            Function<Pose2d, Trajectory100> precomputed) {
         m_log = parent.type(this);
         m_subsystem = subsystem;
         m_goal = goal;
         m_course = course;
         m_trajectoryPlanner = trajectoryPlanner;
+        m_precomputed = precomputed;
         addRequirements(subsystem);
     }
 
     @Override
     public void initialize() {
-        HolonomicPose2d m_currentPose = HolonomicPose2d.make(
-                m_subsystem.getState().pose(), m_course);
-        Trajectory100 m_trajectory = m_trajectoryPlanner.restToRest(
-                List.of(m_currentPose, m_goal));
+        Pose2d pose = m_subsystem.getState().pose();
+        Trajectory100 m_trajectory = m_precomputed.apply(pose);
+        if (m_trajectory == null) {
+            HolonomicPose2d m_currentPose = HolonomicPose2d.make(pose, m_course);
+            m_trajectory = m_trajectoryPlanner.restToRest(
+                    List.of(m_currentPose, m_goal));
+        }
         m_referenceController = new PositionReferenceControllerR3(
                 m_log, m_subsystem, new TrajectoryReferenceR3(m_log, m_trajectory));
     }
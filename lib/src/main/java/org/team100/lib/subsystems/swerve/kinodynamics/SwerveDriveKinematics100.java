@@ -23,6 +23,10 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
 public class SwerveDriveKinematics100 {
     private final int m_numModules;
     private final Translation2d[] m_moduleLocations;
+    /** Module x coordinates, to avoid the Translation2d accessors. */
+    private final double[] m_x;
+    /** Module y coordinates. */
+    private final double[] m_y;
 
     /**
      * this (2n x 3) matrix looks something like
@@ -85,6 +89,17 @@ public class SwerveDriveKinematics100 {
      */
     final SimpleMatrix m_forwardKinematics;
 
+    /** Row-major copy of m_forwardKinematics (3 x 2n), for the generic path. */
+    private final double[] m_forward;
+    /**
+     * True if the module centroid is at the center of rotation, which is the
+     * case for the usual rectangular layout. In that case the pseudo-inverse
+     * has a closed form, and we use it instead of the matrix.
+     */
+    private final boolean m_centered;
+    /** Reciprocal of the sum of squared module radii, for the closed form. */
+    private final double m_inverseRadiusSquared;
+
     /**
      * array order:
      * 
@@ -101,6 +116,28 @@ public class SwerveDriveKinematics100 {
         m_moduleLocations = Arrays.copyOf(moduleTranslationsM, m_numModules);
         m_inverseKinematics = inverseMatrix(m_moduleLocations);
         m_forwardKinematics = m_inverseKinematics.pseudoInverse();
+        m_x = new double[m_numModules];
+        m_y = new double[m_numModules];
+        double sumX = 0;
+        double sumY = 0;
+        double sumR2 = 0;
+        for (int i = 0; i < m_numModules; i++) {
+            m_x[i] = m_moduleLocations[i].getX();
+            m_y[i] = m_moduleLocations[i].getY();
+            sumX += m_x[i];
+            sumY += m_y[i];
+            sumR2 += m_x[i] * m_x[i] + m_y[i] * m_y[i];
+        }
+        m_forward = new double[3 * 2 * m_numModules];
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 2 * m_numModules; c++) {
+                m_forward[r * 2 * m_numModules + c] = m_forwardKinematics.get(r, c);
+            }
+        }
+        m_centered = Math.abs(sumX) < 1e-9
+                && Math.abs(sumY) < 1e-9
+                && sumR2 > 1e-9;
+        m_inverseRadiusSquared = m_centered ? 1.0 / sumR2 : 0.0;
     }
 
     /**
@@ -113,10 +150,15 @@ public class SwerveDriveKinematics100 {
      * Angles are otherwise always within [-pi, pi].
      */
     public SwerveModuleStates toSwerveModuleStates(DiscreteSpeed speed) {
-        // [vx; vy; omega] (3 x 1)
-        SimpleMatrix chassisSpeedsVector = chassisSpeeds2Vector(speed);
-        // [v cos; v sin; ...] (2n x 1)
-        return statesFromVector(chassisSpeedsVector);
+        double vx = speed.twist().dx / speed.dt();
+        double vy = speed.twist().dy / speed.dt();
+        double omega = speed.twist().dtheta / speed.dt();
+        // [v cos; v sin; ...] = inverse * [vx; vy; omega]
+        return new SwerveModuleStates(
+                SwerveModuleState100.fromSpeed(vx - m_y[0] * omega, vy + m_x[0] * omega),
+                SwerveModuleState100.fromSpeed(vx - m_y[1] * omega, vy + m_x[1] * omega),
+                SwerveModuleState100.fromSpeed(vx - m_y[2] * omega, vy + m_x[2] * omega),
+                SwerveModuleState100.fromSpeed(vx - m_y[3] * omega, vy + m_x[3] * omega));
     }
 
     /**
@@ -129,11 +171,15 @@ public class SwerveDriveKinematics100 {
      * States may include empty angles for motionless wheels.
      */
     public SwerveModuleDeltas toSwerveModuleDelta(Twist2d twist) {
-        // [dx; dy; dtheta] (3 x 1)
-        SimpleMatrix twistVector = twist2Vector(twist);
-        // [d cos; d sin; ...] (2n x 1)
-        SimpleMatrix deltaVector = m_inverseKinematics.mult(twistVector);
-        return deltasFromVector(deltaVector);
+        double dx = twist.dx;
+        double dy = twist.dy;
+        double dtheta = twist.dtheta;
+        // [d cos; d sin; ...] = inverse * [dx; dy; dtheta]
+        return new SwerveModuleDeltas(
+                new SwerveModuleDelta(dx - m_y[0] * dtheta, dy + m_x[0] * dtheta),
+                new SwerveModuleDelta(dx - m_y[1] * dtheta, dy + m_x[1] * dtheta),
+                new SwerveModuleDelta(dx - m_y[2] * dtheta, dy + m_x[2] * dtheta),
+                new SwerveModuleDelta(dx - m_y[3] * dtheta, dy + m_x[3] * dtheta));
     }
 
     /**
@@ -150,12 +196,20 @@ public class SwerveDriveKinematics100 {
      * FORWARD: module states -> chassis speeds
      */
     public ChassisSpeeds toChassisSpeeds(SwerveModuleStates states) {
-        // checkLength(states);
         // [v cos; v sin; ...] (2n x 1)
-        SimpleMatrix statesVector = states2Vector(states);
+        double vx0 = vx(states.frontLeft());
+        double vy0 = vy(states.frontLeft());
+        double vx1 = vx(states.frontRight());
+        double vy1 = vy(states.frontRight());
+        double vx2 = vx(states.rearLeft());
+        double vy2 = vy(states.rearLeft());
+        double vx3 = vx(states.rearRight());
+        double vy3 = vy(states.rearRight());
         // [vx; vy; omega]
-        SimpleMatrix chassisSpeedsVector = m_forwardKinematics.mult(statesVector);
-        return vector2ChassisSpeeds(chassisSpeedsVector);
+        return new ChassisSpeeds(
+                forward(0, vx0, vy0, vx1, vy1, vx2, vy2, vx3, vy3),
+                forward(1, vx0, vy0, vx1, vy1, vx2, vy2, vx3, vy3),
+                forward(2, vx0, vy0, vx1, vy1, vx2, vy2, vx3, vy3));
     }
 
     /**
@@ -170,122 +224,91 @@ public class SwerveDriveKinematics100 {
      */
     public Twist2d toTwist2d(SwerveModuleDeltas deltas) {
         // [d cos; d sin; ...] (2n x 1)
-        SimpleMatrix deltaVector = deltas2Vector(deltas);
+        double dx0 = dx(deltas.frontLeft());
+        double dy0 = dy(deltas.frontLeft());
+        double dx1 = dx(deltas.frontRight());
+        double dy1 = dy(deltas.frontRight());
+        double dx2 = dx(deltas.rearLeft());
+        double dy2 = dy(deltas.rearLeft());
+        double dx3 = dx(deltas.rearRight());
+        double dy3 = dy(deltas.rearRight());
         // [dx ;dy; dtheta]
-        SimpleMatrix twistVector = m_forwardKinematics.mult(deltaVector);
-        return vector2Twist(twistVector);
+        return new Twist2d(
+                forward(0, dx0, dy0, dx1, dy1, dx2, dy2, dx3, dy3),
+                forward(1, dx0, dy0, dx1, dy1, dx2, dy2, dx3, dy3),
+                forward(2, dx0, dy0, dx1, dy1, dx2, dy2, dx3, dy3));
     }
 
     ///////////////////////////////////////
 
-    /** states -> [v cos; v sin; ... v cos; v sin] (2n x 1) */
-    private SimpleMatrix states2Vector(SwerveModuleStates moduleStates) {
-        SwerveModuleState100[] moduleStatesAll = moduleStates.all();
-        SimpleMatrix moduleStatesMatrix = new SimpleMatrix(m_numModules * 2, 1);
-        for (int i = 0; i < m_numModules; i++) {
-            SwerveModuleState100 module = moduleStatesAll[i];
-            if (Math.abs(module.speedMetersPerSecond()) < 1e-6 || module.angle().isEmpty()) {
-                // wheel is stopped, or angle is invalid so pretend it's stopped.
-                moduleStatesMatrix.set(i * 2, 0, 0);
-                moduleStatesMatrix.set(i * 2 + 1, 0, 0);
-            } else {
-                moduleStatesMatrix.set(i * 2, 0, module.speedMetersPerSecond() * module.angle().get().getCos());
-                moduleStatesMatrix.set(i * 2 + 1, 0, module.speedMetersPerSecond() * module.angle().get().getSin());
-
-            }
-        }
-        return moduleStatesMatrix;
-    }
-
     /**
-     * produces a vector of corner dx and dy, assuming the module deltas represent
-     * straight line paths.
+     * One row of the forward kinematics, i.e. the pseudo-inverse times the
+     * corner vector [x0; y0; x1; y1; x2; y2; x3; y3].
      * 
-     * @param moduleDeltas [d cos; d sin; ... ] (2n x 1)
+     * If the modules are centered, the pseudo-inverse is just the mean for the
+     * first two rows, and the moment divided by the sum of squared radii for the
+     * third, so we use that, which avoids the matrix entirely. Otherwise we use
+     * the precomputed matrix.
      */
-    private SimpleMatrix deltas2Vector(SwerveModuleDeltas moduleDeltas) {
-        SwerveModuleDelta[] deltas = moduleDeltas.all();
-        SimpleMatrix moduleDeltaMatrix = new SimpleMatrix(m_numModules * 2, 1);
-        for (int i = 0; i < m_numModules; i++) {
-            SwerveModuleDelta module = deltas[i];
-            if (Math.abs(module.distanceMeters) < 1e-6 || module.wrappedAngle.isEmpty()) {
-                moduleDeltaMatrix.set(i * 2, 0, 0);
-                moduleDeltaMatrix.set(i * 2 + 1, 0, 0);
-            } else {
-                moduleDeltaMatrix.set(i * 2, 0, module.distanceMeters * module.wrappedAngle.get().getCos());
-                moduleDeltaMatrix.set(i * 2 + 1, 0, module.distanceMeters * module.wrappedAngle.get().getSin());
+    private double forward(
+            int row,
+            double x0, double y0,
+            double x1, double y1,
+            double x2, double y2,
+            double x3, double y3) {
+        if (m_centered) {
+            switch (row) {
+                case 0:
+                    return 0.25 * (x0 + x1 + x2 + x3);
+                case 1:
+                    return 0.25 * (y0 + y1 + y2 + y3);
+                default:
+                    return m_inverseRadiusSquared * (
+                            -m_y[0] * x0 + m_x[0] * y0
+                            - m_y[1] * x1 + m_x[1] * y1
+                            - m_y[2] * x2 + m_x[2] * y2
+                            - m_y[3] * x3 + m_x[3] * y3);
             }
         }
-        return moduleDeltaMatrix;
-    }
-
-    /** ChassisSpeeds -> [vx; vy; omega] (3 x 1) */
-    private SimpleMatrix chassisSpeeds2Vector(DiscreteSpeed speed) {
-        SimpleMatrix chassisSpeedsVector = new SimpleMatrix(3, 1);
-        chassisSpeedsVector.setColumn(
-                0,
-                0,
-                speed.twist().dx / speed.dt(),
-                speed.twist().dy / speed.dt(),
-                speed.twist().dtheta / speed.dt());
-        return chassisSpeedsVector;
+        int i = row * 2 * m_numModules;
+        return m_forward[i] * x0 + m_forward[i + 1] * y0
+                + m_forward[i + 2] * x1 + m_forward[i + 3] * y1
+                + m_forward[i + 4] * x2 + m_forward[i + 5] * y2
+                + m_forward[i + 6] * x3 + m_forward[i + 7] * y3;
     }
 
-    /** Twist as a 3x1 column vector: [dx; dy; dtheta] */
-    private static SimpleMatrix twist2Vector(Twist2d twist) {
-        return new SimpleMatrix(new double[] {
-                twist.dx,
-                twist.dy,
-                twist.dtheta });
+    /** v cos, or zero if the wheel is stopped or the angle is invalid. */
+    private static double vx(SwerveModuleState100 module) {
+        if (Math.abs(module.speedMetersPerSecond()) < 1e-6 || module.angle().isEmpty())
+            return 0;
+        return module.speedMetersPerSecond() * module.angle().get().getCos();
     }
 
-    /** [vx; vy; omega] (3 x 1) -> ChassisSpeeds */
-    private static ChassisSpeeds vector2ChassisSpeeds(SimpleMatrix v) {
-        return new ChassisSpeeds(v.get(0, 0), v.get(1, 0), v.get(2, 0));
+    /** v sin, or zero if the wheel is stopped or the angle is invalid. */
+    private static double vy(SwerveModuleState100 module) {
+        if (Math.abs(module.speedMetersPerSecond()) < 1e-6 || module.angle().isEmpty())
+            return 0;
+        return module.speedMetersPerSecond() * module.angle().get().getSin();
     }
 
-    /** [dx; dy; dtheta] (3 x 1) -> Twist2d */
-    private static Twist2d vector2Twist(SimpleMatrix v) {
-        return new Twist2d(v.get(0, 0), v.get(1, 0), v.get(2, 0));
+    /** d cos, assuming the delta is a straight line, or zero if invalid. */
+    private static double dx(SwerveModuleDelta module) {
+        if (Math.abs(module.distanceMeters) < 1e-6 || module.wrappedAngle.isEmpty())
+            return 0;
+        return module.distanceMeters * module.wrappedAngle.get().getCos();
     }
 
-    /**
-     * [v cos; v sin; ... ] (2n x 1) -> states[]
-     * 
-     * Speed is always non-negative.
-     * 
-     * Angle can be empty if speed is about zero.
-     * Otherwise angle is always within [-pi, pi].
-     * 
-     * @param chassisSpeedsVector [vx0; vy0; vx1; ...]
-     */
-    SwerveModuleStates statesFromVector(SimpleMatrix chassisSpeedsVector) {
-        SimpleMatrix m = m_inverseKinematics.mult(chassisSpeedsVector);
-        return new SwerveModuleStates(
-                SwerveModuleState100.fromSpeed(m.get(0, 0), m.get(1, 0)),
-                SwerveModuleState100.fromSpeed(m.get(2, 0), m.get(3, 0)),
-                SwerveModuleState100.fromSpeed(m.get(4, 0), m.get(5, 0)),
-                SwerveModuleState100.fromSpeed(m.get(6, 0), m.get(7, 0)));
+    /** d sin, assuming the delta is a straight line, or zero if invalid. */
+    private static double dy(SwerveModuleDelta module) {
+        if (Math.abs(module.distanceMeters) < 1e-6 || module.wrappedAngle.isEmpty())
+            return 0;
+        return module.distanceMeters * module.wrappedAngle.get().getSin();
     }
 
     public Translation2d[] getModuleLocations() {
         return m_moduleLocations;
     }
 
-    /**
-     * The resulting distance is always positive.
-     * 
-     * @param moduleDeltaVector [d cos; d sin; ...] (2n x 1),
-     *                          equivalently [dx0; dy0; dx1; ...]
-     */
-    private SwerveModuleDeltas deltasFromVector(SimpleMatrix moduleDeltaVector) {
-        return new SwerveModuleDeltas(
-                new SwerveModuleDelta(moduleDeltaVector.get(0, 0), moduleDeltaVector.get(1, 0)),
-                new SwerveModuleDelta(moduleDeltaVector.get(2, 0), moduleDeltaVector.get(3, 0)),
-                new SwerveModuleDelta(moduleDeltaVector.get(4, 0), moduleDeltaVector.get(5, 0)),
-                new SwerveModuleDelta(moduleDeltaVector.get(6, 0), moduleDeltaVector.get(7, 0)));
-    }
-
     /** module locations -> inverse kinematics matrix (2n x 3) */
     private static SimpleMatrix inverseMatrix(Translation2d[] moduleLocations) {
         int numModules = moduleLocations.length;
@@ -298,8 +321,9 @@ public class SwerveDriveKinematics100 {
     }
 
     private void checkModuleCount(Translation2d... moduleTranslationsM) {
-        if (moduleTranslationsM.length < 2) {
-            throw new IllegalArgumentException("Swerve requires at least two modules");
+        // the states and deltas containers have exactly four modules.
+        if (moduleTranslationsM.length != 4) {
+            throw new IllegalArgumentException("Swerve requires four modules");
         }
     }
 }
@@ -7,8 +7,6 @@ import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
 
-import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
-
 /**
  * Maximum speed scales linearly with applied voltage. We also want to avoid
  * driving the battery voltage below the brown-out limit, so there's an extra
@@ -19,11 +17,17 @@ import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
  */
 public class BatterySagSpeedLimit {
     private static final boolean DEBUG = false;
+    /**
+     * Voltage => speed scale, interpolated linearly, like
+     * InterpolatingDoubleTreeMap, but without boxing the key on every lookup.
+     * 12v is spec voltage, proportional down to 7v, zero speed below 6v.
+     */
+    private static final double[] VOLTS = { 6.0, 7.0, 12.0 };
+    private static final double[] SCALE = { 0.0, 7.0 / 12.0, 1.0 };
 
     private final DoubleLogger m_log_scale;
     private final SwerveKinodynamics m_dynamics;
     private final DoubleSupplier m_voltage;
-    private final InterpolatingDoubleTreeMap m_table;
 
     public BatterySagSpeedLimit(
             LoggerFactory parent,
@@ -35,13 +39,6 @@ public class BatterySagSpeedLimit {
         // there's a supplier here so that the tests don't need to use the
         // RobotController HAL, which sometimes mysteriously fails.
         m_voltage = voltage;
-        m_table = new InterpolatingDoubleTreeMap();
-        // 12v is spec voltage
-        m_table.put(12.0, 1.0);
-        // proportional down to 7v
-        m_table.put(7.0, 7.0 / 12.0);
-        // zero speed below 6v
-        m_table.put(6.0, 0.0);
     }
 
     public double getMaxDriveVelocityM_S() {
@@ -61,8 +58,23 @@ public class BatterySagSpeedLimit {
     }
 
     private double getScale() {
-        double scale = m_table.get(m_voltage.getAsDouble());
-        m_log_scale.log(() -> scale);
+        double scale = scale(m_voltage.getAsDouble());
+        m_log_scale.log(scale);
         return scale;
     }
+
+    /** Clamped at the ends, exact at the points. */
+    static double scale(double volts) {
+        if (volts <= VOLTS[0])
+            return SCALE[0];
+        for (int i = 1; i < VOLTS.length; ++i) {
+            if (volts == VOLTS[i])
+                return SCALE[i];
+            if (volts < VOLTS[i]) {
+                double t = (volts - VOLTS[i - 1]) / (VOLTS[i] - VOLTS[i - 1]);
+                return SCALE[i - 1] + (SCALE[i] - SCALE[i - 1]) * t;
+            }
+        }
+        return SCALE[SCALE.length - 1];
+    }
 }
@@ -3,6 +3,7 @@ package org.team100.lib.subsystems.swerve.kinodynamics.limiter;
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.geometry.GlobalAccelerationR3;
 import org.team100.lib.geometry.GlobalVelocityR3;
+import org.team100.lib.geometry.MutableGlobalVelocityR3;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -24,6 +25,9 @@ public class FieldRelativeAccelerationLimiter {
     private final SwerveKinodynamics m_limits;
     private final double m_cartesianScale;
     private final double m_alphaScale;
+    /** Scratch for the record version, so it allocates only the result. */
+    private final MutableGlobalVelocityR3 m_prev;
+    private final MutableGlobalVelocityR3 m_scratch;
 
     /**
      * @param parent
@@ -42,39 +46,77 @@ public class FieldRelativeAccelerationLimiter {
         m_limits = limits;
         m_cartesianScale = cartesianScale;
         m_alphaScale = alphaScale;
+        m_prev = new MutableGlobalVelocityR3();
+        m_scratch = new MutableGlobalVelocityR3();
     }
 
     public GlobalVelocityR3 apply(
             GlobalVelocityR3 prev,
             GlobalVelocityR3 target) {
+        m_prev.set(prev);
+        m_scratch.set(target);
+        apply(m_prev, m_scratch);
+        return m_scratch.get();
+    }
+
+    /**
+     * Same as above, modifying the target in place, without any allocation.
+     * The record version uses this, so there's only one copy of the arithmetic.
+     */
+    public void apply(
+            MutableGlobalVelocityR3 prev,
+            MutableGlobalVelocityR3 target) {
+        final double dt = TimedRobot100.LOOP_PERIOD_S;
         // Acceleration required to achieve the target.
-        GlobalAccelerationR3 accel = target.accel(
-                prev,
-                TimedRobot100.LOOP_PERIOD_S);
-        m_log_accel.log(() -> accel);
-        double cartesianScale = cartesianScale(prev, target, accel);
-        double alphaScale = alphaScale(accel);
+        double ax = (target.x() - prev.x()) / dt;
+        double ay = (target.y() - prev.y()) / dt;
+        double atheta = (target.theta() - prev.theta()) / dt;
+        m_log_accel.log(ax, ay, atheta);
+        double cartesianScale = cartesianScale(prev, target, ax, ay);
+        double alphaScale = alphaScale(atheta);
         double scale = Math.min(cartesianScale, alphaScale);
-        m_log_scale.log(() -> scale);
-        GlobalVelocityR3 result = prev.plus(accel.times(scale).integrate(TimedRobot100.LOOP_PERIOD_S));
+        m_log_scale.log(scale);
         if (DEBUG) {
             System.out.printf(
-                    "FieldRelativeAccelerationLimiter prev %s target %s accel %s cartesian scale %5.2f alpha scale %5.2f total scale %5.2f result %s\n",
-                    prev, target, accel, cartesianScale, alphaScale, scale, result);
+                    "FieldRelativeAccelerationLimiter prev %s target %s accel (%5.2f, %5.2f, %5.2f) cartesian scale %5.2f alpha scale %5.2f total scale %5.2f\n",
+                    prev, target, ax, ay, atheta, cartesianScale, alphaScale, scale);
         }
-        return result;
+        target.set(
+                prev.x() + ax * scale * dt,
+                prev.y() + ay * scale * dt,
+                prev.theta() + atheta * scale * dt);
     }
 
     double cartesianScale(
             GlobalVelocityR3 prev,
             GlobalVelocityR3 target,
             GlobalAccelerationR3 accel) {
-        double a = accel.norm();
+        return cartesianScale(prev.x(), prev.y(), target.x(), target.y(), accel.x(), accel.y());
+    }
+
+    private double cartesianScale(
+            MutableGlobalVelocityR3 prev,
+            MutableGlobalVelocityR3 target,
+            double ax,
+            double ay) {
+        return cartesianScale(prev.x(), prev.y(), target.x(), target.y(), ax, ay);
+    }
+
+    private double cartesianScale(
+            double prevX,
+            double prevY,
+            double targetX,
+            double targetY,
+            double ax,
+            double ay) {
+        double a = Math.hypot(ax, ay);
         if (Math.abs(a) < 1e-6) {
             // Avoid divide-by-zero.
             return 1.0;
         }
-        double accelLimit = SwerveUtil.getAccelLimit(m_limits, 1, m_cartesianScale, prev, target);
+        double accelLimit = SwerveUtil.getAccelLimit(
+                m_limits, 1, m_cartesianScale,
+                prevX, prevY, targetX, targetY);
         // At full speed, both a and accelLimit are around zero.
         if (a < accelLimit) {
             a = accelLimit;
@@ -82,8 +124,7 @@ public class FieldRelativeAccelerationLimiter {
         return Math.min(1, accelLimit / a);
     }
 
-    private double alphaScale(GlobalAccelerationR3 accel) {
-        double a = accel.theta();
+    private double alphaScale(double a) {
         if (Math.abs(a) < 1e-6) {
             // Avoid divide-by-zero.
             return 1.0;
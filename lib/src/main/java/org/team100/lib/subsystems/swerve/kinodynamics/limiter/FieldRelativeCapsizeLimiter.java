@@ -3,6 +3,7 @@ package org.team100.lib.subsystems.swerve.kinodynamics.limiter;
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.geometry.GlobalAccelerationR3;
 import org.team100.lib.geometry.GlobalVelocityR3;
+import org.team100.lib.geometry.MutableGlobalVelocityR3;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -22,6 +23,9 @@ public class FieldRelativeCapsizeLimiter {
     private final GlobalVelocityR3Logger m_log_target;
 
     private final SwerveKinodynamics limits;
+    /** Scratch for the record version, so it allocates only the result. */
+    private final MutableGlobalVelocityR3 m_prev;
+    private final MutableGlobalVelocityR3 m_scratch;
 
     public FieldRelativeCapsizeLimiter(
             LoggerFactory parent,
@@ -32,31 +36,49 @@ public class FieldRelativeCapsizeLimiter {
         m_log_prev = log.globalVelocityR3Logger(Level.TRACE, "prev");
         m_log_target = log.globalVelocityR3Logger(Level.TRACE, "target");
         limits = m_limits;
+        m_prev = new MutableGlobalVelocityR3();
+        m_scratch = new MutableGlobalVelocityR3();
     }
 
     public GlobalVelocityR3 apply(
             GlobalVelocityR3 prev,
             GlobalVelocityR3 target) {
-        m_log_prev.log(() -> prev);
-        m_log_target.log(() -> target);
+        m_prev.set(prev);
+        m_scratch.set(target);
+        apply(m_prev, m_scratch);
+        return m_scratch.get();
+    }
+
+    /**
+     * Same as above, modifying the target in place, without any allocation.
+     * The record version uses this, so there's only one copy of the arithmetic.
+     */
+    public void apply(
+            MutableGlobalVelocityR3 prev,
+            MutableGlobalVelocityR3 target) {
+        m_log_prev.log(prev.x(), prev.y(), prev.theta());
+        m_log_target.log(target.x(), target.y(), target.theta());
+        final double dt = TimedRobot100.LOOP_PERIOD_S;
         // Acceleration required to achieve the target.
-        GlobalAccelerationR3 accel = target.accel(
-                prev,
-                TimedRobot100.LOOP_PERIOD_S);
-        m_log_accel.log(() -> accel);
-        double a = accel.norm();
+        double ax = (target.x() - prev.x()) / dt;
+        double ay = (target.y() - prev.y()) / dt;
+        double atheta = (target.theta() - prev.theta()) / dt;
+        m_log_accel.log(ax, ay, atheta);
+        double a = Math.hypot(ax, ay);
         if (a < 1e-6) {
             // Zero acceleration.
             a = 0;
         }
         double scale = scale(a);
-        m_log_scale.log(() -> scale);
-        GlobalVelocityR3 result = prev.plus(accel.times(scale).integrate(TimedRobot100.LOOP_PERIOD_S));
+        m_log_scale.log(scale);
         if (DEBUG) {
-            System.out.printf("FieldRelativeCapsizeLimiter prev %s target %s accel %s scale %5.2f result %s\n",
-                    prev, target, accel, scale, result);
+            System.out.printf("FieldRelativeCapsizeLimiter prev %s target %s accel (%5.2f, %5.2f, %5.2f) scale %5.2f\n",
+                    prev, target, ax, ay, atheta, scale);
         }
-        return result;
+        target.set(
+                prev.x() + ax * scale * dt,
+                prev.y() + ay * scale * dt,
+                prev.theta() + atheta * scale * dt);
     }
 
     double scale(double a) {
@@ -3,6 +3,7 @@ package org.team100.lib.subsystems.swerve.kinodynamics.limiter;
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
 import org.team100.lib.geometry.GlobalVelocityR3;
+import org.team100.lib.geometry.MutableGlobalVelocityR3;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -15,6 +16,8 @@ public class FieldRelativeVelocityLimiter {
 
     private final DoubleLogger m_log_scale;
     private final BatterySagSpeedLimit m_limits;
+    /** Scratch for the record versions, so they allocate only the result. */
+    private final MutableGlobalVelocityR3 m_scratch;
 
     public FieldRelativeVelocityLimiter(
             LoggerFactory parent,
@@ -22,16 +25,43 @@ public class FieldRelativeVelocityLimiter {
         LoggerFactory log = parent.type(this);
         m_log_scale = log.doubleLogger(Level.TRACE, "scale");
         m_limits = limit;
+        m_scratch = new MutableGlobalVelocityR3();
     }
 
     public GlobalVelocityR3 apply(GlobalVelocityR3 target) {
-        if (Experiments.instance.enabled(Experiment.LimitsPreferRotation))
-            return preferRotation(target);
-        return proportional(target);
+        m_scratch.set(target);
+        apply(m_scratch);
+        return m_scratch.get();
     }
 
     /** Maintain translation and rotation proportionality. */
     GlobalVelocityR3 proportional(GlobalVelocityR3 target) {
+        m_scratch.set(target);
+        proportional(m_scratch);
+        return m_scratch.get();
+    }
+
+    /** Scales translation to accommodate the rotation. */
+    GlobalVelocityR3 preferRotation(GlobalVelocityR3 speeds) {
+        m_scratch.set(speeds);
+        preferRotation(m_scratch);
+        return m_scratch.get();
+    }
+
+    /**
+     * Modifies the target in place, without allocating. The record versions
+     * above use this, so there's only one copy of the arithmetic.
+     */
+    public void apply(MutableGlobalVelocityR3 target) {
+        if (Experiments.instance.enabled(Experiment.LimitsPreferRotation)) {
+            preferRotation(target);
+            return;
+        }
+        proportional(target);
+    }
+
+    /** Maintain translation and rotation proportionality. */
+    void proportional(MutableGlobalVelocityR3 target) {
         if (DEBUG) {
             System.out.printf("proportional %s\n", target);
         }
@@ -43,72 +73,37 @@ public class FieldRelativeVelocityLimiter {
         double omegaForSpeed = maxOmega * (1 - xySpeed / maxV);
         boolean feasible = Math.abs(target.theta()) <= omegaForSpeed;
         if (feasible) {
-            // omega + xyspeed is feasible
-            m_log_scale.log(() -> 1.0);
-            if (DEBUG) {
-                System.out.printf("feasible %s\n", target);
-            }
-            return target;
+            m_log_scale.log(1.0);
+            return;
         }
 
         if (xySpeed < 1e-12) {
-            return spinOnly(target, maxOmega);
+            // Spinning in place, faster than is possible, so use maxOmega.
+            m_log_scale.log(Math.abs(maxOmega / target.theta()));
+            target.set(0, 0, Math.signum(target.theta()) * maxOmega);
+            return;
         }
 
         if (Math.abs(target.theta()) < 1e-12) {
-            return translateOnly(target, maxV, xySpeed);
+            // No rotation at all, so use maxV.
+            double xyAngle = Math.atan2(target.y(), target.x());
+            m_log_scale.log(Math.abs(maxV / xySpeed));
+            target.set(maxV * Math.cos(xyAngle), maxV * Math.sin(xyAngle), 0);
+            return;
         }
 
-        return proportional(target, maxV, maxOmega, xySpeed);
-    }
-
-    /** Both rotation and translation, scale proportionally. */
-    private GlobalVelocityR3 proportional(
-            GlobalVelocityR3 target,
-            final double maxV,
-            final double maxOmega,
-            double xySpeed) {
+        // Both rotation and translation, scale proportionally.
         double v = maxOmega * xySpeed * maxV / (maxOmega * xySpeed + Math.abs(target.theta()) * maxV);
         double scale = v / xySpeed;
-        m_log_scale.log(() -> scale);
+        m_log_scale.log(scale);
         if (DEBUG) {
             System.out.printf("FieldRelativeVelocityLimiter proportional scale %.5f\n", scale);
         }
-        return new GlobalVelocityR3(
-                scale * target.x(),
-                scale * target.y(),
-                scale * target.theta());
-    }
-
-    /** No rotation at all, so use maxV. */
-    private GlobalVelocityR3 translateOnly(GlobalVelocityR3 target, double maxV, double xySpeed) {
-        double xyAngle = Math.atan2(target.y(), target.x());
-        double scale = Math.abs(maxV / xySpeed);
-        m_log_scale.log(() -> scale);
-        if (DEBUG) {
-            System.out.printf("max v %s\n", target);
-        }
-        return new GlobalVelocityR3(
-                maxV * Math.cos(xyAngle),
-                maxV * Math.sin(xyAngle),
-                0);
-    }
-
-    /** Spinning in place, faster than is possible, so use maxOmega. */
-    private GlobalVelocityR3 spinOnly(GlobalVelocityR3 target, double maxOmega) {
-        double scale = Math.abs(maxOmega / target.theta());
-        m_log_scale.log(() -> scale);
-        if (DEBUG) {
-            System.out.printf("max omega %s\n", target);
-        }
-        return new GlobalVelocityR3(
-                0,
-                0,
-                Math.signum(target.theta()) * maxOmega);
+        target.set(scale * target.x(), scale * target.y(), scale * target.theta());
     }
 
     /** Scales translation to accommodate the rotation. */
-    GlobalVelocityR3 preferRotation(GlobalVelocityR3 speeds) {
+    void preferRotation(MutableGlobalVelocityR3 speeds) {
         double omegaRatio = Math.min(1, speeds.theta() / m_limits.getMaxAngleSpeedRad_S());
         double xySpeed = speeds.norm();
         double maxV = m_limits.getMaxDriveVelocityM_S();
@@ -116,16 +111,13 @@ public class FieldRelativeVelocityLimiter {
         double ratio = Math.min(1 - omegaRatio, xyRatio);
 
         // just for logging
-        double scale = ratio / xyRatio;
-        m_log_scale.log(() -> scale);
+        m_log_scale.log(ratio / xyRatio);
 
         double xyAngle = Math.atan2(speeds.y(), speeds.x());
-
         if (DEBUG) {
             System.out.printf("FieldRelativeVelocityLimiter rotation ratio %.5f\n", ratio);
         }
-
-        return new GlobalVelocityR3(
+        speeds.set(
                 ratio * maxV * Math.cos(xyAngle),
                 ratio * maxV * Math.sin(xyAngle),
                 speeds.theta());
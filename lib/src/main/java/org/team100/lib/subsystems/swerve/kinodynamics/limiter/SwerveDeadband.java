@@ -1,6 +1,7 @@
 package org.team100.lib.subsystems.swerve.kinodynamics.limiter;
 
 import org.team100.lib.geometry.GlobalVelocityR3;
+import org.team100.lib.geometry.MutableGlobalVelocityR3;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -23,20 +24,30 @@ public class SwerveDeadband  {
     /** 0.01 rad/s */
     private final double m_omegaLimit = 0.001;
     private final DoubleLogger m_log_scale;
+    /** Scratch for the record version, so it allocates only the result. */
+    private final MutableGlobalVelocityR3 m_scratch;
 
     public SwerveDeadband(LoggerFactory parent) {
         LoggerFactory log = parent.type(this);
         m_log_scale = log.doubleLogger(Level.TRACE, "scale");
+        m_scratch = new MutableGlobalVelocityR3();
     }
 
     public GlobalVelocityR3 apply(GlobalVelocityR3 target) {
+        m_scratch.set(target);
+        apply(m_scratch);
+        return m_scratch.get();
+    }
+
+    /** Modifies the target in place. The record version uses this. */
+    public void apply(MutableGlobalVelocityR3 target) {
         if (Math.abs(target.x()) > m_translationLimit
                 || Math.abs(target.y()) > m_translationLimit
                 || Math.abs(target.theta()) > m_omegaLimit) {
-            m_log_scale.log(() -> 1.0);
-            return target;
+            m_log_scale.log(1.0);
+            return;
         }
-        m_log_scale.log(() -> 0.0);
-        return GlobalVelocityR3.ZERO;
+        m_log_scale.log(0.0);
+        target.set(0, 0, 0);
     }
 }
@@ -5,6 +5,7 @@ import java.util.function.DoubleSupplier;
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
 import org.team100.lib.geometry.GlobalVelocityR3;
+import org.team100.lib.geometry.MutableGlobalVelocityR3;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -30,7 +31,10 @@ public class SwerveLimiter {
     private final FieldRelativeAccelerationLimiter m_accelerationLimiter;
     private final SwerveDeadband m_deadband;
     // Velocity expected at the current time, i.e. the previous time step's desire.
-    private GlobalVelocityR3 m_current;
+    private final MutableGlobalVelocityR3 m_current;
+    // Scratch for the limiter chain.
+    private final MutableGlobalVelocityR3 m_result;
+    private boolean m_hasCurrent;
 
     public SwerveLimiter(LoggerFactory parent, SwerveKinodynamics dynamics, DoubleSupplier voltage) {
         LoggerFactory log = parent.type(this);
@@ -50,52 +54,60 @@ public class SwerveLimiter {
         m_accelerationLimiter = new FieldRelativeAccelerationLimiter(log, dynamics, cartesianScale, alphaScale);
 
         m_deadband = new SwerveDeadband(log);
+
+        m_current = new MutableGlobalVelocityR3();
+        m_result = new MutableGlobalVelocityR3();
     }
 
     /**
      * Find a feasible setpoint in the direction of the target, and remember it for
      * next time.
+     * 
+     * The limiter chain works in place on preallocated mutable velocities, so
+     * the only allocation here is the returned value.
      */
     public GlobalVelocityR3 apply(GlobalVelocityR3 nextReference) {
-        m_log_next.log(() -> nextReference);
-        m_log_normIn.log(nextReference::norm);
+        m_log_next.log(nextReference.x(), nextReference.y(), nextReference.theta());
+        m_log_normIn.log(nextReference.norm());
         if (DEBUG) {
             System.out.printf("nextReference %s\n", nextReference);
         }
-        if (m_current == null)
-            m_current = nextReference;
+        if (!m_hasCurrent)
+            updateSetpoint(nextReference);
+
+        m_result.set(nextReference);
 
         // First, limit the goal to a feasible velocity.
-        GlobalVelocityR3 result = m_velocityLimiter.apply(nextReference);
+        m_velocityLimiter.apply(m_result);
         if (DEBUG) {
-            System.out.printf("velocity limited %s\n", result);
+            System.out.printf("velocity limited %s\n", m_result);
         }
 
         // then limit acceleration towards that goal to avoid capsize
-        result = m_capsizeLimiter.apply(m_current, result);
+        m_capsizeLimiter.apply(m_current, m_result);
         if (DEBUG) {
-            System.out.printf("capsize limited %s\n", result);
+            System.out.printf("capsize limited %s\n", m_result);
         }
 
         // Finally, limit acceleration further, using motor physics.
-        result = m_accelerationLimiter.apply(m_current, result);
+        m_accelerationLimiter.apply(m_current, m_result);
         if (DEBUG) {
-            System.out.printf("accel limited %s\n", result);
+            System.out.printf("accel limited %s\n", m_result);
         }
 
         // Ignore very small inputs.
         if (Experiments.instance.enabled(Experiment.SwerveDeadband)) {
-            result = m_deadband.apply(result);
+            m_deadband.apply(m_result);
         }
 
-        updateSetpoint(result);
+        m_current.set(m_result);
 
         if (DEBUG) {
-            System.out.printf("result %s\n", result);
+            System.out.printf("result %s\n", m_result);
         }
-        m_log_norm.log(result::norm);
+        m_log_norm.log(m_result.norm());
 
-        return result;
+        return m_result.get();
     }
 
     /**
@@ -103,7 +115,8 @@ public class SwerveLimiter {
      * This is required to make resumption of manual control smooth.
      */
     public void updateSetpoint(GlobalVelocityR3 setpoint) {
-        m_current = setpoint;
+        m_current.set(setpoint);
+        m_hasCurrent = true;
     }
 
 }
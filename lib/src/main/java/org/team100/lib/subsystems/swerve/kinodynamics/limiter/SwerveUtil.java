@@ -1,7 +1,6 @@
 package org.team100.lib.subsystems.swerve.kinodynamics.limiter;
 
 import org.team100.lib.framework.TimedRobot100;
-import org.team100.lib.geometry.GlobalAccelerationR3;
 import org.team100.lib.geometry.GlobalVelocityR3;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.util.Math100;
@@ -23,8 +22,20 @@ public class SwerveUtil {
             double aScale,
             GlobalVelocityR3 prev,
             GlobalVelocityR3 desired) {
-        if (isAccel(prev, desired)) {
-            return minAccel(m_limits, vScale, aScale, prev.norm());
+        return getAccelLimit(m_limits, vScale, aScale, prev.x(), prev.y(), desired.x(), desired.y());
+    }
+
+    /** Same as above, using primitives, for the allocation-free limiter. */
+    public static double getAccelLimit(
+            SwerveKinodynamics m_limits,
+            double vScale,
+            double aScale,
+            double prevX,
+            double prevY,
+            double desiredX,
+            double desiredY) {
+        if (isAccel(prevX, prevY, desiredX, desiredY)) {
+            return minAccel(m_limits, vScale, aScale, Math.hypot(prevX, prevY));
         }
         return aScale * m_limits.getMaxDriveDecelerationM_S2();
     }
@@ -55,8 +66,14 @@ public class SwerveUtil {
      */
     static boolean isAccel(GlobalVelocityR3 prev,
             GlobalVelocityR3 target) {
-        GlobalAccelerationR3 accel = target.accel(prev, TimedRobot100.LOOP_PERIOD_S);
-        double dot = prev.x() * accel.x() + prev.y() * accel.y();
+        return isAccel(prev.x(), prev.y(), target.x(), target.y());
+    }
+
+    /** Same as above, using primitives. */
+    static boolean isAccel(double prevX, double prevY, double targetX, double targetY) {
+        double ax = (targetX - prevX) / TimedRobot100.LOOP_PERIOD_S;
+        double ay = (targetY - prevY) / TimedRobot100.LOOP_PERIOD_S;
+        double dot = prevX * ax + prevY * ay;
         return dot >= 0;
     }
 
@@ -0,0 +1,88 @@
+package org.team100.lib.subsystems.swerve.module;
+
+import org.team100.lib.localization.OdometrySample;
+import org.team100.lib.localization.OdometrySampler;
+import org.team100.lib.sensor.gyro.TimestampedGyro;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePosition100;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePositions;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.Utils;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Samples the drive and steering motor positions of all four modules, and the
+ * gyro, for OdometryThread.
+ * 
+ * Waits for fresh position signals with BaseStatusSignal.waitForAll(), stamps
+ * the sample with the mean of the signal timestamps, in FPGA time, and
+ * extrapolates the gyro yaw to that time.
+ * 
+ * Uses its own copies of the signals, so it doesn't disturb Cache on the main
+ * thread. See SwerveModuleCollection.odometrySampler().
+ */
+public class PhoenixOdometrySampler implements OdometrySampler {
+    /** A few missed frames at 250 Hz. */
+    private static final double TIMEOUT_S = 0.02;
+
+    private final SwerveModule100[] m_modules;
+    private final SwerveModuleSignals[] m_signals;
+    private final TimestampedGyro m_gyro;
+    /** All the signals, drive and steer for each module, for waitForAll. */
+    private final BaseStatusSignal[] m_all;
+
+    /**
+     * @param modules     FL, FR, RL, RR
+     * @param signals     same order as the modules
+     * @param gyro        read on the odometry thread
+     * @param frequencyHz position signal update rate
+     */
+    PhoenixOdometrySampler(
+            SwerveModule100[] modules,
+            SwerveModuleSignals[] signals,
+            TimestampedGyro gyro,
+            double frequencyHz) {
+        m_modules = modules;
+        m_signals = signals;
+        m_gyro = gyro;
+        m_all = new BaseStatusSignal[2 * signals.length];
+        for (int i = 0; i < signals.length; ++i) {
+            m_all[2 * i] = signals[i].drive();
+            m_all[2 * i + 1] = signals[i].steer();
+        }
+        BaseStatusSignal.setUpdateFrequencyForAll(frequencyHz, m_all);
+    }
+
+    /** Blocks until all the position signals are fresh, or the timeout. */
+    @Override
+    public OdometrySample sample() {
+        StatusCode status = BaseStatusSignal.waitForAll(TIMEOUT_S, m_all);
+        if (!status.isOK())
+            return null;
+        double sum = 0;
+        for (BaseStatusSignal signal : m_all) {
+            sum += signal.getTimestamp().getTime();
+        }
+        // Phoenix timestamps use its own clock; convert to FPGA time.
+        double timestampS = sum / m_all.length
+                + Timer.getFPGATimestamp() - Utils.getCurrentTimeSeconds();
+        return new OdometrySample(
+                timestampS,
+                new SwerveModulePositions(
+                        position(0),
+                        position(1),
+                        position(2),
+                        position(3)),
+                m_gyro.getYawNWU(timestampS),
+                m_gyro.yawRateNWU());
+    }
+
+    private SwerveModulePosition100 position(int i) {
+        SwerveModuleSignals s = m_signals[i];
+        return m_modules[i].getPosition(
+                s.drive().getValueAsDouble() * s.driveM_Rev(),
+                s.steer().getValueAsDouble() * s.steerRad_Rev());
+    }
+}
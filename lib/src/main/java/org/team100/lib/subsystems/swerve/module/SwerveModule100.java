@@ -128,8 +128,16 @@ public abstract class SwerveModule100 implements Player {
 
     /** Uses Cache so the position is fresh and coherent. */
     SwerveModulePosition100 getPosition() {
-        double driveM = m_driveServo.getDistance();
-        double unwrappedAngleRad = m_turningServo.getUnwrappedPositionRad();
+        return getPosition(
+                m_driveServo.getDistance(),
+                m_turningServo.getUnwrappedPositionRad());
+    }
+
+    /**
+     * Position from raw drive distance and steering angle, with the coupling
+     * correction. Safe to call from any thread.
+     */
+    SwerveModulePosition100 getPosition(double driveM, double unwrappedAngleRad) {
         switch (Identity.instance) {
             case SWERVE_ONE:
             case SWERVE_TWO:
@@ -145,6 +153,14 @@ public abstract class SwerveModule100 implements Player {
                 Optional.of(new Rotation2d(unwrappedAngleRad)));
     }
 
+    /**
+     * Raw position signals for the odometry thread, or null if the motors
+     * don't provide them, e.g. in simulation.
+     */
+    SwerveModuleSignals signals() {
+        return null;
+    }
+
     double turningPosition() {
         return m_turningServo.getWrappedPositionRad();
     }
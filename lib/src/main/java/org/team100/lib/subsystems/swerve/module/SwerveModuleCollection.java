@@ -3,10 +3,13 @@ package org.team100.lib.subsystems.swerve.module;
 import java.util.List;
 
 import org.team100.lib.config.Identity;
+import org.team100.lib.localization.OdometrySampler;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.motor.MotorPhase;
 import org.team100.lib.motor.NeutralMode;
 import org.team100.lib.music.Player;
+import org.team100.lib.sensor.gyro.Gyro;
+import org.team100.lib.sensor.gyro.TimestampedGyro;
 import org.team100.lib.sensor.position.absolute.EncoderDrive;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.subsystems.swerve.module.WCPSwerveModule100.DriveRatio;
@@ -261,6 +264,24 @@ public class SwerveModuleCollection implements Player {
         m_rearRight.close();
     }
 
+    /**
+     * Samples all the modules, and the gyro, on the odometry thread, or null if
+     * that's not possible, e.g. in simulation, in which case the main loop
+     * samples odometry once per cycle.
+     */
+    public OdometrySampler odometrySampler(Gyro gyro, double frequencyHz) {
+        if (!(gyro instanceof TimestampedGyro timestampedGyro))
+            return null;
+        SwerveModule100[] modules = modules();
+        SwerveModuleSignals[] signals = new SwerveModuleSignals[modules.length];
+        for (int i = 0; i < modules.length; ++i) {
+            signals[i] = modules[i].signals();
+            if (signals[i] == null)
+                return null;
+        }
+        return new PhoenixOdometrySampler(modules, signals, timestampedGyro, frequencyHz);
+    }
+
     public SwerveModule100[] modules() {
         return new SwerveModule100[] {
                 m_frontLeft,
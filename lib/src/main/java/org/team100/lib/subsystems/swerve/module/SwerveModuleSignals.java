@@ -0,0 +1,22 @@
+package org.team100.lib.subsystems.swerve.module;
+
+import com.ctre.phoenix6.StatusSignal;
+
+import edu.wpi.first.units.measure.Angle;
+
+/**
+ * Raw Phoenix position signals of one module, for PhoenixOdometrySampler. These
+ * are copies, separate from the ones refreshed by Cache on the main thread.
+ * 
+ * @param drive        drive motor rotor position, revolutions
+ * @param driveM_Rev   wheel travel per drive rotor revolution, meters
+ * @param steer        steering motor rotor position, revolutions, which is
+ *                     synchronized to the absolute encoder at startup
+ * @param steerRad_Rev steering angle per steering rotor revolution, radians
+ */
+record SwerveModuleSignals(
+        StatusSignal<Angle> drive,
+        double driveM_Rev,
+        StatusSignal<Angle> steer,
+        double steerRad_Rev) {
+}
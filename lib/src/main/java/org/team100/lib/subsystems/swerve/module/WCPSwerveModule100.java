@@ -11,6 +11,7 @@ import org.team100.lib.motor.MotorPhase;
 import org.team100.lib.motor.NeutralMode;
 import org.team100.lib.motor.ctre.Falcon6Motor;
 import org.team100.lib.motor.ctre.Kraken6Motor;
+import org.team100.lib.motor.ctre.Talon6Motor;
 import org.team100.lib.profile.incremental.IncrementalProfile;
 import org.team100.lib.reference.r1.IncrementalProfileReferenceR1;
 import org.team100.lib.reference.r1.ProfileReferenceR1;
@@ -67,6 +68,8 @@ public class WCPSwerveModule100 extends SwerveModule100 {
     // WCP 4 inch wheel
     private static final double WHEEL_DIAMETER_M = 0.094; // 0.1015
 
+    private final SwerveModuleSignals m_signals;
+
     /**
      * MAKE SURE THAT THE BEVELS ON THE WHEELS FOR ZEROING GO TO THE RIGHT
      */
@@ -84,23 +87,29 @@ public class WCPSwerveModule100 extends SwerveModule100 {
             NeutralMode neutral,
             MotorPhase motorPhase) {
 
-        LinearVelocityServo driveServo = driveKrakenServo(
-                parent.name("Drive"),
+        LoggerFactory driveLog = parent.name("Drive");
+        Kraken6Motor driveMotor = driveKrakenMotor(
+                driveLog,
                 supplyLimitAmps,
                 statorLimitAmps,
-                driveMotorCanId,
-                ratio);
-        AngularPositionServo turningServo = turningServo(
-                parent.name("Turning"),
+                driveMotorCanId);
+        LinearVelocityServo driveServo = driveServo(driveLog, driveMotor, ratio);
+        LoggerFactory turningLog = parent.name("Turning");
+        Falcon6Motor turningMotor = turningMotor(
+                turningLog,
                 turningMotorCanId,
+                neutral,
+                motorPhase);
+        AngularPositionServo turningServo = turningServo(
+                turningLog,
+                turningMotor,
                 turningEncoderChannel,
                 turningOffset,
                 STEERING_RATIO,
                 kinodynamics,
-                drive,
-                neutral,
-                motorPhase);
-        return new WCPSwerveModule100(driveServo, turningServo, ratio);
+                drive);
+        return new WCPSwerveModule100(driveServo, turningServo, ratio,
+                signals(driveMotor, ratio, turningMotor));
     }
 
     /**
@@ -119,35 +128,40 @@ public class WCPSwerveModule100 extends SwerveModule100 {
             EncoderDrive drive,
             NeutralMode neutral,
             MotorPhase motorPhase) {
-        LinearVelocityServo driveServo = driveFalconServo(
-                parent.name("Drive"),
+        LoggerFactory driveLog = parent.name("Drive");
+        Falcon6Motor driveMotor = driveFalconMotor(
+                driveLog,
                 supplyLimitAmps,
                 statorLimitAmps,
-                driveMotorCanId,
-                ratio);
-        AngularPositionServo turningServo = turningServo(
-                parent.name("Turning"),
+                driveMotorCanId);
+        LinearVelocityServo driveServo = driveServo(driveLog, driveMotor, ratio);
+        LoggerFactory turningLog = parent.name("Turning");
+        Falcon6Motor turningMotor = turningMotor(
+                turningLog,
                 turningMotorCanId,
+                neutral,
+                motorPhase);
+        AngularPositionServo turningServo = turningServo(
+                turningLog,
+                turningMotor,
                 turningEncoderChannel,
                 turningOffset,
                 STEERING_RATIO,
                 kinodynamics,
-                drive,
-                neutral,
-                motorPhase);
-        return new WCPSwerveModule100(driveServo, turningServo, ratio);
+                drive);
+        return new WCPSwerveModule100(driveServo, turningServo, ratio,
+                signals(driveMotor, ratio, turningMotor));
     }
 
-    private static LinearVelocityServo driveKrakenServo(
+    private static Kraken6Motor driveKrakenMotor(
             LoggerFactory parent,
             double supplyLimit,
             double statorLimit,
-            CanId driveMotorCanId,
-            DriveRatio ratio) {
+            CanId driveMotorCanId) {
         Feedforward100 ff = Feedforward100.makeWCPSwerveDriveKraken6(parent);
         // note (10/2/24) 0.4 produces oscillation, on carpet.
         PIDConstants pid = PIDConstants.makeVelocityPID(parent, 0.3);
-        Kraken6Motor driveMotor = new Kraken6Motor(
+        return new Kraken6Motor(
                 parent,
                 driveMotorCanId,
                 NeutralMode.COAST,
@@ -156,26 +170,16 @@ public class WCPSwerveModule100 extends SwerveModule100 {
                 statorLimit,
                 pid,
                 ff);
-        Talon6Encoder encoder = driveMotor.encoder();
-        LinearMechanism mech = new LinearMechanism(parent,
-                driveMotor,
-                encoder,
-                ratio.m_ratio,
-                WHEEL_DIAMETER_M,
-                Double.NEGATIVE_INFINITY,
-                Double.POSITIVE_INFINITY);
-        return new OutboardLinearVelocityServo(parent, mech);
     }
 
-    private static LinearVelocityServo driveFalconServo(
+    private static Falcon6Motor driveFalconMotor(
             LoggerFactory parent,
             double supplyLimit,
             double statorLimit,
-            CanId driveMotorCanId,
-            DriveRatio ratio) {
+            CanId driveMotorCanId) {
         Feedforward100 ff = Feedforward100.makeWCPSwerveDriveFalcon6(parent);
         PIDConstants pid = PIDConstants.makeVelocityPID(parent, 0.3);
-        Falcon6Motor driveMotor = new Falcon6Motor(
+        return new Falcon6Motor(
                 parent,
                 driveMotorCanId,
                 NeutralMode.COAST,
@@ -184,26 +188,28 @@ public class WCPSwerveModule100 extends SwerveModule100 {
                 statorLimit,
                 pid,
                 ff);
+    }
+
+    private static LinearVelocityServo driveServo(
+            LoggerFactory parent,
+            Talon6Motor driveMotor,
+            DriveRatio ratio) {
         Talon6Encoder encoder = driveMotor.encoder();
         LinearMechanism mech = new LinearMechanism(parent,
-                driveMotor, encoder, ratio.m_ratio, WHEEL_DIAMETER_M, Double.NEGATIVE_INFINITY,
+                driveMotor,
+                encoder,
+                ratio.m_ratio,
+                WHEEL_DIAMETER_M,
+                Double.NEGATIVE_INFINITY,
                 Double.POSITIVE_INFINITY);
-        return new OutboardLinearVelocityServo(
-                parent,
-                mech);
+        return new OutboardLinearVelocityServo(parent, mech);
     }
 
-    private static AngularPositionServo turningServo(
+    private static Falcon6Motor turningMotor(
             LoggerFactory parent,
             CanId turningMotorCanId,
-            RoboRioChannel turningEncoderChannel,
-            double turningOffset,
-            double gearRatio,
-            SwerveKinodynamics kinodynamics,
-            EncoderDrive drive,
             NeutralMode neutral,
             MotorPhase motorPhase) {
-
         // Talon outboard POSITION PID
         // 10/2/24 drive torque produces about a 0.5 degree deviation so maybe
         // this is too low.
@@ -212,7 +218,7 @@ public class WCPSwerveModule100 extends SwerveModule100 {
         // java uses this to calculate feedforward voltages from target velocities etc
         Feedforward100 ff = Feedforward100.makeWCPSwerveTurningFalcon6(parent);
 
-        Falcon6Motor turningMotor = new Falcon6Motor(
+        return new Falcon6Motor(
                 parent,
                 turningMotorCanId,
                 neutral,
@@ -221,6 +227,31 @@ public class WCPSwerveModule100 extends SwerveModule100 {
                 STEERING_STATOR_LIMIT,
                 lowLevelPID,
                 ff);
+    }
+
+    /**
+     * The same conversions as the drive mechanism and the steering proxy sensor,
+     * for the odometry thread.
+     */
+    private static SwerveModuleSignals signals(
+            Talon6Motor driveMotor,
+            DriveRatio ratio,
+            Talon6Motor turningMotor) {
+        return new SwerveModuleSignals(
+                driveMotor.positionSignal(),
+                2 * Math.PI * (WHEEL_DIAMETER_M / 2) / ratio.m_ratio,
+                turningMotor.positionSignal(),
+                2 * Math.PI / STEERING_RATIO);
+    }
+
+    private static AngularPositionServo turningServo(
+            LoggerFactory parent,
+            Falcon6Motor turningMotor,
+            RoboRioChannel turningEncoderChannel,
+            double turningOffset,
+            double gearRatio,
+            SwerveKinodynamics kinodynamics,
+            EncoderDrive drive) {
 
         // this reads the steering angle directly.
         RotaryPositionSensor turningSensor = new AS5048RotaryPositionSensor(
@@ -258,9 +289,15 @@ public class WCPSwerveModule100 extends SwerveModule100 {
     private WCPSwerveModule100(
             LinearVelocityServo driveServo,
             AngularPositionServo turningServo,
-            DriveRatio ratio) {
+            DriveRatio ratio,
+            SwerveModuleSignals signals) {
         // primary is 2:1 so final is whatever is left.
         super(driveServo, turningServo, WHEEL_DIAMETER_M, ratio.m_ratio / 2);
-        //
+        m_signals = signals;
+    }
+
+    @Override
+    SwerveModuleSignals signals() {
+        return m_signals;
     }
 }
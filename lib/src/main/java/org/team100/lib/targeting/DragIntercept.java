@@ -0,0 +1,274 @@
+package org.team100.lib.targeting;
+
+import org.team100.lib.geometry.GlobalVelocityR2;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Shoot-while-moving with drag: find the azimuth, elevation, and time of
+ * flight that intercept a target, using the Range table for the projectile
+ * flight instead of the constant-speed straight line in Intercept.
+ *
+ * In the robot frame (see INTERCEPT.md), the target is at T(t) = T0 + vT t.
+ * A shot with time of flight t lands at the horizontal distance d(t) = |T(t)|
+ * only if tof(d(t)) = t, where tof(d) comes from the Range table. This solves
+ * f(t) = tof(d(t)) - t = 0 using Newton's method, starting from the previous
+ * solution, which is usually very close, so it typically takes one or two
+ * iterations, and never more than MAX_ITERATIONS.
+ *
+ * Only the direct-fire branch of the table is used, i.e. elevations below the
+ * one with maximum range. Intercepts outside the table, i.e. beyond the maximum
+ * range, or closer than the range at the lowest elevation, have no solution.
+ *
+ * The table is inverted into primitive arrays in the constructor, and the
+ * result is kept in fields, so solve() doesn't allocate.
+ *
+ * Not thread-safe; use one instance per shooter.
+ */
+public class DragIntercept {
+    private static final boolean DEBUG = false;
+    /** Elevation step for sampling the Range table. */
+    private static final double ELEVATION_STEP = 0.01;
+    /** Iteration limit per solve. */
+    private static final int MAX_ITERATIONS = 8;
+    /** Convergence tolerance, seconds. */
+    private static final double TOLERANCE_S = 1e-4;
+
+    // the direct-fire branch of the table, range increasing.
+    private final int m_n;
+    private final double[] m_range;
+    private final double[] m_elevation;
+    private final double[] m_tof;
+
+    // the latest solution
+    private boolean m_valid;
+    private double m_azimuth;
+    private double m_elevationRad;
+    private double m_tofS;
+    private int m_iterations;
+
+    // convergence statistics
+    private int m_solves;
+    private int m_failures;
+    private long m_totalIterations;
+    private int m_maxIterations;
+
+    public DragIntercept(Range range) {
+        int size = (int) Math.ceil((Math.PI / 2) / ELEVATION_STEP);
+        double[] r = new double[size];
+        double[] e = new double[size];
+        double[] t = new double[size];
+        int n = 0;
+        for (int i = 0; i < size; ++i) {
+            double elevation = i * ELEVATION_STEP;
+            Range.Solution s = range.get(elevation);
+            // stop at the peak
+            if (n > 0 && s.range() <= r[n - 1])
+                break;
+            r[n] = s.range();
+            e[n] = elevation;
+            t[n] = s.tof();
+            n++;
+        }
+        if (n < 2)
+            throw new IllegalArgumentException("range table is too small");
+        m_n = n;
+        m_range = r;
+        m_elevation = e;
+        m_tof = t;
+        m_tofS = Double.NaN;
+    }
+
+    /**
+     * Solve for the firing solution, starting from the previous one.
+     *
+     * @param robotPosition  field-relative robot position, meters
+     * @param robotVelocity  field-relative robot velocity, meters/sec
+     * @param targetPosition field-relative target position, meters
+     * @param targetVelocity field-relative target velocity, meters/sec
+     * @return true if there's a solution, see azimuth(), elevation(), and tof().
+     */
+    public boolean solve(
+            Translation2d robotPosition,
+            GlobalVelocityR2 robotVelocity,
+            Translation2d targetPosition,
+            GlobalVelocityR2 targetVelocity) {
+        return solve(
+                targetPosition.getX() - robotPosition.getX(),
+                targetPosition.getY() - robotPosition.getY(),
+                targetVelocity.x() - robotVelocity.x(),
+                targetVelocity.y() - robotVelocity.y());
+    }
+
+    /**
+     * Solve in the robot frame.
+     *
+     * @param T0x target position relative to the robot, meters
+     * @param T0y target position relative to the robot, meters
+     * @param vTx target velocity relative to the robot, meters/sec
+     * @param vTy target velocity relative to the robot, meters/sec
+     */
+    boolean solve(double T0x, double T0y, double vTx, double vTy) {
+        double t = m_tofS;
+        if (!m_valid || Double.isNaN(t)) {
+            // cold start: the stationary solution.
+            t = tof(Math.hypot(T0x, T0y));
+        }
+        boolean converged = false;
+        int i = 0;
+        while (i < MAX_ITERATIONS) {
+            ++i;
+            double Ix = T0x + vTx * t;
+            double Iy = T0y + vTy * t;
+            double d = Math.hypot(Ix, Iy);
+            int k = segment(d);
+            double slope = (m_tof[k + 1] - m_tof[k]) / (m_range[k + 1] - m_range[k]);
+            double f = tofAt(k, d) - t;
+            if (Math.abs(f) < TOLERANCE_S) {
+                // the table doesn't cover anything else; extrapolating it is nonsense.
+                converged = d >= m_range[0] && d <= m_range[m_n - 1];
+                break;
+            }
+            // d'(t) is the component of the target velocity along the line of sight.
+            double dDot = d < 1e-9 ? 0 : (Ix * vTx + Iy * vTy) / d;
+            double fPrime = slope * dDot - 1;
+            if (Math.abs(fPrime) < 1e-9)
+                break;
+            t = t - f / fPrime;
+            if (t < 0) {
+                // the target is receding too fast, or it's behind us.
+                break;
+            }
+        }
+        record(i, converged);
+        if (!converged) {
+            m_valid = false;
+            m_tofS = Double.NaN;
+            return false;
+        }
+        double Ix = T0x + vTx * t;
+        double Iy = T0y + vTy * t;
+        double d = Math.hypot(Ix, Iy);
+        int k = segment(d);
+        m_valid = true;
+        m_azimuth = Math.atan2(Iy, Ix);
+        m_elevationRad = interpolate(k, d, m_elevation);
+        m_tofS = t;
+        if (DEBUG)
+            System.out.printf("azimuth %6.3f elevation %6.3f tof %6.3f iterations %d\n",
+                    m_azimuth, m_elevationRad, m_tofS, i);
+        return true;
+    }
+
+    /** Forget the previous solution, so the next solve starts cold. */
+    public void reset() {
+        m_valid = false;
+        m_tofS = Double.NaN;
+    }
+
+    /** True if the latest solve succeeded. */
+    public boolean valid() {
+        return m_valid;
+    }
+
+    /** Field-relative azimuth, radians. */
+    public double azimuth() {
+        return m_azimuth;
+    }
+
+    /** Elevation, radians. */
+    public double elevation() {
+        return m_elevationRad;
+    }
+
+    /** Time of flight, seconds. */
+    public double tof() {
+        return m_tofS;
+    }
+
+    /** Iterations used by the latest solve. */
+    public int iterations() {
+        return m_iterations;
+    }
+
+    /** The shortest range, using the lowest elevation in the table. */
+    public double minRange() {
+        return m_range[0];
+    }
+
+    /** The longest range, using the elevation at the peak of the table. */
+    public double maxRange() {
+        return m_range[m_n - 1];
+    }
+
+    ////////////////////////////////////////////
+    //
+    // convergence statistics
+    //
+
+    public int solves() {
+        return m_solves;
+    }
+
+    public int failures() {
+        return m_failures;
+    }
+
+    public double meanIterations() {
+        if (m_solves == 0)
+            return 0;
+        return (double) m_totalIterations / m_solves;
+    }
+
+    public int maxIterations() {
+        return m_maxIterations;
+    }
+
+    public void resetStats() {
+        m_solves = 0;
+        m_failures = 0;
+        m_totalIterations = 0;
+        m_maxIterations = 0;
+    }
+
+    ////////////////////////////////////////////
+
+    private void record(int iterations, boolean converged) {
+        m_iterations = iterations;
+        m_solves++;
+        if (!converged)
+            m_failures++;
+        m_totalIterations += iterations;
+        m_maxIterations = Math.max(m_maxIterations, iterations);
+    }
+
+    /** Time of flight to the range d, extrapolating beyond the table. */
+    private double tof(double d) {
+        return tofAt(segment(d), d);
+    }
+
+    private double tofAt(int k, double d) {
+        return interpolate(k, d, m_tof);
+    }
+
+    /** Linear in segment k, which extrapolates off the ends. */
+    private double interpolate(int k, double d, double[] y) {
+        double s = (d - m_range[k]) / (m_range[k + 1] - m_range[k]);
+        return y[k] + s * (y[k + 1] - y[k]);
+    }
+
+    /** Index of the table segment containing range d, clamped to the ends. */
+    private int segment(double d) {
+        int lo = 0;
+        int hi = m_n - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (m_range[mid] <= d)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+}
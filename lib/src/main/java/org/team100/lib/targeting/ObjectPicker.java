@@ -3,6 +3,8 @@ package org.team100.lib.targeting;
 import java.util.List;
 import java.util.Optional;
 
+import org.team100.lib.util.CoalescingGrid2d;
+
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Translation2d;
 
@@ -41,6 +43,20 @@ public class ObjectPicker {
         return closestTranslation;
     }
 
+    /**
+     * Same as above, using the spatial index instead of scanning the list.
+     * 
+     * @param objects   field relative translations of detected objects
+     * @param robotPose the pose of the swerve drivetrain
+     * @return The field relative translation of the closest object, or empty if
+     *         none
+     */
+    public static Optional<Translation2d> closestObject(
+            CoalescingGrid2d objects,
+            Pose2d robotPose) {
+        return objects.nearest(robotPose.getTranslation());
+    }
+
     private ObjectPicker() {
         //
     }
@@ -8,22 +8,18 @@ import java.util.stream.DoubleStream;
 import org.team100.lib.coherence.Cache;
 import org.team100.lib.coherence.SideEffect;
 import org.team100.lib.coherence.Takt;
-import org.team100.lib.geometry.Centroid2d;
-import org.team100.lib.geometry.Near2d;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleArrayLogger;
 import org.team100.lib.logging.LoggerFactory.IntLogger;
 import org.team100.lib.network.CameraReader;
 import org.team100.lib.state.ModelR3;
-import org.team100.lib.util.CoalescingCollection;
-import org.team100.lib.util.TrailingHistory;
+import org.team100.lib.util.CoalescingGrid2d;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.util.struct.StructBuffer;
 
 /**
  * Listen for updates from the object-detector camera and remember them for
@@ -47,8 +43,7 @@ public class Targets extends CameraReader<Rotation3d> {
     /** state = f(takt seconds) from history. */
     private final DoubleFunction<ModelR3> m_history;
     /** Accumulation of targets we see. */
-    // private final TrailingHistory<Translation2d> m_targets;
-    private final CoalescingCollection<Translation2d> m_targets;
+    private final CoalescingGrid2d m_targets;
     /** Side effect mutates targets. */
     private final SideEffect m_vision;
     private final IntLogger m_log_historySize;
@@ -60,15 +55,11 @@ public class Targets extends CameraReader<Rotation3d> {
         super(
                 "objectVision",
                 "Rotation3d",
-                StructBuffer.create(Rotation3d.struct));
+                Rotation3d.struct);
         m_log_historySize = log.type(this).intLogger(Level.TRACE, "history size");
         m_log_target = log.doubleArrayLogger(Level.TRACE, "target");
         m_history = history;
-        // m_targets = new TrailingHistory<>(HISTORY_DURATION);
-        m_targets = new CoalescingCollection<>(
-                new TrailingHistory<>(HISTORY_DURATION),
-                new Near2d(NEARNESS_THRESHOLD),
-                new Centroid2d());
+        m_targets = new CoalescingGrid2d(HISTORY_DURATION, NEARNESS_THRESHOLD);
         m_vision = Cache.ofSideEffect(this::update);
     }
 
@@ -106,11 +97,11 @@ public class Targets extends CameraReader<Rotation3d> {
      */
     public Optional<Translation2d> getClosestTarget() {
         Pose2d robotPose = m_history.apply(Takt.get()).pose();
-        List<Translation2d> targets = getTargets();
+        m_vision.run();
         if (DEBUG) {
-            System.out.printf("translations %d\n", targets.size());
+            System.out.printf("translations %d\n", m_targets.size());
         }
-        return ObjectPicker.closestObject(targets, robotPose);
+        return ObjectPicker.closestObject(m_targets, robotPose);
     }
 
     public void periodic() {
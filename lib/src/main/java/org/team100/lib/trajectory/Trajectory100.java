@@ -57,6 +57,55 @@ public class Trajectory100 {
         throw new IllegalStateException("impossible trajectory: " + toString());
     }
 
+    /**
+     * Same as sample(), at timeS, timeS + dtS, timeS + 2 * dtS, etc, one for each
+     * element of the array, in one pass.
+     *
+     * The search starts at the hint, which should be the value returned by the
+     * previous call, or zero, so if time only increases, e.g. playing back the
+     * trajectory, each point is visited only once. If the hint is too far along,
+     * the search starts over.
+     *
+     * @param timeS   start is zero.
+     * @param dtS     interval between samples, non-negative.
+     * @param hint    where to start looking.
+     * @param samples filled with the results.
+     * @return the hint for the next call.
+     */
+    public int sample(final double timeS, final double dtS, final int hint, final TimedPose[] samples) {
+        if (isEmpty())
+            throw new IllegalStateException("can't sample an empty trajectory");
+        int i = Math.max(1, hint);
+        if (i >= length() || getPoint(i - 1).getTimeS() >= timeS)
+            i = 1;
+        int next = hint;
+        for (int k = 0; k < samples.length; ++k) {
+            double t = timeS + k * dtS;
+            if (t >= m_duration) {
+                samples[k] = getLastPoint();
+                continue;
+            }
+            if (t <= 0) {
+                samples[k] = getPoint(0);
+                continue;
+            }
+            // the last point is at the duration, so this stops.
+            while (getPoint(i).getTimeS() < t)
+                ++i;
+            if (k == 0)
+                next = i;
+            final TimedPose ceil = getPoint(i);
+            final TimedPose floor = getPoint(i - 1);
+            double betweenPoints = ceil.getTimeS() - floor.getTimeS();
+            if (Math.abs(betweenPoints) <= 1e-12) {
+                samples[k] = ceil;
+                continue;
+            }
+            samples[k] = floor.interpolate2(ceil, (t - floor.getTimeS()) / betweenPoints);
+        }
+        return next;
+    }
+
     /** Time is at or beyond the trajectory duration. */
     public boolean isDone(double timeS) {
         return timeS >= duration();
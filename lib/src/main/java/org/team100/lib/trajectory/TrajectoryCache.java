@@ -0,0 +1,182 @@
+package org.team100.lib.trajectory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Trajectories planned ahead of time from declared start poses, so that a
+ * command starting from its declared pose, e.g. the first leg of an auton,
+ * doesn't wait for the planner.
+ *
+ * Register each trajectory function with add(), and use the function it
+ * returns instead: if the pose is close to the declared start, it returns the
+ * precomputed trajectory, otherwise it plans from the actual pose, as before.
+ *
+ * precompute() plans everything at once, spread across all the cores with a
+ * fork-join pool, and blocks until it's done, so call it once, at the end of
+ * robotInit, when the main loop isn't running yet. The result is immutable.
+ *
+ * Every lookup counts as a hit or a miss, and a miss prints a warning saying
+ * why, so a start pose that doesn't match where the robot really starts shows
+ * up in the log instead of silently costing the planning time.
+ */
+public class TrajectoryCache {
+    /** Use the precomputed trajectory only if this close to its start. */
+    private static final double START_TOLERANCE_M = 0.1;
+    private static final double START_TOLERANCE_RAD = 0.1;
+    /**
+     * Approximate size of one trajectory point: the TimedPose, its
+     * Pose2dWithMotion, HolonomicPose2d, Translation2d, and two Rotation2ds,
+     * and the list reference.
+     */
+    private static final int BYTES_PER_POINT = 220;
+
+    private record Request(String name, Pose2d start, Function<Pose2d, Trajectory100> planner) {
+    }
+
+    private final List<Request> m_requests;
+    /** Empty until precompute() is done, then immutable. */
+    private volatile Map<String, Trajectory100> m_trajectories;
+    private double m_readyS;
+    private long m_bytes;
+    private final AtomicInteger m_hits;
+    private final AtomicInteger m_misses;
+
+    public TrajectoryCache() {
+        m_requests = new ArrayList<>();
+        m_trajectories = Map.of();
+        m_readyS = Double.NaN;
+        m_hits = new AtomicInteger();
+        m_misses = new AtomicInteger();
+    }
+
+    /**
+     * Register a trajectory to precompute.
+     *
+     * @param name    unique
+     * @param start   declared start pose
+     * @param planner makes a trajectory starting at the given pose
+     * @return a function to use in place of the planner
+     */
+    public Function<Pose2d, Trajectory100> add(
+            String name,
+            Pose2d start,
+            Function<Pose2d, Trajectory100> planner) {
+        for (Request r : m_requests) {
+            if (r.name().equals(name))
+                throw new IllegalArgumentException("duplicate trajectory " + name);
+        }
+        m_requests.add(new Request(name, start, planner));
+        return (pose) -> {
+            Trajectory100 t = get(name, start, pose);
+            if (t != null)
+                return t;
+            return planner.apply(pose);
+        };
+    }
+
+    /**
+     * Plan all the registered trajectories, in parallel, and wait for them.
+     * Reports the time it took and the approximate memory used.
+     */
+    public void precompute() {
+        long t0 = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<ForkJoinTask<Trajectory100>> tasks = new ArrayList<>();
+            for (Request r : m_requests) {
+                tasks.add(pool.submit(() -> r.planner().apply(r.start())));
+            }
+            Map<String, Trajectory100> trajectories = new HashMap<>();
+            long bytes = 0;
+            for (int i = 0; i < m_requests.size(); ++i) {
+                Request r = m_requests.get(i);
+                try {
+                    Trajectory100 t = tasks.get(i).join();
+                    if (t.isEmpty()) {
+                        System.out.printf("WARNING: empty trajectory %s\n", r.name());
+                        continue;
+                    }
+                    trajectories.put(r.name(), t);
+                    bytes += (long) t.length() * BYTES_PER_POINT;
+                } catch (RuntimeException e) {
+                    // the command will plan it when it runs, and fail there.
+                    System.out.printf("WARNING: trajectory %s failed: %s\n", r.name(), e.getMessage());
+                }
+            }
+            m_trajectories = Map.copyOf(trajectories);
+            m_bytes = bytes;
+        } finally {
+            pool.shutdown();
+        }
+        m_readyS = (System.nanoTime() - t0) * 1e-9;
+        System.out.printf("Precomputed %d of %d trajectories in %.0f ms, about %d KB\n",
+                m_trajectories.size(), m_requests.size(), m_readyS * 1e3, m_bytes / 1024);
+    }
+
+    /** Time precompute() took, seconds, or NaN if it hasn't run. */
+    public double readyS() {
+        return m_readyS;
+    }
+
+    /** Approximate memory used by the precomputed trajectories, bytes. */
+    public long bytes() {
+        return m_bytes;
+    }
+
+    /** Lookups that used the precomputed trajectory. */
+    public int hits() {
+        return m_hits.get();
+    }
+
+    /** Lookups that had to plan from the actual pose instead. */
+    public int misses() {
+        return m_misses.get();
+    }
+
+    /** Number of precomputed trajectories. */
+    public int size() {
+        return m_trajectories.size();
+    }
+
+    /**
+     * True if the pose is close enough to the start to use a trajectory planned
+     * from the start.
+     */
+    public static boolean nearStart(Pose2d start, Pose2d pose) {
+        return start.getTranslation().getDistance(pose.getTranslation()) <= START_TOLERANCE_M
+                && Math.abs(start.getRotation().minus(pose.getRotation()).getRadians()) <= START_TOLERANCE_RAD;
+    }
+
+    /**
+     * The precomputed trajectory, if it's ready and the pose is close to its
+     * start, otherwise null.
+     */
+    Trajectory100 get(String name, Pose2d start, Pose2d pose) {
+        Trajectory100 t = m_trajectories.get(name);
+        if (t == null) {
+            m_misses.incrementAndGet();
+            System.out.printf("WARNING: trajectory %s not precomputed, planning now\n", name);
+            return null;
+        }
+        if (!nearStart(start, pose)) {
+            m_misses.incrementAndGet();
+            System.out.printf(
+                    "WARNING: %.2f m, %.2f rad from the start of trajectory %s, planning now\n",
+                    start.getTranslation().getDistance(pose.getTranslation()),
+                    Math.abs(start.getRotation().minus(pose.getRotation()).getRadians()),
+                    name);
+            return null;
+        }
+        m_hits.incrementAndGet();
+        return t;
+    }
+}
@@ -73,6 +73,29 @@ public class TrajectoryPlanner {
 
     }
 
+    private TrajectoryPlanner(
+            double splineTolerance,
+            double splineRotationTolerance,
+            double trajectoryStep,
+            ScheduleGenerator scheduleGenerator) {
+        m_splineTolerance = splineTolerance;
+        m_splineRotationTolerance = splineRotationTolerance;
+        m_trajectoryStep = trajectoryStep;
+        m_scheduleGenerator = scheduleGenerator;
+    }
+
+    /**
+     * A copy with the current values of the tunable constraints, which won't
+     * change, for planning on another thread. Call it on the main thread.
+     */
+    public TrajectoryPlanner snapshot() {
+        return new TrajectoryPlanner(
+                m_splineTolerance,
+                m_splineRotationTolerance,
+                m_trajectoryStep,
+                m_scheduleGenerator.snapshot());
+    }
+
     /** A square counterclockwise starting with +x. */
     public List<Trajectory100> square(Pose2d p0) {
         Pose2d p1 = p0.plus(new Transform2d(1, 0, Rotation2d.kZero));
@@ -1,5 +1,7 @@
 package org.team100.lib.trajectory.timing;
 
+import java.util.function.DoubleSupplier;
+
 import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
@@ -10,7 +12,7 @@ import org.team100.lib.tuning.Mutable;
  */
 public class CapsizeAccelerationConstraint implements TimingConstraint {
     private final SwerveKinodynamics m_limits;
-    private final Mutable m_scale;
+    private final DoubleSupplier m_scale;
 
     /**
      * Use the factory.
@@ -30,6 +32,11 @@ public class CapsizeAccelerationConstraint implements TimingConstraint {
         m_scale = new Mutable(log, "scale", scale);
     }
 
+    private CapsizeAccelerationConstraint(SwerveKinodynamics limits, DoubleSupplier scale) {
+        m_limits = limits;
+        m_scale = scale;
+    }
+
     /**
      * The centripetal acceleration as a function of linear speed and radius:
      * a = v^2 / r
@@ -71,4 +78,10 @@ public class CapsizeAccelerationConstraint implements TimingConstraint {
         double along = Math.sqrt(alongsq);
         return new MinMaxAcceleration(-along, along);
     }
+
+    @Override
+    public TimingConstraint snapshot() {
+        double scale = m_scale.getAsDouble();
+        return new CapsizeAccelerationConstraint(m_limits, () -> scale);
+    }
 }
@@ -1,5 +1,7 @@
 package org.team100.lib.trajectory.timing;
 
+import java.util.function.DoubleSupplier;
+
 import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
@@ -7,8 +9,8 @@ import org.team100.lib.tuning.Mutable;
 
 /** Trivial constraint for testing. */
 public class ConstantConstraint implements TimingConstraint {
-    private final Mutable m_maxVelocity;
-    private final Mutable m_maxAccel;
+    private final DoubleSupplier m_maxVelocity;
+    private final DoubleSupplier m_maxAccel;
 
     public ConstantConstraint(LoggerFactory parent, double maxV, double maxA) {
         LoggerFactory log = parent.type(this);
@@ -16,6 +18,11 @@ public class ConstantConstraint implements TimingConstraint {
         m_maxAccel = new Mutable(log, "maxA", maxA);
     }
 
+    private ConstantConstraint(DoubleSupplier maxV, DoubleSupplier maxA) {
+        m_maxVelocity = maxV;
+        m_maxAccel = maxA;
+    }
+
     public ConstantConstraint(LoggerFactory log, double vScale, double aScale, SwerveKinodynamics limits) {
         this(log, vScale * limits.getMaxDriveVelocityM_S(), aScale * limits.getMaxDriveAccelerationM_S2());
     }
@@ -30,4 +37,11 @@ public class ConstantConstraint implements TimingConstraint {
         return new MinMaxAcceleration(-m_maxAccel.getAsDouble(), m_maxAccel.getAsDouble());
     }
 
+    @Override
+    public TimingConstraint snapshot() {
+        double maxV = m_maxVelocity.getAsDouble();
+        double maxA = m_maxAccel.getAsDouble();
+        return new ConstantConstraint(() -> maxV, () -> maxA);
+    }
+
 }
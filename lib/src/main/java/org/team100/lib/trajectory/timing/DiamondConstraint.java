@@ -1,5 +1,7 @@
 package org.team100.lib.trajectory.timing;
 
+import java.util.function.DoubleSupplier;
+
 import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.tuning.Mutable;
@@ -14,10 +16,10 @@ import edu.wpi.first.math.geometry.Rotation2d;
  */
 public class DiamondConstraint implements TimingConstraint {
     /** Max velocity ahead */
-    private final Mutable m_maxVelocityX;
+    private final DoubleSupplier m_maxVelocityX;
     /** Max velocity to the side */
-    private final Mutable m_maxVelocityY;
-    private final Mutable m_maxAccel;
+    private final DoubleSupplier m_maxVelocityY;
+    private final DoubleSupplier m_maxAccel;
 
     /**
      * @param parent log
@@ -32,6 +34,12 @@ public class DiamondConstraint implements TimingConstraint {
         m_maxAccel = new Mutable(log, "maxA", maxA);
     }
 
+    private DiamondConstraint(DoubleSupplier maxVX, DoubleSupplier maxVY, DoubleSupplier maxA) {
+        m_maxVelocityX = maxVX;
+        m_maxVelocityY = maxVY;
+        m_maxAccel = maxA;
+    }
+
     @Override
     public NonNegativeDouble getMaxVelocity(Pose2dWithMotion state) {
         Rotation2d course = state.getPose().course();
@@ -50,4 +58,12 @@ public class DiamondConstraint implements TimingConstraint {
         return new MinMaxAcceleration(-m_maxAccel.getAsDouble(), m_maxAccel.getAsDouble());
     }
 
+    @Override
+    public TimingConstraint snapshot() {
+        double maxVX = m_maxVelocityX.getAsDouble();
+        double maxVY = m_maxVelocityY.getAsDouble();
+        double maxA = m_maxAccel.getAsDouble();
+        return new DiamondConstraint(() -> maxVX, () -> maxVY, () -> maxA);
+    }
+
 }
@@ -23,6 +23,15 @@ public class ScheduleGenerator {
         m_constraints = constraints;
     }
 
+    /** A copy using snapshots of the constraints, see TimingConstraint.snapshot(). */
+    public ScheduleGenerator snapshot() {
+        List<TimingConstraint> constraints = new ArrayList<>(m_constraints.size());
+        for (TimingConstraint c : m_constraints) {
+            constraints.add(c.snapshot());
+        }
+        return new ScheduleGenerator(constraints);
+    }
+
     /**
      * Samples the path evenly by distance, and then assign times to each sample.
      */
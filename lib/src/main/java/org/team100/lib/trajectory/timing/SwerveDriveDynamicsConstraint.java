@@ -1,5 +1,7 @@
 package org.team100.lib.trajectory.timing;
 
+import java.util.function.DoubleSupplier;
+
 import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
@@ -21,8 +23,8 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
  */
 public class SwerveDriveDynamicsConstraint implements TimingConstraint {
     private final SwerveKinodynamics m_limits;
-    private final Mutable vScale;
-    private final Mutable aScale;
+    private final DoubleSupplier vScale;
+    private final DoubleSupplier aScale;
 
     /** Use the factory. */
     public SwerveDriveDynamicsConstraint(
@@ -36,6 +38,15 @@ public class SwerveDriveDynamicsConstraint implements TimingConstraint {
         this.aScale = new Mutable(log, "aScale", aScale);
     }
 
+    private SwerveDriveDynamicsConstraint(
+            SwerveKinodynamics limits,
+            DoubleSupplier vScale,
+            DoubleSupplier aScale) {
+        m_limits = limits;
+        this.vScale = vScale;
+        this.aScale = aScale;
+    }
+
     /**
      * Given a target spatial heading rate (rad/m), return the maximum translational
      * speed allowed (m/s) that maintains the target spatial heading rate.
@@ -92,4 +103,11 @@ public class SwerveDriveDynamicsConstraint implements TimingConstraint {
     private double maxA() {
         return aScale.getAsDouble() * m_limits.getMaxDriveDecelerationM_S2();
     }
+
+    @Override
+    public TimingConstraint snapshot() {
+        double v = vScale.getAsDouble();
+        double a = aScale.getAsDouble();
+        return new SwerveDriveDynamicsConstraint(m_limits, () -> v, () -> a);
+    }
 }
\ No newline at end of file
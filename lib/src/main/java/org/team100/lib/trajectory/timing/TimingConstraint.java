@@ -36,6 +36,16 @@ public interface TimingConstraint {
      */
     MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocityM_S);
 
+    /**
+     * A copy with the current values of any tunable (Mutable) parameters, which
+     * won't change, so it's safe to use on another thread, e.g. for planning in
+     * the background. Constraints without tunable parameters are immutable
+     * already.
+     */
+    default TimingConstraint snapshot() {
+        return this;
+    }
+
     class MinMaxAcceleration {
         public static final MinMaxAcceleration NO_LIMITS = new MinMaxAcceleration();
 
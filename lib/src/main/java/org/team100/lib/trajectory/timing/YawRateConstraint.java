@@ -1,5 +1,7 @@
 package org.team100.lib.trajectory.timing;
 
+import java.util.function.DoubleSupplier;
+
 import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
@@ -14,8 +16,8 @@ import org.team100.lib.tuning.Mutable;
  * Does not affect maximum acceleration.
  */
 public class YawRateConstraint implements TimingConstraint {
-    private final Mutable m_maxOmegaRad_S;
-    private final Mutable m_maxAlphaRad_S2;
+    private final DoubleSupplier m_maxOmegaRad_S;
+    private final DoubleSupplier m_maxAlphaRad_S2;
 
     public YawRateConstraint(LoggerFactory parent, double maxOmega, double maxAlpha) {
         LoggerFactory log = parent.type(this);
@@ -23,6 +25,11 @@ public class YawRateConstraint implements TimingConstraint {
         m_maxAlphaRad_S2 = new Mutable(log, "maxAlpha", maxAlpha);
     }
 
+    private YawRateConstraint(DoubleSupplier maxOmega, DoubleSupplier maxAlpha) {
+        m_maxOmegaRad_S = maxOmega;
+        m_maxAlphaRad_S2 = maxAlpha;
+    }
+
     /**
      * Use the factory.
      * 
@@ -52,4 +59,11 @@ public class YawRateConstraint implements TimingConstraint {
         double limitM_S = m_maxAlphaRad_S2.getAsDouble() / Math.abs(heading_rate);
         return new MinMaxAcceleration(-limitM_S, limitM_S);
     }
+
+    @Override
+    public TimingConstraint snapshot() {
+        double maxOmega = m_maxOmegaRad_S.getAsDouble();
+        double maxAlpha = m_maxAlphaRad_S2.getAsDouble();
+        return new YawRateConstraint(() -> maxOmega, () -> maxAlpha);
+    }
 }
\ No newline at end of file
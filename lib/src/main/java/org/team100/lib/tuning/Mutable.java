@@ -1,41 +1,204 @@
 package org.team100.lib.tuning;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
 
-import org.team100.lib.coherence.Cache;
-import org.team100.lib.coherence.DoubleCache;
+import org.team100.lib.framework.BackgroundExecutor;
 import org.team100.lib.logging.LoggerFactory;
 
 import edu.wpi.first.networktables.DoubleEntry;
 import edu.wpi.first.networktables.DoubleTopic;
+import edu.wpi.first.networktables.NetworkTableEvent;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListenerPoller;
+import edu.wpi.first.networktables.NetworkTableType;
+import edu.wpi.first.networktables.NetworkTableValue;
 
 /**
  * A mutable double linked to Network Tables, for tuning.
- * 
+ *
  * Use the DoubleSupplier API for polling.
  * Provide a DoubleConsumer to get called on changes.
- * Values do not survive restarts.
+ *
+ * All the Mutables share one listener poller, and updateAll() applies the
+ * changes in one batch, at the start of each cycle (Cache.refresh() does it,
+ * so every robot gets it), so the cost is
+ * proportional to the number of changes, not the number of Mutables, and
+ * only the affected consumers are called.
+ *
+ * If persistTo() was called, changed values are saved to a file, and used
+ * instead of the default the next time.
  */
 public class Mutable implements DoubleSupplier {
+    private static final boolean DEBUG = false;
     private static final boolean FATAL = false;
     private static final Map<String, DoubleEntry> ALL_ENTRIES = new HashMap<>();
-    private final DoubleEntry m_entry;
+    /** Listener handle => Mutable. */
+    private static final Map<Integer, Mutable> LISTENERS = new HashMap<>();
+    /** Mutables changed in the current batch, reused to avoid allocation. */
+    private static final List<Mutable> CHANGED = new ArrayList<>();
+    /** Shared by all the Mutables, created by the first one. */
+    private static NetworkTableListenerPoller POLLER;
+    /** Saved values, or null if not persisting. */
+    private static Properties SAVED;
+    private static Path SAVED_PATH;
+    /** Incremented by each updateAll() that changes anything. */
+    private static int GENERATION;
+
+    private final String m_name;
     private final DoubleConsumer m_onChange;
-    private final DoubleCache m_cache;
+    private double m_value;
+    /** True if m_value has changed in the current batch. */
+    private boolean m_changed;
 
     public Mutable(LoggerFactory log, String leaf, double defaultValue, DoubleConsumer onChange) {
         if (onChange == null)
             throw new IllegalArgumentException();
         NetworkTableInstance inst = NetworkTableInstance.getDefault();
         inst.startServer();
-        String name = log.root(leaf);
-        m_entry = getEntry(inst, name, defaultValue);
+        m_name = log.root(leaf);
+        DoubleEntry entry = getEntry(inst, m_name, initialValue(m_name, defaultValue));
         m_onChange = onChange;
-        m_cache = Cache.ofDouble(this::update);
+        m_value = entry.get();
+        if (POLLER == null)
+            POLLER = new NetworkTableListenerPoller(inst);
+        int handle = POLLER.addListener(entry, EnumSet.of(NetworkTableEvent.Kind.kValueAll));
+        LISTENERS.put(handle, this);
+    }
+
+    /** if you don't care to subscribe to changes */
+    public Mutable(LoggerFactory log, String leaf, double defaultValue) {
+        this(log, leaf, defaultValue, (x) -> {
+        });
+    }
+
+    /**
+     * Save changed values to the file, and load any values already there. Call
+     * this before creating any Mutables, i.e. at the top of the Robot
+     * constructor. To go back to the defaults, delete the file.
+     */
+    public static void persistTo(Path path) {
+        SAVED_PATH = path;
+        SAVED = new Properties();
+        if (!Files.exists(path))
+            return;
+        try (InputStream in = Files.newInputStream(path)) {
+            SAVED.load(in);
+            System.out.printf("Mutable: loaded %d saved values from %s\n", SAVED.size(), path);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.printf("WARNING: Mutable: could not load %s: %s\n", path, e);
+        }
+    }
+
+    /**
+     * Apply all the changes since the last call, and notify the consumers of
+     * the changed values, once each, with the latest value. Cache.refresh()
+     * calls this, first, once per cycle.
+     */
+    public static void updateAll() {
+        if (POLLER == null)
+            return;
+        for (NetworkTableEvent e : POLLER.readQueue()) {
+            Mutable m = LISTENERS.get(e.listener);
+            if (m == null || e.valueData == null)
+                continue;
+            NetworkTableValue v = e.valueData.value;
+            if (v.getType() != NetworkTableType.kDouble)
+                continue;
+            m.m_value = v.getDouble();
+            if (!m.m_changed) {
+                m.m_changed = true;
+                CHANGED.add(m);
+            }
+        }
+        if (CHANGED.isEmpty())
+            return;
+        GENERATION++;
+        for (Mutable m : CHANGED) {
+            m.m_changed = false;
+            if (DEBUG)
+                System.out.printf("Mutable %s = %f\n", m.m_name, m.m_value);
+            if (SAVED != null)
+                SAVED.setProperty(m.m_name, Double.toString(m.m_value));
+            m.m_onChange.accept(m.m_value);
+        }
+        CHANGED.clear();
+        if (SAVED != null)
+            save();
+    }
+
+    /**
+     * Changes whenever any Mutable changes, so things derived from Mutable
+     * values, e.g. precomputed trajectories, can tell when they're stale.
+     */
+    public static int generation() {
+        return GENERATION;
+    }
+
+    /** Use this in tests to avoid mixing values. Also stops persisting. */
+    public static void unpublishAll() {
+        SAVED = null;
+        SAVED_PATH = null;
+        for (DoubleEntry e : ALL_ENTRIES.values()) {
+            e.unpublish();
+        }
+        ALL_ENTRIES.clear();
+        if (POLLER != null) {
+            for (int handle : LISTENERS.keySet()) {
+                POLLER.removeListener(handle);
+            }
+            // discard anything left over.
+            POLLER.readQueue();
+        }
+        LISTENERS.clear();
+        CHANGED.clear();
+    }
+
+    /** Supply the current value. */
+    @Override
+    public double getAsDouble() {
+        return m_value;
+    }
+
+    private static double initialValue(String name, double defaultValue) {
+        if (SAVED == null)
+            return defaultValue;
+        String saved = SAVED.getProperty(name);
+        if (saved == null)
+            return defaultValue;
+        try {
+            double value = Double.parseDouble(saved);
+            System.out.printf("WARNING: Mutable %s using saved value %f instead of default %f\n",
+                    name, value, defaultValue);
+            return value;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /** Write a snapshot of the saved values, in the background. */
+    private static void save() {
+        Properties snapshot = new Properties();
+        snapshot.putAll(SAVED);
+        Path path = SAVED_PATH;
+        BackgroundExecutor.instance.submit("save mutables", () -> {
+            try (OutputStream out = Files.newOutputStream(path)) {
+                snapshot.store(out, "Mutable values, delete to use the defaults");
+            } catch (IOException e) {
+                System.out.printf("WARNING: Mutable: could not save %s: %s\n", path, e);
+            }
+        });
     }
 
     private static DoubleEntry getEntry(NetworkTableInstance inst, String name, double defaultValue) {
@@ -52,40 +215,10 @@ public class Mutable implements DoubleSupplier {
         entry.set(defaultValue);
         // You can't use "persistent" here, because then the key goes in the RoboRIO
         // networktables.json file and can never be deleted (except manually).
+        // See persistTo() instead.
         topic.setRetained(true);
-        // make sure the queue is empty
-        entry.readQueue();
         ALL_ENTRIES.put(name, entry);
         return entry;
     }
 
-    /** Use this in tests to avoid mixing values */
-    public static void unpublishAll() {
-        for (DoubleEntry e : ALL_ENTRIES.values()) {
-            e.unpublish();
-        }
-        ALL_ENTRIES.clear();
-    }
-
-    /** if you don't care to subscribe to changes */
-    public Mutable(LoggerFactory log, String leaf, double defaultValue) {
-        this(log, leaf, defaultValue, (x) -> {
-        });
-    }
-
-    /** Supply the current value. */
-    @Override
-    public double getAsDouble() {
-        return m_cache.getAsDouble();
-    }
-
-    /** Updates the cache and also notifies the consumer. */
-    private double update() {
-        double[] queue = m_entry.readQueueValues();
-        double val = m_entry.get();
-        if (queue.length > 0)
-            m_onChange.accept(val);
-        return val;
-    }
-
 }
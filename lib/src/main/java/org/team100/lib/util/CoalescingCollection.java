@@ -2,13 +2,10 @@ package org.team100.lib.util;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 
-import org.team100.lib.util.TrailingHistory.ValueRecord;
-
 /**
  * A collection that combines new entries with old ones if they're close enough.
  * 
@@ -35,15 +32,12 @@ public class CoalescingCollection<T> {
     public void add(double time, T value) {
         List<T> neighbors = new ArrayList<>();
         neighbors.add(value);
-        Iterator<ValueRecord<T>> iter = m_delegate.iterator();
-        while (iter.hasNext()) {
-            ValueRecord<T> vr = iter.next();
-            T v = vr.value();
-            if (m_near.test(v, value)) {
-                iter.remove();
-                neighbors.add(v);
-            }
-        }
+        m_delegate.removeIf(v -> {
+            if (!m_near.test(v, value))
+                return false;
+            neighbors.add(v);
+            return true;
+        });
         T rep = m_combine.apply(neighbors);
         m_delegate.add(time, rep);
     }
@@ -0,0 +1,311 @@
+package org.team100.lib.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * A collection of translations that combines new entries with old ones if
+ * they're close enough, and evicts old entries.
+ *
+ * This does the same thing as CoalescingCollection with Near2d and Centroid2d,
+ * but it keeps the entries in a spatial hash with cells the size of the
+ * nearness threshold, so finding the neighbors of a new entry only looks at the
+ * 3x3 block of cells around it, instead of the whole collection.
+ *
+ * Entries live in primitive arrays indexed by "slot," and slots are reused, so
+ * steady-state operation allocates only the combined Translation2d.
+ *
+ * Not thread-safe.
+ */
+public class CoalescingGrid2d {
+    /** Number of hash buckets, must be a power of two. */
+    private static final int BUCKETS = 256;
+    private static final int INITIAL_CAPACITY = 32;
+
+    /** Entry timeout in seconds */
+    private final double m_timeout;
+    /** Entries closer than this are combined; also the cell size. */
+    private final double m_threshold;
+    /** First slot in each bucket, or -1 if empty. */
+    private final int[] m_buckets;
+
+    /** Next slot in the same bucket, or the next free slot. */
+    private int[] m_next;
+    private int[] m_cellX;
+    private int[] m_cellY;
+    private double[] m_time;
+    /** Null if the slot is free. */
+    private Translation2d[] m_values;
+
+    /** Head of the free-slot list, or -1 if empty. */
+    private int m_free;
+    /** Slots at or above this have never been used. */
+    private int m_highWater;
+    private int m_size;
+    /** Lower bound on entry time, so cleanup can usually skip the scan. */
+    private double m_oldest;
+
+    private final List<Translation2d> m_snapshot;
+    private final List<Translation2d> m_view;
+    private boolean m_dirty;
+
+    /** Used only by nearest(). */
+    private double m_bestDistance;
+    /** Used only by nearest(). */
+    private int m_bestSlot;
+
+    /**
+     * @param timeout   in seconds
+     * @param threshold in meters
+     */
+    public CoalescingGrid2d(double timeout, double threshold) {
+        if (threshold <= 0)
+            throw new IllegalArgumentException("threshold must be positive");
+        m_timeout = timeout;
+        m_threshold = threshold;
+        m_buckets = new int[BUCKETS];
+        Arrays.fill(m_buckets, -1);
+        m_next = new int[INITIAL_CAPACITY];
+        m_cellX = new int[INITIAL_CAPACITY];
+        m_cellY = new int[INITIAL_CAPACITY];
+        m_time = new double[INITIAL_CAPACITY];
+        m_values = new Translation2d[INITIAL_CAPACITY];
+        m_free = -1;
+        m_oldest = Double.POSITIVE_INFINITY;
+        m_snapshot = new ArrayList<>();
+        m_view = Collections.unmodifiableList(m_snapshot);
+    }
+
+    /**
+     * Add the new value, combined with any existing neighbors, which are removed,
+     * and then remove stale entries.
+     * 
+     * Like CoalescingCollection, neighbors are combined before stale entries are
+     * removed, so a stale neighbor still contributes to the new entry.
+     */
+    public void add(double time, Translation2d value) {
+        int cx = cell(value.getX());
+        int cy = cell(value.getY());
+        double sumX = value.getX();
+        double sumY = value.getY();
+        int count = 1;
+        for (int i = cx - 1; i <= cx + 1; ++i) {
+            for (int j = cy - 1; j <= cy + 1; ++j) {
+                int bucket = bucket(i, j);
+                int prev = -1;
+                int slot = m_buckets[bucket];
+                while (slot >= 0) {
+                    int next = m_next[slot];
+                    Translation2d v = m_values[slot];
+                    if (m_cellX[slot] == i && m_cellY[slot] == j
+                            && v.getDistance(value) < m_threshold) {
+                        sumX += v.getX();
+                        sumY += v.getY();
+                        count++;
+                        unlink(bucket, prev, slot);
+                    } else {
+                        prev = slot;
+                    }
+                    slot = next;
+                }
+            }
+        }
+        cleanup(time);
+        if (count == 1) {
+            insert(time, value, cx, cy);
+            return;
+        }
+        Translation2d centroid = new Translation2d(sumX / count, sumY / count);
+        insert(time, centroid, cell(centroid.getX()), cell(centroid.getY()));
+    }
+
+    public void addAll(double time, Collection<Translation2d> values) {
+        for (Translation2d v : values) {
+            add(time, v);
+        }
+    }
+
+    /**
+     * All the entries, in no particular order.
+     *
+     * The returned list is a read-only view that is refreshed by the next call,
+     * so don't keep it.
+     */
+    public List<Translation2d> getAll() {
+        if (m_dirty) {
+            m_snapshot.clear();
+            for (int slot = 0; slot < m_highWater; ++slot) {
+                if (m_values[slot] != null)
+                    m_snapshot.add(m_values[slot]);
+            }
+            m_dirty = false;
+        }
+        return m_view;
+    }
+
+    /** The entry closest to the given point, or empty if there are none. */
+    public Optional<Translation2d> nearest(Translation2d point) {
+        if (m_size == 0)
+            return Optional.empty();
+        int cx = cell(point.getX());
+        int cy = cell(point.getY());
+        m_bestDistance = Double.POSITIVE_INFINITY;
+        m_bestSlot = -1;
+        int seen = 0;
+        for (int r = 0;; ++r) {
+            if (8 * r > m_size) {
+                // Sparse: the ring has more cells than there are entries.
+                return Optional.of(m_values[linearNearest(point)]);
+            }
+            if (r == 0) {
+                seen += scanCell(cx, cy, point);
+            } else {
+                for (int i = cx - r; i <= cx + r; ++i) {
+                    seen += scanCell(i, cy - r, point);
+                    seen += scanCell(i, cy + r, point);
+                }
+                for (int j = cy - r + 1; j <= cy + r - 1; ++j) {
+                    seen += scanCell(cx - r, j, point);
+                    seen += scanCell(cx + r, j, point);
+                }
+            }
+            // Anything outside this ring is at least this far away.
+            if (m_bestSlot >= 0 && m_bestDistance <= r * m_threshold)
+                return Optional.of(m_values[m_bestSlot]);
+            if (seen == m_size)
+                return Optional.of(m_values[m_bestSlot]);
+        }
+    }
+
+    public int size() {
+        return m_size;
+    }
+
+    //////////////////
+
+    /** Remove entries older than the timeout, relative to the given time. */
+    private void cleanup(double time) {
+        double horizon = time - m_timeout;
+        if (m_oldest >= horizon)
+            return;
+        double oldest = Double.POSITIVE_INFINITY;
+        for (int slot = 0; slot < m_highWater; ++slot) {
+            if (m_values[slot] == null)
+                continue;
+            if (m_time[slot] < horizon) {
+                remove(slot);
+            } else {
+                oldest = Math.min(oldest, m_time[slot]);
+            }
+        }
+        m_oldest = oldest;
+    }
+
+    /**
+     * Update the best distance and slot from the entries in the cell.
+     * 
+     * @return the number of entries in the cell
+     */
+    private int scanCell(int i, int j, Translation2d point) {
+        int seen = 0;
+        int slot = m_buckets[bucket(i, j)];
+        while (slot >= 0) {
+            if (m_cellX[slot] == i && m_cellY[slot] == j) {
+                seen++;
+                double d = m_values[slot].getDistance(point);
+                if (d < m_bestDistance) {
+                    m_bestDistance = d;
+                    m_bestSlot = slot;
+                }
+            }
+            slot = m_next[slot];
+        }
+        return seen;
+    }
+
+    private int linearNearest(Translation2d point) {
+        double best = Double.POSITIVE_INFINITY;
+        int bestSlot = -1;
+        for (int slot = 0; slot < m_highWater; ++slot) {
+            if (m_values[slot] == null)
+                continue;
+            double d = m_values[slot].getDistance(point);
+            if (d < best) {
+                best = d;
+                bestSlot = slot;
+            }
+        }
+        return bestSlot;
+    }
+
+    private void insert(double time, Translation2d value, int cx, int cy) {
+        int slot = allocate();
+        int bucket = bucket(cx, cy);
+        m_cellX[slot] = cx;
+        m_cellY[slot] = cy;
+        m_time[slot] = time;
+        m_values[slot] = value;
+        m_next[slot] = m_buckets[bucket];
+        m_buckets[bucket] = slot;
+        m_size++;
+        m_oldest = Math.min(m_oldest, time);
+        m_dirty = true;
+    }
+
+    /** Remove the slot from its bucket, finding its predecessor. */
+    private void remove(int slot) {
+        int bucket = bucket(m_cellX[slot], m_cellY[slot]);
+        int prev = -1;
+        int s = m_buckets[bucket];
+        while (s != slot) {
+            prev = s;
+            s = m_next[s];
+        }
+        unlink(bucket, prev, slot);
+    }
+
+    /** Remove the slot from its bucket, and return it to the free list. */
+    private void unlink(int bucket, int prev, int slot) {
+        if (prev < 0) {
+            m_buckets[bucket] = m_next[slot];
+        } else {
+            m_next[prev] = m_next[slot];
+        }
+        m_values[slot] = null;
+        m_next[slot] = m_free;
+        m_free = slot;
+        m_size--;
+        m_dirty = true;
+    }
+
+    private int allocate() {
+        if (m_free >= 0) {
+            int slot = m_free;
+            m_free = m_next[slot];
+            return slot;
+        }
+        if (m_highWater == m_values.length) {
+            int capacity = 2 * m_values.length;
+            m_next = Arrays.copyOf(m_next, capacity);
+            m_cellX = Arrays.copyOf(m_cellX, capacity);
+            m_cellY = Arrays.copyOf(m_cellY, capacity);
+            m_time = Arrays.copyOf(m_time, capacity);
+            m_values = Arrays.copyOf(m_values, capacity);
+        }
+        return m_highWater++;
+    }
+
+    private int cell(double x) {
+        return (int) Math.floor(x / m_threshold);
+    }
+
+    private static int bucket(int i, int j) {
+        return ((i * 73856093) ^ (j * 19349663)) & (BUCKETS - 1);
+    }
+}
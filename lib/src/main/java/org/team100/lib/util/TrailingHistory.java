@@ -1,65 +1,169 @@
 package org.team100.lib.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 /**
  * A collection that evicts old entries.
+ *
+ * Entries are kept in time order, in a ring buffer with the timestamps in a
+ * primitive array, so eviction just advances the head, and nothing allocates
+ * once the buffer is big enough. Entries are expected to arrive in roughly
+ * time order, e.g. from several cameras with different latencies; an entry
+ * older than the newest one is moved into place, which costs one step per
+ * newer entry.
+ *
+ * For reading without allocating, use size() and get(), or values().
  */
 public class TrailingHistory<T> {
-    public record ValueRecord<T>(double time, T value) {
-    };
+    private static final int INITIAL_CAPACITY = 16;
 
     /** Entry timeout in seconds */
     private final double m_timeout;
-    private final List<ValueRecord<T>> m_entries;
+    private double[] m_times;
+    private Object[] m_values;
+    /** Index of the oldest entry. */
+    private int m_head;
+    private int m_size;
 
     /**
      * @param timeout in seconds
      */
     public TrailingHistory(double timeout) {
         m_timeout = timeout;
-        m_entries = new ArrayList<ValueRecord<T>>();
+        m_times = new double[INITIAL_CAPACITY];
+        m_values = new Object[INITIAL_CAPACITY];
     }
 
     /** Remove stale entries and add the new value. */
     public void add(double time, T value) {
-        cleanup(time);
-        m_entries.add(new ValueRecord<>(time, value));
+        evict(time);
+        insert(time, value);
     }
 
-    /** Remove stale entries and all the values. */
+    /** Remove stale entries and add all the values. */
     public void addAll(double time, Collection<T> values) {
-        cleanup(time);
-        m_entries.addAll(
-                values.stream()
-                        .map((x) -> new ValueRecord<>(time, x))
-                        .collect(Collectors.toList()));
+        evict(time);
+        for (T value : values) {
+            insert(time, value);
+        }
     }
 
+    /** Allocates a new list; prefer get() or values() in the main loop. */
     public List<T> getAll() {
-        return m_entries.stream()
-                .map((x) -> x.value)
-                .collect(Collectors.toUnmodifiableList());
+        List<T> all = new ArrayList<>(m_size);
+        for (int i = 0; i < m_size; ++i) {
+            all.add(get(i));
+        }
+        return Collections.unmodifiableList(all);
     }
 
-    /** Mutating iterator for filtering. */
-    public Iterator<ValueRecord<T>> iterator() {
-        return m_entries.iterator();
+    /** The i-th entry, oldest first. */
+    @SuppressWarnings("unchecked")
+    public T get(int i) {
+        return (T) m_values[index(i)];
+    }
+
+    /** Time of the i-th entry, oldest first. */
+    public double time(int i) {
+        return m_times[index(i)];
+    }
+
+    /**
+     * Copy the values into the array, without allocating, if it's big enough,
+     * otherwise into a new one of the same type, with room to grow. Returns the
+     * array used; the values are the first size() elements, oldest first.
+     */
+    @SuppressWarnings("unchecked")
+    public T[] values(T[] dest) {
+        if (dest.length < m_size)
+            dest = Arrays.copyOf(dest, 2 * m_size);
+        int first = Math.min(m_size, m_values.length - m_head);
+        System.arraycopy(m_values, m_head, dest, 0, first);
+        System.arraycopy(m_values, 0, dest, first, m_size - first);
+        return dest;
+    }
+
+    /**
+     * Remove the entries matching the filter, keeping the rest in order. The
+     * filter may have side effects, e.g. to collect the removed entries.
+     */
+    public void removeIf(Predicate<T> filter) {
+        int kept = 0;
+        for (int i = 0; i < m_size; ++i) {
+            int from = index(i);
+            @SuppressWarnings("unchecked")
+            T value = (T) m_values[from];
+            if (filter.test(value))
+                continue;
+            int to = index(kept++);
+            m_times[to] = m_times[from];
+            m_values[to] = value;
+        }
+        for (int i = kept; i < m_size; ++i) {
+            m_values[index(i)] = null;
+        }
+        m_size = kept;
     }
 
     public int size() {
-        return m_entries.size();
+        return m_size;
+    }
+
+    /**
+     * Remove entries older than the timeout, as of the time. Adding does this
+     * too, but if nothing is being added, call this before reading, so old
+     * entries don't linger.
+     */
+    public void evict(double time) {
+        // evict from the head, since it's the oldest.
+        double horizon = time - m_timeout;
+        while (m_size > 0 && m_times[m_head] < horizon) {
+            m_values[m_head] = null;
+            m_head = (m_head + 1) % m_values.length;
+            m_size--;
+        }
     }
 
     //////////////////
 
-    private void cleanup(double time) {
-        double horizon = time - m_timeout;
-        m_entries.removeIf(x -> x.time < horizon);
+    /** Append, and then move back past any newer entries. */
+    private void insert(double time, T value) {
+        if (m_size == m_values.length)
+            grow();
+        int i = m_size++;
+        while (i > 0 && m_times[index(i - 1)] > time) {
+            int to = index(i);
+            int from = index(i - 1);
+            m_times[to] = m_times[from];
+            m_values[to] = m_values[from];
+            i--;
+        }
+        m_times[index(i)] = time;
+        m_values[index(i)] = value;
+    }
+
+    /** Double the capacity, unrolling the ring so the head is at zero. */
+    private void grow() {
+        int capacity = 2 * m_values.length;
+        double[] times = new double[capacity];
+        Object[] values = new Object[capacity];
+        int first = Math.min(m_size, m_values.length - m_head);
+        System.arraycopy(m_times, m_head, times, 0, first);
+        System.arraycopy(m_times, 0, times, first, m_size - first);
+        System.arraycopy(m_values, m_head, values, 0, first);
+        System.arraycopy(m_values, 0, values, first, m_size - first);
+        m_times = times;
+        m_values = values;
+        m_head = 0;
     }
 
+    private int index(int i) {
+        int j = m_head + i;
+        return j < m_values.length ? j : j - m_values.length;
+    }
 }
@@ -1,7 +1,11 @@
 package org.team100.lib.visualization;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
+import org.team100.lib.coherence.Takt;
 import org.team100.lib.geometry.HolonomicPose2d;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
@@ -13,32 +17,164 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.math.trajectory.Trajectory.State;
 
+/**
+ * Shows trajectories on the Field2d widget, as [x, y, degrees, x, y, ...].
+ * 
+ * Long trajectories make large arrays, so Trajectory100 can optionally be
+ * decimated, using the Ramer-Douglas-Peucker algorithm, before sending. The
+ * encoded array is cached per trajectory instance, so re-showing the same
+ * trajectory is free.
+ * 
+ * There's also an "executed" stream showing the part of the current
+ * trajectory that's behind us; it's published only when it changes.
+ */
 public class TrajectoryVisualization {
     private static final String TRAJECTORY = "trajectory";
+    private static final String EXECUTED = "executed";
 
     private final DoubleArrayLogger m_log_trajectory;
+    private final DoubleArrayLogger m_log_executed;
+    /** Decimation tolerance in meters; zero means no decimation. */
+    private final double m_toleranceM;
+    /** Encoded arrays, keyed by trajectory identity. */
+    private final Map<Trajectory100, Encoded> m_cache;
 
+    /** The trajectory being shown, if any. */
+    private Encoded m_current;
+    /** Takt time when the current trajectory was shown. */
+    private double m_startS;
+    /** Number of points in the executed stream. */
+    private int m_executed;
+
+    /** Sends every point. */
     public TrajectoryVisualization(LoggerFactory fieldLogger) {
+        this(fieldLogger, 0);
+    }
+
+    /**
+     * @param toleranceM decimation tolerance: points closer than this to the
+     *                   simplified polyline are dropped. Zero means send
+     *                   everything.
+     */
+    public TrajectoryVisualization(LoggerFactory fieldLogger, double toleranceM) {
         m_log_trajectory = fieldLogger.doubleArrayLogger(Level.TRACE, TRAJECTORY);
+        m_log_executed = fieldLogger.doubleArrayLogger(Level.TRACE, EXECUTED);
+        m_toleranceM = toleranceM;
+        m_cache = new WeakHashMap<>();
     }
 
     public void setViz(Trajectory100 trajectory) {
         if (trajectory == null)
             return;
-        m_log_trajectory.log(() -> fromTrajectory100(trajectory));
+        m_current = m_cache.computeIfAbsent(trajectory, this::encode);
+        m_startS = Takt.get();
+        m_executed = 0;
+        m_log_trajectory.log(() -> m_current.poses);
+    }
+
+    /**
+     * Publish the part of the current trajectory up to now, i.e. the points
+     * since setViz() was called. Publishes only if the number of points
+     * changed.
+     */
+    public void progress() {
+        if (m_current == null)
+            return;
+        double t = Takt.get() - m_startS;
+        int n = m_executed;
+        while (n < m_current.times.length && m_current.times[n] <= t)
+            n++;
+        if (n == m_executed)
+            return;
+        m_executed = n;
+        m_log_executed.log(() -> Arrays.copyOf(m_current.poses, 3 * m_executed));
+    }
+
+    /** Decimated points, and their times. */
+    private record Encoded(double[] poses, double[] times) {
     }
 
-    private static double[] fromTrajectory100(Trajectory100 m_trajectory) {
-        double[] arr = new double[m_trajectory.length() * 3];
+    private Encoded encode(Trajectory100 trajectory) {
+        List<TimedPose> points = trajectory.getPoints();
+        int n = points.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            HolonomicPose2d pose = points.get(i).state().getPose();
+            x[i] = pose.translation().getX();
+            y[i] = pose.translation().getY();
+        }
+        boolean[] keep = decimate(x, y, m_toleranceM);
+        int count = 0;
+        for (boolean k : keep) {
+            if (k)
+                count++;
+        }
+        double[] poses = new double[count * 3];
+        double[] times = new double[count];
         int ndx = 0;
-        for (TimedPose p : m_trajectory.getPoints()) {
-            HolonomicPose2d pose = p.state().getPose();
-            arr[ndx + 0] = pose.translation().getX();
-            arr[ndx + 1] = pose.translation().getY();
-            arr[ndx + 2] = pose.heading().getDegrees();
-            ndx += 3;
+        for (int i = 0; i < n; ++i) {
+            if (!keep[i])
+                continue;
+            TimedPose p = points.get(i);
+            poses[ndx * 3 + 0] = x[i];
+            poses[ndx * 3 + 1] = y[i];
+            poses[ndx * 3 + 2] = p.state().getPose().heading().getDegrees();
+            times[ndx] = p.getTimeS();
+            ndx++;
         }
-        return arr;
+        return new Encoded(poses, times);
+    }
+
+    /**
+     * Ramer-Douglas-Peucker polyline simplification, using an explicit stack
+     * rather than recursion.
+     * 
+     * @return which points to keep; the ends are always kept.
+     */
+    static boolean[] decimate(double[] x, double[] y, double tolerance) {
+        int n = x.length;
+        boolean[] keep = new boolean[n];
+        if (n <= 2 || tolerance <= 0) {
+            Arrays.fill(keep, true);
+            return keep;
+        }
+        keep[0] = true;
+        keep[n - 1] = true;
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            double dx = x[last] - x[first];
+            double dy = y[last] - y[first];
+            double len = Math.hypot(dx, dy);
+            double maxDist = 0;
+            int index = -1;
+            for (int i = first + 1; i < last; ++i) {
+                double d;
+                if (len < 1e-9) {
+                    d = Math.hypot(x[i] - x[first], y[i] - y[first]);
+                } else {
+                    // distance from the chord
+                    d = Math.abs(dy * (x[i] - x[first]) - dx * (y[i] - y[first])) / len;
+                }
+                if (d > maxDist) {
+                    maxDist = d;
+                    index = i;
+                }
+            }
+            if (index >= 0 && maxDist > tolerance) {
+                keep[index] = true;
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+        return keep;
     }
 
     public void setViz(Trajectory m_trajectory) {
@@ -75,7 +211,10 @@ public class TrajectoryVisualization {
     }
 
     public void clear() {
+        m_current = null;
+        m_executed = 0;
         m_log_trajectory.log(() -> new double[0]);
+        m_log_executed.log(() -> new double[0]);
     }
 
 }
@@ -0,0 +1,46 @@
+package org.team100.lib.coherence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.testing.Timeless;
+
+class CacheTest implements Timeless {
+
+    @Test
+    void testEveryCycle() {
+        int[] calls = new int[1];
+        DoubleCache c = Cache.ofDouble(() -> ++calls[0]);
+        for (int i = 0; i < 10; ++i) {
+            stepTime();
+            c.getAsDouble();
+        }
+        assertEquals(10, calls[0]);
+    }
+
+    @Test
+    void testPeriod() {
+        int[] calls = new int[1];
+        DoubleCache c = Cache.ofDouble(() -> ++calls[0], 0.1);
+        assertEquals(1, c.getAsDouble(), 0);
+        // 0.2 sec
+        for (int i = 0; i < 10; ++i) {
+            stepTime();
+            c.getAsDouble();
+        }
+        // refreshed every 5 cycles.
+        assertEquals(3, calls[0]);
+    }
+
+    @Test
+    void testReset() {
+        // explicit reset ignores the period.
+        int[] calls = new int[1];
+        DoubleCache c = Cache.ofDouble(() -> ++calls[0], 1.0);
+        assertEquals(1, c.getAsDouble(), 0);
+        stepTime();
+        assertEquals(1, c.getAsDouble(), 0);
+        c.reset();
+        assertEquals(2, c.getAsDouble(), 0);
+    }
+}
@@ -2,6 +2,8 @@ package org.team100.lib.dynamics.pr;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 public class PRDynamicsTest {
@@ -52,4 +54,24 @@ public class PRDynamicsTest {
         assertEquals(-10.8, t.t2(), DELTA);
     }
 
+    /** The batch is the same as one at a time. */
+    @Test
+    void testBatch() {
+        PRDynamics d = new PRDynamics(2, 1, 0.3, 0.1);
+        Random random = new Random(0);
+        PRBatch b = new PRBatch(1);
+        PRTorque[] expected = new PRTorque[100];
+        for (int i = 0; i < 100; ++i) {
+            PRConfig q = new PRConfig(random.nextDouble(), 4 * random.nextDouble() - 2);
+            PRVelocity v = new PRVelocity(random.nextGaussian(), random.nextGaussian());
+            PRAcceleration a = new PRAcceleration(random.nextGaussian(), random.nextGaussian());
+            b.add(q, v, a);
+            expected[i] = d.torque(q, v, a);
+        }
+        d.torque(b);
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(expected[i].f1(), b.torque(i).f1(), 1e-9);
+            assertEquals(expected[i].t2(), b.torque(i).t2(), 1e-9);
+        }
+    }
 }
@@ -2,9 +2,12 @@ package org.team100.lib.dynamics.prr;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 public class PRRDynamicsTest {
+    private static final boolean DEBUG = false;
     private static final double DELTA = 1e-3;
 
     @Test
@@ -109,4 +112,90 @@ public class PRRDynamicsTest {
         assertEquals(-3.65, t.t3(), DELTA);
     }
 
+    /** The batch is the same as one at a time. */
+    @Test
+    void testBatch() {
+        // different lengths so the terms are distinguishable
+        PRRDynamics d = new PRRDynamics(13, 1, 6, 0.5, 0.25, 0.14, 0.08, 0.24);
+        Random random = new Random(0);
+        PRRBatch b = new PRRBatch(1);
+        for (int i = 0; i < 100; ++i) {
+            b.add(
+                    new PRRConfig(random.nextDouble(), 4 * random.nextDouble() - 2, 4 * random.nextDouble() - 2),
+                    new PRRVelocity(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()),
+                    new PRRAcceleration(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()));
+        }
+        assertEquals(100, b.size());
+        d.torque(b);
+        random = new Random(0);
+        for (int i = 0; i < 100; ++i) {
+            PRRTorque expected = d.torque(
+                    new PRRConfig(random.nextDouble(), 4 * random.nextDouble() - 2, 4 * random.nextDouble() - 2),
+                    new PRRVelocity(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()),
+                    new PRRAcceleration(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()));
+            PRRTorque actual = b.torque(i);
+            assertEquals(expected.f1(), actual.f1(), 1e-9);
+            assertEquals(expected.t2(), actual.t2(), 1e-9);
+            assertEquals(expected.t3(), actual.t3(), 1e-9);
+        }
+    }
+
+    @Test
+    void testPeakAndMargin() {
+        PRRDynamics d = new PRRDynamics(1, 1, 1, 1, 0.5, 0.5, 1, 1);
+        PRRBatch b = new PRRBatch(2);
+        assertEquals(Double.POSITIVE_INFINITY, b.margin(1, 1, 1));
+        // see test0 and test1 above
+        b.add(new PRRConfig(0, 0, 0), new PRRVelocity(0, 0, 0), new PRRAcceleration(0, 0, 0));
+        b.add(new PRRConfig(0, Math.PI / 2, 0), new PRRVelocity(0, 0, 0), new PRRAcceleration(0, 0, 0));
+        d.torque(b);
+        PRRTorque peak = b.peak();
+        assertEquals(29.4, peak.f1(), DELTA);
+        assertEquals(19.6, peak.t2(), DELTA);
+        assertEquals(4.9, peak.t3(), DELTA);
+        // the shoulder is the tightest
+        assertEquals(0.4, b.margin(30, 20, 10), DELTA);
+        // exceeded
+        assertEquals(-4.9, b.margin(50, 50, 0), DELTA);
+        // reuse
+        b.clear();
+        assertEquals(0, b.size());
+        b.add(new PRRConfig(0, 0, 0), new PRRVelocity(0, 0, 0), new PRRAcceleration(0, 0, 0));
+        d.torque(b);
+        assertEquals(0, b.peak().t2(), DELTA);
+    }
+
+    @Test
+    void testBatchPerformance() {
+        PRRDynamics d = new PRRDynamics(13, 1, 6, 0.5, 0.25, 0.14, 0.08, 0.24);
+        final int n = 500;
+        final int reps = 2000;
+        PRRConfig[] q = new PRRConfig[n];
+        PRRVelocity[] v = new PRRVelocity[n];
+        PRRAcceleration[] a = new PRRAcceleration[n];
+        PRRBatch b = new PRRBatch(n);
+        Random random = new Random(0);
+        for (int i = 0; i < n; ++i) {
+            q[i] = new PRRConfig(random.nextDouble(), random.nextDouble(), random.nextDouble());
+            v[i] = new PRRVelocity(random.nextDouble(), random.nextDouble(), random.nextDouble());
+            a[i] = new PRRAcceleration(random.nextDouble(), random.nextDouble(), random.nextDouble());
+            b.add(q[i], v[i], a[i]);
+        }
+        double total = 0;
+        long start = System.nanoTime();
+        for (int rep = 0; rep < reps; ++rep) {
+            for (int i = 0; i < n; ++i) {
+                total += d.torque(q[i], v[i], a[i]).t2();
+            }
+        }
+        long mid = System.nanoTime();
+        for (int rep = 0; rep < reps; ++rep) {
+            d.torque(b);
+            total += b.margin(100, 100, 100);
+        }
+        long end = System.nanoTime();
+        if (DEBUG)
+            System.out.printf("one at a time (ns/sample) %.2f batch (ns/sample) %.2f (total %f)\n",
+                    (double) (mid - start) / (reps * n), (double) (end - mid) / (reps * n), total);
+    }
 }
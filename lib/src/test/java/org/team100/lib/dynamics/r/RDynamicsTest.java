@@ -2,6 +2,8 @@ package org.team100.lib.dynamics.r;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 public class RDynamicsTest {
@@ -72,4 +74,27 @@ public class RDynamicsTest {
 
     }
 
+    /** The batch is the same as one at a time. */
+    @Test
+    void testBatch() {
+        RDynamics d = new RDynamics(1, 1, 0.5, 1);
+        Random random = new Random(0);
+        RBatch b = new RBatch(1);
+        RTorque[] expected = new RTorque[100];
+        for (int i = 0; i < 100; ++i) {
+            RConfig q = new RConfig(4 * random.nextDouble() - 2);
+            RVelocity v = new RVelocity(random.nextGaussian());
+            RAcceleration a = new RAcceleration(random.nextGaussian());
+            b.add(q, v, a);
+            expected[i] = d.torque(q, v, a);
+        }
+        d.torque(b);
+        double peak = 0;
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(expected[i].f1(), b.torque(i).f1(), 1e-9);
+            peak = Math.max(peak, Math.abs(expected[i].f1()));
+        }
+        assertEquals(peak, b.peak().f1(), 1e-9);
+        assertEquals(10 - peak, b.margin(10), 1e-9);
+    }
 }
@@ -2,6 +2,8 @@ package org.team100.lib.dynamics.rr;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 public class RRDynamicsTest {
@@ -90,4 +92,30 @@ public class RRDynamicsTest {
         assertEquals(-1.75, t.t2(), DELTA);
     }
 
+    /** The batch is the same as one at a time. */
+    @Test
+    void testBatch() {
+        RRDynamics d = new RRDynamics(2, 1, 0.8, 0.5, 0.3, 0.2, 0.1, 0.05);
+        Random random = new Random(0);
+        RRBatch b = new RRBatch(1);
+        RRTorque[] expected = new RRTorque[100];
+        for (int i = 0; i < 100; ++i) {
+            RRConfig q = new RRConfig(4 * random.nextDouble() - 2, 4 * random.nextDouble() - 2);
+            RRVelocity v = new RRVelocity(random.nextGaussian(), random.nextGaussian());
+            RRAcceleration a = new RRAcceleration(random.nextGaussian(), random.nextGaussian());
+            b.add(q, v, a);
+            expected[i] = d.torque(q, v, a);
+        }
+        d.torque(b);
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(expected[i].f1(), b.torque(i).f1(), 1e-9);
+            assertEquals(expected[i].t2(), b.torque(i).t2(), 1e-9);
+        }
+        double margin = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 100; ++i) {
+            margin = Math.min(margin, Math.min(
+                    20 - Math.abs(expected[i].f1()), 10 - Math.abs(expected[i].t2())));
+        }
+        assertEquals(margin, b.margin(20, 10), 1e-9);
+    }
 }
@@ -0,0 +1,57 @@
+package org.team100.lib.field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.config.ElevatorUtil.ScoringLevel;
+import org.team100.lib.field.FieldConstants.ReefPoint;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+class FieldGeometryTest {
+    private static final boolean DEBUG = false;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void testGoals() {
+        for (ScoringLevel level : ScoringLevel.values()) {
+            for (ReefPoint point : ReefPoint.values()) {
+                assertEquals(FieldConstants.makeGoal(level, point), FieldGeometry.goal(level, point));
+            }
+        }
+    }
+
+    @Test
+    void testAngle() {
+        for (double x = 0; x < 17; x += 0.7) {
+            for (double y = 0; y < 8; y += 0.7) {
+                Translation2d t = new Translation2d(x, y);
+                assertEquals(FieldConstants.angleToReefCenter(t).getRadians(),
+                        FieldGeometry.angleToReefCenter(x, y), DELTA);
+                assertEquals(FieldConstants.getDistanceToReefCenter(t),
+                        FieldGeometry.distanceToReefCenter(x, y), DELTA);
+            }
+        }
+    }
+
+    // There's no need to run this all the time
+    // @Test
+    void testPerformance() {
+        int n = 1000000;
+        long t0 = System.nanoTime();
+        double sum = 0;
+        for (int i = 0; i < n; ++i) {
+            Translation2d t = new Translation2d(i * 1e-5, 3);
+            sum += FieldConstants.angleToReefCenter(t).getRadians();
+        }
+        long t1 = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            sum += FieldGeometry.angleToReefCenter(i * 1e-5, 3);
+        }
+        long t2 = System.nanoTime();
+        if (DEBUG) {
+            System.out.printf("angle (ns) %.1f direct (ns) %.1f %f\n",
+                    (double) (t1 - t0) / n, (double) (t2 - t1) / n, sum);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.team100.lib.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.framework.BackgroundExecutor.Urgency;
+
+class BackgroundExecutorTest {
+
+    @Test
+    void testRun() throws InterruptedException {
+        BackgroundExecutor executor = new BackgroundExecutor(1);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.submit("test", done::countDown);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        // the metrics are updated after the task
+        Thread.sleep(10);
+        assertEquals(1, executor.completed());
+        assertEquals(0, executor.deferred());
+        assertEquals(0, executor.queueDepth());
+        assertTrue(executor.maxLatencyS() < 0.5);
+        executor.close();
+    }
+
+    @Test
+    void testDelay() throws InterruptedException {
+        BackgroundExecutor executor = new BackgroundExecutor(1);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.schedule("test", done::countDown, 0.05, Urgency.DEFERRABLE);
+        assertEquals(1, executor.queueDepth());
+        assertFalse(done.await(10, TimeUnit.MILLISECONDS));
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        executor.close();
+    }
+
+    /** Low slack holds back deferrable tasks, but not critical ones. */
+    @Test
+    void testPause() throws InterruptedException {
+        BackgroundExecutor executor = new BackgroundExecutor(1);
+        executor.setSlack(0);
+        assertTrue(executor.isPaused());
+        CountDownLatch deferrable = new CountDownLatch(1);
+        CountDownLatch critical = new CountDownLatch(1);
+        executor.submit("deferrable", deferrable::countDown);
+        executor.schedule("critical", critical::countDown, 0, Urgency.CRITICAL);
+        assertTrue(critical.await(1, TimeUnit.SECONDS));
+        assertFalse(deferrable.await(100, TimeUnit.MILLISECONDS));
+        assertTrue(executor.deferred() > 0);
+        // slack recovers
+        executor.setSlack(0.01);
+        assertFalse(executor.isPaused());
+        assertTrue(deferrable.await(1, TimeUnit.SECONDS));
+        // the latency includes the wait
+        Thread.sleep(10);
+        assertTrue(executor.maxLatencyS() >= 0.1);
+        executor.close();
+    }
+
+    /** A long deferrable task doesn't hold up a critical one. */
+    @Test
+    void testCriticalNotBlocked() throws InterruptedException {
+        BackgroundExecutor executor = new BackgroundExecutor(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("long", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        CountDownLatch critical = new CountDownLatch(1);
+        executor.schedule("critical", critical::countDown, 0, Urgency.CRITICAL);
+        assertTrue(critical.await(1, TimeUnit.SECONDS));
+        release.countDown();
+        executor.close();
+    }
+
+    /** A failing task doesn't stop the pool. */
+    @Test
+    void testFailure() throws InterruptedException {
+        BackgroundExecutor executor = new BackgroundExecutor(1);
+        executor.submit("fails", () -> {
+            throw new IllegalStateException("expected");
+        });
+        CountDownLatch done = new CountDownLatch(1);
+        executor.submit("test", done::countDown);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        executor.close();
+    }
+}
@@ -0,0 +1,125 @@
+package org.team100.lib.hid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.team100.lib.testing.Timeless;
+
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+
+class HidSnapshotTest implements Timeless {
+    private static final int PORT = 3;
+    private final List<HidSnapshot> m_snapshots = new ArrayList<>();
+
+    private HidSnapshot snapshot() {
+        HidSnapshot hid = snapshot();
+        m_snapshots.add(hid);
+        return hid;
+    }
+
+    @BeforeEach
+    void setup() {
+        CommandScheduler.getInstance().getDefaultButtonLoop().bind(HidSnapshot::pollAll);
+    }
+
+    @AfterEach
+    void cleanup() {
+        for (HidSnapshot hid : m_snapshots) {
+            hid.close();
+        }
+        CommandScheduler.getInstance().getDefaultButtonLoop().clear();
+        DriverStationSim.setJoystickButtons(PORT, 0);
+        DriverStationSim.notifyNewData();
+    }
+
+    @Test
+    void testInputs() {
+        HidSnapshot hid = snapshot();
+        DriverStationSim.setJoystickAxisCount(PORT, 2);
+        DriverStationSim.setJoystickAxis(PORT, 1, 0.5);
+        DriverStationSim.setJoystickPOVCount(PORT, 1);
+        DriverStationSim.setJoystickPOV(PORT, 0, 90);
+        DriverStationSim.setJoystickButtons(PORT, 0b101);
+        DriverStationSim.notifyNewData();
+        stepTime();
+        assertEquals(0, hid.axis(0), 1e-3);
+        assertEquals(0.5, hid.axis(1), 1e-3);
+        // absent axis
+        assertEquals(0, hid.axis(4), 1e-3);
+        assertEquals(90, hid.pov());
+        assertTrue(hid.button(1));
+        assertFalse(hid.button(2));
+        assertTrue(hid.button(3));
+    }
+
+    @Test
+    void testSnapshot() {
+        HidSnapshot hid = snapshot();
+        stepTime();
+        assertFalse(hid.button(1));
+        DriverStationSim.setJoystickButtons(PORT, 1);
+        DriverStationSim.notifyNewData();
+        // not until the next cycle
+        assertFalse(hid.button(1));
+        stepTime();
+        assertTrue(hid.button(1));
+    }
+
+    @Test
+    void testTrigger() {
+        HidSnapshot hid = snapshot();
+        int[] count = new int[1];
+        int[] evaluated = new int[1];
+        Trigger t = hid.trigger(() -> {
+            evaluated[0]++;
+            return hid.button(2);
+        });
+        t.onTrue(new InstantCommand(() -> count[0]++));
+        for (int i = 0; i < 5; ++i) {
+            stepTime();
+            CommandScheduler.getInstance().run();
+        }
+        assertEquals(0, count[0]);
+        // once per cycle, no matter how many reads
+        assertEquals(5, evaluated[0]);
+        assertEquals(0, hid.edges());
+
+        DriverStationSim.setJoystickButtons(PORT, 0b10);
+        DriverStationSim.notifyNewData();
+        stepTime();
+        assertTrue(hid.edges() != 0);
+        CommandScheduler.getInstance().run();
+        assertEquals(1, count[0]);
+        // held, no edge, so no more
+        stepTime();
+        assertEquals(0, hid.edges());
+        CommandScheduler.getInstance().run();
+        assertEquals(1, count[0]);
+    }
+
+    /** After close, the bindings don't run. */
+    @Test
+    void testClose() {
+        HidSnapshot hid = snapshot();
+        int[] count = new int[1];
+        hid.trigger(() -> hid.button(2)).onTrue(new InstantCommand(() -> count[0]++));
+        stepTime();
+        CommandScheduler.getInstance().run();
+        hid.close();
+        DriverStationSim.setJoystickButtons(PORT, 0b10);
+        DriverStationSim.notifyNewData();
+        stepTime();
+        CommandScheduler.getInstance().run();
+        assertEquals(0, count[0]);
+    }
+}
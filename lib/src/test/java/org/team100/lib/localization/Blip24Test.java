@@ -0,0 +1,79 @@
+package org.team100.lib.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+
+class Blip24Test {
+    private static final double DELTA = 1e-9;
+
+    private static ByteBuffer pack(Blip24... blips) {
+        ByteBuffer bb = ByteBuffer.allocate(blips.length * Blip24.struct.getSize())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (Blip24 b : blips) {
+            Blip24.struct.pack(bb, b);
+        }
+        bb.flip();
+        return bb;
+    }
+
+    private static void verify(Transform3d expected, Transform3d actual) {
+        assertEquals(expected.getX(), actual.getX(), DELTA);
+        assertEquals(expected.getY(), actual.getY(), DELTA);
+        assertEquals(expected.getZ(), actual.getZ(), DELTA);
+        assertEquals(expected.getRotation().getX(), actual.getRotation().getX(), DELTA);
+        assertEquals(expected.getRotation().getY(), actual.getRotation().getY(), DELTA);
+        assertEquals(expected.getRotation().getZ(), actual.getRotation().getZ(), DELTA);
+    }
+
+    @Test
+    void testRoundTrip() {
+        Transform3d pose = new Transform3d(
+                new Translation3d(0.1, -0.2, 1.5),
+                new Rotation3d(0.1, 0.2, 0.3));
+        Blip24 blip = new Blip24(7, pose);
+        Blip24 actual = Blip24.struct.unpack(pack(blip));
+        assertEquals(7, actual.getId());
+        verify(pose, actual.getRawPose());
+        verify(blip.blipToTransform(), actual.blipToTransform());
+    }
+
+    /** The direct conversion is the same as the GeometryUtil one. */
+    @Test
+    void testBlipToTransform() {
+        Transform3d pose = new Transform3d(
+                new Translation3d(0.1, -0.2, 1.5),
+                new Rotation3d(0.1, 0.2, 0.3));
+        Blip24 blip = new Blip24(7, pose);
+        verify(new Transform3d(
+                GeometryUtil.zForwardToXForward(pose.getTranslation()),
+                GeometryUtil.zForwardToXForward(pose.getRotation())),
+                blip.blipToTransform());
+    }
+
+    /** unpackInto overwrites the whole thing, including the memoized pose. */
+    @Test
+    void testUnpackInto() {
+        Transform3d p1 = new Transform3d(new Translation3d(0, 0, 1), new Rotation3d());
+        Transform3d p2 = new Transform3d(new Translation3d(0.5, 0, 2), new Rotation3d(0, 0.5, 0));
+        ByteBuffer bb = pack(new Blip24(1, p1), new Blip24(2, p2));
+        Blip24 out = Blip24.struct.unpack(bb);
+        assertEquals(1, out.getId());
+        verify(p1, out.getRawPose());
+        Transform3d raw = out.getRawPose();
+        assertSame(raw, out.getRawPose());
+        Blip24.struct.unpackInto(out, bb);
+        assertEquals(2, out.getId());
+        verify(p2, out.getRawPose());
+        assertEquals(0, bb.remaining());
+    }
+}
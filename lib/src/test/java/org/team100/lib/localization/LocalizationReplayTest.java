@@ -0,0 +1,171 @@
+package org.team100.lib.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.sensor.gyro.MockGyro;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePosition100;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePositions;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+class LocalizationReplayTest {
+    private static final double DELTA = 1e-9;
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    private static SwerveModulePositions positions(double x) {
+        SwerveModulePosition100 p = new SwerveModulePosition100(x, Optional.of(Rotation2d.kZero));
+        return new SwerveModulePositions(p, p, p, p);
+    }
+
+    /** Records come back the same as they went in. */
+    @Test
+    void testRoundTrip() throws IOException {
+        Path path = Files.createTempFile("localization", ".bin");
+        Blip24 blip = new Blip24(7, new Transform3d(new Translation3d(0.1, 0.2, 1), new Rotation3d(0.1, 0.2, 0.3)));
+        Transform3d offset = new Transform3d(new Translation3d(0.3, 0, 0.5), new Rotation3d(0, -0.2, 0));
+        try (LocalizationRecorder rec = new LocalizationRecorder(path, 1 << 16)) {
+            rec.reset(1, new Rotation2d(0.5), new Pose2d(1, 2, new Rotation2d(3)), positions(4));
+            rec.odometry(1.004, new Rotation2d(0.6), 0.7, new SwerveModulePositions(
+                    new SwerveModulePosition100(1, Optional.empty()),
+                    new SwerveModulePosition100(2, Optional.of(new Rotation2d(0.1))),
+                    new SwerveModulePosition100(3, Optional.of(new Rotation2d(0.2))),
+                    new SwerveModulePosition100(4, Optional.of(new Rotation2d(0.3)))));
+            rec.vision(offset, 1.01, new Blip24[] { blip, blip }, Optional.of(Alliance.Red));
+            assertEquals(0, rec.dropped());
+        }
+        List<String> seen = new ArrayList<>();
+        int count = LocalizationLog.read(path, new LocalizationLog.Visitor() {
+            @Override
+            public void reset(double t, Rotation2d gyro, Pose2d pose, SwerveModulePositions p) {
+                seen.add("reset");
+                assertEquals(1, t, DELTA);
+                assertEquals(0.5, gyro.getRadians(), DELTA);
+                assertEquals(2, pose.getY(), DELTA);
+                assertEquals(3, pose.getRotation().getRadians(), DELTA);
+                assertEquals(4, p.rearRight().distanceMeters, DELTA);
+            }
+
+            @Override
+            public void odometry(OdometrySample sample) {
+                seen.add("odometry");
+                assertEquals(1.004, sample.timestampS(), DELTA);
+                assertEquals(0.6, sample.yawNWU().getRadians(), DELTA);
+                assertEquals(0.7, sample.yawRateRad_S(), DELTA);
+                assertTrue(sample.positions().frontLeft().unwrappedAngle.isEmpty());
+                assertEquals(0.3, sample.positions().rearRight().unwrappedAngle.get().getRadians(), DELTA);
+            }
+
+            @Override
+            public void vision(Transform3d o, double t, Blip24[] blips, Optional<Alliance> alliance) {
+                seen.add("vision");
+                assertEquals(offset, o);
+                assertEquals(1.01, t, DELTA);
+                assertEquals(2, blips.length);
+                assertEquals(7, blips[1].getId());
+                assertEquals(blip.blipToTransform(), blips[1].blipToTransform());
+                assertEquals(Alliance.Red, alliance.get());
+            }
+        });
+        assertEquals(3, count);
+        assertEquals(List.of("reset", "odometry", "vision"), seen);
+        Files.delete(path);
+    }
+
+    /** A full log is truncated, not corrupted. */
+    @Test
+    void testFull() throws IOException {
+        Path path = Files.createTempFile("localization", ".bin");
+        try (LocalizationRecorder rec = new LocalizationRecorder(path, 256)) {
+            for (int i = 0; i < 10; ++i) {
+                rec.odometry(i, Rotation2d.kZero, 0, positions(i));
+            }
+            // each record is 93 bytes
+            assertEquals(8, rec.dropped());
+        }
+        List<OdometrySample> samples = new ArrayList<>();
+        LocalizationLog.read(path, new LocalizationLog.Visitor() {
+            @Override
+            public void reset(double t, Rotation2d gyro, Pose2d pose, SwerveModulePositions p) {
+            }
+
+            @Override
+            public void odometry(OdometrySample sample) {
+                samples.add(sample);
+            }
+
+            @Override
+            public void vision(Transform3d o, double t, Blip24[] blips, Optional<Alliance> alliance) {
+            }
+        });
+        assertEquals(2, samples.size());
+        Files.delete(path);
+    }
+
+    /** The replay reproduces the live estimate exactly. */
+    @Test
+    void testReplay() throws IOException {
+        AprilTagFieldLayoutWithCorrectOrientation layout = new AprilTagFieldLayoutWithCorrectOrientation();
+        SwerveKinodynamics kinodynamics = SwerveKinodynamicsFactory.forTest(logger);
+        SwerveHistory history = new SwerveHistory(
+                kinodynamics, Rotation2d.kZero, positions(0), Pose2d.kZero, 0);
+        OdometryUpdater ou = new OdometryUpdater(
+                kinodynamics, new MockGyro(), history, () -> positions(0));
+        AprilTagRobotLocalizer localizer = new AprilTagRobotLocalizer(
+                logger, layout, history, new NudgingVisionUpdater(history, ou));
+
+        Path path = Files.createTempFile("localization", ".bin");
+        Blip24[] blips = new Blip24[] {
+                new Blip24(7, new Transform3d(new Translation3d(0, 0, 1), new Rotation3d())) };
+        Optional<Alliance> alliance = Optional.of(Alliance.Red);
+        try (LocalizationRecorder rec = new LocalizationRecorder(path, 1 << 20)) {
+            ou.setRecorder(rec);
+            localizer.setRecorder(rec);
+            ou.reset(Rotation2d.kZero, new Pose2d(2.7, 0, Rotation2d.kZero), 0);
+            for (int i = 1; i <= 50; ++i) {
+                ou.update(new OdometrySample(0.02 * i, positions(0.001 * i), Rotation2d.kZero, 0));
+                if (i % 5 == 0) {
+                    // same as perValue()
+                    rec.vision(Transform3d.kZero, 0.02 * i, blips, alliance);
+                    localizer.estimateRobotPose(Transform3d.kZero, blips, 0.02 * i, alliance);
+                }
+            }
+        }
+        Pose2d live = history.apply(1.0).pose();
+
+        LocalizationReplay replay = new LocalizationReplay(logger, kinodynamics, layout);
+        List<LocalizationReplay.Point> track = replay.run(path);
+        assertEquals(51, track.size());
+        Pose2d replayed = track.get(50).pose();
+        assertEquals(1.0, track.get(50).timeS(), DELTA);
+        assertEquals(live.getX(), replayed.getX(), DELTA);
+        assertEquals(live.getY(), replayed.getY(), DELTA);
+        assertEquals(live.getRotation().getRadians(), replayed.getRotation().getRadians(), DELTA);
+
+        // A different parameter gives a different answer.
+        LocalizationReplay ignoreVision = new LocalizationReplay(logger, kinodynamics, layout);
+        ignoreVision.localizer().setHeedRadiusM(0);
+        Pose2d odometryOnly = ignoreVision.run(path).get(50).pose();
+        assertNotEquals(live.getX(), odometryOnly.getX(), 1e-6);
+        Files.delete(path);
+    }
+}
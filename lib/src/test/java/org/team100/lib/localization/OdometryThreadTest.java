@@ -0,0 +1,128 @@
+package org.team100.lib.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.sensor.gyro.MockGyro;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePosition100;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePositions;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class OdometryThreadTest {
+    private static final double DELTA = 0.001;
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    private static SwerveModulePositions positions(double x) {
+        SwerveModulePosition100 p = new SwerveModulePosition100(x, Optional.of(Rotation2d.kZero));
+        return new SwerveModulePositions(p, p, p, p);
+    }
+
+    private static OdometrySample sample(double t, double x) {
+        return new OdometrySample(t, positions(x), Rotation2d.kZero, 0);
+    }
+
+    @Test
+    void testOrder() {
+        OdometryThread thread = new OdometryThread(logger, () -> null, 0.004);
+        thread.offer(sample(0.004, 0));
+        thread.offer(sample(0.008, 0));
+        thread.offer(sample(0.012, 0));
+        List<OdometrySample> out = new ArrayList<>();
+        assertEquals(3, thread.drain(out::add));
+        assertEquals(3, out.size());
+        assertEquals(0.004, out.get(0).timestampS(), DELTA);
+        assertEquals(0.012, out.get(2).timestampS(), DELTA);
+        // empty now
+        assertEquals(0, thread.drain(out::add));
+    }
+
+    @Test
+    void testStale() {
+        // a repeated timestamp is not passed on.
+        OdometryThread thread = new OdometryThread(logger, () -> null, 0.004);
+        thread.offer(sample(0.004, 0));
+        thread.offer(sample(0.004, 0));
+        thread.offer(sample(0.008, 0));
+        List<OdometrySample> out = new ArrayList<>();
+        thread.drain(out::add);
+        assertEquals(2, out.size());
+    }
+
+    @Test
+    void testDropped() {
+        OdometryThread thread = new OdometryThread(logger, () -> null, 0.004);
+        for (int i = 1; i <= 100; ++i) {
+            thread.offer(sample(0.004 * i, 0));
+        }
+        assertEquals(36, thread.dropped());
+        List<OdometrySample> out = new ArrayList<>();
+        thread.drain(out::add);
+        assertEquals(64, out.size());
+        // the oldest are kept
+        assertEquals(0.004, out.get(0).timestampS(), DELTA);
+        // and then there's room again
+        thread.offer(sample(1, 0));
+        thread.drain(out::add);
+        assertEquals(65, out.size());
+        assertEquals(36, thread.dropped());
+    }
+
+    @Test
+    void testThread() throws InterruptedException {
+        AtomicInteger n = new AtomicInteger();
+        OdometryThread thread = new OdometryThread(
+                logger,
+                () -> sample(0.001 * n.incrementAndGet(), 0),
+                0.001);
+        thread.start();
+        List<OdometrySample> out = new ArrayList<>();
+        for (int i = 0; i < 20 && out.size() < 10; ++i) {
+            Thread.sleep(10);
+            thread.drain(out::add);
+        }
+        thread.close();
+        assertTrue(out.size() >= 10);
+        for (int i = 1; i < out.size(); ++i) {
+            assertTrue(out.get(i).timestampS() > out.get(i - 1).timestampS());
+        }
+    }
+
+    /** The updater puts every sample into the history, at its own time. */
+    @Test
+    void testUpdater() {
+        SwerveKinodynamics kinodynamics = SwerveKinodynamicsFactory.forTest(logger);
+        SwerveHistory history = new SwerveHistory(
+                kinodynamics,
+                Rotation2d.kZero,
+                positions(0),
+                Pose2d.kZero,
+                0);
+        OdometryThread thread = new OdometryThread(logger, () -> null, 0.004);
+        OdometryUpdater ou = new OdometryUpdater(
+                kinodynamics, new MockGyro(), history, () -> positions(0), thread);
+        ou.reset(Pose2d.kZero, 0);
+        // five samples in one 20 ms cycle, 1 cm each
+        for (int i = 1; i <= 5; ++i) {
+            thread.offer(sample(0.004 * i, 0.01 * i));
+        }
+        ou.update();
+        assertEquals(6, history.size());
+        assertEquals(0.02, history.apply(0.008).pose().getX(), DELTA);
+        assertEquals(0.05, history.apply(0.02).pose().getX(), DELTA);
+        // 1 cm per 4 ms
+        assertEquals(2.5, history.apply(0.02).velocity().x(), DELTA);
+    }
+}
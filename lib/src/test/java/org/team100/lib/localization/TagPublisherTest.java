@@ -0,0 +1,69 @@
+package org.team100.lib.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.testing.Timeless;
+import org.team100.lib.util.TrailingHistory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+
+class TagPublisherTest implements Timeless {
+    /** Tasks run only when the test says so. */
+    private final Queue<Runnable> m_queue = new ArrayDeque<>();
+
+    private void runQueued() {
+        while (!m_queue.isEmpty()) {
+            m_queue.remove().run();
+        }
+    }
+
+    @Test
+    void testRate() {
+        TagPublisher p = new TagPublisher(0.1, m_queue::add);
+        TrailingHistory<Pose3d> all = new TrailingHistory<>(1);
+        TrailingHistory<Pose3d> used = new TrailingHistory<>(1);
+        all.add(0, Pose3d.kZero);
+        p.setPose(Pose2d.kZero);
+        p.update(all, used);
+        runQueued();
+        assertEquals(1, p.published());
+        // 0.22 s, so twice more, however the time steps round
+        for (int i = 0; i < 11; ++i) {
+            stepTime();
+            all.add(0.02 * i, Pose3d.kZero);
+            used.add(0.02 * i, Pose3d.kZero);
+            p.update(all, used);
+            runQueued();
+        }
+        assertEquals(3, p.published());
+    }
+
+    /** If the previous snapshot isn't published yet, skip. */
+    @Test
+    void testBehind() {
+        TagPublisher p = new TagPublisher(0.1, m_queue::add);
+        TrailingHistory<Pose3d> all = new TrailingHistory<>(1);
+        TrailingHistory<Pose3d> used = new TrailingHistory<>(1);
+        p.update(all, used);
+        assertEquals(1, m_queue.size());
+        for (int i = 0; i < 10; ++i) {
+            stepTime();
+            p.update(all, used);
+        }
+        // still pending, so nothing more was submitted.
+        assertEquals(1, m_queue.size());
+        runQueued();
+        assertEquals(1, p.published());
+        // now it's not pending, and the period has passed.
+        stepTime();
+        p.update(all, used);
+        assertEquals(1, m_queue.size());
+        runQueued();
+        assertEquals(2, p.published());
+    }
+}
@@ -0,0 +1,54 @@
+package org.team100.lib.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+
+class JvmLoggerTest {
+    private static final LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    @Test
+    void testWorst() {
+        JvmLogger jvm = new JvmLogger(log);
+        // fill the list
+        for (int i = 0; i < 10; ++i) {
+            assertTrue(jvm.updateWorst(i, 100 + i, "a", 0, 0));
+        }
+        // too small to make the list
+        assertFalse(jvm.updateWorst(11, 50, "b", 0, 0));
+        // replaces the smallest
+        assertTrue(jvm.updateWorst(12, 500, "c", 400, 1));
+        List<JvmLogger.Cycle> worst = jvm.worst();
+        assertEquals(10, worst.size());
+        assertEquals(500, worst.get(0).bytes());
+        assertEquals("c", worst.get(0).phase());
+        assertEquals(101, worst.get(9).bytes());
+        // much later, all the old ones are gone.
+        assertTrue(jvm.updateWorst(100, 10, "d", 0, 0));
+        worst = jvm.worst();
+        assertEquals(1, worst.size());
+        assertEquals("d", worst.get(0).phase());
+        jvm.close();
+    }
+
+    @Test
+    void testMark() {
+        JvmLogger jvm = new JvmLogger(log);
+        jvm.mark("before");
+        long[] garbage = new long[100_000];
+        jvm.mark("allocate");
+        jvm.logAllocation();
+        List<JvmLogger.Cycle> worst = jvm.worst();
+        assertEquals(1, worst.size());
+        // the array is 800 KB, plus a little bit.
+        assertTrue(worst.get(0).bytes() >= 800_000);
+        assertEquals("allocate", worst.get(0).phase());
+        assertEquals(100_000, garbage.length);
+        jvm.close();
+    }
+}
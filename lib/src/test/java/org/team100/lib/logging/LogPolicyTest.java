@@ -0,0 +1,134 @@
+package org.team100.lib.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.LoggerFactory.Pose2dLogger;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.testing.Timeless;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+class LogPolicyTest implements Timeless {
+
+    @Test
+    void testNone() {
+        LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+        DoubleLogger d = log.name("a").doubleLogger(Level.TRACE, "d");
+        for (int i = 0; i < 10; ++i) {
+            d.log(() -> 1.0);
+            stepTime();
+        }
+        assertEquals(10, log.policies().emitted("test"));
+        assertEquals(0, log.policies().skipped("test"));
+    }
+
+    @Test
+    void testDivider() {
+        LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+        LoggerFactory a = log.name("a");
+        LoggerFactory b = log.name("b");
+        a.setPolicy(LogPolicy.divider(5));
+        DoubleLogger da = a.doubleLogger(Level.TRACE, "d");
+        DoubleLogger db = b.doubleLogger(Level.TRACE, "d");
+        int[] evaluated = new int[1];
+        for (int i = 0; i < 10; ++i) {
+            da.log(() -> {
+                evaluated[0]++;
+                return 1.0;
+            });
+            db.log(() -> 1.0);
+            stepTime();
+        }
+        // skipped values are never evaluated.
+        assertEquals(2, evaluated[0]);
+        assertEquals(2, log.policies().emitted("test/a"));
+        assertEquals(8, log.policies().skipped("test/a"));
+        assertEquals(10, log.policies().emitted("test/b"));
+        assertEquals(12, log.policies().emitted("test"));
+    }
+
+    @Test
+    void testInherited() {
+        LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+        LoggerFactory child = log.name("a").name("b");
+        DoubleLogger d = child.doubleLogger(Level.TRACE, "d");
+        // set after the logger was created
+        log.name("a").setPolicy(LogPolicy.divider(2));
+        assertEquals(2, log.policies().get("test/a/b").divider());
+        for (int i = 0; i < 10; ++i) {
+            d.log(() -> 1.0);
+            stepTime();
+        }
+        assertEquals(5, log.policies().emitted("test/a"));
+        // override deeper
+        child.setPolicy(LogPolicy.NONE);
+        log.policies().resetCounts();
+        for (int i = 0; i < 10; ++i) {
+            d.log(() -> 1.0);
+            stepTime();
+        }
+        assertEquals(10, log.policies().emitted("test/a"));
+    }
+
+    @Test
+    void testMinInterval() {
+        LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+        log.setPolicy(LogPolicy.minInterval(0.09));
+        DoubleLogger d = log.doubleLogger(Level.TRACE, "d");
+        // one second
+        for (int i = 0; i < 50; ++i) {
+            d.log(() -> 1.0);
+            // same cycle, same decision
+            d.log(() -> 1.0);
+            stepTime();
+        }
+        // every fifth cycle, twice
+        assertEquals(20, log.policies().emitted("test"));
+    }
+
+    @Test
+    void testDeadband() {
+        LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+        log.setPolicy(LogPolicy.deadband(0.1));
+        DoubleLogger d = log.doubleLogger(Level.TRACE, "d");
+        d.log(1.0);
+        d.log(1.05);
+        d.log(1.09);
+        d.log(1.2);
+        d.log(1.15);
+        assertEquals(2, log.policies().emitted("test"));
+        assertEquals(3, log.policies().skipped("test"));
+    }
+
+    /** A composite logger and its parts are gated together. */
+    @Test
+    void testComposite() {
+        LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+        log.setPolicy(LogPolicy.divider(10));
+        Pose2dLogger p = log.pose2dLogger(Level.TRACE, "pose");
+        for (int i = 0; i < 20; ++i) {
+            p.log(() -> Pose2d.kZero);
+            stepTime();
+        }
+        // x, y, rotation, twice
+        assertEquals(6, log.policies().emitted("test"));
+    }
+
+    /** A subtree's counts don't include siblings whose names share a prefix. */
+    @Test
+    void testSiblingPrefix() {
+        LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+        DoubleLogger a = log.name("a").doubleLogger(Level.TRACE, "d");
+        DoubleLogger ab = log.name("ab").doubleLogger(Level.TRACE, "d");
+        for (int i = 0; i < 10; ++i) {
+            a.log(() -> 1.0);
+            ab.log(() -> 1.0);
+            stepTime();
+        }
+        assertEquals(10, log.policies().emitted("test/a"));
+        assertEquals(10, log.policies().emitted("test/ab"));
+        assertEquals(20, log.policies().emitted("test"));
+    }
+}
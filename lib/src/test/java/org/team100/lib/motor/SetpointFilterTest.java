@@ -0,0 +1,116 @@
+package org.team100.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.experiments.Experiment;
+import org.team100.lib.experiments.Experiments;
+import org.team100.lib.motor.SetpointFilter.Mode;
+import org.team100.lib.testing.Timeless;
+
+class SetpointFilterTest implements Timeless {
+
+    @Test
+    void testRepeat() {
+        SetpointFilter f = new SetpointFilter(0.01, 0.01, 0.1);
+        assertTrue(f.shouldSend(Mode.VELOCITY, 1, 0.5));
+        // same
+        assertFalse(f.shouldSend(Mode.VELOCITY, 1, 0.5));
+        // within tolerance
+        assertFalse(f.shouldSend(Mode.VELOCITY, 1.005, 0.505));
+        // setpoint change
+        assertTrue(f.shouldSend(Mode.VELOCITY, 1.1, 0.5));
+        // feedforward change
+        assertTrue(f.shouldSend(Mode.VELOCITY, 1.1, 0.6));
+        // mode change
+        assertTrue(f.shouldSend(Mode.POSITION, 1.1, 0.6));
+    }
+
+    @Test
+    void testDrift() {
+        // Tolerance is relative to the last value sent, so slow drift is sent
+        // eventually.
+        SetpointFilter f = new SetpointFilter(0.01, 0.01, 0.1);
+        assertTrue(f.shouldSend(Mode.POSITION, 0, 0));
+        assertFalse(f.shouldSend(Mode.POSITION, 0.006, 0));
+        assertTrue(f.shouldSend(Mode.POSITION, 0.012, 0));
+    }
+
+    @Test
+    void testKeepAlive() {
+        // a little less than 0.1 to avoid roundoff trouble
+        SetpointFilter f = new SetpointFilter(0.01, 0.01, 0.09);
+        assertTrue(f.shouldSend(Mode.VELOCITY, 1, 0));
+        int sent = 0;
+        // one second
+        for (int i = 0; i < 50; ++i) {
+            stepTime();
+            if (f.shouldSend(Mode.VELOCITY, 1, 0))
+                sent++;
+        }
+        // every 0.1s
+        assertEquals(10, sent);
+    }
+
+    @Test
+    void testReset() {
+        SetpointFilter f = new SetpointFilter();
+        assertTrue(f.shouldSend(Mode.DUTY_CYCLE, 0, 0));
+        assertFalse(f.shouldSend(Mode.DUTY_CYCLE, 0, 0));
+        f.reset();
+        assertTrue(f.shouldSend(Mode.DUTY_CYCLE, 0, 0));
+    }
+
+    /** By default, every write is sent, and counted. */
+    @Test
+    void testSendDefault() {
+        CanBusLoad load = new CanBusLoad(1e6);
+        SetpointFilter f = new SetpointFilter(0.01, 0.01, 0.1, load);
+        assertTrue(f.send(Mode.VELOCITY, 1, 0));
+        assertTrue(f.send(Mode.VELOCITY, 1, 0));
+        assertEquals(2, load.writes());
+        assertEquals(0, load.skipped());
+    }
+
+    /** With the experiment on, repeats are skipped, and resent on keep-alive. */
+    @Test
+    void testSendDedup() {
+        Experiments.instance.testOverride(Experiment.DedupCanWrites, true);
+        try {
+            CanBusLoad load = new CanBusLoad(1e6);
+            SetpointFilter f = new SetpointFilter(0.01, 0.01, 0.09, load);
+            assertTrue(f.send(Mode.VELOCITY, 1, 0));
+            assertFalse(f.send(Mode.VELOCITY, 1, 0));
+            assertEquals(1, load.writes());
+            assertEquals(1, load.skipped());
+            // the setpoint never changes, but it's still sent every 0.1 s.
+            for (int i = 0; i < 5; ++i) {
+                stepTime();
+                f.send(Mode.VELOCITY, 1, 0);
+            }
+            assertEquals(2, load.writes());
+            assertEquals(5, load.skipped());
+        } finally {
+            Experiments.instance.testOverride(Experiment.DedupCanWrites, false);
+        }
+    }
+
+    @Test
+    void testLoad() {
+        CanBusLoad load = new CanBusLoad(1e6);
+        for (int i = 0; i < 20; ++i) {
+            load.count(true);
+        }
+        load.count(false);
+        assertEquals(20, load.writes());
+        assertEquals(1, load.skipped());
+        stepTime();
+        // 20 frames in 20 ms is about 13%
+        assertEquals(0.135, load.utilization(), 0.001);
+        load.reset();
+        assertEquals(0, load.writes());
+        assertEquals(0, load.utilization(), 0.001);
+    }
+}
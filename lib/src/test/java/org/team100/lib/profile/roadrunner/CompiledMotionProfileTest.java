@@ -0,0 +1,104 @@
+package org.team100.lib.profile.roadrunner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class CompiledMotionProfileTest {
+    private static final boolean DEBUG = false;
+    private static final double DELTA = 1e-9;
+
+    private static void verify(MotionProfile p, CompiledMotionProfile c) {
+        assertEquals(p.duration(), c.duration(), DELTA);
+        verify(p.start(), c.start());
+        verify(p.end(), c.end());
+        for (double t = -0.1; t < p.duration() + 0.1; t += 0.001) {
+            verify(p.get(t), c.get(t));
+        }
+    }
+
+    private static void verify(MotionState expected, MotionState actual) {
+        assertEquals(expected.x(), actual.x(), DELTA);
+        assertEquals(expected.v(), actual.v(), DELTA);
+        assertEquals(expected.a(), actual.a(), DELTA);
+        assertEquals(expected.j(), actual.j(), DELTA);
+    }
+
+    @Test
+    void testJerkLimited() {
+        MotionProfile p = JerkLimitedProfileGenerator.generateMotionProfile(
+                new MotionState(0, 0, 0, 0),
+                new MotionState(1, 0, 0, 0),
+                1, 1, 1, false);
+        verify(p, p.compile());
+    }
+
+    @Test
+    void testOvershoot() {
+        MotionProfile p = JerkLimitedProfileGenerator.generateMotionProfile(
+                new MotionState(0, 2, 0, 0),
+                new MotionState(0.1, 0, 0, 0),
+                2, 1, 1, true);
+        verify(p, p.compile());
+    }
+
+    @Test
+    void testDynamic() {
+        MotionProfile p = DynamicProfileGenerator.generateMotionProfile(
+                new MotionState(0, 0, 0, 0),
+                new MotionState(5, 0, 0, 0),
+                (s) -> 1,
+                (s) -> 1,
+                0.1);
+        verify(p, p.compile());
+    }
+
+    /** Reuse, with a different number of segments. */
+    @Test
+    void testReuse() {
+        CompiledMotionProfile c = new CompiledMotionProfile();
+        MotionProfile p1 = DynamicProfileGenerator.generateMotionProfile(
+                new MotionState(0, 0, 0, 0),
+                new MotionState(5, 0, 0, 0),
+                (s) -> 1,
+                (s) -> 1,
+                0.01);
+        c.compile(p1);
+        verify(p1, c);
+        MotionProfile p2 = JerkLimitedProfileGenerator.generateMotionProfile(
+                new MotionState(1, 0, 0, 0),
+                new MotionState(-1, 0, 0, 0),
+                1, 1, 1, false);
+        c.compile(p2);
+        verify(p2, c);
+    }
+
+    // There's no need to run this all the time
+    // @Test
+    void testPerformance() {
+        MotionProfile p = DynamicProfileGenerator.generateMotionProfile(
+                new MotionState(0, 0, 0, 0),
+                new MotionState(5, 0, 0, 0),
+                (s) -> 1,
+                (s) -> 1,
+                0.01);
+        CompiledMotionProfile c = p.compile();
+        int n = 1000;
+        double d = p.duration();
+        double sum = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            sum += p.get(d * i / n).x();
+        }
+        long t1 = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            sum -= c.get(d * i / n).x();
+        }
+        long t2 = System.nanoTime();
+        assertEquals(0, sum, 1e-6);
+        if (DEBUG) {
+            System.out.printf("segments %d list (us) %.3f compiled (us) %.3f\n",
+                    p.getSegments().size(), (t1 - t0) / 1e3 / n, (t2 - t1) / 1e3 / n);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.team100.lib.profile.roadrunner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ReusableDynamicProfileGeneratorTest {
+    private static final boolean DEBUG = false;
+    private static final double DELTA = 1e-9;
+
+    private final ReusableDynamicProfileGenerator m_generator = new ReusableDynamicProfileGenerator();
+    private final CompiledMotionProfile m_profile = new CompiledMotionProfile();
+
+    /** Same as the original generator, sampled everywhere. */
+    private void verify(
+            MotionState start,
+            MotionState goal,
+            VelocityConstraint v,
+            AccelerationConstraint a,
+            double resolution) {
+        MotionProfile expected = DynamicProfileGenerator.generateMotionProfile(start, goal, v, a, resolution);
+        m_generator.generate(start, goal, v, a, resolution, m_profile);
+        assertEquals(expected.duration(), m_profile.duration(), DELTA);
+        // zero acceleration at the goal makes the last segment infinitely long.
+        double end = Math.min(expected.duration(), 10) + 0.1;
+        for (double t = -0.1; t < end; t += 0.001) {
+            MotionState e = expected.get(t);
+            MotionState s = m_profile.get(t);
+            assertEquals(e.x(), s.x(), DELTA);
+            assertEquals(e.v(), s.v(), DELTA);
+            assertEquals(e.a(), s.a(), DELTA);
+        }
+    }
+
+    /** Like TaperedProfile. */
+    private static AccelerationConstraint tapered(double goal) {
+        return (s) -> Math.min(6, Math.pow(Math.abs(goal - s), 1.0 / 3) * 1.8 * Math.pow(20, 2.0 / 3));
+    }
+
+    @Test
+    void testConstant() {
+        verify(new MotionState(0, 0, 0, 0), new MotionState(5, 0, 0, 0), (s) -> 1, (s) -> 1, 1);
+        verify(new MotionState(0, 0, 0, 0), new MotionState(5, 0, 0, 0), (s) -> 1, (s) -> 1, 0.01);
+    }
+
+    @Test
+    void testTapered() {
+        verify(new MotionState(0, 0, 0, 0), new MotionState(1, 0, 0, 0), (s) -> 2, tapered(1), 0.01);
+    }
+
+    @Test
+    void testNegative() {
+        verify(new MotionState(1, 0, 0, 0), new MotionState(0, 0, 0, 0), (s) -> 2, tapered(0), 0.01);
+    }
+
+    @Test
+    void testMovingEntry() {
+        verify(new MotionState(1, 1, 0, 0), new MotionState(0, 0, 0, 0), (s) -> 2, tapered(0), 0.01);
+        verify(new MotionState(0, 1, 0, 0), new MotionState(2, 0, 0, 0), (s) -> 2, tapered(2), 0.01);
+    }
+
+    @Test
+    void testVaryingConstraints() {
+        verify(new MotionState(0, 0, 0, 0), new MotionState(3, 0, 0, 0),
+                (s) -> 1 + 0.5 * Math.sin(3 * s), (s) -> 2 + Math.cos(s), 0.05);
+    }
+
+    /** Re-targeting repeatedly, as a controller would. */
+    @Test
+    void testPerformance() {
+        int n = 1000;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            double goal = 1 + i * 1e-4;
+            DynamicProfileGenerator.generateMotionProfile(
+                    new MotionState(0, 0, 0, 0), new MotionState(goal, 0, 0, 0),
+                    (s) -> 2, tapered(goal), 0.01);
+        }
+        long t1 = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            double goal = 1 + i * 1e-4;
+            m_generator.generate(
+                    new MotionState(0, 0, 0, 0), new MotionState(goal, 0, 0, 0),
+                    (s) -> 2, tapered(goal), 0.01, m_profile);
+        }
+        long t2 = System.nanoTime();
+        if (DEBUG) {
+            System.out.printf("original (us) %.3f reusable (us) %.3f\n",
+                    (t1 - t0) / 1e3 / n, (t2 - t1) / 1e3 / n);
+        }
+    }
+}
@@ -82,4 +82,31 @@ public class TrajectoryReferenceTest implements Timeless {
 
     }
 
+    /**
+     * Sampling happens once per tick, no matter how many callers. Previously
+     * each call to current() or next() scanned the trajectory from the start.
+     */
+    @Test
+    void testSampleOnce() {
+        Cache.clear();
+        Trajectory100 t = planner.restToRest(
+                new Pose2d(0, 0, Rotation2d.kZero),
+                new Pose2d(1, 0, Rotation2d.kZero));
+        TrajectoryReferenceR3 r = new TrajectoryReferenceR3(logger, t, 3);
+        r.initialize(new ModelR3());
+        for (int i = 0; i < 10; ++i) {
+            // e.g. the controller, the logger, and a feedforward
+            ModelR3 c = r.current();
+            ControlR3 n = r.next();
+            r.current();
+            r.next();
+            ControlR3 ahead = r.lookahead(3);
+            assertEquals(c.pose().getX(), r.lookahead(0).pose().getX(), DELTA);
+            assertEquals(n.pose().getX(), r.lookahead(1).pose().getX(), DELTA);
+            assertEquals(t.sample(i * 0.02 + 0.06).state().getPose().translation().getX(),
+                    ahead.pose().getX(), DELTA);
+            stepTime();
+        }
+        assertEquals(10, r.refreshes());
+    }
 }
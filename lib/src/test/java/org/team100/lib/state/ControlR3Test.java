@@ -0,0 +1,57 @@
+package org.team100.lib.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GlobalAccelerationR3;
+import org.team100.lib.geometry.GlobalVelocityR3;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class ControlR3Test {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void testViews() {
+        ControlR3 c = new ControlR3(
+                new Control100(1, 2, 3),
+                new Control100(4, 5, 6),
+                new Control100(0.5, 8, 9));
+        assertEquals(1, c.pose().getX(), DELTA);
+        assertEquals(4, c.pose().getY(), DELTA);
+        assertEquals(0.5, c.rotation().getRadians(), DELTA);
+        assertEquals(5, c.velocity().y(), DELTA);
+        assertEquals(9, c.acceleration().theta(), DELTA);
+        assertSame(c.pose(), c.pose());
+        assertSame(c.velocity(), c.velocity());
+        assertSame(c.acceleration(), c.acceleration());
+        // model drops acceleration
+        assertEquals(new Model100(0.5, 8), c.model().theta());
+    }
+
+    @Test
+    void testPoseConstructor() {
+        Pose2d p = new Pose2d(1, 2, new Rotation2d(1));
+        ControlR3 c = new ControlR3(p, new GlobalVelocityR3(3, 4, 5));
+        assertSame(p, c.pose());
+        assertSame(GlobalAccelerationR3.ZERO, c.acceleration());
+        assertEquals(new Control100(1, 5, 0), c.theta());
+    }
+
+    @Test
+    void testArithmetic() {
+        ControlR3 a = new ControlR3(
+                new Control100(1, 2, 3),
+                new Control100(4, 5, 6),
+                new Control100(7, 8, 9));
+        ControlR3 d = a.minus(a);
+        assertEquals(0, d.x().a(), DELTA);
+        assertEquals(0, d.theta().x(), DELTA);
+        ControlR3 s = a.plus(a);
+        assertEquals(18, s.theta().a(), DELTA);
+        assertEquals(0.5, a.withTheta(0.5).theta().x(), DELTA);
+        assertEquals(8, a.withTheta(0.5).theta().v(), DELTA);
+    }
+}
@@ -0,0 +1,92 @@
+package org.team100.lib.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GlobalVelocityR3;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class ModelR3Test {
+    private static final boolean DEBUG = false;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void testViews() {
+        ModelR3 m = new ModelR3(new Model100(1, 2), new Model100(3, 4), new Model100(0.5, 6));
+        assertEquals(1, m.pose().getX(), DELTA);
+        assertEquals(3, m.pose().getY(), DELTA);
+        assertEquals(0.5, m.pose().getRotation().getRadians(), DELTA);
+        assertEquals(Math.cos(0.5), m.rotation().getCos(), DELTA);
+        assertEquals(2, m.velocity().x(), DELTA);
+        assertEquals(4, m.velocity().y(), DELTA);
+        assertEquals(6, m.velocity().theta(), DELTA);
+        // views are kept
+        assertSame(m.pose(), m.pose());
+        assertSame(m.rotation(), m.pose().getRotation());
+        assertSame(m.translation(), m.pose().getTranslation());
+        assertSame(m.velocity(), m.velocity());
+        assertSame(m.x(), m.x());
+    }
+
+    @Test
+    void testPoseConstructor() {
+        // the pose is used as-is, no trig
+        Pose2d p = new Pose2d(1, 2, new Rotation2d(1));
+        ModelR3 m = new ModelR3(p, new GlobalVelocityR3(3, 4, 5));
+        assertSame(p, m.pose());
+        assertSame(p.getRotation(), m.rotation());
+        assertEquals(1, m.theta().x(), DELTA);
+        assertEquals(5, m.theta().v(), DELTA);
+    }
+
+    @Test
+    void testArithmetic() {
+        ModelR3 a = new ModelR3(new Model100(1, 2), new Model100(3, 4), new Model100(5, 6));
+        ModelR3 b = new ModelR3(new Model100(0.1, 0.2), new Model100(0.3, 0.4), new Model100(0.5, 0.6));
+        ModelR3 d = a.minus(b);
+        assertEquals(0.9, d.x().x(), DELTA);
+        assertEquals(1.8, d.x().v(), DELTA);
+        assertEquals(2.7, d.y().x(), DELTA);
+        assertEquals(3.6, d.y().v(), DELTA);
+        ModelR3 s = a.plus(b);
+        assertEquals(5.5, s.theta().x(), DELTA);
+        assertEquals(6.6, s.theta().v(), DELTA);
+        ModelR3 e = a.evolve(0.1);
+        assertEquals(1.2, e.x().x(), DELTA);
+        assertEquals(3.4, e.y().x(), DELTA);
+        assertEquals(5.6, e.theta().x(), DELTA);
+        assertEquals(0.7, a.withTheta(0.7).rotation().getRadians(), DELTA);
+        assertTrue(a.near(a.plus(new ModelR3()), DELTA));
+    }
+
+    /** How much do the accessors allocate? */
+    @Test
+    void testAllocation() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        int reps = 100000;
+        double total = 0;
+        long startBytes = bean.getThreadAllocatedBytes(id);
+        long startNs = System.nanoTime();
+        for (int i = 0; i < reps; ++i) {
+            ModelR3 m = new ModelR3(new Pose2d(i, i, new Rotation2d(i)), new GlobalVelocityR3(1, 2, 3));
+            // a typical control cycle uses the accessors many times.
+            for (int j = 0; j < 10; ++j) {
+                total += m.pose().getX() + m.rotation().getCos() + m.velocity().x()
+                        + m.translation().getY() + m.theta().v();
+            }
+        }
+        long ns = System.nanoTime() - startNs;
+        long bytes = bean.getThreadAllocatedBytes(id) - startBytes;
+        if (DEBUG)
+            System.out.printf("per cycle: %.0f bytes, %.1f ns (total %f)\n",
+                    (double) bytes / reps, (double) ns / reps, total);
+    }
+}
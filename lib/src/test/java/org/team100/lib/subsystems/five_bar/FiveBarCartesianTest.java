@@ -0,0 +1,40 @@
+package org.team100.lib.subsystems.five_bar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.subsystems.five_bar.kinematics.ActuatorAngles;
+import org.team100.lib.subsystems.five_bar.kinematics.FiveBarInverseTable;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+public class FiveBarCartesianTest {
+    private static final FiveBarInverseTable TABLE = FiveBarCartesian.table();
+
+    /** Positions are relative to the work center, and the table covers them. */
+    @Test
+    void testTableHit() {
+        assertTrue(FiveBarCartesian.tableCovers(TABLE, Translation2d.kZero));
+        assertTrue(FiveBarCartesian.tableCovers(TABLE, new Translation2d(0.01, -0.01)));
+        assertTrue(FiveBarCartesian.tableCovers(TABLE, new Translation2d(-0.015, 0.015)));
+    }
+
+    /** Far outside the work envelope uses the analytic solution. */
+    @Test
+    void testTableMiss() {
+        assertFalse(FiveBarCartesian.tableCovers(TABLE, new Translation2d(0.5, 0)));
+    }
+
+    /** The work center is reachable, and the table agrees with the analytic inverse. */
+    @Test
+    void testReachable() {
+        ActuatorAngles analytic = FiveBarCartesian.inverse(null, Translation2d.kZero);
+        assertFalse(Double.isNaN(analytic.q1()));
+        assertFalse(Double.isNaN(analytic.q5()));
+        ActuatorAngles table = FiveBarCartesian.inverse(TABLE, Translation2d.kZero);
+        assertEquals(analytic.q1(), table.q1(), 1e-6);
+        assertEquals(analytic.q5(), table.q5(), 1e-6);
+    }
+}
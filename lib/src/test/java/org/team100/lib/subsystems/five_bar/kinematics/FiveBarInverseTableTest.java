@@ -0,0 +1,123 @@
+package org.team100.lib.subsystems.five_bar.kinematics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class FiveBarInverseTableTest {
+    private static final boolean DEBUG = false;
+
+    private Scenario regularPentagon() {
+        Scenario s = new Scenario();
+        s.a1 = 1.0;
+        s.a2 = 1.0;
+        s.a3 = 1.0;
+        s.a4 = 1.0;
+        s.a5 = 1.0;
+        return s;
+    }
+
+    /** Random points all over the grid, including the unreachable parts. */
+    @Test
+    void testAccuracy() {
+        Scenario s = regularPentagon();
+        FiveBarInverseTable table = new FiveBarInverseTable(s, -1.5, 0.5, 0.5, 2.0, 0.02);
+        Random random = new Random(0);
+        double sum = 0;
+        double max = 0;
+        int n = 0;
+        for (int i = 0; i < 10000; ++i) {
+            double x = -1.5 + 2 * random.nextDouble();
+            double y = 0.5 + 1.5 * random.nextDouble();
+            ActuatorAngles expected = FiveBarKinematics.inverse(s, x, y);
+            if (Double.isNaN(expected.q1()) || Double.isNaN(expected.q5()))
+                continue;
+            ActuatorAngles actual = table.inverse(x, y);
+            double err = Math.max(
+                    Math.abs(expected.q1() - actual.q1()),
+                    Math.abs(expected.q5() - actual.q5()));
+            sum += err;
+            max = Math.max(max, err);
+            n++;
+        }
+        if (DEBUG)
+            System.out.printf("n %d mean error %g max error %g\n", n, sum / n, max);
+        // the worst case is near singularities
+        assertTrue(max < 1e-3, "max " + max);
+        // most points are much better than that
+        assertTrue(sum / n < 1e-6, "mean " + sum / n);
+    }
+
+    /** The Newton step is much better than the interpolation alone. */
+    @Test
+    void testNewton() {
+        Scenario s = regularPentagon();
+        FiveBarInverseTable table = new FiveBarInverseTable(s, -1.5, 0.5, 0.5, 2.0, 0.02);
+        double x = -0.4937;
+        double y = 1.3011;
+        ActuatorAngles expected = FiveBarKinematics.inverse(s, x, y);
+        ActuatorAngles interpolated = table.interpolate(x, y);
+        ActuatorAngles refined = table.inverse(x, y);
+        double interpolationError = Math.abs(expected.q1() - interpolated.q1());
+        double refinedError = Math.abs(expected.q1() - refined.q1());
+        assertTrue(interpolationError > 0);
+        assertTrue(refinedError < 1e-9);
+        assertTrue(refinedError < interpolationError);
+    }
+
+    /** Off the grid is exactly the analytic solution. */
+    @Test
+    void testOffGrid() {
+        Scenario s = regularPentagon();
+        FiveBarInverseTable table = new FiveBarInverseTable(s, -1.0, 0.0, 1.0, 2.0, 0.02);
+        ActuatorAngles expected = FiveBarKinematics.inverse(s, -0.5, 0.9);
+        ActuatorAngles actual = table.inverse(-0.5, 0.9);
+        assertEquals(expected.q1(), actual.q1(), 0);
+        assertEquals(expected.q5(), actual.q5(), 0);
+    }
+
+    @Test
+    void testCovers() {
+        Scenario s = regularPentagon();
+        FiveBarInverseTable table = new FiveBarInverseTable(s, -1.0, 0.0, 1.0, 2.0, 0.02);
+        assertTrue(table.covers(-0.5, 1.5));
+        // off the grid
+        assertFalse(table.covers(-0.5, 0.9));
+        // on the edge of the grid
+        assertFalse(table.covers(-0.99, 1.5));
+    }
+
+    /** Unreachable points are NaN, like the analytic solution. */
+    @Test
+    void testUnreachable() {
+        Scenario s = regularPentagon();
+        FiveBarInverseTable table = new FiveBarInverseTable(s, -1.5, 0.5, 0.5, 2.5, 0.02);
+        ActuatorAngles actual = table.inverse(-0.5, 2.4);
+        assertTrue(Double.isNaN(actual.q1()));
+    }
+
+    // There's no need to run this all the time
+    // @Test
+    void testPerformance() {
+        Scenario s = regularPentagon();
+        FiveBarInverseTable table = new FiveBarInverseTable(s, -1.5, 0.5, 0.5, 2.0, 0.02);
+        int reps = 1000000;
+        double total = 0;
+        long start = System.nanoTime();
+        for (int rep = 0; rep < reps; ++rep) {
+            total += FiveBarKinematics.inverse(s, -0.5 + 1e-7 * rep, 1.2).q1();
+        }
+        long mid = System.nanoTime();
+        for (int rep = 0; rep < reps; ++rep) {
+            total += table.inverse(-0.5 + 1e-7 * rep, 1.2).q1();
+        }
+        long end = System.nanoTime();
+        if (DEBUG)
+            System.out.printf("analytic (ns) %.2f table (ns) %.2f (total %f)\n",
+                    (double) (mid - start) / reps, (double) (end - mid) / reps, total);
+    }
+}
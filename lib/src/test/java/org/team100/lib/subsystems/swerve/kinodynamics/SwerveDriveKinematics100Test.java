@@ -5,7 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
+import java.util.Random;
 
+import org.ejml.simple.SimpleMatrix;
 import org.junit.jupiter.api.Test;
 import org.team100.lib.subsystems.swerve.module.state.SwerveModuleDelta;
 import org.team100.lib.subsystems.swerve.module.state.SwerveModuleDeltas;
@@ -712,4 +714,40 @@ class SwerveDriveKinematics100Test {
                 () -> assertEquals(1.5, twist.dtheta, 0.1));
     }
 
+    /** The closed-form and matrix paths should agree. */
+    @Test
+    void testForwardMatchesMatrix() {
+        SwerveDriveKinematics100 centered = new SwerveDriveKinematics100(
+                new Translation2d(0.3, 0.25),
+                new Translation2d(0.3, -0.25),
+                new Translation2d(-0.3, 0.25),
+                new Translation2d(-0.3, -0.25));
+        SwerveDriveKinematics100 offset = new SwerveDriveKinematics100(
+                new Translation2d(0.6, 0.5),
+                new Translation2d(0.6, 0),
+                new Translation2d(0, 0.5),
+                new Translation2d(0, 0));
+        Random random = new Random(0);
+        for (SwerveDriveKinematics100 k : new SwerveDriveKinematics100[] { centered, offset }) {
+            for (int i = 0; i < 100; ++i) {
+                SwerveModuleDeltas deltas = new SwerveModuleDeltas(
+                        new SwerveModuleDelta(random.nextDouble(), random.nextDouble()),
+                        new SwerveModuleDelta(random.nextDouble(), random.nextDouble()),
+                        new SwerveModuleDelta(random.nextDouble(), random.nextDouble()),
+                        new SwerveModuleDelta(random.nextDouble(), random.nextDouble()));
+                SimpleMatrix v = new SimpleMatrix(8, 1);
+                SwerveModuleDelta[] all = deltas.all();
+                for (int j = 0; j < 4; ++j) {
+                    v.set(j * 2, 0, all[j].distanceMeters * all[j].wrappedAngle.get().getCos());
+                    v.set(j * 2 + 1, 0, all[j].distanceMeters * all[j].wrappedAngle.get().getSin());
+                }
+                SimpleMatrix expected = k.m_forwardKinematics.mult(v);
+                Twist2d twist = k.toTwist2d(deltas);
+                assertEquals(expected.get(0, 0), twist.dx, 1e-9);
+                assertEquals(expected.get(1, 0), twist.dy, 1e-9);
+                assertEquals(expected.get(2, 0), twist.dtheta, 1e-9);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,192 @@
+package org.team100.lib.subsystems.swerve.kinodynamics.limiter;
+
+import java.util.function.DoubleSupplier;
+
+import org.team100.lib.framework.TimedRobot100;
+import org.team100.lib.geometry.GlobalAccelerationR3;
+import org.team100.lib.geometry.GlobalVelocityR3;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.util.Math100;
+
+import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
+
+/**
+ * A frozen copy of the record-based limiter chain, as it was before
+ * SwerveLimiter worked in place, minus the logging, so the in-place version
+ * can be checked against it. Don't "fix" this to match the production code;
+ * the point is that it doesn't share any arithmetic with it.
+ */
+class BaselineLimiterChain {
+    private final SwerveKinodynamics m_limits;
+    private final DoubleSupplier m_voltage;
+    private final InterpolatingDoubleTreeMap m_table;
+    private final boolean m_preferRotation;
+    private final boolean m_deadband;
+    private final double m_cartesianScale = 1.0;
+    private final double m_alphaScale = 0.2;
+    private GlobalVelocityR3 m_current;
+
+    BaselineLimiterChain(
+            SwerveKinodynamics limits,
+            DoubleSupplier voltage,
+            boolean preferRotation,
+            boolean deadband) {
+        m_limits = limits;
+        m_voltage = voltage;
+        m_table = new InterpolatingDoubleTreeMap();
+        m_table.put(12.0, 1.0);
+        m_table.put(7.0, 7.0 / 12.0);
+        m_table.put(6.0, 0.0);
+        m_preferRotation = preferRotation;
+        m_deadband = deadband;
+    }
+
+    GlobalVelocityR3 apply(GlobalVelocityR3 nextReference) {
+        if (m_current == null)
+            m_current = nextReference;
+        GlobalVelocityR3 result = m_preferRotation
+                ? preferRotation(nextReference)
+                : proportional(nextReference);
+        result = capsize(m_current, result);
+        result = acceleration(m_current, result);
+        if (m_deadband)
+            result = deadband(result);
+        m_current = result;
+        return result;
+    }
+
+    void updateSetpoint(GlobalVelocityR3 setpoint) {
+        m_current = setpoint;
+    }
+
+    ///////////////////////////////////////////////
+    // BatterySagSpeedLimit
+
+    private double maxV() {
+        return m_table.get(m_voltage.getAsDouble()) * m_limits.getMaxDriveVelocityM_S();
+    }
+
+    private double maxOmega() {
+        return m_table.get(m_voltage.getAsDouble()) * m_limits.getMaxAngleSpeedRad_S();
+    }
+
+    ///////////////////////////////////////////////
+    // FieldRelativeVelocityLimiter
+
+    private GlobalVelocityR3 proportional(GlobalVelocityR3 target) {
+        final double maxV = maxV();
+        final double maxOmega = maxOmega();
+        double xySpeed = target.norm();
+        double omegaForSpeed = maxOmega * (1 - xySpeed / maxV);
+        boolean feasible = Math.abs(target.theta()) <= omegaForSpeed;
+        if (feasible)
+            return target;
+        if (xySpeed < 1e-12) {
+            return new GlobalVelocityR3(
+                    0,
+                    0,
+                    Math.signum(target.theta()) * maxOmega);
+        }
+        if (Math.abs(target.theta()) < 1e-12) {
+            double xyAngle = Math.atan2(target.y(), target.x());
+            return new GlobalVelocityR3(
+                    maxV * Math.cos(xyAngle),
+                    maxV * Math.sin(xyAngle),
+                    0);
+        }
+        double v = maxOmega * xySpeed * maxV / (maxOmega * xySpeed + Math.abs(target.theta()) * maxV);
+        double scale = v / xySpeed;
+        return new GlobalVelocityR3(
+                scale * target.x(),
+                scale * target.y(),
+                scale * target.theta());
+    }
+
+    private GlobalVelocityR3 preferRotation(GlobalVelocityR3 speeds) {
+        double omegaRatio = Math.min(1, speeds.theta() / maxOmega());
+        double xySpeed = speeds.norm();
+        double maxV = maxV();
+        double xyRatio = Math.min(1, xySpeed / maxV);
+        double ratio = Math.min(1 - omegaRatio, xyRatio);
+        double xyAngle = Math.atan2(speeds.y(), speeds.x());
+        return new GlobalVelocityR3(
+                ratio * maxV * Math.cos(xyAngle),
+                ratio * maxV * Math.sin(xyAngle),
+                speeds.theta());
+    }
+
+    ///////////////////////////////////////////////
+    // FieldRelativeCapsizeLimiter
+
+    private GlobalVelocityR3 capsize(GlobalVelocityR3 prev, GlobalVelocityR3 target) {
+        GlobalAccelerationR3 accel = target.accel(prev, TimedRobot100.LOOP_PERIOD_S);
+        double a = accel.norm();
+        if (a < 1e-6)
+            a = 0;
+        double scale = Math.min(1, m_limits.getMaxCapsizeAccelM_S2() / a);
+        return prev.plus(accel.times(scale).integrate(TimedRobot100.LOOP_PERIOD_S));
+    }
+
+    ///////////////////////////////////////////////
+    // FieldRelativeAccelerationLimiter
+
+    private GlobalVelocityR3 acceleration(GlobalVelocityR3 prev, GlobalVelocityR3 target) {
+        GlobalAccelerationR3 accel = target.accel(prev, TimedRobot100.LOOP_PERIOD_S);
+        double cartesianScale = cartesianScale(prev, target, accel);
+        double alphaScale = alphaScale(accel);
+        double scale = Math.min(cartesianScale, alphaScale);
+        return prev.plus(accel.times(scale).integrate(TimedRobot100.LOOP_PERIOD_S));
+    }
+
+    private double cartesianScale(
+            GlobalVelocityR3 prev,
+            GlobalVelocityR3 target,
+            GlobalAccelerationR3 accel) {
+        double a = accel.norm();
+        if (Math.abs(a) < 1e-6)
+            return 1.0;
+        double accelLimit = getAccelLimit(prev, target);
+        if (a < accelLimit)
+            a = accelLimit;
+        return Math.min(1, accelLimit / a);
+    }
+
+    private double alphaScale(GlobalAccelerationR3 accel) {
+        double a = accel.theta();
+        if (Math.abs(a) < 1e-6)
+            return 1.0;
+        double accelLimit = m_alphaScale * m_limits.getMaxAngleAccelRad_S2();
+        if (a < accelLimit)
+            a = accelLimit;
+        return Math.min(1, accelLimit / a);
+    }
+
+    ///////////////////////////////////////////////
+    // SwerveUtil
+
+    private double getAccelLimit(GlobalVelocityR3 prev, GlobalVelocityR3 desired) {
+        GlobalAccelerationR3 accel = desired.accel(prev, TimedRobot100.LOOP_PERIOD_S);
+        double dot = prev.x() * accel.x() + prev.y() * accel.y();
+        if (dot >= 0) {
+            double speedFraction = Math100.limit(prev.norm() / m_limits.getMaxDriveVelocityM_S(), 0, 1);
+            double backEmfLimit = 1 - speedFraction;
+            double backEmfLimitedAcceleration = backEmfLimit * m_cartesianScale
+                    * m_limits.getStallAccelerationM_S2();
+            double currentLimitedAcceleration = m_cartesianScale * m_limits.getMaxDriveAccelerationM_S2();
+            return Math.min(backEmfLimitedAcceleration, currentLimitedAcceleration);
+        }
+        return m_cartesianScale * m_limits.getMaxDriveDecelerationM_S2();
+    }
+
+    ///////////////////////////////////////////////
+    // SwerveDeadband
+
+    private GlobalVelocityR3 deadband(GlobalVelocityR3 target) {
+        if (Math.abs(target.x()) > 0.01
+                || Math.abs(target.y()) > 0.01
+                || Math.abs(target.theta()) > 0.001) {
+            return target;
+        }
+        return GlobalVelocityR3.ZERO;
+    }
+}
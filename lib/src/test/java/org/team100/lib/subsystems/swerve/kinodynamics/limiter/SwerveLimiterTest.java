@@ -3,7 +3,13 @@ package org.team100.lib.subsystems.swerve.kinodynamics.limiter;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.team100.lib.experiments.Experiment;
+import org.team100.lib.experiments.Experiments;
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.geometry.GlobalVelocityR3;
 import org.team100.lib.logging.LoggerFactory;
@@ -352,4 +358,87 @@ public class SwerveLimiterTest implements Timeless {
                         i, accelLimit, setpoint.x(), target.x());
         }
     }
+
+    @AfterEach
+    void resetExperiments() {
+        Experiments.instance.testOverride(Experiment.LimitsPreferRotation, false);
+        Experiments.instance.testOverride(Experiment.SwerveDeadband, false);
+    }
+
+    /**
+     * The in-place limiter chain should produce exactly the same bits as the
+     * frozen copy of the old record-based chain, for random inputs, in all the
+     * experiment combinations.
+     */
+    @Test
+    void equivalentToBaseline() {
+        for (boolean preferRotation : new boolean[] { false, true }) {
+            for (boolean deadband : new boolean[] { false, true }) {
+                Experiments.instance.testOverride(Experiment.LimitsPreferRotation, preferRotation);
+                Experiments.instance.testOverride(Experiment.SwerveDeadband, deadband);
+
+                SwerveLimiter limiter = new SwerveLimiter(logger, KINEMATIC_LIMITS, () -> 12);
+                BaselineLimiterChain baseline = new BaselineLimiterChain(
+                        KINEMATIC_LIMITS, () -> 12, preferRotation, deadband);
+
+                Random random = new Random(0);
+                GlobalVelocityR3 current = GlobalVelocityR3.ZERO;
+                limiter.updateSetpoint(current);
+                baseline.updateSetpoint(current);
+                for (int i = 0; i < 10000; ++i) {
+                    // sometimes tiny, sometimes huge, sometimes pure spin or pure translation.
+                    double scale = random.nextInt(3) == 0 ? 0.001 : 6;
+                    GlobalVelocityR3 target = new GlobalVelocityR3(
+                            random.nextInt(5) == 0 ? 0 : scale * (random.nextDouble() - 0.5),
+                            random.nextInt(5) == 0 ? 0 : scale * (random.nextDouble() - 0.5),
+                            random.nextInt(5) == 0 ? 0 : scale * (random.nextDouble() - 0.5));
+                    if (random.nextInt(20) == 0) {
+                        // sometimes the drivetrain tells the limiter what it's doing.
+                        current = target;
+                        limiter.updateSetpoint(current);
+                        baseline.updateSetpoint(current);
+                        continue;
+                    }
+                    GlobalVelocityR3 expected = baseline.apply(target);
+                    GlobalVelocityR3 actual = limiter.apply(target);
+                    assertEquals(Double.doubleToRawLongBits(expected.x()), Double.doubleToRawLongBits(actual.x()));
+                    assertEquals(Double.doubleToRawLongBits(expected.y()), Double.doubleToRawLongBits(actual.y()));
+                    assertEquals(Double.doubleToRawLongBits(expected.theta()),
+                            Double.doubleToRawLongBits(actual.theta()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Bytes allocated per apply(), measured on this thread after warmup. The
+     * chain itself shouldn't allocate at all; the bound leaves room for the
+     * returned record, in case escape analysis doesn't eliminate it.
+     */
+    @Test
+    void allocation() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean))
+            return;
+        if (!bean.isThreadAllocatedMemorySupported())
+            return;
+        SwerveLimiter limiter = new SwerveLimiter(logger, KINEMATIC_LIMITS, () -> 12);
+        GlobalVelocityR3 target = new GlobalVelocityR3(1, 1, 1);
+        double sum = 0;
+        int reps = 100000;
+        for (int i = 0; i < reps; ++i) {
+            sum += limiter.apply(target).x();
+        }
+        long id = Thread.currentThread().getId();
+        long start = bean.getThreadAllocatedBytes(id);
+        for (int i = 0; i < reps; ++i) {
+            sum += limiter.apply(target).x();
+        }
+        long end = bean.getThreadAllocatedBytes(id);
+        double bytesPerApply = (double) (end - start) / reps;
+        if (DEBUG)
+            System.out.printf("bytes per apply %.3f (%f)\n", bytesPerApply, sum);
+        // one GlobalVelocityR3 is 40 bytes with compressed oops.
+        assertTrue(bytesPerApply <= 48, String.format("%.1f bytes per apply", bytesPerApply));
+    }
+
 }
@@ -0,0 +1,25 @@
+package org.team100.lib.subsystems.swerve.module;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.sensor.gyro.SimulatedGyro;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.testing.Timeless;
+
+class SwerveModuleCollectionTest implements Timeless {
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    /** Simulated modules have no signals, so odometry stays on the main loop. */
+    @Test
+    void testNoSamplerInSimulation() {
+        SwerveKinodynamics k = SwerveKinodynamicsFactory.forRealisticTest(logger);
+        SwerveModuleCollection c = SwerveModuleCollection.get(logger, 10, 20, k);
+        SimulatedGyro gyro = new SimulatedGyro(logger, k, c);
+        assertNull(c.odometrySampler(gyro, 250));
+    }
+}
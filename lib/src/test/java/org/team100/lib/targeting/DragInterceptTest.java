@@ -0,0 +1,153 @@
+package org.team100.lib.targeting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GlobalVelocityR2;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+public class DragInterceptTest {
+    private static final boolean DEBUG = false;
+    private static final double DELTA = 0.001;
+    private static final Range RANGE = new Range(new Drag(0.5, 0.025, 0.1, 0.1, 0.1), 8, 50);
+
+    /** The shot lands where the target will be. */
+    private static void verify(
+            DragIntercept solver,
+            Translation2d robotPosition,
+            GlobalVelocityR2 robotVelocity,
+            Translation2d targetPosition,
+            GlobalVelocityR2 targetVelocity) {
+        double t = solver.tof();
+        double Ix = targetPosition.getX() - robotPosition.getX()
+                + (targetVelocity.x() - robotVelocity.x()) * t;
+        double Iy = targetPosition.getY() - robotPosition.getY()
+                + (targetVelocity.y() - robotVelocity.y()) * t;
+        assertEquals(Math.atan2(Iy, Ix), solver.azimuth(), DELTA);
+        Range.Solution shot = RANGE.get(solver.elevation());
+        assertEquals(Math.hypot(Ix, Iy), shot.range(), 0.01);
+        assertEquals(t, shot.tof(), 0.01);
+    }
+
+    @Test
+    void testBothStationary() {
+        DragIntercept solver = new DragIntercept(RANGE);
+        Translation2d robot = new Translation2d(0, 0);
+        GlobalVelocityR2 robotVelocity = new GlobalVelocityR2(0, 0);
+        Translation2d target = new Translation2d(2, 0);
+        GlobalVelocityR2 targetVelocity = new GlobalVelocityR2(0, 0);
+        assertTrue(solver.solve(robot, robotVelocity, target, targetVelocity));
+        assertEquals(0, solver.azimuth(), DELTA);
+        verify(solver, robot, robotVelocity, target, targetVelocity);
+        // the cold start is already the answer.
+        assertEquals(1, solver.iterations());
+    }
+
+    @Test
+    void testRobotMoving() {
+        DragIntercept solver = new DragIntercept(RANGE);
+        Translation2d robot = new Translation2d(0, 0);
+        // driving across the line of fire
+        GlobalVelocityR2 robotVelocity = new GlobalVelocityR2(0, 1);
+        Translation2d target = new Translation2d(2, 0);
+        GlobalVelocityR2 targetVelocity = new GlobalVelocityR2(0, 0);
+        assertTrue(solver.solve(robot, robotVelocity, target, targetVelocity));
+        // aim behind
+        assertTrue(solver.azimuth() < 0);
+        verify(solver, robot, robotVelocity, target, targetVelocity);
+    }
+
+    @Test
+    void testTargetApproaching() {
+        DragIntercept solver = new DragIntercept(RANGE);
+        Translation2d robot = new Translation2d(0, 0);
+        GlobalVelocityR2 robotVelocity = new GlobalVelocityR2(0, 0);
+        Translation2d target = new Translation2d(2.5, 1);
+        GlobalVelocityR2 targetVelocity = new GlobalVelocityR2(-1, -0.5);
+        assertTrue(solver.solve(robot, robotVelocity, target, targetVelocity));
+        verify(solver, robot, robotVelocity, target, targetVelocity);
+    }
+
+    @Test
+    void testOutOfRange() {
+        DragIntercept solver = new DragIntercept(RANGE);
+        assertFalse(solver.solve(
+                new Translation2d(0, 0),
+                new GlobalVelocityR2(0, 0),
+                new Translation2d(10, 0),
+                new GlobalVelocityR2(0, 0)));
+        assertFalse(solver.valid());
+        assertEquals(1, solver.failures());
+    }
+
+    /** Closer than the shortest shot in the table, so no solution. */
+    @Test
+    void testInsideMinRange() {
+        DragIntercept solver = new DragIntercept(RANGE);
+        double d = solver.minRange() / 2;
+        assertFalse(solver.solve(
+                new Translation2d(0, 0),
+                new GlobalVelocityR2(0, 0),
+                new Translation2d(d, 0),
+                new GlobalVelocityR2(0, 0)));
+        assertFalse(solver.valid());
+        assertEquals(1, solver.failures());
+        // just outside is fine
+        assertTrue(solver.solve(
+                new Translation2d(0, 0),
+                new GlobalVelocityR2(0, 0),
+                new Translation2d(0.5, 0),
+                new GlobalVelocityR2(0, 0)));
+        assertTrue(solver.elevation() >= 0);
+    }
+
+    @Test
+    void testRecedingTooFast() {
+        DragIntercept solver = new DragIntercept(RANGE);
+        assertFalse(solver.solve(
+                new Translation2d(0, 0),
+                new GlobalVelocityR2(0, 0),
+                new Translation2d(2, 0),
+                new GlobalVelocityR2(5, 0)));
+    }
+
+    @Test
+    void testWarmStart() {
+        DragIntercept solver = new DragIntercept(RANGE);
+        Translation2d robot = new Translation2d(0, 0);
+        GlobalVelocityR2 robotVelocity = new GlobalVelocityR2(0.5, 1);
+        GlobalVelocityR2 targetVelocity = new GlobalVelocityR2(0, 0);
+        assertTrue(solver.solve(robot, robotVelocity, new Translation2d(2, 0), targetVelocity));
+        int cold = solver.iterations();
+        // one cycle later
+        assertTrue(solver.solve(robot, robotVelocity, new Translation2d(1.99, -0.02), targetVelocity));
+        assertTrue(solver.iterations() <= cold);
+        assertTrue(solver.iterations() <= 2);
+        assertEquals(2, solver.solves());
+    }
+
+    /** Drive past the target, solving every cycle. */
+    @Test
+    void testPerformance() {
+        DragIntercept solver = new DragIntercept(RANGE);
+        int n = 100000;
+        double dt = 0.02;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            // back and forth
+            double y = 1.5 * Math.sin(i * dt / 2);
+            double vy = 0.75 * Math.cos(i * dt / 2);
+            solver.solve(1.2, -y, 0, -vy);
+        }
+        long t1 = System.nanoTime();
+        assertEquals(0, solver.failures());
+        assertTrue(solver.maxIterations() <= 4);
+        if (DEBUG) {
+            System.out.printf("solve (ns) %.0f mean iterations %.3f max %d\n",
+                    (double) (t1 - t0) / n, solver.meanIterations(), solver.maxIterations());
+        }
+    }
+}
@@ -156,6 +156,35 @@ class Trajectory100Test implements Timeless{
 
     }
 
+    /** The window matches sample(), with or without a good hint. */
+    @Test
+    void testSampleWindow() {
+        List<HolonomicPose2d> waypoints = List.of(
+                new HolonomicPose2d(new Translation2d(), Rotation2d.kZero, Rotation2d.kZero),
+                new HolonomicPose2d(new Translation2d(1, 0), Rotation2d.kCCW_Pi_2, Rotation2d.kZero));
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.forTest3(logger);
+        List<TimingConstraint> constraints = new TimingConstraintFactory(limits).fast(logger);
+        TrajectoryPlanner planner = new TrajectoryPlanner(constraints);
+        Trajectory100 trajectory = planner.restToRest(waypoints);
+
+        TimedPose[] window = new TimedPose[5];
+        int hint = 0;
+        // forward, including before the start and after the end
+        for (double t = -0.1; t < 1.7; t += 0.013) {
+            hint = trajectory.sample(t, 0.02, hint, window);
+            for (int k = 0; k < window.length; ++k) {
+                assertEquals(trajectory.sample(t + k * 0.02).toString(), window[k].toString());
+            }
+        }
+        // backward, the hint is always too far along
+        for (double t = 1.7; t > -0.1; t -= 0.013) {
+            hint = trajectory.sample(t, 0.02, hint, window);
+            for (int k = 0; k < window.length; ++k) {
+                assertEquals(trajectory.sample(t + k * 0.02).toString(), window[k].toString());
+            }
+        }
+    }
+
     /** Does the index help? No. */
     // There's no need to run this all the time
     // @Test
@@ -0,0 +1,75 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.HolonomicPose2d;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class TrajectoryCacheTest {
+    private static final TrajectoryPlanner planner = new TrajectoryPlanner(new ArrayList<>());
+
+    private static Trajectory100 toOrigin(Pose2d p) {
+        return planner.restToRest(List.of(
+                HolonomicPose2d.make(p, Math.PI),
+                HolonomicPose2d.make(0, 0, 0, Math.PI)));
+    }
+
+    @Test
+    void testCached() {
+        TrajectoryCache cache = new TrajectoryCache();
+        Pose2d start = new Pose2d(2, 0, Rotation2d.kZero);
+        Function<Pose2d, Trajectory100> f = cache.add("a", start, TrajectoryCacheTest::toOrigin);
+        // not ready yet, so it plans
+        assertNotSame(f.apply(start), f.apply(start));
+        assertEquals(0, cache.hits());
+        assertEquals(2, cache.misses());
+        cache.precompute();
+        assertEquals(1, cache.size());
+        assertTrue(cache.readyS() >= 0);
+        assertTrue(cache.bytes() > 0);
+        // close to the start, so the same one every time
+        Trajectory100 t = f.apply(start);
+        assertSame(t, f.apply(new Pose2d(2.05, 0, Rotation2d.kZero)));
+        // too far away, so plan from here
+        Trajectory100 far = f.apply(new Pose2d(3, 0, Rotation2d.kZero));
+        assertNotSame(t, far);
+        assertEquals(3, far.getPoint(0).state().getPose().translation().getX(), 1e-6);
+        assertEquals(2, cache.hits());
+        assertEquals(3, cache.misses());
+    }
+
+    @Test
+    void testParallel() {
+        TrajectoryCache cache = new TrajectoryCache();
+        List<Function<Pose2d, Trajectory100>> fns = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            fns.add(cache.add("t" + i, new Pose2d(1 + i, 1, Rotation2d.kZero),
+                    TrajectoryCacheTest::toOrigin));
+        }
+        cache.precompute();
+        assertEquals(10, cache.size());
+        for (int i = 0; i < 10; ++i) {
+            Pose2d start = new Pose2d(1 + i, 1, Rotation2d.kZero);
+            assertSame(fns.get(i).apply(start), fns.get(i).apply(start));
+        }
+    }
+
+    @Test
+    void testDuplicate() {
+        TrajectoryCache cache = new TrajectoryCache();
+        cache.add("a", Pose2d.kZero, TrajectoryCacheTest::toOrigin);
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.add("a", Pose2d.kZero, TrajectoryCacheTest::toOrigin));
+    }
+}
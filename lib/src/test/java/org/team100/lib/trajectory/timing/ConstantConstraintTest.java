@@ -2,6 +2,7 @@ package org.team100.lib.trajectory.timing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.team100.lib.geometry.HolonomicPose2d;
 import org.team100.lib.geometry.Pose2dWithMotion;
@@ -9,11 +10,20 @@ import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.TestLoggerFactory;
 import org.team100.lib.logging.primitive.TestPrimitiveLogger;
 import org.team100.lib.testing.Timeless;
+import org.team100.lib.tuning.Mutable;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
 
 public class ConstantConstraintTest implements Timeless {
     private static final double DELTA = 0.001;
     private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
 
+    @AfterEach
+    void cleanup() {
+        Mutable.unpublishAll();
+    }
+
     @Test
     void testVelocity() {
         ConstantConstraint c = new ConstantConstraint(logger, 2, 3);
@@ -32,4 +42,22 @@ public class ConstantConstraintTest implements Timeless {
 
     }
 
+    /** The snapshot keeps the old value when the Mutable changes. */
+    @Test
+    void testSnapshot() {
+        ConstantConstraint c = new ConstantConstraint(logger, 2, 3);
+        TimingConstraint snapshot = c.snapshot();
+        Pose2dWithMotion state = new Pose2dWithMotion(
+                HolonomicPose2d.make(0, 0, 0, 0), 0, 0, 0);
+        int generation = Mutable.generation();
+        DoublePublisher pub = NetworkTableInstance.getDefault()
+                .getDoubleTopic(logger.type(c).root("maxV")).publish();
+        pub.set(5);
+        stepTime();
+        assertEquals(generation + 1, Mutable.generation());
+        assertEquals(5, c.getMaxVelocity(state).getValue(), DELTA);
+        assertEquals(2, snapshot.getMaxVelocity(state).getValue(), DELTA);
+        assertEquals(3, snapshot.getMinMaxAcceleration(state, 1).getMaxAccel(), DELTA);
+        pub.close();
+    }
 }
@@ -0,0 +1,101 @@
+package org.team100.lib.tuning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.team100.lib.framework.BackgroundExecutor;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+class MutableTest {
+    private static final double DELTA = 0.001;
+    private static final LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    @AfterEach
+    void cleanup() {
+        Mutable.unpublishAll();
+    }
+
+    /** Changes are applied by updateAll(), and only the changed consumer is called. */
+    @Test
+    void testBatch() {
+        List<Double> a = new ArrayList<>();
+        List<Double> b = new ArrayList<>();
+        Mutable ma = new Mutable(log, "batch a", 1, a::add);
+        Mutable mb = new Mutable(log, "batch b", 2, b::add);
+        assertEquals(1, ma.getAsDouble(), DELTA);
+        assertEquals(2, mb.getAsDouble(), DELTA);
+
+        DoublePublisher pub = NetworkTableInstance.getDefault()
+                .getDoubleTopic(log.root("batch a")).publish();
+        pub.set(3);
+        pub.set(4);
+        // nothing happens until the batch
+        assertEquals(1, ma.getAsDouble(), DELTA);
+        assertEquals(0, a.size());
+
+        Mutable.updateAll();
+        assertEquals(4, ma.getAsDouble(), DELTA);
+        assertEquals(2, mb.getAsDouble(), DELTA);
+        // called once, with the latest value
+        assertEquals(1, a.size());
+        assertEquals(4, a.get(0), DELTA);
+        assertEquals(0, b.size());
+
+        // no changes, no calls
+        Mutable.updateAll();
+        assertEquals(1, a.size());
+        pub.close();
+    }
+
+    /** Changed values are saved, and used instead of the default next time. */
+    @Test
+    void testPersist(@TempDir Path dir) throws IOException, InterruptedException {
+        Path file = dir.resolve("mutables.properties");
+        Mutable.persistTo(file);
+        Mutable m = new Mutable(log, "persist", 1);
+        DoublePublisher pub = NetworkTableInstance.getDefault()
+                .getDoubleTopic(log.root("persist")).publish();
+        pub.set(5);
+        Mutable.updateAll();
+        assertEquals(5, m.getAsDouble(), DELTA);
+        awaitBackground();
+        assertTrue(Files.exists(file));
+        Properties saved = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            saved.load(in);
+        }
+        assertEquals("5.0", saved.getProperty(log.root("persist")));
+        pub.close();
+
+        // start over, as if the robot restarted
+        Mutable.unpublishAll();
+        Mutable.persistTo(file);
+        Mutable m2 = new Mutable(log, "persist", 1);
+        assertEquals(5, m2.getAsDouble(), DELTA);
+    }
+
+    /** Deferrable tasks run in order on one thread, so when this runs, the save is done. */
+    private static void awaitBackground() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        BackgroundExecutor.instance.submit("test", done::countDown);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,97 @@
+package org.team100.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.Centroid2d;
+import org.team100.lib.geometry.Near2d;
+import org.team100.lib.targeting.ObjectPicker;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+public class CoalescingGrid2dTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void testSimple() {
+        CoalescingGrid2d c = new CoalescingGrid2d(5, 1);
+        assertTrue(c.nearest(new Translation2d()).isEmpty());
+        c.add(0.0, new Translation2d(10, 0));
+        assertEquals(1, c.size());
+        c.add(1.0, new Translation2d(20, 0));
+        assertEquals(2, c.size());
+        // near 10
+        c.add(2.0, new Translation2d(10.5, 0));
+        assertEquals(2, c.size());
+        assertEquals(10.25, c.nearest(new Translation2d(9, 0)).get().getX(), DELTA);
+        // combines with the near one, and also expires the other one
+        c.add(10.0, new Translation2d(10.5, 0));
+        assertEquals(1, c.size());
+        assertEquals(10.375, c.getAll().get(0).getX(), DELTA);
+    }
+
+    /** Same contents as the brute-force version, for random inputs. */
+    @Test
+    void testMatchesCoalescingCollection() {
+        final double threshold = 0.15;
+        CoalescingCollection<Translation2d> expected = new CoalescingCollection<>(
+                new TrailingHistory<>(1.0),
+                new Near2d(threshold),
+                new Centroid2d());
+        CoalescingGrid2d actual = new CoalescingGrid2d(1.0, threshold);
+        Random random = new Random(0);
+        double time = 0;
+        for (int i = 0; i < 2000; ++i) {
+            time += 0.02 * random.nextDouble();
+            // a small field, so there are lots of collisions.
+            Translation2d t = new Translation2d(
+                    2 * random.nextDouble() - 1,
+                    2 * random.nextDouble() - 1);
+            expected.add(time, t);
+            actual.add(time, t);
+            assertEquals(expected.size(), actual.size());
+
+            List<Translation2d> e = sorted(expected.getAll());
+            List<Translation2d> a = sorted(actual.getAll());
+            for (int j = 0; j < e.size(); ++j) {
+                assertEquals(e.get(j).getX(), a.get(j).getX(), DELTA);
+                assertEquals(e.get(j).getY(), a.get(j).getY(), DELTA);
+            }
+
+            Pose2d robot = new Pose2d(
+                    4 * random.nextDouble() - 2,
+                    4 * random.nextDouble() - 2,
+                    Rotation2d.kZero);
+            Optional<Translation2d> en = ObjectPicker.closestObject(expected.getAll(), robot);
+            Optional<Translation2d> an = ObjectPicker.closestObject(actual, robot);
+            assertEquals(
+                    en.get().getDistance(robot.getTranslation()),
+                    an.get().getDistance(robot.getTranslation()),
+                    DELTA);
+        }
+    }
+
+    /** A far-away target is found even if the grid is sparse. */
+    @Test
+    void testNearestFar() {
+        CoalescingGrid2d c = new CoalescingGrid2d(1.0, 0.15);
+        c.add(0, new Translation2d(8, 4));
+        assertEquals(8, c.nearest(new Translation2d()).get().getX(), DELTA);
+    }
+
+    private static List<Translation2d> sorted(List<Translation2d> list) {
+        List<Translation2d> result = new ArrayList<>(list);
+        result.sort(Comparator.comparingDouble(Translation2d::getX)
+                .thenComparingDouble(Translation2d::getY));
+        return result;
+    }
+}
@@ -1,15 +1,21 @@
 package org.team100.lib.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
 public class TrailingHistoryTest {
+    private static final boolean DEBUG = false;
+
     /** Verify presence but not order */
     void check(TrailingHistory<String> h, String... expected) {
         List<String> actual = h.getAll();
@@ -36,6 +42,19 @@ public class TrailingHistoryTest {
         check(h, "two");
     }
 
+    @Test
+    void testEvictWithoutAdding() {
+        TrailingHistory<String> h = new TrailingHistory<>(1);
+        h.add(0, "zero");
+        h.add(0.5, "one half");
+        h.evict(0.75);
+        check(h, "zero", "one half");
+        h.evict(1.25);
+        check(h, "one half");
+        h.evict(2);
+        assertEquals(0, h.size());
+    }
+
     @Test
     void testNonEviction() {
         TrailingHistory<String> h = new TrailingHistory<>(1);
@@ -53,4 +72,114 @@ public class TrailingHistoryTest {
         h.add(0, "zero");
         check(h, "two", "zero");
     }
+
+    @Test
+    void testValues() {
+        TrailingHistory<String> h = new TrailingHistory<>(1);
+        h.add(0, "zero");
+        h.add(0.5, "one half");
+        String[] a = new String[4];
+        // big enough, so no allocation
+        assertSame(a, h.values(a));
+        assertEquals("zero", a[0]);
+        assertEquals("one half", a[1]);
+        // too small, so grow
+        String[] b = h.values(new String[1]);
+        assertNotSame(a, b);
+        assertEquals(4, b.length);
+        assertEquals("one half", b[1]);
+        // evict, and the stale entry past size() is ignored
+        h.add(1.2, "one point two");
+        h.values(a);
+        assertEquals(2, h.size());
+        assertEquals("one half", a[0]);
+        assertEquals("one point two", a[1]);
+    }
+
+    /** Entries are kept in time order, even if they arrive out of order. */
+    @Test
+    void testTimeOrder() {
+        TrailingHistory<String> h = new TrailingHistory<>(1);
+        h.add(0.2, "b");
+        h.add(0.1, "a");
+        h.add(0.3, "c");
+        assertEquals("a", h.get(0));
+        assertEquals("b", h.get(1));
+        assertEquals("c", h.get(2));
+        assertEquals(0.1, h.time(0));
+        // evicts a and b, even though a arrived second.
+        h.add(1.25, "d");
+        assertEquals(List.of("c", "d"), h.getAll());
+    }
+
+    /** Wrap around the ring and grow, many times. */
+    @Test
+    void testRing() {
+        // binary fractions, so the horizon is exact.
+        TrailingHistory<Integer> h = new TrailingHistory<>(100.0 / 64);
+        for (int i = 0; i < 1000; ++i) {
+            // the window grows to 101 entries and then slides.
+            h.add(i / 64.0, i);
+            int oldest = Math.max(0, i - 100);
+            assertEquals(oldest, h.get(0).intValue());
+            assertEquals(i, h.get(h.size() - 1).intValue());
+            Integer[] a = h.values(new Integer[0]);
+            for (int j = 0; j < h.size(); ++j) {
+                assertEquals(oldest + j, a[j].intValue());
+            }
+        }
+    }
+
+    @Test
+    void testRemoveIf() {
+        TrailingHistory<Integer> h = new TrailingHistory<>(10);
+        for (int i = 0; i < 20; ++i) {
+            h.add(0.1 * i, i);
+        }
+        List<Integer> removed = new ArrayList<>();
+        h.removeIf(x -> {
+            if (x % 3 != 0)
+                return false;
+            removed.add(x);
+            return true;
+        });
+        assertEquals(List.of(0, 3, 6, 9, 12, 15, 18), removed);
+        assertEquals(13, h.size());
+        assertEquals(1, h.get(0).intValue());
+        assertEquals(19, h.get(12).intValue());
+        // still in order for eviction
+        h.add(11.05, 100);
+        assertEquals(List.of(11, 13, 14, 16, 17, 19, 100), h.getAll());
+    }
+
+    /**
+     * Realistic vision load: four cameras at 50 Hz, each seeing two or three
+     * tags, with different latencies, so the timestamps are slightly out of
+     * order, in a one-second window, read once per 20 ms cycle.
+     */
+    @Test
+    void testPerformance() {
+        TrailingHistory<String> h = new TrailingHistory<>(1);
+        String[] snapshot = new String[0];
+        Random random = new Random(0);
+        String tag = "tag";
+        int cycles = 100000;
+        long t0 = System.nanoTime();
+        for (int cycle = 0; cycle < cycles; ++cycle) {
+            double now = 0.02 * cycle;
+            for (int camera = 0; camera < 4; ++camera) {
+                double frameTime = now - 0.03 - 0.01 * camera * random.nextDouble();
+                int tags = 2 + random.nextInt(2);
+                for (int i = 0; i < tags; ++i) {
+                    h.add(frameTime, tag);
+                }
+            }
+            snapshot = h.values(snapshot);
+        }
+        long t1 = System.nanoTime();
+        // about 200 frames per second, 2.5 tags each
+        assertTrue(h.size() > 400 && h.size() < 600);
+        if (DEBUG)
+            System.out.printf("per cycle (ns) %.0f size %d\n", (double) (t1 - t0) / cycles, h.size());
+    }
 }
@@ -0,0 +1,69 @@
+package org.team100.lib.visualization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class TrajectoryVisualizationTest {
+
+    @Test
+    void testStraightLine() {
+        // collinear points collapse to the ends.
+        double[] x = { 0, 1, 2, 3, 4 };
+        double[] y = { 0, 0, 0, 0, 0 };
+        boolean[] keep = TrajectoryVisualization.decimate(x, y, 0.01);
+        assertArrayEquals(new boolean[] { true, false, false, false, true }, keep);
+    }
+
+    @Test
+    void testCorner() {
+        // the corner is kept, the rest are dropped.
+        double[] x = { 0, 1, 2, 2, 2 };
+        double[] y = { 0, 0, 0, 1, 2 };
+        boolean[] keep = TrajectoryVisualization.decimate(x, y, 0.01);
+        assertArrayEquals(new boolean[] { true, false, true, false, true }, keep);
+    }
+
+    @Test
+    void testZeroTolerance() {
+        double[] x = { 0, 1, 2 };
+        double[] y = { 0, 0, 0 };
+        boolean[] keep = TrajectoryVisualization.decimate(x, y, 0);
+        assertArrayEquals(new boolean[] { true, true, true }, keep);
+    }
+
+    @Test
+    void testBounded() {
+        // a long circular arc: the error from every dropped point is within
+        // tolerance of the kept polyline, and most points are dropped.
+        int n = 1000;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            double theta = Math.PI * i / (n - 1);
+            x[i] = 5 * Math.cos(theta);
+            y[i] = 5 * Math.sin(theta);
+        }
+        double tolerance = 0.02;
+        boolean[] keep = TrajectoryVisualization.decimate(x, y, tolerance);
+        int kept = 0;
+        int prev = 0;
+        for (int i = 1; i < n; ++i) {
+            if (!keep[i])
+                continue;
+            kept++;
+            // check the dropped points between prev and i
+            double dx = x[i] - x[prev];
+            double dy = y[i] - y[prev];
+            double len = Math.hypot(dx, dy);
+            for (int j = prev + 1; j < i; ++j) {
+                double d = Math.abs(dy * (x[j] - x[prev]) - dx * (y[j] - y[prev])) / len;
+                assertEquals(0, d, tolerance);
+            }
+            prev = i;
+        }
+        assertEquals(n - 1, prev);
+        assertEquals(32, kept);
+    }
+}
@@ -3,13 +3,12 @@ package frc.robot;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import org.team100.lib.controller.drivetrain.ReferenceController;
 import org.team100.lib.controller.drivetrain.SwerveController;
 import org.team100.lib.controller.drivetrain.SwerveControllerFactory;
+import org.team100.lib.framework.BackgroundExecutor;
+import org.team100.lib.framework.BackgroundExecutor.Urgency;
 import org.team100.lib.geometry.HolonomicPose2d;
 import org.team100.lib.localization.AprilTagFieldLayoutWithCorrectOrientation;
 import org.team100.lib.localization.SwerveDrivePoseEstimator100;
@@ -45,7 +44,6 @@ public class Robot extends TimedRobot {
     SwerveController holonomicController;
     ReferenceController m_referenceController;
     SwerveModuleCollection m_modules;
-    ScheduledExecutorService m_initializer;
 
     public Robot() {
         Logging logging = Logging.instance();
@@ -97,9 +95,8 @@ public class Robot extends TimedRobot {
             holonomicController = SwerveControllerFactory.byIdentity(log);
             m_planner = new TrajectoryPlanner(new TimingConstraintFactory(swerveKinodynamics).medium());
 
-            m_initializer = Executors.newSingleThreadScheduledExecutor();
-            m_initializer.schedule(this::initStuff, 0, TimeUnit.SECONDS);
-            m_initializer.schedule(System::gc, 3, TimeUnit.SECONDS);
+            BackgroundExecutor.instance.submit("init", this::initStuff);
+            BackgroundExecutor.instance.schedule("gc", System::gc, 3, Urgency.DEFERRABLE);
 
         } catch (IOException e) {
             e.printStackTrace();